@@ -25,10 +25,10 @@ import timber.log.Timber;
 public final class Mapbox {
 
   @SuppressLint("StaticFieldLeak")
-  private static Mapbox INSTANCE;
+  private static volatile Mapbox INSTANCE;
   private Context context;
   private String accessToken;
-  private Boolean connected;
+  private volatile Boolean connected;
 
   /**
    * Get an instance of Mapbox.
@@ -96,14 +96,25 @@ public final class Mapbox {
   /**
    * Determines whether we have an internet connection available. Please do not rely on this
    * method in your apps. This method is used internally by the SDK.
+   * <p>
+   * This method doesn't lock and, while a map is started, doesn't query the ConnectivityManager either.
+   * The state is kept up to date by connectivity broadcasts instead.
+   * </p>
    *
    * @return true if there is an internet connection, false otherwise
    */
-  public static synchronized Boolean isConnected() {
+  public static Boolean isConnected() {
     validateMapbox();
-    if (INSTANCE.connected != null) {
+    Boolean connected = INSTANCE.connected;
+    if (connected != null) {
       // Connectivity state overridden by app
-      return INSTANCE.connected;
+      return connected;
+    }
+
+    connected = ConnectivityReceiver.getCachedConnectivityState();
+    if (connected != null) {
+      // Connectivity state as last broadcasted by the system
+      return connected;
     }
 
     ConnectivityManager cm = (ConnectivityManager) INSTANCE.context.getSystemService(Context.CONNECTIVITY_SERVICE);
@@ -1,25 +1,64 @@
 package com.mapbox.mapboxsdk.annotations;
 
 import android.support.annotation.Keep;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
+import com.mapbox.mapboxsdk.constants.GeometryConstants;
 import com.mapbox.mapboxsdk.geometry.LatLng;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * Multipoint is an abstract annotation for combining geographical locations.
+ * <p>
+ * Points are stored packed as latitude and longitude pairs, which the map reads in a single pass. Use
+ * {@link #setCoordinates(double[])} and {@link #getCoordinates()} to work with large geometries without creating a
+ * {@link LatLng} per point.
+ * </p>
+ * <p>
+ * The store is a ring buffer, so points can be removed from the start without moving the others. Points added and
+ * removed at the ends since the map was last updated are tracked, which lets the map apply them as a delta.
+ * </p>
  */
 public abstract class BasePointCollection extends Annotation {
 
+  private static final int MIN_CAPACITY = 16;
+
+  // ring buffer of latitude and longitude pairs, starting at firstPoint
+  @Keep
+  private double[] coordinates;
   @Keep
-  private List<LatLng> points;
+  private int firstPoint;
+  @Keep
+  private int pointCount;
+
+  // changes since the map was last updated
+  private int appendedPoints;
+  private int trimmedPoints;
+  private boolean geometryChanged = true;
+  // simplified points sent to the map instead of the full geometry, null to send all points
+  @Keep
+  private double[] renderedCoordinates;
   @Keep
   private float alpha = 1.0f;
+  private boolean simplified;
+  private int geometryVersion;
+  // changes when the points are replaced, with the points removed from the start since
+  private int baseVersion;
+  private int removedPoints;
+
+  // south, west, north and east of the points, extended as points are added
+  private final double[] bounds = new double[4];
+  private boolean boundsValid;
+  // points removed from the start since the bounds were computed, the bounds may still include them
+  private int boundsTrimmedPoints;
 
   protected BasePointCollection() {
     super();
-    points = new ArrayList<>();
+    coordinates = new double[0];
   }
 
   /**
@@ -28,7 +67,13 @@ public abstract class BasePointCollection extends Annotation {
    * @return A {@link List} of points.
    */
   public List<LatLng> getPoints() {
-    return new ArrayList<>(points);
+    List<LatLng> points = new ArrayList<>(pointCount);
+    int capacity = coordinates.length / 2;
+    for (int i = 0; i < pointCount; i++) {
+      int index = (firstPoint + i) % capacity;
+      points.add(new LatLng(coordinates[index * 2], coordinates[index * 2 + 1]));
+    }
+    return points;
   }
 
   /**
@@ -38,7 +83,14 @@ public abstract class BasePointCollection extends Annotation {
    * @param points A {@link List} of {@link LatLng} points making up the polyline.
    */
   public void setPoints(List<LatLng> points) {
-    this.points = new ArrayList<>(points);
+    coordinates = toCoordinates(points);
+    firstPoint = 0;
+    pointCount = points.size();
+    removedPoints = 0;
+    baseVersion++;
+    boundsValid = false;
+    geometryChanged = true;
+    geometryVersion++;
     update();
   }
 
@@ -48,10 +100,140 @@ public abstract class BasePointCollection extends Annotation {
    * @param point A {@link LatLng} point to be added.
    */
   public void addPoint(LatLng point) {
-    points.add(point);
+    ensureCapacity(pointCount + 1);
+    int index = (firstPoint + pointCount) % (coordinates.length / 2);
+    coordinates[index * 2] = point.getLatitude();
+    coordinates[index * 2 + 1] = point.getLongitude();
+    includeInBounds(point.getLatitude(), point.getLongitude());
+    pointCount++;
+    appendedPoints++;
+    geometryVersion++;
+    update();
+  }
+
+  /**
+   * Add points from coordinates packed as latitude and longitude pairs.
+   *
+   * @param coordinates the latitude and longitude of each point, one after the other.
+   */
+  void addCoordinates(@NonNull double[] coordinates) {
+    checkCoordinates(coordinates);
+    int count = coordinates.length / 2;
+    ensureCapacity(pointCount + count);
+    int capacity = this.coordinates.length / 2;
+    int start = (firstPoint + pointCount) % capacity;
+    int head = Math.min(count, capacity - start);
+    System.arraycopy(coordinates, 0, this.coordinates, start * 2, head * 2);
+    System.arraycopy(coordinates, head * 2, this.coordinates, 0, (count - head) * 2);
+    for (int i = 0; i < coordinates.length; i += 2) {
+      includeInBounds(coordinates[i], coordinates[i + 1]);
+    }
+    pointCount += count;
+    appendedPoints += count;
+    geometryVersion++;
+    update();
+  }
+
+  /**
+   * Remove points from the start.
+   *
+   * @param count the number of points to remove.
+   */
+  void removeFirstPoints(int count) {
+    if (count < 0) {
+      throw new IllegalArgumentException("count must not be negative");
+    }
+    count = Math.min(count, pointCount);
+    if (count == 0) {
+      return;
+    }
+    if (count > pointCount - appendedPoints) {
+      // points the map never received are removed, send the whole geometry instead
+      geometryChanged = true;
+    } else {
+      trimmedPoints += count;
+    }
+    firstPoint = (firstPoint + count) % (coordinates.length / 2);
+    pointCount -= count;
+    removedPoints += count;
+    // shrink the bounds once more points were removed than are left, keeping trims amortized constant time
+    boundsTrimmedPoints += count;
+    if (boundsTrimmedPoints > pointCount) {
+      boundsValid = false;
+    }
+    geometryVersion++;
+    update();
+  }
+
+  /**
+   * Returns the number of points.
+   *
+   * @return the number of points.
+   */
+  public int getPointCount() {
+    return pointCount;
+  }
+
+  /**
+   * Returns a copy of the points, packed as latitude and longitude pairs.
+   *
+   * @return the coordinates, twice as long as the number of points.
+   */
+  @NonNull
+  public double[] getCoordinates() {
+    return copyCoordinates(0, pointCount);
+  }
+
+  /**
+   * Returns a copy of a range of the points, packed as latitude and longitude pairs.
+   *
+   * @param from  the index of the first point.
+   * @param count the number of points.
+   * @return the coordinates, twice as long as the number of points.
+   */
+  @NonNull
+  public double[] getCoordinates(int from, int count) {
+    if (from < 0 || count < 0 || from + count > pointCount) {
+      throw new IndexOutOfBoundsException("Points " + from + " to " + (from + count) + " of " + pointCount);
+    }
+    return copyCoordinates(from, count);
+  }
+
+  /**
+   * Sets the points from coordinates packed as latitude and longitude pairs. This method will take a copy of the
+   * coordinates, so further mutations to the array will have no effect on this annotation.
+   *
+   * @param coordinates the latitude and longitude of each point, one after the other.
+   */
+  public void setCoordinates(@NonNull double[] coordinates) {
+    checkCoordinates(coordinates);
+    this.coordinates = coordinates.clone();
+    firstPoint = 0;
+    pointCount = coordinates.length / 2;
+    removedPoints = 0;
+    baseVersion++;
+    boundsValid = false;
+    geometryChanged = true;
+    geometryVersion++;
     update();
   }
 
+  /**
+   * Do not use this method, used internally by the SDK.
+   * <p>
+   * The bounds are kept up to date as points are added, they may still include points recently removed from the
+   * start.
+   * </p>
+   *
+   * @param bounds receives the south, west, north and east of the points, undefined without points.
+   */
+  public void getCoordinateBounds(@NonNull double[] bounds) {
+    if (!boundsValid) {
+      computeBounds();
+    }
+    System.arraycopy(this.bounds, 0, bounds, 0, 4);
+  }
+
   /**
    * Value between 0 and 1 defining the polyline alpha.
    *
@@ -68,8 +250,180 @@ public abstract class BasePointCollection extends Annotation {
    */
   public void setAlpha(float alpha) {
     this.alpha = alpha;
+    geometryChanged = true;
     update();
   }
 
+  /**
+   * Do not use this method, used internally by the SDK.
+   *
+   * @return the coordinates of the points added at the end since the map was last updated, or null if the map needs
+   * the whole annotation.
+   */
+  @Nullable
+  public double[] getAppendedCoordinates() {
+    if (geometryChanged || renderedCoordinates != null) {
+      return null;
+    }
+    return copyCoordinates(pointCount - appendedPoints, appendedPoints);
+  }
+
+  /**
+   * Do not use this method, used internally by the SDK.
+   *
+   * @return the number of points removed from the start since the map was last updated.
+   */
+  public int getTrimmedPointCount() {
+    return trimmedPoints;
+  }
+
+  /**
+   * Do not use this method, used internally by the SDK.
+   * <p>
+   * Marks the annotation as sent to the map, changes are tracked from here on.
+   * </p>
+   */
+  public void onMapUpdated() {
+    appendedPoints = 0;
+    trimmedPoints = 0;
+    geometryChanged = false;
+  }
+
+  /**
+   * Returns true if the geometry sent to the map is simplified depending on the zoom level.
+   *
+   * @return true if the geometry is simplified.
+   */
+  public boolean isSimplified() {
+    return simplified;
+  }
+
+  void setSimplified(boolean simplified) {
+    this.simplified = simplified;
+  }
+
+  /**
+   * Do not use this method, used internally by the SDK.
+   *
+   * @param coordinates the simplified coordinates to send to the map, null to send all points.
+   */
+  public void setRenderedCoordinates(@Nullable double[] coordinates) {
+    renderedCoordinates = coordinates;
+    geometryChanged = true;
+  }
+
+  /**
+   * Do not use this method, used internally by the SDK.
+   *
+   * @return a number changing every time the points change.
+   */
+  public int getGeometryVersion() {
+    return geometryVersion;
+  }
+
+  /**
+   * Do not use this method, used internally by the SDK.
+   *
+   * @return a number changing every time the points are replaced, but not when points are added at the end or
+   * removed from the start.
+   */
+  public int getBaseVersion() {
+    return baseVersion;
+  }
+
+  /**
+   * Do not use this method, used internally by the SDK.
+   *
+   * @return the number of points removed from the start since the points were last replaced.
+   */
+  public int getRemovedPointCount() {
+    return removedPoints;
+  }
+
+  /**
+   * Marks the annotation as changed beyond its points, so the map needs the whole annotation.
+   */
+  void invalidate() {
+    geometryChanged = true;
+  }
+
   abstract void update();
+
+  private void computeBounds() {
+    bounds[0] = Double.POSITIVE_INFINITY;
+    bounds[1] = Double.POSITIVE_INFINITY;
+    bounds[2] = Double.NEGATIVE_INFINITY;
+    bounds[3] = Double.NEGATIVE_INFINITY;
+    boundsValid = true;
+    boundsTrimmedPoints = 0;
+    int capacity = coordinates.length / 2;
+    for (int i = 0; i < pointCount; i++) {
+      int index = (firstPoint + i) % capacity;
+      includeInBounds(coordinates[index * 2], coordinates[index * 2 + 1]);
+    }
+  }
+
+  private void includeInBounds(double latitude, double longitude) {
+    if (boundsValid) {
+      bounds[0] = Math.min(bounds[0], latitude);
+      bounds[1] = Math.min(bounds[1], longitude);
+      bounds[2] = Math.max(bounds[2], latitude);
+      bounds[3] = Math.max(bounds[3], longitude);
+    }
+  }
+
+  private double[] copyCoordinates(int from, int count) {
+    double[] copy = new double[count * 2];
+    if (count == 0) {
+      return copy;
+    }
+    int capacity = coordinates.length / 2;
+    int start = (firstPoint + from) % capacity;
+    int head = Math.min(count, capacity - start);
+    System.arraycopy(coordinates, start * 2, copy, 0, head * 2);
+    System.arraycopy(coordinates, 0, copy, head * 2, (count - head) * 2);
+    return copy;
+  }
+
+  private void ensureCapacity(int points) {
+    if (coordinates.length >= points * 2) {
+      return;
+    }
+    // unwrap the ring while growing it
+    double[] grown = copyCoordinates(0, pointCount);
+    coordinates = Arrays.copyOf(grown, Math.max(points * 2, Math.max(MIN_CAPACITY, coordinates.length * 2)));
+    firstPoint = 0;
+  }
+
+  static double[] toCoordinates(List<LatLng> points) {
+    double[] coordinates = new double[points.size() * 2];
+    for (int i = 0; i < points.size(); i++) {
+      LatLng point = points.get(i);
+      coordinates[i * 2] = point.getLatitude();
+      coordinates[i * 2 + 1] = point.getLongitude();
+    }
+    return coordinates;
+  }
+
+  static List<LatLng> toLatLngs(double[] coordinates, int offset, int count) {
+    List<LatLng> points = new ArrayList<>(count);
+    for (int i = offset; i < offset + count; i++) {
+      points.add(new LatLng(coordinates[i * 2], coordinates[i * 2 + 1]));
+    }
+    return points;
+  }
+
+  static void checkCoordinates(double[] coordinates) {
+    if (coordinates.length % 2 != 0) {
+      throw new IllegalArgumentException("coordinates must hold latitude and longitude pairs");
+    }
+    for (int i = 0; i < coordinates.length; i += 2) {
+      if (Double.isNaN(coordinates[i]) || Math.abs(coordinates[i]) > GeometryConstants.MAX_LATITUDE) {
+        throw new IllegalArgumentException("latitude must be between -90 and 90");
+      }
+      if (Double.isNaN(coordinates[i + 1]) || Double.isInfinite(coordinates[i + 1])) {
+        throw new IllegalArgumentException("longitude must not be NaN or infinite");
+      }
+    }
+  }
 }
@@ -0,0 +1,45 @@
+package com.mapbox.mapboxsdk.annotations;
+
+import android.support.annotation.Nullable;
+
+import com.mapbox.mapboxsdk.geometry.LatLng;
+
+/**
+ * Marker standing for markers close to each other at the current zoom level, when markers are clustered with
+ * {@link MarkerClusterOptions}.
+ * <p>
+ * Cluster markers are created and removed by the map as it zooms, they aren't listed in the markers of the map.
+ * Clicking a cluster marker zooms the map in until it expands, unless the click is consumed by a
+ * {@link com.mapbox.mapboxsdk.maps.MapboxMap.OnMarkerClickListener}. The title of a cluster marker is its count.
+ * </p>
+ */
+public final class ClusterMarker extends Marker {
+
+  private final int count;
+
+  /**
+   * Do not use this constructor, used internally by the SDK.
+   *
+   * @param position the position of the cluster, at the center of its markers
+   * @param icon     the icon of the cluster, null for the default marker icon
+   * @param count    the number of markers in the cluster
+   */
+  public ClusterMarker(LatLng position, @Nullable Icon icon, int count) {
+    super(position, icon, String.valueOf(count), null);
+    this.count = count;
+  }
+
+  /**
+   * Returns the number of markers in the cluster.
+   *
+   * @return the number of markers.
+   */
+  public int getCount() {
+    return count;
+  }
+
+  @Override
+  public String toString() {
+    return "ClusterMarker [position[" + getPosition() + "], count[" + count + "]]";
+  }
+}
@@ -155,6 +155,24 @@ public class Marker extends Annotation {
     }
   }
 
+  /**
+   * Do not use this method, used internally by the SDK.
+   *
+   * @param iconId the id of the map image rendered for the icon, null to render the icon under its own id
+   */
+  public void setRenderedIconId(@Nullable String iconId) {
+    this.iconId = iconId != null ? iconId : icon != null ? icon.getId() : null;
+  }
+
+  /**
+   * Do not use this method, used internally by the SDK.
+   *
+   * @return the id of the image rendered for this marker
+   */
+  public String getRenderedIconId() {
+    return iconId;
+  }
+
   /**
    * Gets the {@link Icon} currently used for the marker. If no Icon was set for the marker, the
    * default icon will be returned.
@@ -0,0 +1,95 @@
+package com.mapbox.mapboxsdk.annotations;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * Builder class for clustering the markers of a map, see
+ * {@link com.mapbox.mapboxsdk.maps.MapboxMap#setMarkerClusterOptions(MarkerClusterOptions)}.
+ * <p>
+ * Markers close to each other on screen are replaced by a {@link ClusterMarker}, which is expanded into its markers as
+ * the map zooms in.
+ * </p>
+ */
+public class MarkerClusterOptions {
+
+  /**
+   * The largest zoom level markers can be clustered on.
+   */
+  public static final int MAX_CLUSTER_ZOOM = 20;
+
+  private int clusterRadius = 50;
+  private int clusterMaxZoom = 16;
+  @Nullable
+  private IconProvider iconProvider;
+
+  /**
+   * Radius of each cluster when clustering markers.
+   *
+   * @param clusterRadius cluster radius in density-independent pixels - Defaults to 50.
+   * @return the current instance for chaining
+   */
+  @NonNull
+  public MarkerClusterOptions withClusterRadius(int clusterRadius) {
+    if (clusterRadius < 1) {
+      throw new IllegalArgumentException("clusterRadius must be at least 1");
+    }
+    this.clusterRadius = clusterRadius;
+    return this;
+  }
+
+  /**
+   * Max zoom to cluster markers on, markers are shown individually above it.
+   *
+   * @param clusterMaxZoom cluster maximum zoom, between 0 and {@link #MAX_CLUSTER_ZOOM} - Defaults to 16.
+   * @return the current instance for chaining
+   */
+  @NonNull
+  public MarkerClusterOptions withClusterMaxZoom(int clusterMaxZoom) {
+    if (clusterMaxZoom < 0 || clusterMaxZoom > MAX_CLUSTER_ZOOM) {
+      throw new IllegalArgumentException("clusterMaxZoom must be between 0 and " + MAX_CLUSTER_ZOOM);
+    }
+    this.clusterMaxZoom = clusterMaxZoom;
+    return this;
+  }
+
+  /**
+   * Provider of the icons of cluster markers.
+   *
+   * @param iconProvider the icon provider, null to use the default marker icon - Defaults to null.
+   * @return the current instance for chaining
+   */
+  @NonNull
+  public MarkerClusterOptions withIconProvider(@Nullable IconProvider iconProvider) {
+    this.iconProvider = iconProvider;
+    return this;
+  }
+
+  public int getClusterRadius() {
+    return clusterRadius;
+  }
+
+  public int getClusterMaxZoom() {
+    return clusterMaxZoom;
+  }
+
+  @Nullable
+  public IconProvider getIconProvider() {
+    return iconProvider;
+  }
+
+  /**
+   * Interface definition for a callback providing the icon of cluster markers.
+   */
+  public interface IconProvider {
+
+    /**
+     * Called when a cluster marker is created.
+     *
+     * @param count the number of markers in the cluster
+     * @return the icon of the cluster marker, null to use the default marker icon
+     */
+    @Nullable
+    Icon getIcon(int count);
+  }
+}
@@ -1,12 +1,12 @@
 package com.mapbox.mapboxsdk.annotations;
 
 import android.content.Context;
-import android.graphics.PointF;
 import android.graphics.RectF;
 import android.os.SystemClock;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.v4.util.LongSparseArray;
+import android.view.Choreographer;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -15,9 +15,12 @@ import android.widget.ImageView;
 
 import com.mapbox.mapboxsdk.R;
 import com.mapbox.mapboxsdk.constants.MapboxConstants;
+import com.mapbox.mapboxsdk.geometry.LatLng;
 import com.mapbox.mapboxsdk.maps.MapView;
 import com.mapbox.mapboxsdk.maps.MapboxMap;
 import com.mapbox.mapboxsdk.utils.AnimatorUtils;
+import com.mapbox.mapboxsdk.utils.FrameScheduler;
+import com.mapbox.mapboxsdk.utils.LongHashSet;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -36,7 +39,14 @@ import java.util.Map;
 @Deprecated
 public class MarkerViewManager implements MapView.OnMapChangedListener {
 
+  // querying the map for the markers in the viewport is only done this often, positions are updated every frame
+  private static final long INVALIDATE_INTERVAL = 250;
+  private static final int DEFAULT_INFLATION_BUDGET = 10;
+
   private final ViewGroup markerViewContainer;
+  // null without frame callbacks
+  @Nullable
+  private final FrameScheduler frameScheduler;
   private final ViewTreeObserver.OnPreDrawListener markerViewPreDrawObserver =
     new ViewTreeObserver.OnPreDrawListener() {
       @Override
@@ -49,6 +59,14 @@ public class MarkerViewManager implements MapView.OnMapChangedListener {
   private final Map<MarkerView, View> markerViewMap = new HashMap<>();
   private final LongSparseArray<OnMarkerViewAddedListener> markerViewAddedListenerMap = new LongSparseArray<>();
   private final List<MapboxMap.MarkerViewAdapter> markerViewAdapters = new ArrayList<>();
+  private final LongHashSet visibleMarkerIds = new LongHashSet();
+  private final LongHashSet selectedMarkerIds = new LongHashSet();
+
+  // reused between frames to position all views with a single projection call
+  private final List<MarkerView> layoutMarkers = new ArrayList<>();
+  private final List<MarkerView> enteringMarkers = new ArrayList<>();
+  private double[] layoutCoordinates = new double[0];
+  private float[] layoutPositions = new float[0];
 
   // TODO refactor MapboxMap out for Projection and Transform
   // Requires removing MapboxMap from Annotations by using Peer model from #6912
@@ -58,6 +76,13 @@ public class MarkerViewManager implements MapView.OnMapChangedListener {
   private long updateTime;
   private MapboxMap.OnMarkerViewClickListener onMarkerViewClickListener;
   private boolean isWaitingForRenderInvoke;
+  private boolean frameScheduled;
+  private boolean invalidateScheduled;
+  private int viewportMargin;
+  private int viewportHysteresis;
+  private int inflationBudget = DEFAULT_INFLATION_BUDGET;
+  private int viewPoolHits;
+  private int viewPoolMisses;
 
   /**
    * Creates an instance of MarkerViewManager.
@@ -65,7 +90,18 @@ public class MarkerViewManager implements MapView.OnMapChangedListener {
    * @param container the ViewGroup associated with the MarkerViewManager
    */
   public MarkerViewManager(@NonNull ViewGroup container) {
+    this(container, FrameScheduler.getChoreographer());
+  }
+
+  MarkerViewManager(@NonNull ViewGroup container, @Nullable Choreographer choreographer) {
     this.markerViewContainer = container;
+    this.frameScheduler = choreographer != null ? new FrameScheduler(choreographer, new Runnable() {
+      @Override
+      public void run() {
+        frameScheduled = false;
+        layout();
+      }
+    }) : null;
     this.markerViewAdapters.add(new ImageMarkerViewAdapter(container.getContext()));
   }
 
@@ -187,43 +223,71 @@ public class MarkerViewManager implements MapView.OnMapChangedListener {
   /**
    * Updates the position of MarkerViews currently found in the viewport.
    * <p>
-   * The collection of {@link MarkerView} will be iterated and each item position will be updated.
+   * The collection of {@link MarkerView} will be iterated and each item position will be updated, the screen
+   * locations of all items are computed with a single projection call.
    * If an item is View state is not visible and its related flag is set to visible, the
    * {@link MarkerView} will be animated to visible using alpha animation.
    * </p>
    */
   public void updateMarkerViewsPosition() {
-    for (final MarkerView marker : markerViewMap.keySet()) {
+    for (Map.Entry<MarkerView, View> entry : markerViewMap.entrySet()) {
+      if (entry.getValue() != null) {
+        layoutMarkers.add(entry.getKey());
+      }
+    }
+    int count = layoutMarkers.size();
+    if (count == 0) {
+      return;
+    }
+
+    project(layoutMarkers);
+    for (int i = 0; i < count; i++) {
+      final MarkerView marker = layoutMarkers.get(i);
       final View convertView = markerViewMap.get(marker);
-      if (convertView != null) {
-        PointF point = mapboxMap.getProjection().toScreenLocation(marker.getPosition());
-        if (marker.getOffsetX() == MapboxConstants.UNMEASURED) {
-          // ensure view is measured first
-          // #6805 invalidate marker views to ensure convertView width and height
-          // values are properly measured and up to date
-          if (marker.getWidth() == 0 && marker.isVisible()) {
-            convertView.getViewTreeObserver().addOnPreDrawListener(markerViewPreDrawObserver);
-          }
+      if (marker.getOffsetX() == MapboxConstants.UNMEASURED) {
+        // ensure view is measured first
+        // #6805 invalidate marker views to ensure convertView width and height
+        // values are properly measured and up to date
+        if (marker.getWidth() == 0 && marker.isVisible()) {
+          convertView.getViewTreeObserver().addOnPreDrawListener(markerViewPreDrawObserver);
         }
+      }
 
-        marker.setWidth(convertView.getWidth());
-        marker.setHeight(convertView.getHeight());
+      marker.setWidth(convertView.getWidth());
+      marker.setHeight(convertView.getHeight());
 
-        if (marker.getWidth() != 0) {
-          int x = (int) (marker.getAnchorU() * marker.getWidth());
-          int y = (int) (marker.getAnchorV() * marker.getHeight());
-          marker.setOffset(x, y);
-        }
+      if (marker.getWidth() != 0) {
+        int x = (int) (marker.getAnchorU() * marker.getWidth());
+        int y = (int) (marker.getAnchorV() * marker.getHeight());
+        marker.setOffset(x, y);
+      }
 
-        convertView.setX(point.x - marker.getOffsetX());
-        convertView.setY(point.y - marker.getOffsetY());
+      convertView.setX(layoutPositions[i * 2] - marker.getOffsetX());
+      convertView.setY(layoutPositions[i * 2 + 1] - marker.getOffsetY());
 
-        // animate visibility
-        if (marker.isVisible() && convertView.getVisibility() == View.GONE) {
-          animateVisible(marker, true);
-        }
+      // animate visibility
+      if (marker.isVisible() && convertView.getVisibility() == View.GONE) {
+        animateVisible(marker, true);
       }
     }
+    layoutMarkers.clear();
+  }
+
+  /**
+   * Compute the screen locations of markers into {@link #layoutPositions} with a single projection call.
+   */
+  private void project(List<MarkerView> markers) {
+    int count = markers.size();
+    if (layoutCoordinates.length < count * 2) {
+      layoutCoordinates = new double[Math.max(count * 2, layoutCoordinates.length * 2)];
+      layoutPositions = new float[layoutCoordinates.length];
+    }
+    for (int i = 0; i < count; i++) {
+      LatLng position = markers.get(i).getPosition();
+      layoutCoordinates[i * 2] = position.getLatitude();
+      layoutCoordinates[i * 2 + 1] = position.getLongitude();
+    }
+    mapboxMap.getProjection().toScreenLocations(layoutCoordinates, layoutPositions, count);
   }
 
   /**
@@ -457,39 +521,127 @@ public class MarkerViewManager implements MapView.OnMapChangedListener {
   /**
    * Schedule that ViewMarkers found in the viewport are invalidated.
    * <p>
+   * The MarkerViews are laid out once on the next frame, however often this is called in between.
    * This method is rate limited, and {@link #invalidateViewMarkersInVisibleRegion} will only be called
-   * once each 250 ms.
+   * once each 250 ms, other frames only update the positions of the MarkerViews.
    * </p>
    */
   public void update() {
     if (enabled) {
       long currentTime = SystemClock.elapsedRealtime();
-      if (currentTime < updateTime) {
-        updateMarkerViewsPosition();
-        return;
+      if (currentTime >= updateTime) {
+        invalidateScheduled = true;
+        updateTime = currentTime + INVALIDATE_INTERVAL;
       }
+      scheduleFrame();
+    }
+  }
+
+  private void scheduleFrame() {
+    if (frameScheduler == null) {
+      layout();
+    } else if (!frameScheduled) {
+      frameScheduled = true;
+      frameScheduler.schedule();
+    }
+  }
+
+  private void layout() {
+    if (!enabled || mapboxMap == null) {
+      return;
+    }
+    if (invalidateScheduled) {
+      invalidateScheduled = false;
       invalidateViewMarkersInVisibleRegion();
-      updateTime = currentTime + 250;
+    } else {
+      updateMarkerViewsPosition();
+    }
+  }
+
+  /**
+   * Set the area around the map in which MarkerViews keep their view.
+   * <p>
+   * A MarkerView gets a view once it is within the margin around the map, and only loses it once it is further than
+   * the margin and hysteresis combined. This keeps views from being released and recreated while the map pans back and
+   * forth near a MarkerView.
+   * </p>
+   *
+   * @param marginPixels     distance around the map in pixels within which MarkerViews get a view - Defaults to 0.
+   * @param hysteresisPixels additional distance in pixels MarkerViews keep their view in - Defaults to 0.
+   */
+  public void setViewportMargin(int marginPixels, int hysteresisPixels) {
+    if (marginPixels < 0 || hysteresisPixels < 0) {
+      throw new IllegalArgumentException("Viewport margin and hysteresis can't be negative");
     }
+    viewportMargin = marginPixels;
+    viewportHysteresis = hysteresisPixels;
+  }
+
+  /**
+   * Set the amount of views created for MarkerViews entering the viewport on a single frame.
+   * <p>
+   * Further MarkerViews get their view on the next frames, to keep frames short when the map moves over many
+   * MarkerViews at once. Below API 16 there are no frame callbacks, all views are created at once.
+   * </p>
+   *
+   * @param viewsPerFrame the amount of views per frame, at least 1 - Defaults to 10.
+   */
+  public void setInflationBudget(int viewsPerFrame) {
+    if (viewsPerFrame < 1) {
+      throw new IllegalArgumentException("Inflation budget must be at least 1");
+    }
+    inflationBudget = viewsPerFrame;
+  }
+
+  /**
+   * Returns statistics about the reuse of MarkerView views, counting how often a view could be taken from the reuse
+   * pool of an adapter instead of being created.
+   *
+   * @return A snapshot of the view pool statistics.
+   */
+  @NonNull
+  public MarkerViewPoolStatistics getViewPoolStatistics() {
+    return new MarkerViewPoolStatistics(viewPoolHits, viewPoolMisses);
+  }
+
+  @Nullable
+  private View acquireView(MapboxMap.MarkerViewAdapter adapter) {
+    View convertView = (View) adapter.getViewReusePool().acquire();
+    if (convertView != null) {
+      viewPoolHits++;
+    } else {
+      viewPoolMisses++;
+    }
+    return convertView;
   }
 
   /**
    * Invalidate the ViewMarkers found in the viewport.
    * <p>
    * This method will remove any markers that aren't in the viewport anymore and will add new
-   * ones for each found Marker in the changed viewport.
+   * ones for each found Marker in the changed viewport. The viewport is extended by the margins set with
+   * {@link #setViewportMargin(int, int)}, and at most the inflation budget of views is added, the remaining
+   * markers are added on the next frames.
    * </p>
    */
   public void invalidateViewMarkersInVisibleRegion() {
-    RectF mapViewRect = new RectF(0, 0, markerViewContainer.getWidth(), markerViewContainer.getHeight());
-    List<MarkerView> markers = mapboxMap.getMarkerViewsInRect(mapViewRect);
+    float width = markerViewContainer.getWidth();
+    float height = markerViewContainer.getHeight();
+    float exitMargin = viewportMargin + viewportHysteresis;
+    RectF exitRect = new RectF(-exitMargin, -exitMargin, width + exitMargin, height + exitMargin);
+    List<MarkerView> markers = mapboxMap.getMarkerViewsInRect(exitRect);
     View convertView;
 
+    visibleMarkerIds.clear();
+    for (MarkerView marker : markers) {
+      visibleMarkerIds.add(marker.getId());
+    }
+
     // remove old markers
     Iterator<MarkerView> iterator = markerViewMap.keySet().iterator();
     while (iterator.hasNext()) {
       MarkerView marker = iterator.next();
-      if (!markers.contains(marker)) {
+      if (!visibleMarkerIds.contains(marker.getId())) {
         // remove marker
         convertView = markerViewMap.get(marker);
         for (MapboxMap.MarkerViewAdapter adapter : markerViewAdapters) {
@@ -502,54 +654,92 @@ public class MarkerViewManager implements MapView.OnMapChangedListener {
       }
     }
 
-    // introduce new markers
-    for (final MarkerView marker : markers) {
+    // markers without a view only get one within the margin, shown markers keep theirs within the hysteresis
+    for (MarkerView marker : markers) {
       if (!markerViewMap.containsKey(marker)) {
-        for (final MapboxMap.MarkerViewAdapter adapter : markerViewAdapters) {
-          if (adapter.getMarkerClass().equals(marker.getClass())) {
+        enteringMarkers.add(marker);
+      }
+    }
+    if (viewportHysteresis > 0 && !enteringMarkers.isEmpty()) {
+      project(enteringMarkers);
+      int count = enteringMarkers.size();
+      int kept = 0;
+      for (int i = 0; i < count; i++) {
+        float x = layoutPositions[i * 2];
+        float y = layoutPositions[i * 2 + 1];
+        if (x >= -viewportMargin && x <= width + viewportMargin
+          && y >= -viewportMargin && y <= height + viewportMargin) {
+          enteringMarkers.set(kept++, enteringMarkers.get(i));
+        }
+      }
+      enteringMarkers.subList(kept, count).clear();
+    }
 
-            // Inflate View
-            convertView = (View) adapter.getViewReusePool().acquire();
-            final View adaptedView = adapter.getView(marker, convertView, markerViewContainer);
-            if (adaptedView != null) {
-              adaptedView.setRotationX(marker.getTilt());
-              adaptedView.setRotation(marker.getRotation());
-              adaptedView.setAlpha(marker.getAlpha());
-              adaptedView.setVisibility(View.GONE);
+    selectedMarkerIds.clear();
+    if (!enteringMarkers.isEmpty()) {
+      for (Marker marker : mapboxMap.getSelectedMarkers()) {
+        selectedMarkerIds.add(marker.getId());
+      }
+    }
 
-              if (mapboxMap.getSelectedMarkers().contains(marker)) {
-                // if a marker to be shown was selected
-                // replay that animation with duration 0
-                if (adapter.onSelect(marker, adaptedView, true)) {
-                  mapboxMap.selectMarker(marker);
-                }
-              }
+    // introduce new markers, within the budget of views for this frame
+    int budget = frameScheduler != null ? inflationBudget : Integer.MAX_VALUE;
+    boolean deferred = enteringMarkers.size() > budget;
+    for (int i = 0, count = Math.min(budget, enteringMarkers.size()); i < count; i++) {
+      final MarkerView marker = enteringMarkers.get(i);
+      for (final MapboxMap.MarkerViewAdapter adapter : markerViewAdapters) {
+        if (adapter.getMarkerClass().equals(marker.getClass())) {
 
-              marker.setMapboxMap(mapboxMap);
-              markerViewMap.put(marker, adaptedView);
-              if (convertView == null) {
-                adaptedView.setVisibility(View.GONE);
-                markerViewContainer.addView(adaptedView);
+          // Inflate View
+          convertView = acquireView(adapter);
+          final View adaptedView = adapter.getView(marker, convertView, markerViewContainer);
+          if (adaptedView != null) {
+            adaptedView.setRotationX(marker.getTilt());
+            adaptedView.setRotation(marker.getRotation());
+            adaptedView.setAlpha(marker.getAlpha());
+            adaptedView.setVisibility(View.GONE);
+
+            if (selectedMarkerIds.contains(marker.getId())) {
+              // if a marker to be shown was selected
+              // replay that animation with duration 0
+              if (adapter.onSelect(marker, adaptedView, true)) {
+                mapboxMap.selectMarker(marker);
               }
             }
 
-            // notify listener is marker view is rendered
-            OnMarkerViewAddedListener onViewAddedListener = markerViewAddedListenerMap.get(marker.getId());
-            if (onViewAddedListener != null) {
-              onViewAddedListener.onViewAdded(marker);
-              markerViewAddedListenerMap.remove(marker.getId());
+            marker.setMapboxMap(mapboxMap);
+            markerViewMap.put(marker, adaptedView);
+            if (convertView == null) {
+              adaptedView.setVisibility(View.GONE);
+              markerViewContainer.addView(adaptedView);
             }
           }
+
+          // notify listener is marker view is rendered
+          OnMarkerViewAddedListener onViewAddedListener = markerViewAddedListenerMap.get(marker.getId());
+          if (onViewAddedListener != null) {
+            onViewAddedListener.onViewAdded(marker);
+            markerViewAddedListenerMap.remove(marker.getId());
+          }
         }
       }
     }
 
-    // clear map, don't keep references to MarkerView listeners that are not found in the bounds of the map.
-    markerViewAddedListenerMap.clear();
+    enteringMarkers.clear();
+
+    if (!deferred) {
+      // clear map, don't keep references to MarkerView listeners that are not found in the bounds of the map.
+      markerViewAddedListenerMap.clear();
+    }
 
     // trigger update to make newly added ViewMarker visible,
     // these would only be updated when the map is moved.
     updateMarkerViewsPosition();
+
+    if (deferred) {
+      invalidateScheduled = true;
+      scheduleFrame();
+    }
   }
 
   /**
@@ -588,7 +778,7 @@ public class MarkerViewManager implements MapView.OnMapChangedListener {
     } else {
       for (final MapboxMap.MarkerViewAdapter adapter : markerViewAdapters) {
         if (adapter.getMarkerClass().equals(marker.getClass())) {
-          View convertView = (View) adapter.getViewReusePool().acquire();
+          View convertView = acquireView(adapter);
           view = adapter.getView(marker, convertView, markerViewContainer);
           break;
         }
@@ -0,0 +1,60 @@
+package com.mapbox.mapboxsdk.annotations;
+
+/**
+ * Snapshot of the reuse of MarkerView views.
+ * <p>
+ * Views of MarkerViews leaving the viewport are released to the reuse pool of their adapter, and taken from it again
+ * for MarkerViews entering the viewport. A miss means the adapter had to create a new view.
+ * </p>
+ *
+ * @see MarkerViewManager#getViewPoolStatistics()
+ * @deprecated Use a {@link com.mapbox.mapboxsdk.style.layers.SymbolLayer} instead of MarkerViews.
+ */
+@Deprecated
+public final class MarkerViewPoolStatistics {
+
+  private final int hitCount;
+  private final int missCount;
+
+  MarkerViewPoolStatistics(int hitCount, int missCount) {
+    this.hitCount = hitCount;
+    this.missCount = missCount;
+  }
+
+  /**
+   * Get the amount of views taken from a reuse pool.
+   *
+   * @return the hit count
+   */
+  public int getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * Get the amount of views requested while the reuse pool was empty.
+   *
+   * @return the miss count
+   */
+  public int getMissCount() {
+    return missCount;
+  }
+
+  /**
+   * Get the share of view requests served from a reuse pool.
+   *
+   * @return the hit ratio, between 0 and 1, 0 if no view was requested
+   */
+  public double getHitRatio() {
+    int requestCount = hitCount + missCount;
+    return requestCount == 0 ? 0 : (double) hitCount / requestCount;
+  }
+
+  @Override
+  public String toString() {
+    return "MarkerViewPoolStatistics{"
+      + "hitCount=" + hitCount
+      + ", missCount=" + missCount
+      + ", hitRatio=" + getHitRatio()
+      + '}';
+  }
+}
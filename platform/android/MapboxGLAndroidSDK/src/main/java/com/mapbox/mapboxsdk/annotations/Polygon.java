@@ -2,11 +2,13 @@ package com.mapbox.mapboxsdk.annotations;
 
 import android.graphics.Color;
 import android.support.annotation.Keep;
+import android.support.annotation.NonNull;
 
 import com.mapbox.mapboxsdk.geometry.LatLng;
 import com.mapbox.mapboxsdk.maps.MapboxMap;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -18,12 +20,16 @@ public final class Polygon extends BasePointCollection {
   private int fillColor = Color.BLACK; // default fillColor is black
   @Keep
   private int strokeColor = Color.BLACK; // default strokeColor is black
+  // points of all holes packed one after the other, with the number of points of each hole
   @Keep
-  private List<List<LatLng>> holes;
+  private double[] holeCoordinates;
+  @Keep
+  private int[] holePointCounts;
 
   Polygon() {
     super();
-    holes = new ArrayList<>();
+    holeCoordinates = new double[0];
+    holePointCounts = new int[0];
   }
 
   /**
@@ -50,7 +56,29 @@ public final class Polygon extends BasePointCollection {
    * @return A {@link List} of {@link List} of {@link LatLng} points making up the holes.
    */
   public List<List<LatLng>> getHoles() {
-    return new ArrayList<>(holes);
+    List<List<LatLng>> holes = new ArrayList<>(holePointCounts.length);
+    int offset = 0;
+    for (int count : holePointCounts) {
+      holes.add(toLatLngs(holeCoordinates, offset, count));
+      offset += count;
+    }
+    return holes;
+  }
+
+  /**
+   * Returns a copy of the holes, each packed as latitude and longitude pairs.
+   *
+   * @return An array of coordinates per hole.
+   */
+  @NonNull
+  public double[][] getHoleCoordinates() {
+    double[][] holes = new double[holePointCounts.length][];
+    int offset = 0;
+    for (int i = 0; i < holes.length; i++) {
+      holes[i] = Arrays.copyOfRange(holeCoordinates, offset * 2, (offset + holePointCounts[i]) * 2);
+      offset += holePointCounts[i];
+    }
+    return holes;
   }
 
   /**
@@ -80,7 +108,29 @@ public final class Polygon extends BasePointCollection {
    * @param holes A {@link List} of {@link List} of {@link LatLng} points making up the holes.
    */
   public void setHoles(List<? extends List<LatLng>> holes) {
-    this.holes = new ArrayList<>(holes);
+    holeCoordinates = new double[0];
+    holePointCounts = new int[0];
+    for (List<LatLng> hole : holes) {
+      appendHole(toCoordinates(hole));
+    }
+    update();
+  }
+
+  /**
+   * Sets the holes of this polygon from coordinates packed as latitude and longitude pairs. This method will take a
+   * copy of the coordinates, so further mutations to the arrays will have no effect on this polygon.
+   *
+   * @param holes The latitude and longitude of each point, one after the other, for each hole.
+   */
+  public void setHoleCoordinates(@NonNull double[][] holes) {
+    for (double[] hole : holes) {
+      checkCoordinates(hole);
+    }
+    holeCoordinates = new double[0];
+    holePointCounts = new int[0];
+    for (double[] hole : holes) {
+      appendHole(hole);
+    }
     update();
   }
 
@@ -90,10 +140,24 @@ public final class Polygon extends BasePointCollection {
    * @param hole A {@link List} of {@link List} of {@link LatLng} points making up the hole to be added.
    */
   void addHole(List<LatLng> hole) {
-    holes.add(hole);
+    appendHole(toCoordinates(hole));
     update();
   }
 
+  void addHole(double[] coordinates) {
+    checkCoordinates(coordinates);
+    appendHole(coordinates);
+    update();
+  }
+
+  private void appendHole(double[] coordinates) {
+    int length = holeCoordinates.length;
+    holeCoordinates = Arrays.copyOf(holeCoordinates, length + coordinates.length);
+    System.arraycopy(coordinates, 0, holeCoordinates, length, coordinates.length);
+    holePointCounts = Arrays.copyOf(holePointCounts, holePointCounts.length + 1);
+    holePointCounts[holePointCounts.length - 1] = coordinates.length / 2;
+  }
+
   @Override
   void update() {
     MapboxMap mapboxMap = getMapboxMap();
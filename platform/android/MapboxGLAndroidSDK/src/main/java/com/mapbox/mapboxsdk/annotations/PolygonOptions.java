@@ -3,6 +3,7 @@ package com.mapbox.mapboxsdk.annotations;
 
 import android.os.Parcel;
 import android.os.Parcelable;
+import android.support.annotation.NonNull;
 
 import com.mapbox.mapboxsdk.geometry.LatLng;
 
@@ -36,6 +37,7 @@ public final class PolygonOptions implements Parcelable {
     alpha(in.readFloat());
     fillColor(in.readInt());
     strokeColor(in.readInt());
+    simplified(in.readByte() != 0);
   }
 
   /**
@@ -63,6 +65,7 @@ public final class PolygonOptions implements Parcelable {
     out.writeFloat(getAlpha());
     out.writeInt(getFillColor());
     out.writeInt(getStrokeColor());
+    out.writeByte((byte) (isSimplified() ? 1 : 0));
   }
 
   private Polygon polygon;
@@ -112,6 +115,28 @@ public final class PolygonOptions implements Parcelable {
     return this;
   }
 
+  /**
+   * Adds vertices to the outline of the polygon being built, without creating a {@link LatLng} per vertex.
+   *
+   * @param coordinates the latitude and longitude of each vertex, one after the other
+   * @return This {@link PolygonOptions} object with the given points added to the outline.
+   */
+  public PolygonOptions addCoordinates(@NonNull double[] coordinates) {
+    polygon.addCoordinates(coordinates);
+    return this;
+  }
+
+  /**
+   * Adds a hole to the polygon being built, without creating a {@link LatLng} per vertex.
+   *
+   * @param coordinates the latitude and longitude of each vertex of the hole, one after the other
+   * @return This {@link PolygonOptions} object with the given hole added to the outline.
+   */
+  public PolygonOptions addHoleCoordinates(@NonNull double[] coordinates) {
+    polygon.addHole(coordinates);
+    return this;
+  }
+
   /**
    * Adds a hole to the outline of the polygon being built.
    *
@@ -218,6 +243,27 @@ public final class PolygonOptions implements Parcelable {
     return polygon.getStrokeColor();
   }
 
+  /**
+   * Simplifies the outline sent to the map depending on the zoom level, dropping points that wouldn't be visible.
+   * The points of the polygon are kept as is, holes are never simplified.
+   *
+   * @param simplified true to simplify the outline, the default is false.
+   * @return This {@link PolygonOptions} object with simplification set.
+   */
+  public PolygonOptions simplified(boolean simplified) {
+    polygon.setSimplified(simplified);
+    return this;
+  }
+
+  /**
+   * Gets whether the outline of the polygon is simplified depending on the zoom level.
+   *
+   * @return true if the outline is simplified.
+   */
+  public boolean isSimplified() {
+    return polygon.isSimplified();
+  }
+
   /**
    * Gets the points set for this {@link PolygonOptions} object.
    *
@@ -2,6 +2,7 @@ package com.mapbox.mapboxsdk.annotations;
 
 import android.graphics.Color;
 import android.support.annotation.Keep;
+import android.support.annotation.NonNull;
 
 import com.mapbox.mapboxsdk.maps.MapboxMap;
 
@@ -44,6 +45,7 @@ public final class Polyline extends BasePointCollection {
    */
   public void setColor(int color) {
     this.color = color;
+    invalidate();
     update();
   }
 
@@ -54,9 +56,29 @@ public final class Polyline extends BasePointCollection {
    */
   public void setWidth(float width) {
     this.width = width;
+    invalidate();
     update();
   }
 
+  /**
+   * Adds points to the end of the polyline. Only the added points are sent to the map, which keeps live tracks cheap
+   * to extend.
+   *
+   * @param coordinates the latitude and longitude of each point, one after the other.
+   */
+  public void appendPoints(@NonNull double[] coordinates) {
+    addCoordinates(coordinates);
+  }
+
+  /**
+   * Removes points from the start of the polyline, for instance to only show the recent part of a track.
+   *
+   * @param count the number of points to remove.
+   */
+  public void trimHead(int count) {
+    removeFirstPoints(count);
+  }
+
   @Override
   void update() {
     MapboxMap mapboxMap = getMapboxMap();
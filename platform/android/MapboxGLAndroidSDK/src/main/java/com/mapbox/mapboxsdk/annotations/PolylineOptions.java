@@ -2,6 +2,7 @@ package com.mapbox.mapboxsdk.annotations;
 
 import android.os.Parcel;
 import android.os.Parcelable;
+import android.support.annotation.NonNull;
 
 import com.mapbox.mapboxsdk.geometry.LatLng;
 
@@ -33,6 +34,7 @@ public final class PolylineOptions implements Parcelable {
     alpha(in.readFloat());
     color(in.readInt());
     width(in.readFloat());
+    simplified(in.readByte() != 0);
   }
 
   /**
@@ -59,6 +61,7 @@ public final class PolylineOptions implements Parcelable {
     out.writeFloat(getAlpha());
     out.writeInt(getColor());
     out.writeFloat(getWidth());
+    out.writeByte((byte) (isSimplified() ? 1 : 0));
   }
 
   private Polyline polyline;
@@ -108,6 +111,17 @@ public final class PolylineOptions implements Parcelable {
     return this;
   }
 
+  /**
+   * Adds vertices to the end of the polyline being built, without creating a {@link LatLng} per vertex.
+   *
+   * @param coordinates the latitude and longitude of each vertex, one after the other
+   * @return This {@link PolylineOptions} object with the given points on the end.
+   */
+  public PolylineOptions addCoordinates(@NonNull double[] coordinates) {
+    polyline.addCoordinates(coordinates);
+    return this;
+  }
+
   /**
    * Set the alpha value of the polyline.
    *
@@ -157,6 +171,27 @@ public final class PolylineOptions implements Parcelable {
     return polyline;
   }
 
+  /**
+   * Simplifies the geometry sent to the map depending on the zoom level, dropping points that wouldn't be visible.
+   * Meant for dense geometries such as GPS traces, the points of the polyline are kept as is.
+   *
+   * @param simplified true to simplify the geometry, the default is false.
+   * @return This {@link PolylineOptions} object with simplification set.
+   */
+  public PolylineOptions simplified(boolean simplified) {
+    polyline.setSimplified(simplified);
+    return this;
+  }
+
+  /**
+   * Gets whether the geometry of the polyline is simplified depending on the zoom level.
+   *
+   * @return true if the geometry is simplified.
+   */
+  public boolean isSimplified() {
+    return polyline.isSimplified();
+  }
+
   /**
    * Gets the width set for this {@link PolylineOptions} object.
    *
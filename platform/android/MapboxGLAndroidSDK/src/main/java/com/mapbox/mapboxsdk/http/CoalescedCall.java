@@ -0,0 +1,266 @@
+package com.mapbox.mapboxsdk.http;
+
+import android.support.annotation.NonNull;
+import android.text.TextUtils;
+
+import com.mapbox.mapboxsdk.storage.Resource;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static android.util.Log.DEBUG;
+import static android.util.Log.ERROR;
+import static android.util.Log.VERBOSE;
+
+/**
+ * A single OkHttp call shared by every {@link HTTPRequest} asking for the same resource at the same time.
+ * <p>
+ * Calls are keyed on the request url and the validators sent along with it. The response is read once and
+ * delivered to every waiting request. Cancelling a waiting request only detaches it, the underlying call is
+ * cancelled when the last waiting request goes away.
+ * </p>
+ * <p>
+ * Calls are admitted to the network by a {@link RequestScheduler}.
+ * </p>
+ */
+final class CoalescedCall implements Callback {
+
+  static final int STATE_NEW = 0;
+  static final int STATE_QUEUED = 1;
+  static final int STATE_RUNNING = 2;
+  static final int STATE_FINISHED = 3;
+
+  private static final Map<String, CoalescedCall> inFlightCalls = new HashMap<>();
+
+  private final String key;
+  private final RequestScheduler scheduler;
+  private final List<HTTPRequest> waiters = new ArrayList<>(1);
+  private final Call call;
+  @Resource.Kind
+  private final int kind;
+  private long startedNanos;
+
+  // guarded by the scheduler
+  int state = STATE_NEW;
+  int priority;
+  long sequence;
+  long scheduledNanos;
+
+  private CoalescedCall(String key, RequestScheduler scheduler, Call call, @Resource.Kind int kind) {
+    this.key = key;
+    this.scheduler = scheduler;
+    this.call = call;
+    this.kind = kind;
+    this.priority = RequestScheduler.priorityOf(kind);
+  }
+
+  /**
+   * Attach a request to the in-flight call matching the key, scheduling a new call if there's none.
+   *
+   * @param client    the client to create a new call with
+   * @param scheduler the scheduler admitting new calls to the network
+   * @param request   the request to execute if there's no matching in-flight call
+   * @param key       the coalescing key of the request
+   * @param kind      the resource kind of the request
+   * @param waiter    the request to deliver the response to
+   * @return the call the waiter was attached to
+   */
+  @NonNull
+  static CoalescedCall enqueue(@NonNull OkHttpClient client, @NonNull RequestScheduler scheduler,
+                               @NonNull Request request, @NonNull String key, @Resource.Kind int kind,
+                               @NonNull HTTPRequest waiter) {
+    int priority = RequestScheduler.priorityOf(kind);
+    CoalescedCall coalescedCall;
+    synchronized (inFlightCalls) {
+      coalescedCall = inFlightCalls.get(key);
+      if (coalescedCall != null) {
+        coalescedCall.waiters.add(waiter);
+        scheduler.prioritize(coalescedCall, priority);
+        return coalescedCall;
+      }
+
+      coalescedCall = new CoalescedCall(key, scheduler, client.newCall(request), kind);
+      coalescedCall.waiters.add(waiter);
+      inFlightCalls.put(key, coalescedCall);
+    }
+
+    scheduler.schedule(coalescedCall);
+    return coalescedCall;
+  }
+
+  /**
+   * Build the coalescing key for a request.
+   *
+   * @param url      the request url
+   * @param etag     the If-None-Match validator, empty if not set
+   * @param modified the If-Modified-Since validator, empty if not set
+   * @return the coalescing key
+   */
+  @NonNull
+  static String key(@NonNull String url, @NonNull String etag, @NonNull String modified) {
+    // Urls are kept case sensitive, query parameters such as access tokens are.
+    return url + '\n' + etag + '\n' + modified;
+  }
+
+  /**
+   * Detach a request, cancelling the underlying call if no other request is waiting for it.
+   *
+   * @param waiter the request to detach
+   */
+  void remove(@NonNull HTTPRequest waiter) {
+    boolean cancel;
+    synchronized (inFlightCalls) {
+      if (!waiters.remove(waiter) || !waiters.isEmpty()) {
+        return;
+      }
+
+      cancel = inFlightCalls.get(key) == this;
+      if (cancel) {
+        inFlightCalls.remove(key);
+      }
+    }
+
+    // Calls which didn't start yet are dropped from the queue, running calls are cancelled
+    // and report back through onFailure.
+    if (cancel && !scheduler.remove(this)) {
+      call.cancel();
+    }
+  }
+
+  /**
+   * Hand the call to OkHttp, invoked by the scheduler once the call is admitted.
+   */
+  void start() {
+    startedNanos = System.nanoTime();
+    try {
+      call.enqueue(this);
+    } catch (RuntimeException exception) {
+      scheduler.finish(this);
+      deliverFailure(complete(), call, exception);
+    }
+  }
+
+  @Override
+  public void onResponse(@NonNull Call call, @NonNull Response response) {
+    // OkHttp calls back once the response headers are in, the body is read below.
+    long timeToFirstByteNanos = System.nanoTime() - startedNanos;
+    scheduler.finish(this);
+    List<HTTPRequest> requests = complete();
+    if (requests.isEmpty()) {
+      response.close();
+      return;
+    }
+
+    if (HTTPRequest.isLogEnabled()) {
+      logResponse(response);
+    }
+
+    ResponseBody responseBody = response.body();
+    if (responseBody == null) {
+      // nothing to close, OkHttp throws when closing a response without body
+      HTTPRequest.log(ERROR, "[HTTP] Received empty response body");
+      deliverFailure(requests, call, new IOException("empty body"));
+      return;
+    }
+
+    if (HTTPRequest.isDirectBufferDeliveryEnabled()) {
+      deliverBuffered(requests, call, response, responseBody, timeToFirstByteNanos);
+      return;
+    }
+
+    byte[] body;
+    try {
+      body = responseBody.bytes();
+    } catch (IOException ioException) {
+      deliverFailure(requests, call, ioException);
+      return;
+    } finally {
+      response.close();
+    }
+
+    reportResponse(response.code(), timeToFirstByteNanos, body.length);
+    for (HTTPRequest request : requests) {
+      request.onResponse(response, body);
+    }
+  }
+
+  @Override
+  public void onFailure(@NonNull Call call, @NonNull IOException exception) {
+    scheduler.finish(this);
+    deliverFailure(complete(), call, exception);
+  }
+
+  private void deliverBuffered(List<HTTPRequest> requests, Call call, Response response, ResponseBody responseBody,
+                               long timeToFirstByteNanos) {
+    ResponseBufferPool bufferPool = HTTPRequest.getBufferPool();
+    ByteBuffer body;
+    try {
+      body = bufferPool.read(responseBody.source(), responseBody.contentLength());
+    } catch (IOException ioException) {
+      deliverFailure(requests, call, ioException);
+      return;
+    } finally {
+      response.close();
+    }
+
+    int length = body.position();
+    reportResponse(response.code(), timeToFirstByteNanos, length);
+    try {
+      for (HTTPRequest request : requests) {
+        request.onResponse(response, body, length);
+      }
+    } finally {
+      bufferPool.release(body);
+    }
+  }
+
+  private void deliverFailure(List<HTTPRequest> requests, Call call, Exception exception) {
+    HttpMetricsListener listener = HTTPRequest.getMetricsListener();
+    if (listener != null && !requests.isEmpty()) {
+      listener.onFailure(kind, HTTPRequest.getFailureType(exception), startedNanos - scheduledNanos);
+    }
+
+    for (HTTPRequest request : requests) {
+      request.onFailure(call, exception);
+    }
+  }
+
+  private static void logResponse(Response response) {
+    if (response.isSuccessful()) {
+      HTTPRequest.log(VERBOSE, String.format("[HTTP] Request was successful (code = %s).", response.code()));
+    } else {
+      // We don't want to call this unsuccessful because a 304 isn't really an error
+      String message = !TextUtils.isEmpty(response.message()) ? response.message() : "No additional information";
+      HTTPRequest.log(DEBUG, String.format("[HTTP] Request with response code = %s: %s", response.code(), message));
+    }
+  }
+
+  private void reportResponse(int code, long timeToFirstByteNanos, long bodyLength) {
+    HttpMetricsListener listener = HTTPRequest.getMetricsListener();
+    if (listener != null) {
+      listener.onResponse(kind, code, startedNanos - scheduledNanos, timeToFirstByteNanos, bodyLength);
+    }
+  }
+
+  private List<HTTPRequest> complete() {
+    synchronized (inFlightCalls) {
+      if (inFlightCalls.get(key) == this) {
+        inFlightCalls.remove(key);
+      }
+      List<HTTPRequest> requests = new ArrayList<>(waiters);
+      waiters.clear();
+      return requests;
+    }
+  }
+}
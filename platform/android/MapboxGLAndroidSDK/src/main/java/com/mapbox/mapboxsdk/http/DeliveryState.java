@@ -0,0 +1,41 @@
+package com.mapbox.mapboxsdk.http;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lifecycle of a {@link HTTPRequest}, a single delivery may move it from pending to delivering to done.
+ * <p>
+ * Cancellation moves it to cancelled from any state, without waiting for a delivery in progress. Exactly one side
+ * releases the native peer: native if cancelled outside of a delivery, the delivery otherwise.
+ * </p>
+ */
+class DeliveryState {
+
+  private static final int STATE_PENDING = 0;
+  private static final int STATE_DELIVERING = 1;
+  private static final int STATE_DONE = 2;
+  private static final int STATE_CANCELLED = 3;
+
+  private final AtomicInteger state = new AtomicInteger(STATE_PENDING);
+
+  /**
+   * @return true if the request may be delivered, false if it was delivered or cancelled already
+   */
+  boolean beginDelivery() {
+    return state.compareAndSet(STATE_PENDING, STATE_DELIVERING);
+  }
+
+  /**
+   * @return true if the request was cancelled while delivering, the caller releases the native peer then
+   */
+  boolean endDelivery() {
+    return !state.compareAndSet(STATE_DELIVERING, STATE_DONE);
+  }
+
+  /**
+   * @return true if native may release the peer, false if a delivery is in progress and releases it
+   */
+  boolean cancel() {
+    return state.getAndSet(STATE_CANCELLED) != STATE_DELIVERING;
+  }
+}
@@ -5,112 +5,121 @@ import android.content.pm.PackageInfo;
 import android.os.Build;
 import android.support.annotation.Keep;
 import android.support.annotation.NonNull;
-import android.text.TextUtils;
+import android.support.annotation.Nullable;
 import android.util.Log;
 import com.mapbox.android.telemetry.TelemetryUtils;
 import com.mapbox.mapboxsdk.BuildConfig;
 import com.mapbox.mapboxsdk.Mapbox;
 import com.mapbox.mapboxsdk.constants.MapboxConstants;
+import com.mapbox.mapboxsdk.storage.Resource;
 import okhttp3.Call;
-import okhttp3.Callback;
 import okhttp3.Dispatcher;
 import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
-import okhttp3.ResponseBody;
 import timber.log.Timber;
 
 import javax.net.ssl.SSLException;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InterruptedIOException;
 import java.net.NoRouteToHostException;
 import java.net.ProtocolException;
 import java.net.SocketException;
 import java.net.UnknownHostException;
-import java.util.concurrent.locks.ReentrantLock;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Future;
 
 import static android.util.Log.DEBUG;
-import static android.util.Log.ERROR;
 import static android.util.Log.INFO;
-import static android.util.Log.VERBOSE;
 import static android.util.Log.WARN;
 
-class HTTPRequest implements Callback {
+class HTTPRequest {
 
-  private static final int CONNECTION_ERROR = 0;
-  private static final int TEMPORARY_ERROR = 1;
-  private static final int PERMANENT_ERROR = 2;
+  private static final int CONNECTION_ERROR = HttpMetricsListener.CONNECTION_ERROR;
+  private static final int TEMPORARY_ERROR = HttpMetricsListener.TEMPORARY_ERROR;
+  private static final int PERMANENT_ERROR = HttpMetricsListener.PERMANENT_ERROR;
+
+  // Matches the dispatcher limit set in getDispatcher()
+  private static final int MAX_RUNNING_REQUESTS = 20;
+
+  private static final ResponseBufferPool bufferPool = new ResponseBufferPool();
+  private static final RequestScheduler scheduler = new RequestScheduler(MAX_RUNNING_REQUESTS);
 
   private static OkHttpClient client = new OkHttpClient.Builder().dispatcher(getDispatcher()).build();
+  // client with the archive interceptor added, null if no archive is set
+  private static volatile OkHttpClient archiveClient;
+  private static volatile HttpArchiveInterceptor archiveInterceptor;
   private static boolean logEnabled = true;
   private static boolean logRequestUrl = false;
+  private static boolean directBufferDeliveryEnabled = false;
+  private static volatile HttpMetricsListener metricsListener;
 
-  // Reentrancy is not needed, but "Lock" is an abstract class.
-  private ReentrantLock lock = new ReentrantLock();
+  private final DeliveryState state = new DeliveryState();
   private String userAgentString;
   @Keep
   private long nativePtr = 0;
-  private Call call;
+  private CoalescedCall call;
+  private Future<?> localRequest;
 
   @Keep
-  private HTTPRequest(long nativePtr, String resourceUrl, String etag, String modified) {
+  private HTTPRequest(long nativePtr, String resourceUrl, String etag, String modified, @Resource.Kind int kind) {
     this.nativePtr = nativePtr;
 
-    if (resourceUrl.startsWith("local://")) {
-      // used by render test to serve files from assets
+    if (LocalResourceLoader.accepts(resourceUrl)) {
+      // local:// is used by render test to serve files from assets
       executeLocalRequest(resourceUrl);
       return;
     }
-    executeRequest(resourceUrl, etag, modified);
+    executeRequest(resourceUrl, etag, modified, kind);
   }
 
+  /**
+   * Cancel the request, invoked by native when it no longer needs a response.
+   *
+   * @return true if native may release the peer, false if a delivery is in progress and releases the peer
+   * when it returns
+   */
   @Keep
-  public void cancel() {
+  public boolean cancel() {
     // call can be null if the constructor gets aborted (e.g, under a NoRouteToHostException).
+    // Other requests may be waiting on the same call, only cancel it when this is the last one.
     if (call != null) {
-      call.cancel();
+      call.remove(this);
+    }
+    if (localRequest != null) {
+      localRequest.cancel(false);
     }
 
-    // TODO: We need a lock here because we can try
-    // to cancel at the same time the request is getting
-    // answered on the OkHTTP thread. We could get rid of
-    // this lock by using Runnable when we move Android
-    // implementation of mbgl::RunLoop to Looper.
-    lock.lock();
-    nativePtr = 0;
-    lock.unlock();
+    return state.cancel();
   }
 
-  @Override
-  public void onResponse(@NonNull Call call, @NonNull Response response) throws IOException {
-    if (response.isSuccessful()) {
-      log(VERBOSE, String.format("[HTTP] Request was successful (code = %s).", response.code()));
-    } else {
-      // We don't want to call this unsuccessful because a 304 isn't really an error
-      String message = !TextUtils.isEmpty(response.message()) ? response.message() : "No additional information";
-      log(DEBUG, String.format("[HTTP] Request with response code = %s: %s", response.code(), message));
-    }
-
-    ResponseBody responseBody = response.body();
-    if (responseBody == null) {
-      log(ERROR, "[HTTP] Received empty response body");
+  void onResponse(@NonNull Response response, @NonNull byte[] body) {
+    if (!beginDelivery()) {
       return;
     }
 
-    byte[] body;
     try {
-      body = responseBody.bytes();
-    } catch (IOException ioException) {
-      onFailure(call, ioException);
-      // throw ioException;
-      return;
+      nativeOnResponse(response.code(),
+        response.header("ETag"),
+        response.header("Last-Modified"),
+        response.header("Cache-Control"),
+        response.header("Expires"),
+        response.header("Retry-After"),
+        response.header("x-rate-limit-reset"),
+        body);
     } finally {
-      response.close();
+      endDelivery();
+    }
+  }
+
+  void onResponse(@NonNull Response response, @NonNull ByteBuffer body, int length) {
+    if (!beginDelivery()) {
+      return;
     }
 
-    lock.lock();
-    if (nativePtr != 0) {
+    try {
       nativeOnResponse(response.code(),
         response.header("ETag"),
         response.header("Last-Modified"),
@@ -118,13 +127,14 @@ class HTTPRequest implements Callback {
         response.header("Expires"),
         response.header("Retry-After"),
         response.header("x-rate-limit-reset"),
-        body);
+        body, length);
+      bufferPool.onDelivered(length);
+    } finally {
+      endDelivery();
     }
-    lock.unlock();
   }
 
-  @Override
-  public void onFailure(@NonNull Call call, @NonNull IOException e) {
+  void onFailure(Call call, @NonNull Exception e) {
     handleFailure(call, e);
   }
 
@@ -136,19 +146,56 @@ class HTTPRequest implements Callback {
     logRequestUrl = enabled;
   }
 
-  static void setOKHttpClient(OkHttpClient client) {
+  static synchronized void setOKHttpClient(OkHttpClient client) {
     HTTPRequest.client = client;
+    setArchiveInterceptor(archiveInterceptor);
+  }
+
+  static synchronized void setArchiveInterceptor(@Nullable HttpArchiveInterceptor interceptor) {
+    archiveInterceptor = interceptor;
+    archiveClient = interceptor != null ? client.newBuilder().addInterceptor(interceptor).build() : null;
+  }
+
+  static void setMetricsListener(@Nullable HttpMetricsListener listener) {
+    metricsListener = listener;
+  }
+
+  @Nullable
+  static HttpMetricsListener getMetricsListener() {
+    return metricsListener;
+  }
+
+  static void enableDirectBufferDelivery(boolean enabled) {
+    directBufferDeliveryEnabled = enabled;
+  }
+
+  static boolean isDirectBufferDeliveryEnabled() {
+    return directBufferDeliveryEnabled;
+  }
+
+  static ResponseBufferPool getBufferPool() {
+    return bufferPool;
+  }
+
+  static RequestSchedulerStatistics getRequestSchedulerStatistics() {
+    return scheduler.getStatistics();
+  }
+
+  static ResponseBufferStatistics getResponseBufferStatistics() {
+    return new ResponseBufferStatistics(bufferPool.getAllocationCount(), bufferPool.getAllocatedBytes(),
+      bufferPool.getReuseCount(), bufferPool.getDeliveredBytes());
   }
 
   private static Dispatcher getDispatcher() {
     Dispatcher dispatcher = new Dispatcher();
-    // Matches core limit set on
-    // https://github.com/mapbox/mapbox-gl-native/blob/master/platform/android/src/http_file_source.cpp#L192
-    dispatcher.setMaxRequestsPerHost(20);
+    // Requests are admitted by RequestScheduler in order of priority, core hands over more requests than this
+    // limit so that the scheduler has something to choose from, see maximumConcurrentRequests in
+    // https://github.com/mapbox/mapbox-gl-native/blob/master/platform/android/src/http_file_source.cpp
+    dispatcher.setMaxRequestsPerHost(MAX_RUNNING_REQUESTS);
     return dispatcher;
   }
 
-  private void executeRequest(String resourceUrl, String etag, String modified) {
+  private void executeRequest(String resourceUrl, String etag, String modified, @Resource.Kind int kind) {
     try {
       HttpUrl httpUrl = HttpUrl.parse(resourceUrl);
       if (httpUrl == null) {
@@ -156,8 +203,10 @@ class HTTPRequest implements Callback {
       }
 
       final String host = httpUrl.host().toLowerCase(MapboxConstants.MAPBOX_LOCALE);
-      // Don't try a request to remote server if we aren't connected
-      if (!Mapbox.isConnected() && !host.equals("127.0.0.1") && !host.equals("localhost")) {
+      HttpArchiveInterceptor archiveInterceptor = HTTPRequest.archiveInterceptor;
+      boolean replaying = archiveInterceptor != null && archiveInterceptor.isReplaying();
+      // Don't try a request to remote server if we aren't connected, replayed requests don't need the network
+      if (!replaying && !Mapbox.isConnected() && !host.equals("127.0.0.1") && !host.equals("localhost")) {
         throw new NoRouteToHostException("No Internet connection available.");
       }
 
@@ -181,26 +230,44 @@ class HTTPRequest implements Callback {
         builder = builder.addHeader("If-Modified-Since", modified);
       }
       Request request = builder.build();
-      call = client.newCall(request);
-      call.enqueue(this);
+      OkHttpClient archiveClient = HTTPRequest.archiveClient;
+      call = CoalescedCall.enqueue(archiveClient != null ? archiveClient : client, scheduler, request,
+        CoalescedCall.key(resourceUrl, etag, modified), kind, this);
     } catch (Exception exception) {
-      handleFailure(call, exception);
+      HttpMetricsListener listener = metricsListener;
+      if (listener != null) {
+        listener.onFailure(kind, getFailureType(exception), 0);
+      }
+      handleFailure(null, exception);
     }
   }
 
   private void executeLocalRequest(String resourceUrl) {
-    new LocalRequestTask(new LocalRequestTask.OnLocalRequestResponse() {
+    localRequest = LocalResourceLoader.load(resourceUrl, new LocalResourceLoader.Callback() {
+      @Override
+      public void onResponse(@NonNull ByteBuffer body, int length) {
+        if (beginDelivery()) {
+          try {
+            nativeOnResponse(200, null, null, null, null, null, null, body, length);
+          } finally {
+            endDelivery();
+          }
+        }
+      }
+
       @Override
-      public void onResponse(byte[] bytes) {
-        if (bytes != null) {
-          lock.lock();
-          if (nativePtr != 0) {
-            nativeOnResponse(200, null, null, null, null, null, null, bytes);
+      public void onFailure(@NonNull IOException exception) {
+        if (!(exception instanceof FileNotFoundException)) {
+          handleFailure(null, exception);
+        } else if (beginDelivery()) {
+          try {
+            nativeOnResponse(404, null, null, null, null, null, null, (byte[]) null);
+          } finally {
+            endDelivery();
           }
-          lock.unlock();
         }
       }
-    }).execute(resourceUrl);
+    });
   }
 
   private void handleFailure(Call call, Exception e) {
@@ -212,14 +279,29 @@ class HTTPRequest implements Callback {
       logFailure(type, errorMessage, requestUrl);
     }
 
-    lock.lock();
-    if (nativePtr != 0) {
-      nativeOnFailure(type, errorMessage);
+    if (beginDelivery()) {
+      try {
+        nativeOnFailure(type, errorMessage);
+      } finally {
+        endDelivery();
+      }
+    }
+  }
+
+  private boolean beginDelivery() {
+    return state.beginDelivery();
+  }
+
+  private void endDelivery() {
+    if (state.endDelivery()) {
+      // Cancelled while delivering, native handed the peer over to us.
+      nativeRelease();
+      nativePtr = 0;
     }
-    lock.unlock();
   }
 
-  private int getFailureType(Exception e) {
+  @HttpMetricsListener.FailureType
+  static int getFailureType(Exception e) {
     if ((e instanceof NoRouteToHostException) || (e instanceof UnknownHostException) || (e instanceof SocketException)
       || (e instanceof ProtocolException) || (e instanceof SSLException)) {
       return CONNECTION_ERROR;
@@ -229,7 +311,11 @@ class HTTPRequest implements Callback {
     return PERMANENT_ERROR;
   }
 
-  private void log(int type, String errorMessage) {
+  static boolean isLogEnabled() {
+    return logEnabled;
+  }
+
+  static void log(int type, String errorMessage) {
     if (logEnabled) {
       Timber.log(type, errorMessage);
     }
@@ -270,10 +356,17 @@ class HTTPRequest implements Callback {
     }
   }
 
+  @Keep
+  private native void nativeRelease();
+
   @Keep
   private native void nativeOnFailure(int type, String message);
 
   @Keep
   private native void nativeOnResponse(int code, String etag, String modified, String cacheControl, String expires,
                                        String retryAfter, String xRateLimitReset, byte[] body);
+
+  @Keep
+  private native void nativeOnResponse(int code, String etag, String modified, String cacheControl, String expires,
+                                       String retryAfter, String xRateLimitReset, ByteBuffer body, int length);
 }
@@ -0,0 +1,142 @@
+package com.mapbox.mapboxsdk.http;
+
+import android.support.annotation.IntRange;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of non-negative values bucketed by powers of two.
+ * <p>
+ * Bucket 0 holds the value 0, bucket i holds values in the range [2^(i-1), 2^i). Recording a value takes
+ * a couple of atomic increments and doesn't allocate, values can be read while recording is in progress.
+ * </p>
+ */
+public final class Histogram {
+
+  /**
+   * The amount of buckets of a histogram.
+   */
+  public static final int BUCKET_COUNT = 64;
+
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+  private final AtomicLong count = new AtomicLong();
+  private final AtomicLong sum = new AtomicLong();
+
+  Histogram() {
+  }
+
+  /**
+   * Record a value, negative values are recorded as 0.
+   *
+   * @param value the value to record
+   */
+  void record(long value) {
+    if (value < 0) {
+      value = 0;
+    }
+    buckets.incrementAndGet(bucketOf(value));
+    count.incrementAndGet();
+    sum.addAndGet(value);
+  }
+
+  void reset() {
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      buckets.set(i, 0);
+    }
+    count.set(0);
+    sum.set(0);
+  }
+
+  /**
+   * Get the amount of recorded values.
+   *
+   * @return the count
+   */
+  public long getCount() {
+    return count.get();
+  }
+
+  /**
+   * Get the sum of the recorded values.
+   *
+   * @return the sum
+   */
+  public long getSum() {
+    return sum.get();
+  }
+
+  /**
+   * Get the mean of the recorded values.
+   *
+   * @return the mean, 0 if no values were recorded
+   */
+  public double getMean() {
+    long count = getCount();
+    return count == 0 ? 0 : (double) getSum() / count;
+  }
+
+  /**
+   * Get the amount of recorded values in a bucket.
+   *
+   * @param bucket the bucket index
+   * @return the bucket count
+   */
+  public long getBucketCount(@IntRange(from = 0, to = BUCKET_COUNT - 1) int bucket) {
+    return buckets.get(bucket);
+  }
+
+  /**
+   * Get the exclusive upper bound of the values held by a bucket.
+   *
+   * @param bucket the bucket index
+   * @return the upper bound, {@link Long#MAX_VALUE} for the last bucket
+   */
+  public static long getBucketUpperBound(@IntRange(from = 0, to = BUCKET_COUNT - 1) int bucket) {
+    return bucket == BUCKET_COUNT - 1 ? Long.MAX_VALUE : 1L << bucket;
+  }
+
+  /**
+   * Get an estimate of the value below which the given fraction of recorded values fall.
+   * The estimate is the upper bound of the bucket holding that value, at most twice the actual value.
+   *
+   * @param fraction the fraction, between 0 and 1
+   * @return the estimated value, 0 if no values were recorded
+   */
+  public long getValueAtFraction(double fraction) {
+    long total = 0;
+    long[] counts = new long[BUCKET_COUNT];
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      counts[i] = buckets.get(i);
+      total += counts[i];
+    }
+    if (total == 0) {
+      return 0;
+    }
+
+    long rank = (long) Math.ceil(Math.min(Math.max(fraction, 0), 1) * total);
+    long seen = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      seen += counts[i];
+      if (seen >= rank && counts[i] > 0) {
+        return getBucketUpperBound(i);
+      }
+    }
+    return getBucketUpperBound(BUCKET_COUNT - 1);
+  }
+
+  static int bucketOf(long value) {
+    return value == 0 ? 0 : Math.min(64 - Long.numberOfLeadingZeros(value), BUCKET_COUNT - 1);
+  }
+
+  @Override
+  public String toString() {
+    return "Histogram{"
+      + "count=" + getCount()
+      + ", mean=" + getMean()
+      + ", p50=" + getValueAtFraction(0.5)
+      + ", p90=" + getValueAtFraction(0.9)
+      + ", p99=" + getValueAtFraction(0.99)
+      + '}';
+  }
+}
@@ -0,0 +1,223 @@
+package com.mapbox.mapboxsdk.http;
+
+import android.support.annotation.IntRange;
+import android.support.annotation.NonNull;
+
+import okhttp3.Headers;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.ByteString;
+import okio.Okio;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+
+/**
+ * Interceptor recording network responses to an archive on disk, or serving them back from it.
+ * <p>
+ * In record mode every request is executed and its response, including status, headers and body, is written to
+ * the archive directory. In replay mode no request reaches the network: responses are served from the archive,
+ * optionally slowed down by a fixed latency and bandwidth so that benchmarks run against repeatable inputs.
+ * Requests missing from the archive are answered with a 404.
+ * </p>
+ * <p>
+ * Entries are keyed on the request method, url and validators. Activate the interceptor with
+ * {@link HttpRequestUtil#setHttpArchiveInterceptor(HttpArchiveInterceptor)}.
+ * </p>
+ */
+public final class HttpArchiveInterceptor implements Interceptor {
+
+  private static final int FORMAT_VERSION = 1;
+
+  private final File directory;
+  private final boolean replay;
+  private volatile long latencyMillis;
+  private volatile long bytesPerSecond;
+
+  private HttpArchiveInterceptor(@NonNull File directory, boolean replay) {
+    this.directory = directory;
+    this.replay = replay;
+  }
+
+  /**
+   * Create an interceptor writing responses to an archive.
+   *
+   * @param directory the archive directory, created if it doesn't exist
+   * @return the interceptor
+   */
+  @NonNull
+  public static HttpArchiveInterceptor record(@NonNull File directory) {
+    return new HttpArchiveInterceptor(directory, false);
+  }
+
+  /**
+   * Create an interceptor serving responses from an archive.
+   *
+   * @param directory the archive directory
+   * @return the interceptor
+   */
+  @NonNull
+  public static HttpArchiveInterceptor replay(@NonNull File directory) {
+    return new HttpArchiveInterceptor(directory, true);
+  }
+
+  /**
+   * Set the time a replayed response waits before its headers are delivered. Default value is 0.
+   *
+   * @param latencyMillis the simulated latency in milliseconds
+   * @return this interceptor
+   */
+  @NonNull
+  public HttpArchiveInterceptor setLatency(@IntRange(from = 0) long latencyMillis) {
+    this.latencyMillis = latencyMillis;
+    return this;
+  }
+
+  /**
+   * Set the rate at which replayed response bodies are delivered. Default value is 0, meaning unlimited.
+   *
+   * @param bytesPerSecond the simulated bandwidth in bytes per second
+   * @return this interceptor
+   */
+  @NonNull
+  public HttpArchiveInterceptor setBandwidth(@IntRange(from = 0) long bytesPerSecond) {
+    this.bytesPerSecond = bytesPerSecond;
+    return this;
+  }
+
+  /**
+   * Check if this interceptor serves responses from the archive.
+   *
+   * @return true in replay mode, false in record mode
+   */
+  public boolean isReplaying() {
+    return replay;
+  }
+
+  @Override
+  public Response intercept(@NonNull Chain chain) throws IOException {
+    Request request = chain.request();
+    File entry = new File(directory, keyOf(request));
+    return replay ? replay(request, entry) : record(chain.proceed(request), entry);
+  }
+
+  @NonNull
+  static String keyOf(@NonNull Request request) {
+    String key = request.method() + ' ' + request.url()
+      + '\n' + nullToEmpty(request.header("If-None-Match"))
+      + '\n' + nullToEmpty(request.header("If-Modified-Since"));
+    return ByteString.encodeUtf8(key).sha1().hex();
+  }
+
+  private Response record(Response response, File entry) throws IOException {
+    ResponseBody responseBody = response.body();
+    if (responseBody == null) {
+      return response;
+    }
+
+    MediaType contentType = responseBody.contentType();
+    byte[] body;
+    try {
+      body = responseBody.bytes();
+    } finally {
+      response.close();
+    }
+
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException("Unable to create archive directory " + directory);
+    }
+
+    // Concurrent requests may record the same entry, write aside and move it in place once complete.
+    File partial = File.createTempFile(entry.getName(), ".partial", directory);
+    try (BufferedSink sink = Okio.buffer(Okio.sink(partial))) {
+      sink.writeInt(FORMAT_VERSION);
+      sink.writeInt(response.code());
+      writeString(sink, response.message());
+      Headers headers = response.headers();
+      sink.writeInt(headers.size());
+      for (int i = 0; i < headers.size(); i++) {
+        writeString(sink, headers.name(i));
+        writeString(sink, headers.value(i));
+      }
+      sink.writeInt(body.length);
+      sink.write(body);
+    }
+    if (!partial.renameTo(entry)) {
+      partial.delete();
+    }
+
+    return response.newBuilder().body(ResponseBody.create(contentType, body)).build();
+  }
+
+  private Response replay(Request request, File entry) throws IOException {
+    int code;
+    String message;
+    Headers.Builder headers = new Headers.Builder();
+    byte[] body;
+    try (BufferedSource source = Okio.buffer(Okio.source(entry))) {
+      if (source.readInt() != FORMAT_VERSION) {
+        throw new IOException("Unsupported archive entry " + entry);
+      }
+      code = source.readInt();
+      message = readString(source);
+      int headerCount = source.readInt();
+      for (int i = 0; i < headerCount; i++) {
+        headers.add(readString(source), readString(source));
+      }
+      body = source.readByteArray(source.readInt());
+    } catch (FileNotFoundException exception) {
+      code = 404;
+      message = "Not recorded";
+      body = new byte[0];
+    }
+
+    long delayMillis = latencyMillis;
+    if (bytesPerSecond > 0) {
+      delayMillis += body.length * 1000L / bytesPerSecond;
+    }
+    if (delayMillis > 0) {
+      try {
+        Thread.sleep(delayMillis);
+      } catch (InterruptedException exception) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Replay interrupted");
+      }
+    }
+
+    Headers replayedHeaders = headers.build();
+    String contentType = replayedHeaders.get("Content-Type");
+    long now = System.currentTimeMillis();
+    return new Response.Builder()
+      .request(request)
+      .protocol(Protocol.HTTP_1_1)
+      .code(code)
+      .message(message)
+      .headers(replayedHeaders)
+      .body(ResponseBody.create(contentType != null ? MediaType.parse(contentType) : null, body))
+      .sentRequestAtMillis(now - delayMillis)
+      .receivedResponseAtMillis(now)
+      .build();
+  }
+
+  private static void writeString(BufferedSink sink, String value) throws IOException {
+    ByteString bytes = ByteString.encodeUtf8(value);
+    sink.writeInt(bytes.size());
+    sink.write(bytes);
+  }
+
+  private static String readString(BufferedSource source) throws IOException {
+    return source.readUtf8(source.readInt());
+  }
+
+  private static String nullToEmpty(String value) {
+    return value != null ? value : "";
+  }
+}
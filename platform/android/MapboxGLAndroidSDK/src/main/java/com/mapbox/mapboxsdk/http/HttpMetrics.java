@@ -0,0 +1,156 @@
+package com.mapbox.mapboxsdk.http;
+
+import android.support.annotation.IntRange;
+import android.support.annotation.NonNull;
+
+import com.mapbox.mapboxsdk.storage.Resource;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * {@link HttpMetricsListener} aggregating network requests into histograms and counters per resource kind.
+ * <p>
+ * Values are recorded without locking or allocating and can be read at any time, for example to export them
+ * periodically:
+ * </p>
+ * <pre>
+ * HttpMetrics metrics = new HttpMetrics();
+ * HttpRequestUtil.setHttpMetricsListener(metrics);
+ * ...
+ * Histogram tileLatency = metrics.getTimeToFirstByte(Resource.TILE);
+ * </pre>
+ */
+public final class HttpMetrics implements HttpMetricsListener {
+
+  private static final int KIND_COUNT = Resource.IMAGE + 1;
+  private static final int STATUS_CLASS_COUNT = 6;
+  private static final int FAILURE_TYPE_COUNT = PERMANENT_ERROR + 1;
+
+  private final Histogram[] queueTimes = new Histogram[KIND_COUNT];
+  private final Histogram[] timesToFirstByte = new Histogram[KIND_COUNT];
+  private final Histogram[] bodyLengths = new Histogram[KIND_COUNT];
+  private final AtomicLongArray statusClasses = new AtomicLongArray(KIND_COUNT * STATUS_CLASS_COUNT);
+  private final AtomicLongArray notModified = new AtomicLongArray(KIND_COUNT);
+  private final AtomicLongArray failures = new AtomicLongArray(KIND_COUNT * FAILURE_TYPE_COUNT);
+
+  public HttpMetrics() {
+    for (int i = 0; i < KIND_COUNT; i++) {
+      queueTimes[i] = new Histogram();
+      timesToFirstByte[i] = new Histogram();
+      bodyLengths[i] = new Histogram();
+    }
+  }
+
+  @Override
+  public void onResponse(@Resource.Kind int kind, int code, long queueNanos, long timeToFirstByteNanos,
+                         long bodyLength) {
+    int index = indexOf(kind);
+    queueTimes[index].record(queueNanos);
+    timesToFirstByte[index].record(timeToFirstByteNanos);
+    bodyLengths[index].record(bodyLength);
+    statusClasses.incrementAndGet(index * STATUS_CLASS_COUNT + statusClassOf(code));
+    if (code == 304) {
+      notModified.incrementAndGet(index);
+    }
+  }
+
+  @Override
+  public void onFailure(@Resource.Kind int kind, @FailureType int type, long queueNanos) {
+    int index = indexOf(kind);
+    queueTimes[index].record(queueNanos);
+    failures.incrementAndGet(index * FAILURE_TYPE_COUNT + type);
+  }
+
+  /**
+   * Get the time requests waited before being started, in nanoseconds.
+   *
+   * @param kind the resource kind
+   * @return the live histogram
+   */
+  @NonNull
+  public Histogram getQueueTime(@Resource.Kind int kind) {
+    return queueTimes[indexOf(kind)];
+  }
+
+  /**
+   * Get the time between starting requests and receiving their response headers, in nanoseconds.
+   *
+   * @param kind the resource kind
+   * @return the live histogram
+   */
+  @NonNull
+  public Histogram getTimeToFirstByte(@Resource.Kind int kind) {
+    return timesToFirstByte[indexOf(kind)];
+  }
+
+  /**
+   * Get the size of response bodies, in bytes.
+   *
+   * @param kind the resource kind
+   * @return the live histogram
+   */
+  @NonNull
+  public Histogram getBodyLength(@Resource.Kind int kind) {
+    return bodyLengths[indexOf(kind)];
+  }
+
+  /**
+   * Get the amount of responses with a status code in the given class, for example 2 for 2xx responses.
+   * Status codes outside of the 1xx to 5xx range are counted in class 0.
+   *
+   * @param kind        the resource kind
+   * @param statusClass the status class, between 0 and 5
+   * @return the response count
+   */
+  public long getStatusClassCount(@Resource.Kind int kind, @IntRange(from = 0, to = 5) int statusClass) {
+    return statusClasses.get(indexOf(kind) * STATUS_CLASS_COUNT + statusClass);
+  }
+
+  /**
+   * Get the amount of 304 responses, confirming that a cached resource can be revalidated.
+   *
+   * @param kind the resource kind
+   * @return the revalidation count
+   */
+  public long getNotModifiedCount(@Resource.Kind int kind) {
+    return notModified.get(indexOf(kind));
+  }
+
+  /**
+   * Get the amount of failed requests of the given failure type.
+   *
+   * @param kind the resource kind
+   * @param type the failure type
+   * @return the failure count
+   */
+  public long getFailureCount(@Resource.Kind int kind, @FailureType int type) {
+    return failures.get(indexOf(kind) * FAILURE_TYPE_COUNT + type);
+  }
+
+  /**
+   * Clear all histograms and counters.
+   */
+  public void reset() {
+    for (int i = 0; i < KIND_COUNT; i++) {
+      queueTimes[i].reset();
+      timesToFirstByte[i].reset();
+      bodyLengths[i].reset();
+      notModified.set(i, 0);
+    }
+    for (int i = 0; i < statusClasses.length(); i++) {
+      statusClasses.set(i, 0);
+    }
+    for (int i = 0; i < failures.length(); i++) {
+      failures.set(i, 0);
+    }
+  }
+
+  private static int indexOf(int kind) {
+    return kind >= 0 && kind < KIND_COUNT ? kind : Resource.UNKNOWN;
+  }
+
+  private static int statusClassOf(int code) {
+    int statusClass = code / 100;
+    return statusClass >= 1 && statusClass < STATUS_CLASS_COUNT ? statusClass : 0;
+  }
+}
@@ -0,0 +1,66 @@
+package com.mapbox.mapboxsdk.http;
+
+import android.support.annotation.IntDef;
+
+import com.mapbox.mapboxsdk.storage.Resource;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+/**
+ * Interface definition for a callback to be invoked when a network request for a map resource completes.
+ * <p>
+ * Callbacks are invoked once per network call, on the thread the call completed on. Requests for the same
+ * resource that were served by a single call are reported once. Implementations must be thread safe and return
+ * quickly, {@link HttpMetrics} aggregates the reported values into histograms.
+ * </p>
+ * <p>
+ * Register an instance with {@link HttpRequestUtil#setHttpMetricsListener(HttpMetricsListener)}.
+ * </p>
+ */
+public interface HttpMetricsListener {
+
+  /**
+   * Failure type variants.
+   */
+  @IntDef( {CONNECTION_ERROR, TEMPORARY_ERROR, PERMANENT_ERROR})
+  @Retention(RetentionPolicy.SOURCE)
+  @interface FailureType {
+  }
+
+  /**
+   * The request failed to connect, for example when there's no network connection.
+   */
+  int CONNECTION_ERROR = 0;
+
+  /**
+   * The request failed with an error that may go away when retried, for example a timeout.
+   */
+  int TEMPORARY_ERROR = 1;
+
+  /**
+   * The request failed with an error that won't go away when retried.
+   */
+  int PERMANENT_ERROR = 2;
+
+  /**
+   * Invoked when a response was received and its body was read.
+   *
+   * @param kind                  the resource kind of the request
+   * @param code                  the HTTP status code of the response
+   * @param queueNanos            the time the request waited before being started, in nanoseconds
+   * @param timeToFirstByteNanos  the time between starting the request and receiving the response headers,
+   *                              in nanoseconds
+   * @param bodyLength            the size of the response body in bytes
+   */
+  void onResponse(@Resource.Kind int kind, int code, long queueNanos, long timeToFirstByteNanos, long bodyLength);
+
+  /**
+   * Invoked when a request failed.
+   *
+   * @param kind       the resource kind of the request
+   * @param type       the failure type
+   * @param queueNanos the time the request waited before being started, in nanoseconds
+   */
+  void onFailure(@Resource.Kind int kind, @FailureType int type, long queueNanos);
+}
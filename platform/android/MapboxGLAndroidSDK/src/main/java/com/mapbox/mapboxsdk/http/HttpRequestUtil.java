@@ -1,5 +1,7 @@
 package com.mapbox.mapboxsdk.http;
 
+import android.support.annotation.Nullable;
+
 import okhttp3.OkHttpClient;
 
 /**
@@ -43,4 +45,67 @@ public class HttpRequestUtil {
     HTTPRequest.setOKHttpClient(client);
   }
 
+  /**
+   * Set the interceptor recording responses to, or replaying them from, an archive on disk, null to remove it.
+   * <p>
+   * The interceptor is added to the OkHttpClient set with {@link #setOkHttpClient(OkHttpClient)}. While replaying,
+   * requests are served without checking for network connectivity.
+   * This configuration will outlast the lifecycle of the Map.
+   * </p>
+   *
+   * @param interceptor the archive interceptor
+   */
+  public static void setHttpArchiveInterceptor(@Nullable HttpArchiveInterceptor interceptor) {
+    HTTPRequest.setArchiveInterceptor(interceptor);
+  }
+
+  /**
+   * Set the listener notified when a network request for a map resource completes, null to remove it.
+   * <p>
+   * Use {@link HttpMetrics} to aggregate requests into latency and body size histograms per resource kind.
+   * This configuration will outlast the lifecycle of the Map.
+   * </p>
+   *
+   * @param listener the listener to notify
+   */
+  public static void setHttpMetricsListener(@Nullable HttpMetricsListener listener) {
+    HTTPRequest.setMetricsListener(listener);
+  }
+
+  /**
+   * Get the queue depth and wait time counters of the scheduler admitting map resource requests to the network.
+   * <p>
+   * Style, source, sprite and glyph requests are started before tile requests, the most recent tile
+   * request is started first.
+   * </p>
+   *
+   * @return a snapshot of the scheduler counters
+   */
+  public static RequestSchedulerStatistics getRequestSchedulerStatistics() {
+    return HTTPRequest.getRequestSchedulerStatistics();
+  }
+
+  /**
+   * Enable delivering response bodies to the map through pooled direct byte buffers instead of a new
+   * byte array per response. Default value is false.
+   * <p>
+   * This configuration will outlast the lifecycle of the Map.
+   * </p>
+   *
+   * @param enabled True will stream response bodies into pooled buffers, false will use byte arrays
+   */
+  public static void setDirectBufferDeliveryEnabled(boolean enabled) {
+    HTTPRequest.enableDirectBufferDelivery(enabled);
+  }
+
+  /**
+   * Get the allocation counters of the direct buffer pool used when
+   * {@link #setDirectBufferDeliveryEnabled(boolean)} is activated.
+   *
+   * @return a snapshot of the buffer pool counters
+   */
+  public static ResponseBufferStatistics getResponseBufferStatistics() {
+    return HTTPRequest.getResponseBufferStatistics();
+  }
+
 }
\ No newline at end of file
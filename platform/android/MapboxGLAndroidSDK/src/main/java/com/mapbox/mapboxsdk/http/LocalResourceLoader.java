@@ -0,0 +1,231 @@
+package com.mapbox.mapboxsdk.http;
+
+import android.content.res.AssetFileDescriptor;
+import android.content.res.AssetManager;
+import android.support.annotation.NonNull;
+import android.support.annotation.WorkerThread;
+
+import com.mapbox.mapboxsdk.Mapbox;
+
+import okio.BufferedSource;
+import okio.Okio;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Locale;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads resources bundled with the application or stored on the device.
+ * <p>
+ * Supported schemes are {@code asset://} for files in the assets folder, {@code file://} for absolute file paths
+ * and {@code local://} for files in the integration folder of the assets, as used by the render tests.
+ * </p>
+ * <p>
+ * Resources are read in parallel on a small pool of threads. Files and uncompressed assets larger than
+ * {@link #MAP_THRESHOLD} are memory mapped, smaller or compressed ones are read into a pooled direct buffer.
+ * Either way the buffer is handed to native without copying it to the Java heap.
+ * </p>
+ */
+final class LocalResourceLoader {
+
+  static final String LOCAL_SCHEME = "local://";
+  static final String ASSET_SCHEME = "asset://";
+  static final String FILE_SCHEME = "file://";
+  static final int MAP_THRESHOLD = 64 * 1024;
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+  private static final String THREAD_PREFIX = "LocalResource";
+  private static final int THREAD_POOL_LIMIT = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+  private static final ThreadPoolExecutor executor = new ThreadPoolExecutor(THREAD_POOL_LIMIT, THREAD_POOL_LIMIT,
+    30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+      final AtomicInteger threadCount = new AtomicInteger();
+
+      @Override
+      public Thread newThread(@NonNull Runnable runnable) {
+        return new Thread(runnable, String.format(Locale.US, "%s-%d", THREAD_PREFIX, threadCount.getAndIncrement()));
+      }
+    });
+
+  static {
+    executor.allowCoreThreadTimeOut(true);
+  }
+
+  private LocalResourceLoader() {
+  }
+
+  /**
+   * Check if a url is served by this loader.
+   *
+   * @param url the resource url
+   * @return true if the url has a local scheme
+   */
+  static boolean accepts(@NonNull String url) {
+    return url.startsWith(LOCAL_SCHEME) || url.startsWith(ASSET_SCHEME) || url.startsWith(FILE_SCHEME);
+  }
+
+  /**
+   * Load a resource in the background.
+   *
+   * @param url      the resource url
+   * @param callback the callback invoked on the loading thread
+   * @return the pending load, cancel it to drop the load if it didn't start yet
+   */
+  @NonNull
+  static Future<?> load(@NonNull final String url, @NonNull final Callback callback) {
+    return executor.submit(new Runnable() {
+      @Override
+      public void run() {
+        ResponseBufferPool bufferPool = HTTPRequest.getBufferPool();
+        ByteBuffer body;
+        try {
+          body = read(url, bufferPool);
+        } catch (IOException exception) {
+          callback.onFailure(exception);
+          return;
+        }
+
+        try {
+          callback.onResponse(body, body.position());
+        } finally {
+          // mapped buffers are read only, only buffers obtained from the pool go back to it
+          if (!body.isReadOnly()) {
+            bufferPool.release(body);
+          }
+        }
+      }
+    });
+  }
+
+  @WorkerThread
+  private static ByteBuffer read(String url, ResponseBufferPool bufferPool) throws IOException {
+    if (url.startsWith(FILE_SCHEME)) {
+      return readFile(new File(decodePath(url.substring(FILE_SCHEME.length()))), bufferPool);
+    }
+
+    AssetManager assets = Mapbox.getApplicationContext().getAssets();
+    String path = url.startsWith(LOCAL_SCHEME)
+      ? "integration/" + decodePath(url.substring(LOCAL_SCHEME.length()))
+      : decodePath(url.substring(ASSET_SCHEME.length()));
+    return readAsset(assets, path, bufferPool);
+  }
+
+  private static ByteBuffer readFile(File file, ResponseBufferPool bufferPool) throws IOException {
+    try (FileInputStream input = new FileInputStream(file)) {
+      FileChannel channel = input.getChannel();
+      return readChannel(channel, 0, channel.size(), bufferPool);
+    }
+  }
+
+  private static ByteBuffer readAsset(AssetManager assets, String path, ResponseBufferPool bufferPool)
+    throws IOException {
+    AssetFileDescriptor descriptor;
+    try {
+      descriptor = assets.openFd(path);
+    } catch (FileNotFoundException exception) {
+      // Compressed assets can't be opened as a file descriptor, stream and inflate them instead.
+      // Throws FileNotFoundException again if the asset doesn't exist at all.
+      try (InputStream input = assets.open(path); BufferedSource source = Okio.buffer(Okio.source(input))) {
+        return bufferPool.read(source, -1);
+      }
+    }
+
+    try (FileInputStream input = descriptor.createInputStream()) {
+      FileChannel channel = input.getChannel();
+      long length = descriptor.getLength();
+      if (length == AssetFileDescriptor.UNKNOWN_LENGTH) {
+        length = channel.size() - descriptor.getStartOffset();
+      }
+      return readChannel(channel, descriptor.getStartOffset(), length, bufferPool);
+    } finally {
+      descriptor.close();
+    }
+  }
+
+  private static ByteBuffer readChannel(FileChannel channel, long offset, long length, ResponseBufferPool bufferPool)
+    throws IOException {
+    if (length > Integer.MAX_VALUE) {
+      throw new IOException("Resource too large: " + length + " bytes");
+    }
+
+    if (length >= MAP_THRESHOLD) {
+      ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+      // position marks the end of the content, like buffers read by the pool
+      mapped.position((int) length);
+      return mapped;
+    }
+
+    ByteBuffer buffer = bufferPool.acquire((int) length);
+    buffer.limit((int) length);
+    try {
+      while (buffer.hasRemaining()) {
+        if (channel.read(buffer, offset + buffer.position()) == -1) {
+          throw new IOException("Unexpected end of file");
+        }
+      }
+    } catch (IOException exception) {
+      bufferPool.release(buffer);
+      throw exception;
+    }
+    return buffer;
+  }
+
+  /**
+   * Decode percent encoded characters of a url path.
+   *
+   * @param path the encoded path
+   * @return the decoded path
+   */
+  @NonNull
+  static String decodePath(@NonNull String path) {
+    if (path.indexOf('%') == -1) {
+      return path;
+    }
+
+    // '%' and hex digits are single bytes in UTF-8, decode in place on the encoded bytes
+    byte[] bytes = path.getBytes(UTF_8);
+    int length = 0;
+    for (int i = 0; i < bytes.length; i++) {
+      if (bytes[i] == '%' && i + 2 < bytes.length) {
+        int high = Character.digit(bytes[i + 1], 16);
+        int low = Character.digit(bytes[i + 2], 16);
+        if (high != -1 && low != -1) {
+          bytes[length++] = (byte) ((high << 4) | low);
+          i += 2;
+          continue;
+        }
+      }
+      bytes[length++] = bytes[i];
+    }
+    return new String(bytes, 0, length, UTF_8);
+  }
+
+  interface Callback {
+
+    /**
+     * Invoked when the resource was read.
+     *
+     * @param body   a direct buffer holding the resource, valid until this method returns
+     * @param length the length of the resource
+     */
+    void onResponse(@NonNull ByteBuffer body, int length);
+
+    /**
+     * Invoked when reading the resource failed.
+     *
+     * @param exception the failure, a {@link FileNotFoundException} if the resource doesn't exist
+     */
+    void onFailure(@NonNull IOException exception);
+  }
+}
@@ -0,0 +1,176 @@
+package com.mapbox.mapboxsdk.http;
+
+import android.support.annotation.NonNull;
+
+import com.mapbox.mapboxsdk.storage.Resource;
+import com.mapbox.mapboxsdk.utils.Compare;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Admits network calls in order of resource priority while limiting the amount of calls in flight.
+ * <p>
+ * Resources blocking the first render (style, source, sprite and glyphs) are started before anything else,
+ * tiles go last. Within a priority class requests are started in order of arrival, except for tiles where the
+ * most recent request goes first as older tile requests are likely to be out of view already.
+ * </p>
+ */
+final class RequestScheduler {
+
+  static final int PRIORITY_HIGH = 0;
+  static final int PRIORITY_NORMAL = 1;
+  static final int PRIORITY_LOW = 2;
+
+  private static final Comparator<CoalescedCall> PRIORITY_ORDER = new Comparator<CoalescedCall>() {
+    @Override
+    public int compare(CoalescedCall first, CoalescedCall second) {
+      if (first.priority != second.priority) {
+        return first.priority < second.priority ? -1 : 1;
+      }
+
+      if (first.priority == PRIORITY_LOW) {
+        // last in, first out
+        return Compare.compare(second.sequence, first.sequence);
+      }
+      return Compare.compare(first.sequence, second.sequence);
+    }
+  };
+
+  private final PriorityQueue<CoalescedCall> queue = new PriorityQueue<>(64, PRIORITY_ORDER);
+  private final int maxRunningCalls;
+  private int runningCalls;
+  private long sequence;
+
+  private int maxQueueDepth;
+  private long startedCalls;
+  private long totalWaitNanos;
+  private long maxWaitNanos;
+
+  RequestScheduler(int maxRunningCalls) {
+    this.maxRunningCalls = maxRunningCalls;
+  }
+
+  /**
+   * Map a resource kind to a priority class.
+   *
+   * @param kind the resource kind
+   * @return the priority class
+   */
+  static int priorityOf(@Resource.Kind int kind) {
+    switch (kind) {
+      case Resource.STYLE:
+      case Resource.SOURCE:
+      case Resource.SPRITE_IMAGE:
+      case Resource.SPRITE_JSON:
+      case Resource.GLYPHS:
+        return PRIORITY_HIGH;
+      case Resource.TILE:
+        return PRIORITY_LOW;
+      default:
+        return PRIORITY_NORMAL;
+    }
+  }
+
+  /**
+   * Schedule a call, starting it right away if the limit of running calls isn't reached.
+   *
+   * @param call the call to schedule
+   */
+  void schedule(@NonNull CoalescedCall call) {
+    synchronized (this) {
+      call.sequence = sequence++;
+      call.scheduledNanos = System.nanoTime();
+      if (runningCalls >= maxRunningCalls) {
+        call.state = CoalescedCall.STATE_QUEUED;
+        queue.add(call);
+        maxQueueDepth = Math.max(maxQueueDepth, queue.size());
+        return;
+      }
+      markRunning(call);
+    }
+    call.start();
+  }
+
+  /**
+   * Raise the priority of a queued call, for example when a more important request joins it.
+   *
+   * @param call     the queued call
+   * @param priority the new priority class
+   */
+  synchronized void prioritize(@NonNull CoalescedCall call, int priority) {
+    if (priority >= call.priority) {
+      return;
+    }
+
+    if (call.state == CoalescedCall.STATE_QUEUED) {
+      queue.remove(call);
+      call.priority = priority;
+      queue.add(call);
+    } else {
+      call.priority = priority;
+    }
+  }
+
+  /**
+   * Remove a call which hasn't started yet from the queue.
+   *
+   * @param call the call to remove
+   * @return true if the call was queued, false if it already started
+   */
+  synchronized boolean remove(@NonNull CoalescedCall call) {
+    if (call.state != CoalescedCall.STATE_QUEUED) {
+      return false;
+    }
+    queue.remove(call);
+    call.state = CoalescedCall.STATE_FINISHED;
+    return true;
+  }
+
+  /**
+   * Mark a running call as finished and start the next queued calls.
+   *
+   * @param call the finished call
+   */
+  void finish(@NonNull CoalescedCall call) {
+    List<CoalescedCall> ready = null;
+    synchronized (this) {
+      if (call.state != CoalescedCall.STATE_RUNNING) {
+        return;
+      }
+      call.state = CoalescedCall.STATE_FINISHED;
+      runningCalls--;
+
+      while (runningCalls < maxRunningCalls && !queue.isEmpty()) {
+        CoalescedCall next = queue.poll();
+        markRunning(next);
+        if (ready == null) {
+          ready = new ArrayList<>(1);
+        }
+        ready.add(next);
+      }
+    }
+
+    if (ready != null) {
+      for (CoalescedCall next : ready) {
+        next.start();
+      }
+    }
+  }
+
+  synchronized RequestSchedulerStatistics getStatistics() {
+    return new RequestSchedulerStatistics(queue.size(), runningCalls, maxQueueDepth, startedCalls,
+      totalWaitNanos, maxWaitNanos);
+  }
+
+  private void markRunning(CoalescedCall call) {
+    long waitNanos = System.nanoTime() - call.scheduledNanos;
+    totalWaitNanos += waitNanos;
+    maxWaitNanos = Math.max(maxWaitNanos, waitNanos);
+    startedCalls++;
+    runningCalls++;
+    call.state = CoalescedCall.STATE_RUNNING;
+  }
+}
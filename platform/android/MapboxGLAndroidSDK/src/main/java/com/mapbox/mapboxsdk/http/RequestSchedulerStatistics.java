@@ -0,0 +1,93 @@
+package com.mapbox.mapboxsdk.http;
+
+/**
+ * Snapshot of the queue depth and wait time counters of the scheduler admitting network requests.
+ * <p>
+ * Obtain an instance with {@link HttpRequestUtil#getRequestSchedulerStatistics()}.
+ * </p>
+ */
+public final class RequestSchedulerStatistics {
+
+  private final int queuedRequests;
+  private final int runningRequests;
+  private final int maxQueueDepth;
+  private final long startedRequests;
+  private final long totalWaitNanos;
+  private final long maxWaitNanos;
+
+  RequestSchedulerStatistics(int queuedRequests, int runningRequests, int maxQueueDepth, long startedRequests,
+                             long totalWaitNanos, long maxWaitNanos) {
+    this.queuedRequests = queuedRequests;
+    this.runningRequests = runningRequests;
+    this.maxQueueDepth = maxQueueDepth;
+    this.startedRequests = startedRequests;
+    this.totalWaitNanos = totalWaitNanos;
+    this.maxWaitNanos = maxWaitNanos;
+  }
+
+  /**
+   * Get the amount of requests waiting to be started.
+   *
+   * @return the current queue depth
+   */
+  public int getQueuedRequests() {
+    return queuedRequests;
+  }
+
+  /**
+   * Get the amount of requests currently in flight.
+   *
+   * @return the running requests
+   */
+  public int getRunningRequests() {
+    return runningRequests;
+  }
+
+  /**
+   * Get the highest amount of requests that were waiting to be started at the same time.
+   *
+   * @return the maximum queue depth
+   */
+  public int getMaxQueueDepth() {
+    return maxQueueDepth;
+  }
+
+  /**
+   * Get the amount of requests started since the process was created.
+   *
+   * @return the started requests
+   */
+  public long getStartedRequests() {
+    return startedRequests;
+  }
+
+  /**
+   * Get the average time a request waited before being started.
+   *
+   * @return the average wait time in nanoseconds
+   */
+  public long getAverageWaitNanos() {
+    return startedRequests == 0 ? 0 : totalWaitNanos / startedRequests;
+  }
+
+  /**
+   * Get the longest time a request waited before being started.
+   *
+   * @return the maximum wait time in nanoseconds
+   */
+  public long getMaxWaitNanos() {
+    return maxWaitNanos;
+  }
+
+  @Override
+  public String toString() {
+    return "RequestSchedulerStatistics{"
+      + "queuedRequests=" + queuedRequests
+      + ", runningRequests=" + runningRequests
+      + ", maxQueueDepth=" + maxQueueDepth
+      + ", startedRequests=" + startedRequests
+      + ", averageWaitNanos=" + getAverageWaitNanos()
+      + ", maxWaitNanos=" + maxWaitNanos
+      + '}';
+  }
+}
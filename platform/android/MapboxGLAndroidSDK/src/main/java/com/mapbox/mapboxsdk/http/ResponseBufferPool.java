@@ -0,0 +1,177 @@
+package com.mapbox.mapboxsdk.http;
+
+import android.support.annotation.NonNull;
+
+import okio.BufferedSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of direct byte buffers used to hand response bodies to native without an intermediate Java byte array.
+ * <p>
+ * Buffers are bucketed by power of two capacity, starting at {@link #MIN_CAPACITY}. Buffers larger than
+ * {@link #MAX_POOLED_CAPACITY} are allocated on demand and dropped on release, as are buffers released while the
+ * pool holds {@link #MAX_POOLED_BYTES} already.
+ * </p>
+ */
+final class ResponseBufferPool {
+
+  static final int MIN_CAPACITY = 16 * 1024;
+  static final int MAX_POOLED_CAPACITY = 4 * 1024 * 1024;
+  private static final int MIN_CAPACITY_SHIFT = Integer.numberOfTrailingZeros(MIN_CAPACITY);
+  private static final int BUCKET_COUNT = Integer.numberOfTrailingZeros(MAX_POOLED_CAPACITY) - MIN_CAPACITY_SHIFT + 1;
+  private static final int MAX_BUFFERS_PER_BUCKET = 8;
+  static final long MAX_POOLED_BYTES = 4 * 1024 * 1024;
+
+  private final ArrayDeque<ByteBuffer>[] buckets;
+  // capacity of the buffers held by the pool, guarded by buckets
+  private long pooledBytes;
+
+  private final AtomicLong allocationCount = new AtomicLong();
+  private final AtomicLong allocatedBytes = new AtomicLong();
+  private final AtomicLong reuseCount = new AtomicLong();
+  private final AtomicLong deliveredBytes = new AtomicLong();
+
+  @SuppressWarnings("unchecked")
+  ResponseBufferPool() {
+    buckets = new ArrayDeque[BUCKET_COUNT];
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      buckets[i] = new ArrayDeque<>(MAX_BUFFERS_PER_BUCKET);
+    }
+  }
+
+  /**
+   * Obtain a cleared buffer with at least the requested capacity.
+   *
+   * @param minCapacity the minimum capacity in bytes
+   * @return a direct byte buffer
+   */
+  @NonNull
+  ByteBuffer acquire(int minCapacity) {
+    int bucket = bucketFor(minCapacity);
+    if (bucket < BUCKET_COUNT) {
+      ByteBuffer buffer;
+      synchronized (buckets) {
+        buffer = buckets[bucket].pollFirst();
+        if (buffer != null) {
+          pooledBytes -= buffer.capacity();
+        }
+      }
+      if (buffer != null) {
+        reuseCount.incrementAndGet();
+        buffer.clear();
+        return buffer;
+      }
+      return allocate(MIN_CAPACITY << bucket);
+    }
+    return allocate(minCapacity);
+  }
+
+  /**
+   * Obtain a buffer with at least the requested capacity, holding the contents of the given buffer.
+   * The given buffer is returned to the pool.
+   *
+   * @param buffer      the buffer in write mode to grow
+   * @param minCapacity the minimum capacity in bytes
+   * @return a direct byte buffer in write mode
+   */
+  @NonNull
+  ByteBuffer grow(@NonNull ByteBuffer buffer, int minCapacity) {
+    ByteBuffer grown = acquire(minCapacity);
+    buffer.flip();
+    grown.put(buffer);
+    release(buffer);
+    return grown;
+  }
+
+  /**
+   * Read a source until it is exhausted into a pooled buffer.
+   *
+   * @param source        the source to read
+   * @param contentLength the expected length of the source, or -1 if unknown
+   * @return a direct byte buffer in write mode, its position marks the end of the content
+   * @throws IOException if reading the source fails, the buffer is returned to the pool
+   */
+  @NonNull
+  ByteBuffer read(@NonNull BufferedSource source, long contentLength) throws IOException {
+    int capacity = contentLength > 0 && contentLength < Integer.MAX_VALUE ? (int) contentLength : MIN_CAPACITY;
+    ByteBuffer buffer = acquire(capacity);
+    try {
+      while (source.read(buffer) != -1) {
+        if (!buffer.hasRemaining()) {
+          if (source.exhausted()) {
+            break;
+          }
+          buffer = grow(buffer, buffer.capacity() * 2);
+        }
+      }
+      return buffer;
+    } catch (IOException ioException) {
+      release(buffer);
+      throw ioException;
+    }
+  }
+
+  /**
+   * Return a buffer to the pool.
+   *
+   * @param buffer the buffer to release
+   */
+  void release(@NonNull ByteBuffer buffer) {
+    int capacity = buffer.capacity();
+    if (Integer.bitCount(capacity) != 1 || capacity < MIN_CAPACITY || capacity > MAX_POOLED_CAPACITY) {
+      return;
+    }
+
+    int bucket = Integer.numberOfTrailingZeros(capacity) - MIN_CAPACITY_SHIFT;
+    synchronized (buckets) {
+      if (buckets[bucket].size() < MAX_BUFFERS_PER_BUCKET && pooledBytes + capacity <= MAX_POOLED_BYTES) {
+        buckets[bucket].offerFirst(buffer);
+        pooledBytes += capacity;
+      }
+    }
+  }
+
+  void onDelivered(int length) {
+    deliveredBytes.addAndGet(length);
+  }
+
+  long getAllocationCount() {
+    return allocationCount.get();
+  }
+
+  long getAllocatedBytes() {
+    return allocatedBytes.get();
+  }
+
+  long getReuseCount() {
+    return reuseCount.get();
+  }
+
+  long getDeliveredBytes() {
+    return deliveredBytes.get();
+  }
+
+  long getPooledBytes() {
+    synchronized (buckets) {
+      return pooledBytes;
+    }
+  }
+
+  private ByteBuffer allocate(int capacity) {
+    allocationCount.incrementAndGet();
+    allocatedBytes.addAndGet(capacity);
+    return ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
+  }
+
+  private static int bucketFor(int minCapacity) {
+    if (minCapacity <= MIN_CAPACITY) {
+      return 0;
+    }
+    return 32 - Integer.numberOfLeadingZeros(minCapacity - 1) - MIN_CAPACITY_SHIFT;
+  }
+}
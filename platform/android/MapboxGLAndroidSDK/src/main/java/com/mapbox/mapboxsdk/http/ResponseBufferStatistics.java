@@ -0,0 +1,69 @@
+package com.mapbox.mapboxsdk.http;
+
+/**
+ * Snapshot of the allocation counters of the direct buffer pool used to deliver response bodies.
+ * <p>
+ * Obtain an instance with {@link HttpRequestUtil#getResponseBufferStatistics()}.
+ * </p>
+ */
+public final class ResponseBufferStatistics {
+
+  private final long allocationCount;
+  private final long allocatedBytes;
+  private final long reuseCount;
+  private final long deliveredBytes;
+
+  ResponseBufferStatistics(long allocationCount, long allocatedBytes, long reuseCount, long deliveredBytes) {
+    this.allocationCount = allocationCount;
+    this.allocatedBytes = allocatedBytes;
+    this.reuseCount = reuseCount;
+    this.deliveredBytes = deliveredBytes;
+  }
+
+  /**
+   * Get the amount of direct buffers allocated by the pool.
+   *
+   * @return the allocation count
+   */
+  public long getAllocationCount() {
+    return allocationCount;
+  }
+
+  /**
+   * Get the total capacity, in bytes, of direct buffers allocated by the pool.
+   *
+   * @return the allocated bytes
+   */
+  public long getAllocatedBytes() {
+    return allocatedBytes;
+  }
+
+  /**
+   * Get the amount of times a pooled buffer was reused instead of allocating a new one.
+   *
+   * @return the reuse count
+   */
+  public long getReuseCount() {
+    return reuseCount;
+  }
+
+  /**
+   * Get the total size, in bytes, of response bodies delivered through pooled buffers.
+   * Without the pool, each of these bytes would have been allocated on the Java heap.
+   *
+   * @return the delivered bytes
+   */
+  public long getDeliveredBytes() {
+    return deliveredBytes;
+  }
+
+  @Override
+  public String toString() {
+    return "ResponseBufferStatistics{"
+      + "allocationCount=" + allocationCount
+      + ", allocatedBytes=" + allocatedBytes
+      + ", reuseCount=" + reuseCount
+      + ", deliveredBytes=" + deliveredBytes
+      + '}';
+  }
+}
@@ -0,0 +1,227 @@
+package com.mapbox.mapboxsdk.maps;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.UiThread;
+import android.support.v4.util.LongSparseArray;
+import android.view.Choreographer;
+
+import com.mapbox.mapboxsdk.annotations.Annotation;
+import com.mapbox.mapboxsdk.annotations.Marker;
+import com.mapbox.mapboxsdk.annotations.Polygon;
+import com.mapbox.mapboxsdk.annotations.Polyline;
+import com.mapbox.mapboxsdk.utils.FrameScheduler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Records annotation changes made in a {@link MapboxMap#batchAnnotations(MapboxMap.AnnotationTransaction)}
+ * transaction and commits them to the map in bulk, once per frame.
+ * <p>
+ * Redundant changes are collapsed while recording: only the last update of an annotation is kept, updates of markers
+ * added in the same batch are folded into the add, and removing an annotation drops its pending changes, including
+ * the add itself. Removals are applied to the {@link AnnotationRegistry} right away, other changes when committed.
+ * </p>
+ */
+@UiThread
+class AnnotationBatch {
+
+  private final NativeMapView nativeMapView;
+  private final AnnotationRegistry annotations;
+  // null without frame callbacks
+  @Nullable
+  private final FrameScheduler commitScheduler;
+
+  // markers added in order, the set tells which are still pending as removing from the list is linear
+  private final List<Marker> addedMarkers = new ArrayList<>();
+  private final Set<Marker> pendingMarkers = Collections.newSetFromMap(new IdentityHashMap<Marker, Boolean>());
+  private final LongSparseArray<Annotation> updatedAnnotations = new LongSparseArray<>();
+  private final LongSparseArray<Annotation> removedAnnotations = new LongSparseArray<>();
+
+  private int depth;
+  private boolean commitScheduled;
+
+  AnnotationBatch(NativeMapView nativeMapView, @NonNull AnnotationRegistry annotations) {
+    this(nativeMapView, annotations, FrameScheduler.getChoreographer());
+  }
+
+  AnnotationBatch(NativeMapView nativeMapView, @NonNull AnnotationRegistry annotations,
+                  @Nullable Choreographer choreographer) {
+    this.nativeMapView = nativeMapView;
+    this.annotations = annotations;
+    this.commitScheduler = choreographer != null ? new FrameScheduler(choreographer, new Runnable() {
+      @Override
+      public void run() {
+        commitScheduled = false;
+        commit();
+      }
+    }) : null;
+  }
+
+  /**
+   * Start recording changes, transactions can be nested.
+   */
+  void open() {
+    depth++;
+  }
+
+  /**
+   * Stop recording changes, the outermost transaction schedules a commit on the next frame.
+   * Without a frame source, the changes are committed right away.
+   */
+  void close() {
+    if (depth == 0 || --depth > 0 || isEmpty()) {
+      return;
+    }
+
+    if (commitScheduler == null) {
+      commit();
+    } else if (!commitScheduled) {
+      commitScheduled = true;
+      commitScheduler.schedule();
+    }
+  }
+
+  boolean isRecording() {
+    return depth > 0;
+  }
+
+  /**
+   * Check if a marker was added in a batch and isn't committed yet.
+   *
+   * @param marker the marker to check
+   * @return true if the marker is waiting to be added to the map
+   */
+  boolean isPendingAdd(@NonNull Marker marker) {
+    return marker.getId() == -1 && pendingMarkers.contains(marker);
+  }
+
+  void add(@NonNull Marker marker) {
+    if (pendingMarkers.add(marker)) {
+      addedMarkers.add(marker);
+    }
+  }
+
+  /**
+   * Record an update, replacing the previous update of the same annotation.
+   *
+   * @param annotation the updated annotation
+   */
+  void update(@NonNull Annotation annotation) {
+    if (annotation instanceof Marker && isPendingAdd((Marker) annotation)) {
+      // the add picks up the latest state of the marker
+      return;
+    }
+    updatedAnnotations.put(annotation.getId(), annotation);
+  }
+
+  /**
+   * Record a removal, dropping the pending changes of the annotation.
+   *
+   * @param annotation the removed annotation
+   */
+  void remove(@NonNull Annotation annotation) {
+    if (annotation instanceof Marker && isPendingAdd((Marker) annotation)) {
+      pendingMarkers.remove(annotation);
+      return;
+    }
+    remove(annotation.getId());
+  }
+
+  void remove(long id) {
+    updatedAnnotations.remove(id);
+    Annotation annotation = annotations.remove(id);
+    if (annotation != null) {
+      removedAnnotations.put(id, annotation);
+    }
+  }
+
+  /**
+   * Record the removal of all annotations, dropping pending changes.
+   *
+   * @return the markers added in the batch, which are dropped before reaching the map
+   */
+  @NonNull
+  List<Marker> removeAll() {
+    List<Marker> dropped = new ArrayList<>(pendingMarkers.size());
+    for (Marker marker : addedMarkers) {
+      if (pendingMarkers.remove(marker)) {
+        dropped.add(marker);
+      }
+    }
+    addedMarkers.clear();
+    updatedAnnotations.clear();
+    for (long id : annotations.getIds()) {
+      removedAnnotations.put(id, annotations.get(id));
+    }
+    annotations.clear();
+    return dropped;
+  }
+
+  /**
+   * Commit recorded changes now, if any, instead of waiting for the next frame.
+   * Called before changes made outside of a batch to keep them in order.
+   */
+  void commitPending() {
+    if (commitScheduled) {
+      commitScheduler.cancel();
+      commitScheduled = false;
+      commit();
+    }
+  }
+
+  private boolean isEmpty() {
+    return pendingMarkers.isEmpty() && updatedAnnotations.size() == 0 && removedAnnotations.size() == 0;
+  }
+
+  private void commit() {
+    if (removedAnnotations.size() > 0) {
+      long[] ids = new long[removedAnnotations.size()];
+      for (int i = 0; i < ids.length; i++) {
+        ids[i] = removedAnnotations.keyAt(i);
+      }
+      removedAnnotations.clear();
+      nativeMapView.removeAnnotations(ids);
+    }
+
+    if (!pendingMarkers.isEmpty()) {
+      List<Marker> markers = new ArrayList<>(pendingMarkers.size());
+      for (Marker marker : addedMarkers) {
+        if (pendingMarkers.remove(marker)) {
+          markers.add(marker);
+        }
+      }
+      addedMarkers.clear();
+      long[] ids = nativeMapView.addMarkers(markers);
+      for (int i = 0; i < ids.length; i++) {
+        Marker marker = markers.get(i);
+        marker.setId(ids[i]);
+        annotations.put(ids[i], marker);
+      }
+    }
+
+    if (updatedAnnotations.size() > 0) {
+      int count = updatedAnnotations.size();
+      List<Marker> markers = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        Annotation annotation = updatedAnnotations.valueAt(i);
+        if (annotation instanceof Marker) {
+          markers.add((Marker) annotation);
+        } else if (annotation instanceof Polygon) {
+          nativeMapView.updatePolygon((Polygon) annotation);
+        } else if (annotation instanceof Polyline) {
+          nativeMapView.updatePolyline((Polyline) annotation);
+        }
+        annotations.put(annotation.getId(), annotation);
+      }
+      updatedAnnotations.clear();
+      if (!markers.isEmpty()) {
+        nativeMapView.updateMarkers(markers);
+      }
+    }
+  }
+}
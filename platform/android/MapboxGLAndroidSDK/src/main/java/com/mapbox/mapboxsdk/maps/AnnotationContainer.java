@@ -2,11 +2,9 @@ package com.mapbox.mapboxsdk.maps;
 
 
 import android.support.annotation.NonNull;
-import android.support.v4.util.LongSparseArray;
 
 import com.mapbox.mapboxsdk.annotations.Annotation;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -15,9 +13,9 @@ import java.util.List;
 class AnnotationContainer implements Annotations {
 
   private final NativeMapView nativeMapView;
-  private final LongSparseArray<Annotation> annotations;
+  private final AnnotationRegistry annotations;
 
-  AnnotationContainer(NativeMapView nativeMapView, LongSparseArray<Annotation> annotations) {
+  AnnotationContainer(NativeMapView nativeMapView, AnnotationRegistry annotations) {
     this.nativeMapView = nativeMapView;
     this.annotations = annotations;
   }
@@ -29,11 +27,7 @@ class AnnotationContainer implements Annotations {
 
   @Override
   public List<Annotation> obtainAll() {
-    List<Annotation> annotations = new ArrayList<>();
-    for (int i = 0; i < this.annotations.size(); i++) {
-      annotations.add(this.annotations.get(this.annotations.keyAt(i)));
-    }
-    return annotations;
+    return annotations.obtainAll();
   }
 
   @Override
@@ -67,13 +61,7 @@ class AnnotationContainer implements Annotations {
 
   @Override
   public void removeAll() {
-    int count = annotations.size();
-    long[] ids = new long[count];
-    for (int i = 0; i < count; i++) {
-      ids[i] = annotations.keyAt(i);
-    }
-
-    removeNativeAnnotations(ids);
+    removeNativeAnnotations(annotations.getIds());
 
     annotations.clear();
   }
@@ -0,0 +1,361 @@
+package com.mapbox.mapboxsdk.maps;
+
+import android.support.annotation.NonNull;
+import android.support.v4.util.LongSparseArray;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * R-tree of annotation ids and their bounding boxes, maintained incrementally.
+ * <p>
+ * Follows the original R-tree algorithms: entries are inserted in the leaf needing the least enlargement, overflowing
+ * nodes are split quadratically and underflowing nodes are dissolved on removal, their entries being reinserted.
+ * Coordinates are expected in a projected space, see {@link MercatorQuad}.
+ * </p>
+ */
+class AnnotationIndex {
+
+  private static final int MAX_ENTRIES = 16;
+  private static final int MIN_ENTRIES = 6;
+
+  // leaf holding each id, to remove entries without searching
+  private final LongSparseArray<Node> leaves = new LongSparseArray<>();
+  private Node root = new Node(true);
+
+  /**
+   * Add an entry, replacing the entry with the same id.
+   *
+   * @param id   the annotation id
+   * @param minX the minimum x coordinate of the bounding box
+   * @param minY the minimum y coordinate of the bounding box
+   * @param maxX the maximum x coordinate of the bounding box
+   * @param maxY the maximum y coordinate of the bounding box
+   */
+  void insert(long id, double minX, double minY, double maxX, double maxY) {
+    remove(id);
+    Entry entry = new Entry(id);
+    entry.set(minX, minY, maxX, maxY);
+    insert(entry);
+  }
+
+  /**
+   * Remove an entry.
+   *
+   * @param id the annotation id
+   * @return true if an entry was removed
+   */
+  boolean remove(long id) {
+    Node leaf = leaves.get(id);
+    if (leaf == null) {
+      return false;
+    }
+
+    leaves.remove(id);
+    for (int i = 0; i < leaf.count; i++) {
+      if (((Entry) leaf.children[i]).id == id) {
+        leaf.removeAt(i);
+        break;
+      }
+    }
+    condense(leaf);
+    return true;
+  }
+
+  void clear() {
+    leaves.clear();
+    root = new Node(true);
+  }
+
+  int size() {
+    return leaves.size();
+  }
+
+  /**
+   * Visit all entries whose bounding box intersects the given box.
+   *
+   * @param minX    the minimum x coordinate of the box
+   * @param minY    the minimum y coordinate of the box
+   * @param maxX    the maximum x coordinate of the box
+   * @param maxY    the maximum y coordinate of the box
+   * @param visitor the visitor invoked for each entry
+   */
+  void search(double minX, double minY, double maxX, double maxY, @NonNull Visitor visitor) {
+    if (root.count > 0) {
+      search(root, minX, minY, maxX, maxY, visitor);
+    }
+  }
+
+  private static void search(Node node, double minX, double minY, double maxX, double maxY, Visitor visitor) {
+    for (int i = 0; i < node.count; i++) {
+      Box child = node.children[i];
+      if (child.intersects(minX, minY, maxX, maxY)) {
+        if (node.leaf) {
+          visitor.visit(((Entry) child).id);
+        } else {
+          search((Node) child, minX, minY, maxX, maxY, visitor);
+        }
+      }
+    }
+  }
+
+  private void insert(Entry entry) {
+    Node node = root;
+    while (!node.leaf) {
+      node = chooseChild(node, entry);
+    }
+    node.add(entry);
+    leaves.put(entry.id, node);
+    adjust(node);
+  }
+
+  private static Node chooseChild(Node node, Box box) {
+    Node best = null;
+    double bestEnlargement = Double.POSITIVE_INFINITY;
+    double bestArea = Double.POSITIVE_INFINITY;
+    for (int i = 0; i < node.count; i++) {
+      Node child = (Node) node.children[i];
+      double area = child.area();
+      double enlargement = child.unionArea(box) - area;
+      if (enlargement < bestEnlargement || (enlargement == bestEnlargement && area < bestArea)) {
+        best = child;
+        bestEnlargement = enlargement;
+        bestArea = area;
+      }
+    }
+    return best;
+  }
+
+  // walks up from a modified node, splitting overflowing nodes and updating bounds
+  private void adjust(Node node) {
+    while (node != null) {
+      if (node.count > MAX_ENTRIES) {
+        Node sibling = split(node);
+        Node parent = node.parent;
+        if (parent == null) {
+          parent = new Node(false);
+          parent.add(node);
+          root = parent;
+        }
+        parent.add(sibling);
+      }
+      node.updateBounds();
+      node = node.parent;
+    }
+  }
+
+  // quadratic split, moves part of the children of the node to a new sibling
+  private Node split(Node node) {
+    Box[] children = new Box[node.count];
+    System.arraycopy(node.children, 0, children, 0, node.count);
+    node.clearChildren();
+    Node sibling = new Node(node.leaf);
+
+    // pick the two children wasting the most area when grouped as seeds
+    int firstSeed = 0;
+    int secondSeed = 1;
+    double worstWaste = Double.NEGATIVE_INFINITY;
+    for (int i = 0; i < children.length; i++) {
+      for (int j = i + 1; j < children.length; j++) {
+        double waste = children[i].unionArea(children[j]) - children[i].area() - children[j].area();
+        if (waste > worstWaste) {
+          worstWaste = waste;
+          firstSeed = i;
+          secondSeed = j;
+        }
+      }
+    }
+
+    addToSplit(node, children[firstSeed]);
+    addToSplit(sibling, children[secondSeed]);
+    children[firstSeed] = null;
+    children[secondSeed] = null;
+
+    int remaining = children.length - 2;
+    while (remaining > 0) {
+      // make sure both groups end up with the minimum amount of children
+      Node target = null;
+      if (node.count + remaining == MIN_ENTRIES) {
+        target = node;
+      } else if (sibling.count + remaining == MIN_ENTRIES) {
+        target = sibling;
+      }
+
+      int next = -1;
+      double bestPreference = Double.NEGATIVE_INFINITY;
+      for (int i = 0; i < children.length; i++) {
+        if (children[i] != null) {
+          double preference = Math.abs((node.unionArea(children[i]) - node.area())
+            - (sibling.unionArea(children[i]) - sibling.area()));
+          if (preference > bestPreference) {
+            bestPreference = preference;
+            next = i;
+          }
+        }
+      }
+
+      Box child = children[next];
+      children[next] = null;
+      remaining--;
+      if (target == null) {
+        double nodeEnlargement = node.unionArea(child) - node.area();
+        double siblingEnlargement = sibling.unionArea(child) - sibling.area();
+        if (nodeEnlargement != siblingEnlargement) {
+          target = nodeEnlargement < siblingEnlargement ? node : sibling;
+        } else {
+          target = node.count <= sibling.count ? node : sibling;
+        }
+      }
+      addToSplit(target, child);
+    }
+    return sibling;
+  }
+
+  private void addToSplit(Node node, Box child) {
+    node.add(child);
+    node.include(child);
+    if (node.leaf) {
+      leaves.put(((Entry) child).id, node);
+    }
+  }
+
+  // walks up from a node that lost a child, dissolving underflowing nodes
+  private void condense(Node node) {
+    List<Entry> orphans = new ArrayList<>();
+    while (node.parent != null) {
+      Node parent = node.parent;
+      if (node.count < MIN_ENTRIES) {
+        parent.remove(node);
+        collectEntries(node, orphans);
+      } else {
+        node.updateBounds();
+      }
+      node = parent;
+    }
+    node.updateBounds();
+
+    while (!root.leaf && root.count == 1) {
+      root = (Node) root.children[0];
+      root.parent = null;
+    }
+    if (!root.leaf && root.count == 0) {
+      root = new Node(true);
+    }
+
+    for (Entry orphan : orphans) {
+      insert(orphan);
+    }
+  }
+
+  private void collectEntries(Node node, List<Entry> entries) {
+    for (int i = 0; i < node.count; i++) {
+      if (node.leaf) {
+        Entry entry = (Entry) node.children[i];
+        leaves.remove(entry.id);
+        entries.add(entry);
+      } else {
+        collectEntries((Node) node.children[i], entries);
+      }
+    }
+  }
+
+  interface Visitor {
+
+    /**
+     * Invoked for an entry matching a search.
+     *
+     * @param id the annotation id
+     */
+    void visit(long id);
+  }
+
+  private static class Box {
+    double minX;
+    double minY;
+    double maxX;
+    double maxY;
+
+    void set(double minX, double minY, double maxX, double maxY) {
+      this.minX = minX;
+      this.minY = minY;
+      this.maxX = maxX;
+      this.maxY = maxY;
+    }
+
+    void include(Box box) {
+      minX = Math.min(minX, box.minX);
+      minY = Math.min(minY, box.minY);
+      maxX = Math.max(maxX, box.maxX);
+      maxY = Math.max(maxY, box.maxY);
+    }
+
+    boolean intersects(double minX, double minY, double maxX, double maxY) {
+      return this.minX <= maxX && minX <= this.maxX && this.minY <= maxY && minY <= this.maxY;
+    }
+
+    double area() {
+      return (maxX - minX) * (maxY - minY);
+    }
+
+    double unionArea(Box box) {
+      return (Math.max(maxX, box.maxX) - Math.min(minX, box.minX))
+        * (Math.max(maxY, box.maxY) - Math.min(minY, box.minY));
+    }
+  }
+
+  private static class Entry extends Box {
+    final long id;
+
+    Entry(long id) {
+      this.id = id;
+    }
+  }
+
+  private static class Node extends Box {
+    final boolean leaf;
+    final Box[] children = new Box[MAX_ENTRIES + 1];
+    int count;
+    Node parent;
+
+    Node(boolean leaf) {
+      this.leaf = leaf;
+      clearChildren();
+    }
+
+    void add(Box child) {
+      children[count++] = child;
+      if (child instanceof Node) {
+        ((Node) child).parent = this;
+      }
+    }
+
+    void remove(Box child) {
+      for (int i = 0; i < count; i++) {
+        if (children[i] == child) {
+          removeAt(i);
+          return;
+        }
+      }
+    }
+
+    void removeAt(int index) {
+      children[index] = children[--count];
+      children[count] = null;
+    }
+
+    void clearChildren() {
+      for (int i = 0; i < count; i++) {
+        children[i] = null;
+      }
+      count = 0;
+      set(Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY);
+    }
+
+    void updateBounds() {
+      set(Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY);
+      for (int i = 0; i < count; i++) {
+        include(children[i]);
+      }
+    }
+  }
+}
@@ -6,7 +6,6 @@ import android.graphics.Rect;
 import android.graphics.RectF;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
-import android.support.v4.util.LongSparseArray;
 import android.view.View;
 
 import com.mapbox.mapboxsdk.Mapbox;
@@ -14,13 +13,16 @@ import com.mapbox.mapboxsdk.R;
 import com.mapbox.mapboxsdk.annotations.Annotation;
 import com.mapbox.mapboxsdk.annotations.BaseMarkerOptions;
 import com.mapbox.mapboxsdk.annotations.BaseMarkerViewOptions;
+import com.mapbox.mapboxsdk.annotations.ClusterMarker;
 import com.mapbox.mapboxsdk.annotations.Marker;
+import com.mapbox.mapboxsdk.annotations.MarkerClusterOptions;
 import com.mapbox.mapboxsdk.annotations.MarkerView;
 import com.mapbox.mapboxsdk.annotations.MarkerViewManager;
 import com.mapbox.mapboxsdk.annotations.Polygon;
 import com.mapbox.mapboxsdk.annotations.PolygonOptions;
 import com.mapbox.mapboxsdk.annotations.Polyline;
 import com.mapbox.mapboxsdk.annotations.PolylineOptions;
+import com.mapbox.mapboxsdk.camera.CameraUpdateFactory;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -46,7 +48,10 @@ class AnnotationManager {
   private final IconManager iconManager;
   private final InfoWindowManager infoWindowManager = new InfoWindowManager();
   private final MarkerViewManager markerViewManager;
-  private final LongSparseArray<Annotation> annotationsArray;
+  private final AnnotationRegistry annotationsArray;
+  private final AnnotationBatch batch;
+  private final ShapeSimplifier shapeSimplifier;
+  private final MarkerClusterer markerClusterer;
   private final List<Marker> selectedMarkers = new ArrayList<>();
 
   private MapboxMap mapboxMap;
@@ -60,7 +65,7 @@ class AnnotationManager {
   private Polygons polygons;
   private Polylines polylines;
 
-  AnnotationManager(NativeMapView view, MapView mapView, LongSparseArray<Annotation> annotationsArray,
+  AnnotationManager(NativeMapView view, MapView mapView, AnnotationRegistry annotationsArray,
                     MarkerViewManager markerViewManager, IconManager iconManager, Annotations annotations,
                     Markers markers, Polygons polygons, Polylines polylines, ShapeAnnotations shapeAnnotations) {
     this.mapView = mapView;
@@ -72,6 +77,10 @@ class AnnotationManager {
     this.polygons = polygons;
     this.polylines = polylines;
     this.shapeAnnotations = shapeAnnotations;
+    this.batch = new AnnotationBatch(view, annotationsArray);
+    this.shapeSimplifier = new ShapeSimplifier(view, annotationsArray);
+    this.markerClusterer = new MarkerClusterer(view, annotationsArray, iconManager);
+    iconManager.setMarkerClusterer(markerClusterer);
     if (view != null) {
       // null checking needed for unit tests
       view.addOnMapChangedListener(markerViewManager);
@@ -91,19 +100,50 @@ class AnnotationManager {
     infoWindowManager.update();
   }
 
+  //
+  // Batch
+  //
+
+  void batchAnnotations(@NonNull MapboxMap.AnnotationTransaction transaction) {
+    batch.open();
+    try {
+      transaction.run(mapboxMap);
+    } finally {
+      batch.close();
+    }
+  }
+
+  private void commitPendingBatch() {
+    if (!batch.isRecording()) {
+      batch.commitPending();
+    }
+  }
+
   //
   // Annotations
   //
 
   Annotation getAnnotation(long id) {
+    commitPendingBatch();
     return annotations.obtainBy(id);
   }
 
   List<Annotation> getAnnotations() {
+    commitPendingBatch();
     return annotations.obtainAll();
   }
 
   void removeAnnotation(long id) {
+    if (MarkerClusterer.isClustered(id)) {
+      markerClusterer.remove(id);
+      return;
+    }
+    shapeSimplifier.remove(id);
+    if (batch.isRecording()) {
+      batch.remove(id);
+      return;
+    }
+    commitPendingBatch();
     annotations.removeBy(id);
   }
 
@@ -119,9 +159,20 @@ class AnnotationManager {
         markerViewManager.removeMarkerView((MarkerView) marker);
       } else {
         // do icon cleanup
-        iconManager.iconCleanup(marker.getIcon());
+        iconManager.iconCleanup(marker);
       }
     }
+
+    if (MarkerClusterer.isClustered(annotation.getId())) {
+      markerClusterer.remove(annotation.getId());
+      return;
+    }
+    shapeSimplifier.remove(annotation.getId());
+    if (batch.isRecording()) {
+      batch.remove(annotation);
+      return;
+    }
+    commitPendingBatch();
     annotations.removeBy(annotation);
   }
 
@@ -137,30 +188,54 @@ class AnnotationManager {
         if (marker instanceof MarkerView) {
           markerViewManager.removeMarkerView((MarkerView) marker);
         } else {
-          iconManager.iconCleanup(marker.getIcon());
+          iconManager.iconCleanup(marker);
         }
       }
     }
+
+    annotationList = markerClusterer.removeClustered(annotationList);
+    for (Annotation annotation : annotationList) {
+      shapeSimplifier.remove(annotation.getId());
+    }
+    if (batch.isRecording()) {
+      for (Annotation annotation : annotationList) {
+        batch.remove(annotation);
+      }
+      return;
+    }
+    commitPendingBatch();
     annotations.removeBy(annotationList);
   }
 
   void removeAnnotations() {
-    Annotation annotation;
-    int count = annotationsArray.size();
-    long[] ids = new long[count];
+    // markers of a closed transaction are cleaned up below once committed
+    commitPendingBatch();
     selectedMarkers.clear();
+    int count = annotationsArray.size(AnnotationRegistry.MARKER);
     for (int i = 0; i < count; i++) {
-      ids[i] = annotationsArray.keyAt(i);
-      annotation = annotationsArray.get(ids[i]);
-      if (annotation instanceof Marker) {
-        Marker marker = (Marker) annotation;
+      Marker marker = (Marker) annotationsArray.valueAt(AnnotationRegistry.MARKER, i);
+      marker.hideInfoWindow();
+      iconManager.iconCleanup(marker);
+    }
+    count = annotationsArray.size(AnnotationRegistry.MARKER_VIEW);
+    for (int i = 0; i < count; i++) {
+      MarkerView markerView = (MarkerView) annotationsArray.valueAt(AnnotationRegistry.MARKER_VIEW, i);
+      markerView.hideInfoWindow();
+      markerViewManager.removeMarkerView(markerView);
+    }
+
+    markerClusterer.clear();
+    shapeSimplifier.clear();
+    if (batch.isRecording()) {
+      for (Marker marker : batch.removeAll()) {
         marker.hideInfoWindow();
         if (marker instanceof MarkerView) {
           markerViewManager.removeMarkerView((MarkerView) marker);
         } else {
-          iconManager.iconCleanup(marker.getIcon());
+          iconManager.iconCleanup(marker);
         }
       }
+      return;
     }
     annotations.removeAll();
   }
@@ -170,46 +245,112 @@ class AnnotationManager {
   //
 
   Marker addMarker(@NonNull BaseMarkerOptions markerOptions, @NonNull MapboxMap mapboxMap) {
+    if (markerClusterer.isEnabled()) {
+      Marker marker = markers.prepareBy(markerOptions, mapboxMap);
+      markerClusterer.add(marker);
+      return marker;
+    }
+    if (batch.isRecording()) {
+      Marker marker = markers.prepareBy(markerOptions, mapboxMap);
+      batch.add(marker);
+      return marker;
+    }
+    commitPendingBatch();
     return markers.addBy(markerOptions, mapboxMap);
   }
 
   List<Marker> addMarkers(@NonNull List<? extends BaseMarkerOptions> markerOptionsList, @NonNull MapboxMap mapboxMap) {
+    if (batch.isRecording() || markerClusterer.isEnabled()) {
+      List<Marker> markerList = new ArrayList<>(markerOptionsList.size());
+      for (BaseMarkerOptions markerOptions : markerOptionsList) {
+        markerList.add(addMarker(markerOptions, mapboxMap));
+      }
+      return markerList;
+    }
+    commitPendingBatch();
     return markers.addBy(markerOptionsList, mapboxMap);
   }
 
   void updateMarker(@NonNull Marker updatedMarker, @NonNull MapboxMap mapboxMap) {
+    if (batch.isRecording() && batch.isPendingAdd(updatedMarker)) {
+      markers.prepareUpdate(updatedMarker, mapboxMap);
+      return;
+    }
+    // markers of a closed transaction get their id once committed
+    commitPendingBatch();
     if (!isAddedToMap(updatedMarker)) {
       logNonAdded(updatedMarker);
       return;
     }
+    if (MarkerClusterer.isClustered(updatedMarker.getId())) {
+      markers.prepareUpdate(updatedMarker, mapboxMap);
+      markerClusterer.update(updatedMarker);
+      return;
+    }
+    if (batch.isRecording()) {
+      markers.prepareUpdate(updatedMarker, mapboxMap);
+      batch.update(updatedMarker);
+      return;
+    }
     markers.update(updatedMarker, mapboxMap);
   }
 
   List<Marker> getMarkers() {
+    commitPendingBatch();
     return markers.obtainAll();
   }
 
+  @NonNull
+  IconStatistics getIconStatistics() {
+    return iconManager.getStatistics();
+  }
+
   @NonNull
   List<Marker> getMarkersInRect(@NonNull RectF rectangle) {
-    return markers.obtainAllIn(rectangle);
+    commitPendingBatch();
+    List<Marker> markerList = markers.obtainAllIn(rectangle);
+    if (markerClusterer.isClustering()) {
+      // clustered markers are only found while displayed on their own
+      List<Marker> displayed = markerClusterer.getClustersIn(rectangle);
+      for (Marker marker : markerList) {
+        if (!MarkerClusterer.isClustered(marker.getId()) || markerClusterer.isDisplayed(marker)) {
+          displayed.add(marker);
+        }
+      }
+      markerList = displayed;
+    }
+    return markerList;
   }
 
   MarkerView addMarker(@NonNull BaseMarkerViewOptions markerOptions, @NonNull MapboxMap mapboxMap,
                        @Nullable MarkerViewManager.OnMarkerViewAddedListener onMarkerViewAddedListener) {
+    commitPendingBatch();
     return markers.addViewBy(markerOptions, mapboxMap, onMarkerViewAddedListener);
   }
 
   List<MarkerView> addMarkerViews(@NonNull List<? extends BaseMarkerViewOptions> markerViewOptions,
                                   @NonNull MapboxMap mapboxMap) {
+    commitPendingBatch();
     return markers.addViewsBy(markerViewOptions, mapboxMap);
   }
 
   List<MarkerView> getMarkerViewsInRect(@NonNull RectF rectangle) {
+    commitPendingBatch();
     return markers.obtainViewsIn(rectangle);
   }
 
   void reloadMarkers() {
+    commitPendingBatch();
     markers.reload();
+    markerClusterer.reload();
+  }
+
+  //
+  // Clustering
+  //
+
+  void setMarkerClusterOptions(@Nullable MarkerClusterOptions options) {
+    markerClusterer.setOptions(options);
   }
 
   //
@@ -217,11 +358,19 @@ class AnnotationManager {
   //
 
   Polygon addPolygon(@NonNull PolygonOptions polygonOptions, @NonNull MapboxMap mapboxMap) {
-    return polygons.addBy(polygonOptions, mapboxMap);
+    commitPendingBatch();
+    Polygon polygon = polygons.addBy(polygonOptions, mapboxMap);
+    shapeSimplifier.add(polygon);
+    return polygon;
   }
 
   List<Polygon> addPolygons(@NonNull List<PolygonOptions> polygonOptionsList, @NonNull MapboxMap mapboxMap) {
-    return polygons.addBy(polygonOptionsList, mapboxMap);
+    commitPendingBatch();
+    List<Polygon> added = polygons.addBy(polygonOptionsList, mapboxMap);
+    for (Polygon polygon : added) {
+      shapeSimplifier.add(polygon);
+    }
+    return added;
   }
 
   void updatePolygon(Polygon polygon) {
@@ -229,10 +378,17 @@ class AnnotationManager {
       logNonAdded(polygon);
       return;
     }
+    shapeSimplifier.update(polygon);
+    if (batch.isRecording()) {
+      batch.update(polygon);
+      return;
+    }
+    commitPendingBatch();
     polygons.update(polygon);
   }
 
   List<Polygon> getPolygons() {
+    commitPendingBatch();
     return polygons.obtainAll();
   }
 
@@ -241,11 +397,19 @@ class AnnotationManager {
   //
 
   Polyline addPolyline(@NonNull PolylineOptions polylineOptions, @NonNull MapboxMap mapboxMap) {
-    return polylines.addBy(polylineOptions, mapboxMap);
+    commitPendingBatch();
+    Polyline polyline = polylines.addBy(polylineOptions, mapboxMap);
+    shapeSimplifier.add(polyline);
+    return polyline;
   }
 
   List<Polyline> addPolylines(@NonNull List<PolylineOptions> polylineOptionsList, @NonNull MapboxMap mapboxMap) {
-    return polylines.addBy(polylineOptionsList, mapboxMap);
+    commitPendingBatch();
+    List<Polyline> added = polylines.addBy(polylineOptionsList, mapboxMap);
+    for (Polyline polyline : added) {
+      shapeSimplifier.add(polyline);
+    }
+    return added;
   }
 
   void updatePolyline(Polyline polyline) {
@@ -253,10 +417,17 @@ class AnnotationManager {
       logNonAdded(polyline);
       return;
     }
+    shapeSimplifier.update(polyline);
+    if (batch.isRecording()) {
+      batch.update(polyline);
+      return;
+    }
+    commitPendingBatch();
     polylines.update(polyline);
   }
 
   List<Polyline> getPolylines() {
+    commitPendingBatch();
     return polylines.obtainAll();
   }
 
@@ -345,15 +516,20 @@ class AnnotationManager {
     return markerViewManager;
   }
 
+  ShapeSimplifier getShapeSimplifier() {
+    return shapeSimplifier;
+  }
+
+  MarkerClusterer getMarkerClusterer() {
+    return markerClusterer;
+  }
+
   void adjustTopOffsetPixels(MapboxMap mapboxMap) {
-    int count = annotationsArray.size();
+    int count = annotationsArray.size(AnnotationRegistry.MARKER);
     for (int i = 0; i < count; i++) {
-      Annotation annotation = annotationsArray.get(i);
-      if (annotation instanceof Marker) {
-        Marker marker = (Marker) annotation;
-        marker.setTopOffsetPixels(
-          iconManager.getTopOffsetPixelsForIcon(marker.getIcon()));
-      }
+      Marker marker = (Marker) annotationsArray.valueAt(AnnotationRegistry.MARKER, i);
+      marker.setTopOffsetPixels(
+        iconManager.getTopOffsetPixelsForIcon(marker.getIcon()));
     }
 
     for (Marker marker : selectedMarkers) {
@@ -365,7 +541,7 @@ class AnnotationManager {
   }
 
   private boolean isAddedToMap(Annotation annotation) {
-    return annotation != null && annotation.getId() != -1 && annotationsArray.indexOfKey(annotation.getId()) > -1;
+    return annotation != null && annotation.getId() != -1 && annotationsArray.contains(annotation.getId());
   }
 
   private void logNonAdded(Annotation annotation) {
@@ -426,6 +602,15 @@ class AnnotationManager {
   private boolean isClickHandledForMarker(long markerId) {
     boolean handledDefaultClick;
     Marker marker = (Marker) getAnnotation(markerId);
+    if (marker == null) {
+      ClusterMarker cluster = markerClusterer.getCluster(markerId);
+      if (cluster != null && !onClickMarker(cluster)) {
+        // zoom in until the cluster expands
+        mapboxMap.animateCamera(CameraUpdateFactory.newLatLngZoom(cluster.getPosition(),
+          markerClusterer.getExpansionZoom(cluster)));
+      }
+      return cluster != null;
+    }
     if (marker instanceof MarkerView) {
       handledDefaultClick = markerViewManager.onClickMarkerView((MarkerView) marker);
     } else {
@@ -0,0 +1,500 @@
+package com.mapbox.mapboxsdk.maps;
+
+import android.support.annotation.IntDef;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.mapbox.mapboxsdk.annotations.Annotation;
+import com.mapbox.mapboxsdk.annotations.BasePointCollection;
+import com.mapbox.mapboxsdk.annotations.Marker;
+import com.mapbox.mapboxsdk.annotations.MarkerView;
+import com.mapbox.mapboxsdk.annotations.Polygon;
+import com.mapbox.mapboxsdk.annotations.Polyline;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Registry of the annotations added to the map, keyed on annotation id.
+ * <p>
+ * Lookups go through an open addressing hash table on primitive ids. Annotations are additionally kept in a dense
+ * array per type, so listing the markers or polygons of a map only visits those, in the order they were added.
+ * Removing an annotation leaves a hole in its partition, holes are compacted the next time the partition is read.
+ * </p>
+ * <p>
+ * Marker positions and shape bounds are also kept in {@link AnnotationIndex} R-trees, to find the annotations in an
+ * area of the screen without querying the map.
+ * </p>
+ */
+class AnnotationRegistry {
+
+  static final int MARKER = 0;
+  static final int MARKER_VIEW = 1;
+  static final int POLYGON = 2;
+  static final int POLYLINE = 3;
+  static final int OTHER = 4;
+
+  @IntDef( {MARKER, MARKER_VIEW, POLYGON, POLYLINE, OTHER})
+  @Retention(RetentionPolicy.SOURCE)
+  @interface Partition {
+  }
+
+  private static final int PARTITION_COUNT = OTHER + 1;
+  private static final int MIN_CAPACITY = 16;
+  private static final long EMPTY = Long.MIN_VALUE;
+
+  private final PartitionArray[] partitions = new PartitionArray[PARTITION_COUNT];
+  private final AnnotationIndex pointIndex = new AnnotationIndex();
+  private final AnnotationIndex shapeIndex = new AnnotationIndex();
+  // reused to read the bounds of shapes
+  private final double[] shapeBounds = new double[4];
+  private final QueryVisitor queryVisitor = new QueryVisitor();
+
+  // hash table, slots holds the position of each annotation in its partition
+  private long[] keys;
+  private Annotation[] values;
+  private int[] slots;
+  private int size;
+
+  AnnotationRegistry() {
+    for (int i = 0; i < PARTITION_COUNT; i++) {
+      partitions[i] = new PartitionArray();
+    }
+    allocate(MIN_CAPACITY);
+  }
+
+  /**
+   * Get the partition an annotation is stored in.
+   *
+   * @param annotation the annotation
+   * @return the partition
+   */
+  @Partition
+  static int partitionOf(@NonNull Annotation annotation) {
+    if (annotation instanceof MarkerView) {
+      return MARKER_VIEW;
+    } else if (annotation instanceof Marker) {
+      return MARKER;
+    } else if (annotation instanceof Polygon) {
+      return POLYGON;
+    } else if (annotation instanceof Polyline) {
+      return POLYLINE;
+    }
+    return OTHER;
+  }
+
+  @Nullable
+  Annotation get(long id) {
+    int index = indexOf(id);
+    return index != -1 ? values[index] : null;
+  }
+
+  boolean contains(long id) {
+    return indexOf(id) != -1;
+  }
+
+  /**
+   * Add an annotation, replacing the one registered with the same id.
+   *
+   * @param id         the annotation id
+   * @param annotation the annotation
+   */
+  void put(long id, @NonNull Annotation annotation) {
+    if (id == EMPTY) {
+      throw new IllegalArgumentException("Invalid annotation id " + id);
+    }
+
+    int partition = partitionOf(annotation);
+    int index = indexOf(id);
+    if (index != -1) {
+      int previousPartition = partitionOf(values[index]);
+      unindex(id, previousPartition);
+      index(id, annotation, partition);
+      if (previousPartition == partition) {
+        partitions[partition].items[slots[index]] = annotation;
+      } else {
+        partitions[previousPartition].remove(slots[index]);
+        slots[index] = partitions[partition].add(id, annotation);
+      }
+      values[index] = annotation;
+      return;
+    }
+
+    if ((size + 1) * 4 > keys.length * 3) {
+      rehash(keys.length * 2);
+    }
+    index = probe(id);
+    keys[index] = id;
+    values[index] = annotation;
+    slots[index] = partitions[partition].add(id, annotation);
+    size++;
+    index(id, annotation, partition);
+  }
+
+  /**
+   * Remove an annotation.
+   *
+   * @param id the annotation id
+   * @return the removed annotation, null if none was registered with the id
+   */
+  @Nullable
+  Annotation remove(long id) {
+    int index = indexOf(id);
+    if (index == -1) {
+      return null;
+    }
+
+    Annotation annotation = values[index];
+    int partition = partitionOf(annotation);
+    partitions[partition].remove(slots[index]);
+    unindex(id, partition);
+    deleteAt(index);
+    size--;
+    return annotation;
+  }
+
+  void clear() {
+    for (PartitionArray partition : partitions) {
+      partition.clear();
+    }
+    allocate(MIN_CAPACITY);
+    size = 0;
+    pointIndex.clear();
+    shapeIndex.clear();
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * Get the amount of annotations in a partition.
+   *
+   * @param partition the partition
+   * @return the annotation count
+   */
+  int size(@Partition int partition) {
+    PartitionArray array = partitions[partition];
+    return array.count - array.holes;
+  }
+
+  /**
+   * Get an annotation of a partition, in the order annotations were added.
+   *
+   * @param partition the partition
+   * @param index     the index, between 0 and {@link #size(int)}
+   * @return the annotation
+   */
+  @NonNull
+  Annotation valueAt(@Partition int partition, int index) {
+    compact(partition);
+    return partitions[partition].items[index];
+  }
+
+  /**
+   * Get the ids of all annotations.
+   *
+   * @return a new array holding the ids
+   */
+  @NonNull
+  long[] getIds() {
+    long[] ids = new long[size];
+    int count = 0;
+    for (long key : keys) {
+      if (key != EMPTY) {
+        ids[count++] = key;
+      }
+    }
+    return ids;
+  }
+
+  /**
+   * Get all annotations ordered by id.
+   *
+   * @return a new list holding the annotations
+   */
+  @NonNull
+  List<Annotation> obtainAll() {
+    return obtainAll(MARKER, MARKER_VIEW, POLYGON, POLYLINE, OTHER);
+  }
+
+  /**
+   * Get the annotations of some partitions ordered by id.
+   *
+   * @param selection the partitions to list
+   * @return a new list holding the annotations
+   */
+  @NonNull
+  List<Annotation> obtainAll(@Partition int... selection) {
+    int count = 0;
+    for (int partition : selection) {
+      compact(partition);
+      count += partitions[partition].count;
+    }
+
+    // partitions aren't ordered by id, clustered ids are offset and reloaded markers get new ids
+    long[] ids = new long[count];
+    int offset = 0;
+    for (int partition : selection) {
+      PartitionArray array = partitions[partition];
+      System.arraycopy(array.ids, 0, ids, offset, array.count);
+      offset += array.count;
+    }
+    Arrays.sort(ids);
+
+    List<Annotation> annotations = new ArrayList<>(count);
+    for (long id : ids) {
+      annotations.add(get(id));
+    }
+    return annotations;
+  }
+
+  /**
+   * Find the markers and marker views positioned in an area of the map.
+   *
+   * @param corners the corners of the area, see {@link NativeMapView#latLngsForRectangle(android.graphics.RectF)}
+   * @return the ids of the markers, an id may be listed more than once
+   */
+  @NonNull
+  long[] queryPoints(@NonNull LatLng[] corners) {
+    return query(pointIndex, corners, false);
+  }
+
+  /**
+   * Find the polygons and polylines crossing an area of the map.
+   *
+   * @param corners the corners of the area, see {@link NativeMapView#latLngsForRectangle(android.graphics.RectF)}
+   * @return the ids of the shapes, an id may be listed more than once
+   */
+  @NonNull
+  long[] queryShapes(@NonNull LatLng[] corners) {
+    return query(shapeIndex, corners, true);
+  }
+
+  private long[] query(AnnotationIndex index, LatLng[] corners, boolean shapes) {
+    if (corners.length != 4 || index.size() == 0) {
+      return new long[0];
+    }
+
+    MercatorQuad quad = new MercatorQuad(corners);
+    QueryVisitor visitor = queryVisitor;
+    visitor.start(quad, shapes);
+    // the area may extend over several copies of the world, query each of them
+    int firstWorld = (int) Math.floor(quad.getMinX()) - 1;
+    int lastWorld = (int) Math.floor(quad.getMaxX()) + 1;
+    for (int world = firstWorld; world <= lastWorld; world++) {
+      visitor.offsetX = world;
+      index.search(quad.getMinX() - world, quad.getMinY(), quad.getMaxX() - world, quad.getMaxY(), visitor);
+    }
+    return visitor.finish();
+  }
+
+  private void index(long id, Annotation annotation, int partition) {
+    if (partition == MARKER || partition == MARKER_VIEW) {
+      LatLng position = ((Marker) annotation).getPosition();
+      if (position != null) {
+        double x = MercatorQuad.projectX(position.getLongitude());
+        // markers are drawn in every copy of the world, index them in the first one
+        x -= Math.floor(x);
+        double y = MercatorQuad.projectY(position.getLatitude());
+        pointIndex.insert(id, x, y, x, y);
+      }
+    } else if (partition == POLYGON || partition == POLYLINE) {
+      BasePointCollection shape = (BasePointCollection) annotation;
+      if (shape.getPointCount() > 0) {
+        // the projection is monotonic, the projected bounds are the bounds of the projected points
+        shape.getCoordinateBounds(shapeBounds);
+        double southY = MercatorQuad.projectY(shapeBounds[0]);
+        double northY = MercatorQuad.projectY(shapeBounds[2]);
+        shapeIndex.insert(id, MercatorQuad.projectX(shapeBounds[1]), Math.min(southY, northY),
+          MercatorQuad.projectX(shapeBounds[3]), Math.max(southY, northY));
+      }
+    }
+  }
+
+  private void unindex(long id, int partition) {
+    if (partition == MARKER || partition == MARKER_VIEW) {
+      pointIndex.remove(id);
+    } else if (partition == POLYGON || partition == POLYLINE) {
+      shapeIndex.remove(id);
+    }
+  }
+
+  private void compact(int partition) {
+    PartitionArray array = partitions[partition];
+    if (array.holes == 0) {
+      return;
+    }
+
+    int count = 0;
+    for (int i = 0; i < array.count; i++) {
+      Annotation item = array.items[i];
+      if (item != null) {
+        if (i != count) {
+          array.items[count] = item;
+          array.ids[count] = array.ids[i];
+          slots[indexOf(array.ids[count])] = count;
+        }
+        count++;
+      }
+    }
+    Arrays.fill(array.items, count, array.count, null);
+    array.count = count;
+    array.holes = 0;
+  }
+
+  private int indexOf(long id) {
+    int mask = keys.length - 1;
+    int index = hash(id) & mask;
+    long key;
+    while ((key = keys[index]) != EMPTY) {
+      if (key == id) {
+        return index;
+      }
+      index = (index + 1) & mask;
+    }
+    return -1;
+  }
+
+  private int probe(long id) {
+    int mask = keys.length - 1;
+    int index = hash(id) & mask;
+    while (keys[index] != EMPTY) {
+      index = (index + 1) & mask;
+    }
+    return index;
+  }
+
+  // backward shift deletion, keeps probe sequences intact without tombstones
+  private void deleteAt(int index) {
+    int mask = keys.length - 1;
+    int hole = index;
+    int next = (hole + 1) & mask;
+    while (keys[next] != EMPTY) {
+      int home = hash(keys[next]) & mask;
+      if (((next - home) & mask) >= ((next - hole) & mask)) {
+        keys[hole] = keys[next];
+        values[hole] = values[next];
+        slots[hole] = slots[next];
+        hole = next;
+      }
+      next = (next + 1) & mask;
+    }
+    keys[hole] = EMPTY;
+    values[hole] = null;
+  }
+
+  private void rehash(int capacity) {
+    long[] oldKeys = keys;
+    Annotation[] oldValues = values;
+    int[] oldSlots = slots;
+    allocate(capacity);
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != EMPTY) {
+        int index = probe(oldKeys[i]);
+        keys[index] = oldKeys[i];
+        values[index] = oldValues[i];
+        slots[index] = oldSlots[i];
+      }
+    }
+  }
+
+  private void allocate(int capacity) {
+    keys = new long[capacity];
+    Arrays.fill(keys, EMPTY);
+    values = new Annotation[capacity];
+    slots = new int[capacity];
+  }
+
+  private static int hash(long id) {
+    // ids are sequential, spread them over the table
+    long hash = id * 0x9E3779B97F4A7C15L;
+    return (int) (hash ^ (hash >>> 32));
+  }
+
+  // tests the candidates of an index search against the exact query area
+  private class QueryVisitor implements AnnotationIndex.Visitor {
+    private MercatorQuad quad;
+    private boolean shapes;
+    private long[] ids = new long[MIN_CAPACITY];
+    private int count;
+    double offsetX;
+
+    void start(MercatorQuad quad, boolean shapes) {
+      this.quad = quad;
+      this.shapes = shapes;
+      count = 0;
+    }
+
+    @Override
+    public void visit(long id) {
+      if (shapes ? intersectsShape(get(id)) : containsPoint(get(id))) {
+        if (count == ids.length) {
+          ids = Arrays.copyOf(ids, count * 2);
+        }
+        ids[count++] = id;
+      }
+    }
+
+    long[] finish() {
+      quad = null;
+      return Arrays.copyOf(ids, count);
+    }
+
+    private boolean containsPoint(Annotation annotation) {
+      LatLng position = ((Marker) annotation).getPosition();
+      double x = MercatorQuad.projectX(position.getLongitude());
+      x -= Math.floor(x);
+      return quad.contains(x + offsetX, MercatorQuad.projectY(position.getLatitude()));
+    }
+
+    private boolean intersectsShape(Annotation annotation) {
+      if (annotation instanceof Polygon) {
+        Polygon polygon = (Polygon) annotation;
+        double[][] holes = polygon.getHoleCoordinates();
+        double[][] rings = new double[holes.length + 1][];
+        rings[0] = polygon.getCoordinates();
+        System.arraycopy(holes, 0, rings, 1, holes.length);
+        return quad.intersectsRings(rings, true, offsetX) || quad.isInside(rings, offsetX);
+      }
+      double[][] lines = {((Polyline) annotation).getCoordinates()};
+      return quad.intersectsRings(lines, false, offsetX);
+    }
+  }
+
+  private static class PartitionArray {
+    Annotation[] items = new Annotation[MIN_CAPACITY];
+    long[] ids = new long[MIN_CAPACITY];
+    int count;
+    int holes;
+
+    int add(long id, Annotation annotation) {
+      if (count == items.length) {
+        items = Arrays.copyOf(items, count * 2);
+        ids = Arrays.copyOf(ids, count * 2);
+      }
+      items[count] = annotation;
+      ids[count] = id;
+      return count++;
+    }
+
+    void remove(int slot) {
+      if (slot == count - 1) {
+        items[--count] = null;
+        return;
+      }
+      items[slot] = null;
+      holes++;
+    }
+
+    void clear() {
+      Arrays.fill(items, 0, count, null);
+      count = 0;
+      holes = 0;
+    }
+  }
+}
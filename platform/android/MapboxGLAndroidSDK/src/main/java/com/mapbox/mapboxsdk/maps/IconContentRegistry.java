@@ -0,0 +1,153 @@
+package com.mapbox.mapboxsdk.maps;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.mapbox.mapboxsdk.annotations.Icon;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Collapses icons with identical content onto a single map image.
+ * <p>
+ * {@link com.mapbox.mapboxsdk.annotations.IconFactory} hands out a new id for every bitmap, so decoding the same
+ * drawable for every marker results in as many icons. Icons are keyed on a digest of their pixels, size and scale:
+ * the first icon with a given content is uploaded under its own id, later ones render that image instead.
+ * </p>
+ */
+class IconContentRegistry {
+
+  private final Map<String, Image> images = new HashMap<>();
+  private final Map<Icon, Image> iconImages = new HashMap<>();
+  private long bytesSaved;
+
+  /**
+   * Compute the content digest of an icon, can be called from any thread.
+   *
+   * @param pixels the icon pixels, between position and limit
+   * @param width  the width of the icon
+   * @param height the height of the icon
+   * @param scale  the scale of the icon
+   * @return the digest
+   */
+  @NonNull
+  static String digestOf(@NonNull ByteBuffer pixels, int width, int height, float scale) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-1");
+    } catch (NoSuchAlgorithmException exception) {
+      // mandatory on all platforms
+      throw new IllegalStateException(exception);
+    }
+
+    ByteBuffer header = ByteBuffer.allocate(12);
+    header.putInt(width).putInt(height).putFloat(scale).flip();
+    digest.update(header);
+    digest.update(pixels.duplicate());
+
+    byte[] bytes = digest.digest();
+    StringBuilder builder = new StringBuilder(bytes.length * 2);
+    for (byte value : bytes) {
+      builder.append(Character.forDigit((value >> 4) & 0xF, 16)).append(Character.forDigit(value & 0xF, 16));
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Register an icon with the given content.
+   *
+   * @param icon      the icon
+   * @param digest    the content digest of the icon
+   * @param byteCount the size of the icon pixels
+   * @return true if no image with this content exists yet and the icon needs to be uploaded
+   */
+  boolean register(@NonNull Icon icon, @NonNull String digest, int byteCount) {
+    if (iconImages.containsKey(icon)) {
+      return false;
+    }
+
+    Image image = images.get(digest);
+    boolean created = image == null;
+    if (created) {
+      image = new Image(icon, digest, byteCount);
+      images.put(digest, image);
+    } else {
+      bytesSaved += byteCount;
+    }
+    image.iconCount++;
+    iconImages.put(icon, image);
+    return created;
+  }
+
+  /**
+   * Unregister an icon.
+   *
+   * @param icon the icon
+   * @return the id of the image to remove from the map if no other icon uses it, null otherwise
+   */
+  @Nullable
+  String unregister(@NonNull Icon icon) {
+    Image image = iconImages.remove(icon);
+    if (image == null) {
+      return null;
+    }
+
+    if (--image.iconCount == 0) {
+      images.remove(image.digest);
+      return image.id;
+    }
+    bytesSaved -= image.byteCount;
+    return null;
+  }
+
+  /**
+   * Get the id of the map image rendering an icon.
+   *
+   * @param icon the icon
+   * @return the image id, null if the icon isn't registered
+   */
+  @Nullable
+  String getImageId(@NonNull Icon icon) {
+    Image image = iconImages.get(icon);
+    return image != null ? image.id : null;
+  }
+
+  /**
+   * Get the images registered with the map.
+   *
+   * @return the icons holding the content of each image, keyed on image id
+   */
+  @NonNull
+  Map<String, Icon> getImages() {
+    Map<String, Icon> result = new HashMap<>(images.size());
+    for (Image image : images.values()) {
+      result.put(image.id, image.source);
+    }
+    return result;
+  }
+
+  @NonNull
+  IconStatistics getStatistics() {
+    return new IconStatistics(iconImages.size(), images.size(), bytesSaved);
+  }
+
+  private static class Image {
+    // kept after the icon itself is removed, the content is needed to reload the image
+    final Icon source;
+    final String id;
+    final String digest;
+    final int byteCount;
+    int iconCount;
+
+    Image(Icon source, String digest, int byteCount) {
+      this.source = source;
+      this.id = source.getId();
+      this.digest = digest;
+      this.byteCount = byteCount;
+    }
+  }
+}
@@ -1,6 +1,7 @@
 package com.mapbox.mapboxsdk.maps;
 
 import android.graphics.Bitmap;
+import android.support.annotation.NonNull;
 
 import com.mapbox.mapboxsdk.Mapbox;
 import com.mapbox.mapboxsdk.annotations.Icon;
@@ -8,9 +9,12 @@ import com.mapbox.mapboxsdk.annotations.IconFactory;
 import com.mapbox.mapboxsdk.annotations.Marker;
 import com.mapbox.mapboxsdk.annotations.MarkerView;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Responsible for managing icons added to the Map.
@@ -22,18 +26,34 @@ import java.util.Map;
  * Keep track of icons added and the resulting average icon size. This is used internally by our
  * gestures detection to calculate the size of a touch target.
  * </p>
+ * <p>
+ * New icons are converted and uploaded in the background by {@link IconUploadPipeline}. Until then, markers
+ * using them render the transparent MarkerView icon as a placeholder. Icons with identical content share a single
+ * map image, see {@link IconContentRegistry}.
+ * </p>
  */
-class IconManager {
+class IconManager implements IconUploadPipeline.Callback {
+
+  private static final String PLACEHOLDER_ICON_ID = IconFactory.ICON_MARKERVIEW_ID;
 
   private final Map<Icon, Integer> iconMap = new HashMap<>();
+  // icons added to the map, including the ones still being uploaded
+  private final Set<Icon> mapIcons = new HashSet<>();
+  // markers rendering the placeholder until their icon is uploaded
+  private final Map<Icon, List<Marker>> waitingMarkers = new HashMap<>();
+  private final IconContentRegistry contentRegistry = new IconContentRegistry();
 
   private NativeMapView nativeMapView;
+  private MarkerClusterer markerClusterer;
+  private IconUploadPipeline uploadPipeline;
   private int highestIconWidth;
   private int highestIconHeight;
 
   IconManager(NativeMapView nativeMapView) {
     this.nativeMapView = nativeMapView;
+    this.uploadPipeline = new IconUploadPipeline(nativeMapView, contentRegistry, this);
     // load transparent icon for MarkerView to trace actual markers, see #6352
+    // it doubles as placeholder for icons being uploaded and is needed right away
     loadIcon(IconFactory.recreate(IconFactory.ICON_MARKERVIEW_ID, IconFactory.ICON_MARKERVIEW_BITMAP));
   }
 
@@ -47,6 +67,7 @@ class IconManager {
       updateHighestIconSize(icon);
     }
     addIcon(icon);
+    updateRenderedIcon(marker, icon);
     return icon;
   }
 
@@ -58,7 +79,13 @@ class IconManager {
   }
 
   int getTopOffsetPixelsForIcon(Icon icon) {
-    return (int) (nativeMapView.getTopOffsetPixelsForAnnotationSymbol(icon.getId()) * nativeMapView.getPixelRatio());
+    if (!mapIcons.contains(icon)) {
+      // not known to the map
+      return 0;
+    }
+    // Computed here instead of asking the map, which doesn't know about icons that are still uploading.
+    Bitmap bitmap = icon.getBitmap();
+    return (int) (-(bitmap.getHeight() / icon.getScale()) / 2.0 * nativeMapView.getPixelRatio());
   }
 
   int getHighestIconWidth() {
@@ -69,6 +96,14 @@ class IconManager {
     return highestIconHeight;
   }
 
+  void setMarkerClusterer(MarkerClusterer markerClusterer) {
+    this.markerClusterer = markerClusterer;
+  }
+
+  IconStatistics getStatistics() {
+    return contentRegistry.getStatistics();
+  }
+
   private Icon loadDefaultIconForMarker(Marker marker) {
     Icon icon = IconFactory.getInstance(Mapbox.getApplicationContext()).defaultMarker();
     Bitmap bitmap = icon.getBitmap();
@@ -85,7 +120,8 @@ class IconManager {
     if (!iconMap.keySet().contains(icon)) {
       iconMap.put(icon, 1);
       if (addIconToMap) {
-        loadIcon(icon);
+        mapIcons.add(icon);
+        uploadPipeline.upload(icon);
       }
     } else {
       iconMap.put(icon, iconMap.get(icon) + 1);
@@ -111,8 +147,12 @@ class IconManager {
   }
 
   private void loadIcon(Icon icon) {
+    loadIcon(icon.getId(), icon);
+  }
+
+  private void loadIcon(String imageId, Icon icon) {
     Bitmap bitmap = icon.getBitmap();
-    nativeMapView.addAnnotationIcon(icon.getId(),
+    nativeMapView.addAnnotationIcon(imageId,
       bitmap.getWidth(),
       bitmap.getHeight(),
       icon.getScale(),
@@ -120,8 +160,30 @@ class IconManager {
   }
 
   void reloadIcons() {
-    for (Icon icon : iconMap.keySet()) {
-      loadIcon(icon);
+    for (Map.Entry<String, Icon> image : contentRegistry.getImages().entrySet()) {
+      loadIcon(image.getKey(), image.getValue());
+    }
+  }
+
+  @Override
+  public void onIconsUploaded(@NonNull List<Icon> icons) {
+    for (Icon icon : icons) {
+      List<Marker> markers = waitingMarkers.remove(icon);
+      if (markers == null) {
+        continue;
+      }
+
+      String imageId = contentRegistry.getImageId(icon);
+      for (Marker marker : markers) {
+        marker.setRenderedIconId(imageId);
+        if (MarkerClusterer.isClustered(marker.getId())) {
+          // the clusterer adds the marker again if displayed
+          markerClusterer.update(marker);
+        } else if (marker.getId() != -1 && icon.equals(marker.getIcon())) {
+          // re-adding the marker lays it out again, now that its icon is available
+          nativeMapView.updateMarker(marker);
+        }
+      }
     }
   }
 
@@ -131,9 +193,27 @@ class IconManager {
       icon = loadDefaultIconForMarker(marker);
     }
     addIcon(icon);
+    updateRenderedIcon(marker, icon);
     setTopOffsetPixels(marker, mapboxMap, icon);
   }
 
+  private void updateRenderedIcon(Marker marker, Icon icon) {
+    if (!uploadPipeline.isPending(icon)) {
+      marker.setRenderedIconId(contentRegistry.getImageId(icon));
+      return;
+    }
+
+    marker.setRenderedIconId(PLACEHOLDER_ICON_ID);
+    List<Marker> markers = waitingMarkers.get(icon);
+    if (markers == null) {
+      markers = new ArrayList<>(1);
+      waitingMarkers.put(icon, markers);
+    }
+    if (!markers.contains(marker)) {
+      markers.add(marker);
+    }
+  }
+
   private void setTopOffsetPixels(Marker marker, MapboxMap mapboxMap, Icon icon) {
     // this seems to be a costly operation according to the profiler so I'm trying to save some calls
     Marker previousMarker = marker.getId() != -1 ? (Marker) mapboxMap.getAnnotation(marker.getId()) : null;
@@ -142,6 +222,18 @@ class IconManager {
     }
   }
 
+  void iconCleanup(Marker marker) {
+    Icon icon = marker.getIcon();
+    List<Marker> markers = waitingMarkers.get(icon);
+    if (markers != null) {
+      markers.remove(marker);
+      if (markers.isEmpty()) {
+        waitingMarkers.remove(icon);
+      }
+    }
+    iconCleanup(icon);
+  }
+
   void iconCleanup(Icon icon) {
     Integer refCounter = iconMap.get(icon);
     if (refCounter != null) {
@@ -155,7 +247,13 @@ class IconManager {
   }
 
   private void remove(Icon icon) {
-    nativeMapView.removeAnnotationIcon(icon.getId());
+    uploadPipeline.cancel(icon);
+    if (mapIcons.remove(icon)) {
+      String imageId = contentRegistry.unregister(icon);
+      if (imageId != null) {
+        nativeMapView.removeAnnotationIcon(imageId);
+      }
+    }
     iconMap.remove(icon);
   }
 
@@ -0,0 +1,69 @@
+package com.mapbox.mapboxsdk.maps;
+
+/**
+ * Snapshot of the icons used by markers on the map.
+ * <p>
+ * Icons with identical content, for example the same drawable decoded for every marker, share a single map image.
+ * These statistics show how effective that sharing is.
+ * </p>
+ *
+ * @see MapboxMap#getIconStatistics()
+ */
+public final class IconStatistics {
+
+  private final int iconCount;
+  private final int imageCount;
+  private final long bytesSaved;
+
+  IconStatistics(int iconCount, int imageCount, long bytesSaved) {
+    this.iconCount = iconCount;
+    this.imageCount = imageCount;
+    this.bytesSaved = bytesSaved;
+  }
+
+  /**
+   * Get the amount of distinct icons used by markers.
+   *
+   * @return the icon count
+   */
+  public int getIconCount() {
+    return iconCount;
+  }
+
+  /**
+   * Get the amount of images uploaded to the map for those icons.
+   *
+   * @return the image count
+   */
+  public int getImageCount() {
+    return imageCount;
+  }
+
+  /**
+   * Get the amount of icons per uploaded image.
+   *
+   * @return the dedupe ratio, 1 if no icons were shared
+   */
+  public double getDedupeRatio() {
+    return imageCount == 0 ? 1 : (double) iconCount / imageCount;
+  }
+
+  /**
+   * Get the amount of pixel bytes that weren't uploaded because an identical image already existed.
+   *
+   * @return the bytes saved
+   */
+  public long getBytesSaved() {
+    return bytesSaved;
+  }
+
+  @Override
+  public String toString() {
+    return "IconStatistics{"
+      + "iconCount=" + iconCount
+      + ", imageCount=" + imageCount
+      + ", dedupeRatio=" + getDedupeRatio()
+      + ", bytesSaved=" + bytesSaved
+      + '}';
+  }
+}
@@ -0,0 +1,267 @@
+package com.mapbox.mapboxsdk.maps;
+
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.UiThread;
+import android.support.annotation.WorkerThread;
+import android.view.Choreographer;
+
+import com.mapbox.mapboxsdk.annotations.Icon;
+import com.mapbox.mapboxsdk.utils.ExecutorUtils;
+import com.mapbox.mapboxsdk.utils.FrameScheduler;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Converts annotation icons off the UI thread and uploads them to the map in batches.
+ * <p>
+ * Pixels are copied into pooled direct buffers and digested on a background thread. Converted icons are collected
+ * until the next frame and handed to native with a single call, after which {@link Callback#onIconsUploaded(List)}
+ * is invoked on the UI thread. Icons whose content was uploaded before are registered with the
+ * {@link IconContentRegistry} without being uploaded again.
+ * </p>
+ */
+class IconUploadPipeline {
+
+  private static final String THREAD_PREFIX = "IconUpload";
+  private static final int THREAD_POOL_LIMIT = 2;
+  private static final int MAX_POOLED_BUFFERS = 16;
+
+  private static final Executor defaultExecutor = ExecutorUtils.newWorkerExecutor(THREAD_PREFIX, THREAD_POOL_LIMIT);
+
+  private final NativeMapView nativeMapView;
+  private final IconContentRegistry registry;
+  private final Executor executor;
+  @Nullable
+  private final FrameScheduler flushScheduler;
+  private final Callback callback;
+
+  // accessed on the UI thread only
+  private final Set<Icon> pendingIcons = new HashSet<>();
+
+  private final ConcurrentLinkedQueue<ConvertedIcon> convertedIcons = new ConcurrentLinkedQueue<>();
+  private final AtomicBoolean flushScheduled = new AtomicBoolean();
+  private final ArrayDeque<ByteBuffer> bufferPool = new ArrayDeque<>(MAX_POOLED_BUFFERS);
+  private final Runnable flushTask = new Runnable() {
+    @Override
+    public void run() {
+      flush();
+    }
+  };
+
+  @UiThread
+  IconUploadPipeline(@NonNull NativeMapView nativeMapView, @NonNull IconContentRegistry registry,
+                     @NonNull Callback callback) {
+    this(nativeMapView, registry, defaultExecutor, FrameScheduler.getChoreographer(),
+      new Handler(Looper.getMainLooper()), callback);
+  }
+
+  IconUploadPipeline(@NonNull NativeMapView nativeMapView, @NonNull IconContentRegistry registry,
+                     @NonNull Executor executor, @Nullable Choreographer choreographer, @NonNull Callback callback) {
+    this(nativeMapView, registry, executor, choreographer, null, callback);
+  }
+
+  /**
+   * @param choreographer the frame source flushes are scheduled with
+   * @param handler       the main thread handler flushes are posted to without a frame source
+   */
+  private IconUploadPipeline(@NonNull NativeMapView nativeMapView, @NonNull IconContentRegistry registry,
+                             @NonNull Executor executor, @Nullable Choreographer choreographer,
+                             @Nullable Handler handler, @NonNull Callback callback) {
+    this.nativeMapView = nativeMapView;
+    this.registry = registry;
+    this.executor = executor;
+    if (choreographer != null) {
+      this.flushScheduler = new FrameScheduler(choreographer, flushTask);
+    } else {
+      this.flushScheduler = handler != null ? new FrameScheduler(handler, flushTask) : null;
+    }
+    this.callback = callback;
+  }
+
+  /**
+   * Queue an icon for conversion and upload.
+   *
+   * @param icon the icon to upload
+   */
+  @UiThread
+  void upload(@NonNull final Icon icon) {
+    if (!pendingIcons.add(icon)) {
+      return;
+    }
+
+    // Icon converts non ARGB_8888 bitmaps lazily, resolve it here to keep Icon confined to the UI thread.
+    final Bitmap bitmap = icon.getBitmap();
+    final float scale = icon.getScale();
+    executor.execute(new Runnable() {
+      @Override
+      public void run() {
+        convertedIcons.add(convert(icon, bitmap, scale));
+        scheduleFlush();
+      }
+    });
+  }
+
+  /**
+   * Check if an icon is waiting to be uploaded.
+   *
+   * @param icon the icon to check
+   * @return true if the icon was queued and not uploaded yet
+   */
+  @UiThread
+  boolean isPending(@NonNull Icon icon) {
+    return pendingIcons.contains(icon);
+  }
+
+  /**
+   * Drop a queued icon, it won't be uploaded if it wasn't already.
+   *
+   * @param icon the icon to drop
+   */
+  @UiThread
+  void cancel(@NonNull Icon icon) {
+    pendingIcons.remove(icon);
+  }
+
+  /**
+   * Upload all icons converted so far in a single call.
+   */
+  @UiThread
+  void flush() {
+    flushScheduled.set(false);
+
+    List<ConvertedIcon> batch = new ArrayList<>(convertedIcons.size());
+    List<Icon> icons = new ArrayList<>(convertedIcons.size());
+    ConvertedIcon converted;
+    while ((converted = convertedIcons.poll()) != null) {
+      if (pendingIcons.remove(converted.icon)) {
+        icons.add(converted.icon);
+        if (registry.register(converted.icon, converted.digest, converted.pixels.remaining())) {
+          batch.add(converted);
+          continue;
+        }
+      }
+      releaseBuffer(converted.pixels);
+    }
+
+    if (icons.isEmpty()) {
+      return;
+    }
+
+    if (!batch.isEmpty()) {
+      upload(batch);
+    }
+    callback.onIconsUploaded(icons);
+  }
+
+  private void upload(List<ConvertedIcon> batch) {
+    int count = batch.size();
+    String[] symbols = new String[count];
+    int[] sizes = new int[count * 2];
+    float[] scales = new float[count];
+    ByteBuffer[] pixels = new ByteBuffer[count];
+    for (int i = 0; i < count; i++) {
+      ConvertedIcon converted = batch.get(i);
+      symbols[i] = converted.icon.getId();
+      sizes[i * 2] = converted.width;
+      sizes[i * 2 + 1] = converted.height;
+      scales[i] = converted.scale;
+      pixels[i] = converted.pixels;
+    }
+
+    try {
+      nativeMapView.addAnnotationIcons(symbols, sizes, scales, pixels);
+    } finally {
+      for (ByteBuffer buffer : pixels) {
+        releaseBuffer(buffer);
+      }
+    }
+  }
+
+  @WorkerThread
+  private ConvertedIcon convert(Icon icon, Bitmap bitmap, float scale) {
+    int width = bitmap.getWidth();
+    int height = bitmap.getHeight();
+    ByteBuffer buffer = acquireBuffer(bitmap.getRowBytes() * height);
+    bitmap.copyPixelsToBuffer(buffer);
+    buffer.rewind();
+    String digest = IconContentRegistry.digestOf(buffer, width, height, scale);
+    return new ConvertedIcon(icon, width, height, scale, buffer, digest);
+  }
+
+  private void scheduleFlush() {
+    if (flushScheduler == null || !flushScheduled.compareAndSet(false, true)) {
+      return;
+    }
+    flushScheduler.schedule();
+  }
+
+  private ByteBuffer acquireBuffer(int capacity) {
+    synchronized (bufferPool) {
+      Iterator<ByteBuffer> iterator = bufferPool.iterator();
+      while (iterator.hasNext()) {
+        ByteBuffer buffer = iterator.next();
+        if (buffer.capacity() >= capacity) {
+          iterator.remove();
+          buffer.clear();
+          buffer.limit(capacity);
+          return buffer;
+        }
+      }
+    }
+    // round up to limit the amount of distinct sizes kept around
+    int allocation = Integer.highestOneBit(Math.max(capacity, 1) - 1) << 1;
+    ByteBuffer buffer = ByteBuffer.allocateDirect(Math.max(allocation, capacity)).order(ByteOrder.nativeOrder());
+    buffer.limit(capacity);
+    return buffer;
+  }
+
+  private void releaseBuffer(ByteBuffer buffer) {
+    synchronized (bufferPool) {
+      if (bufferPool.size() < MAX_POOLED_BUFFERS) {
+        bufferPool.offerFirst(buffer);
+      }
+    }
+  }
+
+  interface Callback {
+
+    /**
+     * Invoked on the UI thread after a batch of icons was uploaded or matched to an existing image.
+     *
+     * @param icons the icons now registered with the map
+     */
+    void onIconsUploaded(@NonNull List<Icon> icons);
+  }
+
+  private static class ConvertedIcon {
+    final Icon icon;
+    final int width;
+    final int height;
+    final float scale;
+    final ByteBuffer pixels;
+    final String digest;
+
+    ConvertedIcon(Icon icon, int width, int height, float scale, ByteBuffer pixels, String digest) {
+      this.icon = icon;
+      this.width = width;
+      this.height = height;
+      this.scale = scale;
+      this.pixels = pixels;
+      this.digest = digest;
+    }
+  }
+}
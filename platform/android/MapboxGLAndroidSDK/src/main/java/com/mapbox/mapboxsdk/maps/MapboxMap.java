@@ -26,7 +26,9 @@ import com.mapbox.geojson.Geometry;
 import com.mapbox.mapboxsdk.annotations.Annotation;
 import com.mapbox.mapboxsdk.annotations.BaseMarkerOptions;
 import com.mapbox.mapboxsdk.annotations.BaseMarkerViewOptions;
+import com.mapbox.mapboxsdk.annotations.ClusterMarker;
 import com.mapbox.mapboxsdk.annotations.Marker;
+import com.mapbox.mapboxsdk.annotations.MarkerClusterOptions;
 import com.mapbox.mapboxsdk.annotations.MarkerOptions;
 import com.mapbox.mapboxsdk.annotations.MarkerView;
 import com.mapbox.mapboxsdk.annotations.MarkerViewManager;
@@ -1225,6 +1227,21 @@ public final class MapboxMap {
     return annotationManager.addMarkers(markerOptionsList, this);
   }
 
+  /**
+   * <p>
+   * Clusters the markers added from now on.
+   * </p>
+   * Markers close to each other on screen are rendered as a single {@link ClusterMarker}, which expands into its
+   * markers as the map zooms in. Only the clusters and the markers displayed on their own are rendered and can be
+   * clicked, while {@link #getMarkers()} keeps listing every marker. Markers added before and {@link MarkerView}s
+   * aren't clustered.
+   *
+   * @param options the clustering options, null to stop clustering markers added from now on
+   */
+  public void setMarkerClusterOptions(@Nullable MarkerClusterOptions options) {
+    annotationManager.setMarkerClusterOptions(options);
+  }
+
   /**
    * <p>
    * Updates a marker on this map. Does nothing if the marker isn't already added.
@@ -1236,6 +1253,23 @@ public final class MapboxMap {
     annotationManager.updateMarker(updatedMarker, this);
   }
 
+  /**
+   * <p>
+   * Applies annotation changes as a single transaction, committed to the map in bulk.
+   * </p>
+   * Markers added, updated and removed from the transaction, including through setters such as
+   * {@link Marker#setPosition(LatLng)}, {@link Polyline#addPoint(LatLng)} or {@link Polygon#setAlpha(float)}, are
+   * recorded instead of being sent to the map one by one. Redundant changes are collapsed: only the last update of an
+   * annotation is kept and annotations removed before being committed are dropped. The changes are committed on the
+   * next frame, so transactions run within the same frame share a commit, or earlier when annotations are accessed
+   * outside of a transaction. Markers added in a transaction get their id once committed.
+   *
+   * @param transaction the transaction to run
+   */
+  public void batchAnnotations(@NonNull AnnotationTransaction transaction) {
+    annotationManager.batchAnnotations(transaction);
+  }
+
   /**
    * Adds a polyline to this map.
    *
@@ -1408,6 +1442,17 @@ public final class MapboxMap {
     return annotationManager.getMarkers();
   }
 
+  /**
+   * Returns statistics about the icons used by markers on the map, including how many of them share an image
+   * because their content is identical.
+   *
+   * @return A snapshot of the icon statistics.
+   */
+  @NonNull
+  public IconStatistics getIconStatistics() {
+    return annotationManager.getIconStatistics();
+  }
+
   /**
    * Returns a list of all the polygons on the map.
    *
@@ -2497,6 +2542,20 @@ public final class MapboxMap {
     void cancelAllVelocityAnimations();
   }
 
+  /**
+   * Interface definition for a set of annotation changes applied as a single transaction.
+   *
+   * @see MapboxMap#batchAnnotations(AnnotationTransaction)
+   */
+  public interface AnnotationTransaction {
+    /**
+     * Called to record the annotation changes of the transaction.
+     *
+     * @param mapboxMap the map to change annotations on
+     */
+    void run(@NonNull MapboxMap mapboxMap);
+  }
+
   /**
    * Interface definition for a callback to be invoked when the user clicks on the map view.
    *
@@ -0,0 +1,642 @@
+package com.mapbox.mapboxsdk.maps;
+
+import android.graphics.RectF;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.UiThread;
+import android.support.v4.util.LongSparseArray;
+import android.view.Choreographer;
+
+import com.mapbox.mapboxsdk.annotations.Annotation;
+import com.mapbox.mapboxsdk.annotations.ClusterMarker;
+import com.mapbox.mapboxsdk.annotations.Icon;
+import com.mapbox.mapboxsdk.annotations.Marker;
+import com.mapbox.mapboxsdk.annotations.MarkerClusterOptions;
+import com.mapbox.mapboxsdk.constants.MapboxConstants;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+import com.mapbox.mapboxsdk.utils.FrameScheduler;
+import com.mapbox.mapboxsdk.utils.LongHashSet;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Clusters markers close to each other on screen, see {@link MarkerClusterOptions}.
+ * <p>
+ * Clustered markers are registered like other markers but never added to the map themselves. They get ids above the
+ * 32 bit range of the map, so the ids of the map never collide with theirs, and the map only renders what is
+ * displayed at the current zoom level: a {@link ClusterMarker} per cluster and the markers left on their own.
+ * Displayed markers are added to the map under another id, the marker keeps its own.
+ * </p>
+ * <p>
+ * Markers are grouped per zoom level on a grid with cells the size of the cluster radius. Cells halve at each zoom
+ * level, so the cells of a zoom level split into the cells of the next one and a level is built by merging the cells
+ * of the closest level above. Levels are built when first displayed and kept up to date as markers are added, moved
+ * and removed, with the changes applied to the map in bulk on the next frame and the levels swapped when the camera
+ * settles on another zoom level.
+ * </p>
+ */
+@UiThread
+class MarkerClusterer implements MapboxMap.OnCameraIdleListener {
+
+  // ids of clustered markers, above the ids handed out by the map
+  static final long FIRST_ID = 1L << 32;
+
+  private static final long NO_ID = -1;
+  private static final double TILE_SIZE = 512;
+
+  private final NativeMapView nativeMapView;
+  private final AnnotationRegistry annotations;
+  private final IconManager iconManager;
+  // null without frame callbacks
+  @Nullable
+  private final FrameScheduler refreshScheduler;
+
+  private final LongSparseArray<Item> items = new LongSparseArray<>();
+  private long nextId = FIRST_ID;
+
+  private boolean enabled;
+  private int clusterRadius;
+  private int clusterMaxZoom = -1;
+  @Nullable
+  private MarkerClusterOptions.IconProvider iconProvider;
+  private Level[] levels = new Level[0];
+
+  // what the map currently renders
+  private int displayedLevel = -1;
+  private List<Item> displayedItems = new ArrayList<>();
+  private List<Cell> displayedCells = new ArrayList<>();
+  private final List<Long> pendingRemovals = new ArrayList<>();
+  private final LongHashSet changedItems = new LongHashSet();
+  private int stamp;
+  private boolean refreshScheduled;
+
+  MarkerClusterer(NativeMapView nativeMapView, @NonNull AnnotationRegistry annotations, IconManager iconManager) {
+    this(nativeMapView, annotations, iconManager, FrameScheduler.getChoreographer());
+  }
+
+  MarkerClusterer(NativeMapView nativeMapView, @NonNull AnnotationRegistry annotations, IconManager iconManager,
+                  @Nullable Choreographer choreographer) {
+    this.nativeMapView = nativeMapView;
+    this.annotations = annotations;
+    this.iconManager = iconManager;
+    this.refreshScheduler = choreographer != null ? new FrameScheduler(choreographer, new Runnable() {
+      @Override
+      public void run() {
+        onFrame();
+      }
+    }) : null;
+  }
+
+  /**
+   * Check if a marker is clustered.
+   *
+   * @param id the id of the marker
+   * @return true if the id was handed out to a clustered marker
+   */
+  static boolean isClustered(long id) {
+    return id >= FIRST_ID;
+  }
+
+  /**
+   * Set how markers added from now on are clustered. Markers already clustered are regrouped with the new options.
+   *
+   * @param options the options, null to stop clustering added markers
+   */
+  void setOptions(@Nullable MarkerClusterOptions options) {
+    enabled = options != null;
+    if (options == null) {
+      return;
+    }
+
+    iconProvider = options.getIconProvider();
+    if (options.getClusterRadius() != clusterRadius || options.getClusterMaxZoom() != clusterMaxZoom) {
+      clusterRadius = options.getClusterRadius();
+      clusterMaxZoom = options.getClusterMaxZoom();
+      levels = new Level[clusterMaxZoom + 1];
+      displayedLevel = -1;
+      scheduleRefresh();
+    }
+  }
+
+  boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Check if any marker is clustered.
+   *
+   * @return true if clustered markers were added and not removed since
+   */
+  boolean isClustering() {
+    return items.size() > 0;
+  }
+
+  /**
+   * Add a marker, registering it under a new id.
+   *
+   * @param marker the marker
+   */
+  void add(@NonNull Marker marker) {
+    long id = nextId++;
+    marker.setId(id);
+    annotations.put(id, marker);
+
+    Item item = new Item(id, marker);
+    items.put(id, item);
+    project(item);
+    for (int z = 0; z < levels.length; z++) {
+      if (levels[z] != null) {
+        levels[z].add(item);
+      }
+    }
+    scheduleRefresh();
+  }
+
+  /**
+   * Regroup a marker after its position or icon changed.
+   *
+   * @param marker the marker
+   */
+  void update(@NonNull Marker marker) {
+    Item item = items.get(marker.getId());
+    if (item == null) {
+      return;
+    }
+
+    annotations.put(item.id, marker);
+    for (int z = 0; z < levels.length; z++) {
+      if (levels[z] != null) {
+        levels[z].remove(item);
+      }
+    }
+    project(item);
+    for (int z = 0; z < levels.length; z++) {
+      if (levels[z] != null) {
+        levels[z].add(item);
+      }
+    }
+    changedItems.add(item.id);
+    scheduleRefresh();
+  }
+
+  /**
+   * Remove a marker and unregister it.
+   *
+   * @param id the id of the marker
+   */
+  void remove(long id) {
+    annotations.remove(id);
+    Item item = items.get(id);
+    if (item == null) {
+      return;
+    }
+
+    items.remove(id);
+    for (int z = 0; z < levels.length; z++) {
+      if (levels[z] != null) {
+        levels[z].remove(item);
+      }
+    }
+    if (item.displayId != NO_ID) {
+      pendingRemovals.add(item.displayId);
+      item.displayId = NO_ID;
+    }
+    scheduleRefresh();
+  }
+
+  /**
+   * Remove the clustered markers from a list of annotations.
+   *
+   * @param annotationList the annotations to remove
+   * @return the annotations that aren't clustered markers
+   */
+  @NonNull
+  List<? extends Annotation> removeClustered(@NonNull List<? extends Annotation> annotationList) {
+    List<Annotation> others = null;
+    for (int i = 0; i < annotationList.size(); i++) {
+      Annotation annotation = annotationList.get(i);
+      if (isClustered(annotation.getId())) {
+        if (others == null) {
+          others = new ArrayList<>(annotationList.subList(0, i));
+        }
+        remove(annotation.getId());
+      } else if (others != null) {
+        others.add(annotation);
+      }
+    }
+    return others != null ? others : annotationList;
+  }
+
+  /**
+   * Remove all clustered markers, the map is updated right away.
+   */
+  void clear() {
+    for (int i = 0; i < items.size(); i++) {
+      annotations.remove(items.keyAt(i));
+    }
+    items.clear();
+    for (int z = 0; z < levels.length; z++) {
+      levels[z] = null;
+    }
+    refresh();
+  }
+
+  /**
+   * Add the displayed markers to the map again, after the markers of the map were reloaded.
+   */
+  void reload() {
+    for (Item item : displayedItems) {
+      if (item.displayId != NO_ID) {
+        pendingRemovals.add(item.displayId);
+        item.displayId = NO_ID;
+      }
+    }
+    displayedItems.clear();
+    // clusters are replaced as the level is displayed anew
+    displayedLevel = -1;
+    refresh();
+  }
+
+  /**
+   * Check if a clustered marker is displayed on its own.
+   *
+   * @param marker the marker
+   * @return true if the marker is rendered by the map
+   */
+  boolean isDisplayed(@NonNull Marker marker) {
+    Item item = items.get(marker.getId());
+    return item != null && item.displayId != NO_ID;
+  }
+
+  /**
+   * Get a cluster marker displayed on the map.
+   *
+   * @param id the id of the cluster marker
+   * @return the cluster marker, null if none is displayed with the id
+   */
+  @Nullable
+  ClusterMarker getCluster(long id) {
+    for (Cell cell : displayedCells) {
+      if (cell.cluster.getId() == id) {
+        return cell.cluster;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Find the cluster markers displayed in an area of the screen.
+   *
+   * @param rectangle the area
+   * @return the cluster markers
+   */
+  @NonNull
+  List<Marker> getClustersIn(@NonNull RectF rectangle) {
+    List<Marker> clusters = new ArrayList<>();
+    if (displayedCells.isEmpty()) {
+      return clusters;
+    }
+
+    MercatorQuad quad = new MercatorQuad(nativeMapView.latLngsForRectangle(rectangle));
+    int firstWorld = (int) Math.floor(quad.getMinX()) - 1;
+    int lastWorld = (int) Math.floor(quad.getMaxX()) + 1;
+    for (Cell cell : displayedCells) {
+      for (int world = firstWorld; world <= lastWorld; world++) {
+        if (quad.contains(cell.getX() + world, cell.getY())) {
+          clusters.add(cell.cluster);
+          break;
+        }
+      }
+    }
+    return clusters;
+  }
+
+  /**
+   * Get the zoom level a cluster marker splits at.
+   *
+   * @param cluster the cluster marker
+   * @return the lowest zoom level showing more than one marker for the cluster
+   */
+  int getExpansionZoom(@NonNull ClusterMarker cluster) {
+    Cell cell = null;
+    for (Cell displayed : displayedCells) {
+      if (displayed.cluster == cluster) {
+        cell = displayed;
+      }
+    }
+    if (cell == null) {
+      return displayedLevel + 1;
+    }
+
+    // follow the cell down the levels while it holds a single cell of the next level
+    long cx = cell.cx;
+    long cy = cell.cy;
+    for (int z = displayedLevel + 1; z <= clusterMaxZoom; z++) {
+      Level level = getLevel(z);
+      Cell child = null;
+      for (int i = 0; i < 4; i++) {
+        Cell candidate = level.cells.get(key(cx * 2 + (i & 1), cy * 2 + (i >> 1)));
+        if (candidate == null) {
+          continue;
+        }
+        if (child != null) {
+          return z;
+        }
+        child = candidate;
+      }
+      if (child == null || child.count == 1) {
+        return z;
+      }
+      cx = child.cx;
+      cy = child.cy;
+    }
+    return clusterMaxZoom + 1;
+  }
+
+  @Override
+  public void onCameraIdle() {
+    if (items.size() > 0 && getZoomLevel() != displayedLevel) {
+      refresh();
+    }
+  }
+
+  /**
+   * Run the refresh scheduled for this frame.
+   */
+  void onFrame() {
+    refreshScheduled = false;
+    refresh();
+  }
+
+  private void scheduleRefresh() {
+    if (refreshScheduler == null) {
+      refresh();
+    } else if (!refreshScheduled) {
+      refreshScheduled = true;
+      refreshScheduler.schedule();
+    }
+  }
+
+  /**
+   * Update the map with the markers and clusters displayed at the current zoom level, in bulk.
+   */
+  private void refresh() {
+    if (refreshScheduled) {
+      refreshScheduler.cancel();
+      refreshScheduled = false;
+    }
+
+    int zoomLevel = getZoomLevel();
+    List<Item> targetItems = new ArrayList<>();
+    List<Cell> targetCells = new ArrayList<>();
+    if (zoomLevel > clusterMaxZoom) {
+      for (int i = 0; i < items.size(); i++) {
+        targetItems.add(items.valueAt(i));
+      }
+    } else if (items.size() > 0) {
+      for (Cell cell : getLevel(zoomLevel).cells.values()) {
+        Item item = cell.count == 1 ? items.get(cell.ids) : null;
+        if (item != null) {
+          // the ids of the cell cancel out but the last one
+          targetItems.add(item);
+        } else {
+          targetCells.add(cell);
+        }
+      }
+    }
+
+    List<Long> removedIds = new ArrayList<>(pendingRemovals);
+    pendingRemovals.clear();
+    List<Marker> addedMarkers = new ArrayList<>();
+    List<Object> addedOwners = new ArrayList<>();
+
+    stamp++;
+    for (Item item : targetItems) {
+      item.stamp = stamp;
+      if (item.displayId != NO_ID && changedItems.contains(item.id)) {
+        removedIds.add(item.displayId);
+        item.displayId = NO_ID;
+      }
+      if (item.displayId == NO_ID) {
+        addedMarkers.add(item.marker);
+        addedOwners.add(item);
+      }
+    }
+    for (Item item : displayedItems) {
+      if (item.stamp != stamp && item.displayId != NO_ID) {
+        removedIds.add(item.displayId);
+        item.displayId = NO_ID;
+      }
+    }
+    changedItems.clear();
+
+    for (Cell cell : targetCells) {
+      cell.stamp = stamp;
+      LatLng position = cell.getPosition();
+      if (zoomLevel != displayedLevel || cell.cluster == null || cell.cluster.getCount() != cell.count
+        || !position.equals(cell.cluster.getPosition())) {
+        ClusterMarker cluster = createCluster(position, cell.count);
+        if (cell.cluster != null && zoomLevel == displayedLevel) {
+          removeCluster(cell.cluster, removedIds);
+        }
+        cell.cluster = cluster;
+        addedMarkers.add(cluster);
+        addedOwners.add(cell);
+      }
+    }
+    for (Cell cell : displayedCells) {
+      if ((cell.stamp != stamp || zoomLevel != displayedLevel) && cell.cluster != null) {
+        removeCluster(cell.cluster, removedIds);
+        cell.cluster = null;
+      }
+    }
+
+    displayedItems = targetItems;
+    displayedCells = targetCells;
+    displayedLevel = zoomLevel;
+
+    if (nativeMapView == null) {
+      return;
+    }
+    if (!removedIds.isEmpty()) {
+      long[] ids = new long[removedIds.size()];
+      for (int i = 0; i < ids.length; i++) {
+        ids[i] = removedIds.get(i);
+      }
+      nativeMapView.removeAnnotations(ids);
+    }
+    if (!addedMarkers.isEmpty()) {
+      long[] ids = nativeMapView.addMarkers(addedMarkers);
+      for (int i = 0; i < ids.length; i++) {
+        Object owner = addedOwners.get(i);
+        if (owner instanceof Item) {
+          ((Item) owner).displayId = ids[i];
+        } else {
+          ((Cell) owner).cluster.setId(ids[i]);
+        }
+      }
+    }
+  }
+
+  private ClusterMarker createCluster(LatLng position, int count) {
+    Icon icon = iconProvider != null ? iconProvider.getIcon(count) : null;
+    ClusterMarker cluster = new ClusterMarker(position, icon, count);
+    icon = iconManager.loadIconForMarker(cluster);
+    cluster.setTopOffsetPixels(iconManager.getTopOffsetPixelsForIcon(icon));
+    return cluster;
+  }
+
+  private void removeCluster(ClusterMarker cluster, List<Long> removedIds) {
+    if (cluster.getId() != NO_ID) {
+      removedIds.add(cluster.getId());
+    }
+    cluster.hideInfoWindow();
+    iconManager.iconCleanup(cluster);
+  }
+
+  private int getZoomLevel() {
+    double zoom = nativeMapView != null ? nativeMapView.getZoom() : 0;
+    return (int) Math.max(0, Math.min(MapboxConstants.MAXIMUM_ZOOM, Math.floor(zoom)));
+  }
+
+  private Level getLevel(int zoom) {
+    Level level = levels[zoom];
+    if (level != null) {
+      return level;
+    }
+
+    level = new Level(zoom);
+    Level finer = null;
+    for (int z = zoom + 1; z < levels.length && finer == null; z++) {
+      finer = levels[z];
+    }
+    if (finer != null) {
+      level.merge(finer);
+    } else {
+      for (int i = 0; i < items.size(); i++) {
+        level.add(items.valueAt(i));
+      }
+    }
+    levels[zoom] = level;
+    return level;
+  }
+
+  private void project(Item item) {
+    LatLng position = item.marker.getPosition();
+    double x = MercatorQuad.projectX(position.getLongitude());
+    // markers are drawn in every copy of the world, cluster them in the first one
+    item.x = x - Math.floor(x);
+    item.y = MercatorQuad.projectY(position.getLatitude());
+  }
+
+  private static long key(long cx, long cy) {
+    return (cx << 32) | cy;
+  }
+
+  private static final class Item {
+    final long id;
+    final Marker marker;
+    double x;
+    double y;
+    // id of the marker on the map while displayed on its own
+    long displayId = NO_ID;
+    int stamp;
+
+    Item(long id, Marker marker) {
+      this.id = id;
+      this.marker = marker;
+    }
+  }
+
+  private static final class Cell {
+    final long cx;
+    final long cy;
+    int count;
+    double sumX;
+    double sumY;
+    // xor of the ids of the markers in the cell, the id of the marker when there's only one
+    long ids;
+    @Nullable
+    ClusterMarker cluster;
+    int stamp;
+
+    Cell(long cx, long cy) {
+      this.cx = cx;
+      this.cy = cy;
+    }
+
+    double getX() {
+      return sumX / count;
+    }
+
+    double getY() {
+      return sumY / count;
+    }
+
+    LatLng getPosition() {
+      double latitude = Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2 * getY()))));
+      return new LatLng(latitude, getX() * 360 - 180);
+    }
+  }
+
+  private final class Level {
+    // cells per unit of projected coordinates, doubles at each zoom level so cells split evenly
+    private final double scale;
+    private final Map<Long, Cell> cells = new HashMap<>();
+
+    Level(int zoom) {
+      scale = TILE_SIZE * (1 << zoom) / clusterRadius;
+    }
+
+    void add(Item item) {
+      long cx = (long) Math.floor(item.x * scale);
+      long cy = (long) Math.floor(item.y * scale);
+      long key = key(cx, cy);
+      Cell cell = cells.get(key);
+      if (cell == null) {
+        cell = new Cell(cx, cy);
+        cells.put(key, cell);
+      }
+      cell.count++;
+      cell.sumX += item.x;
+      cell.sumY += item.y;
+      cell.ids ^= item.id;
+    }
+
+    void remove(Item item) {
+      long key = key((long) Math.floor(item.x * scale), (long) Math.floor(item.y * scale));
+      Cell cell = cells.get(key);
+      if (cell == null) {
+        return;
+      }
+      cell.count--;
+      cell.sumX -= item.x;
+      cell.sumY -= item.y;
+      cell.ids ^= item.id;
+      if (cell.count == 0) {
+        cells.remove(key);
+      }
+    }
+
+    void merge(Level finer) {
+      int shift = Long.numberOfTrailingZeros((long) (finer.scale / scale));
+      for (Cell finerCell : finer.cells.values()) {
+        long cx = finerCell.cx >> shift;
+        long cy = finerCell.cy >> shift;
+        long key = key(cx, cy);
+        Cell cell = cells.get(key);
+        if (cell == null) {
+          cell = new Cell(cx, cy);
+          cells.put(key, cell);
+        }
+        cell.count += finerCell.count;
+        cell.sumX += finerCell.sumX;
+        cell.sumY += finerCell.sumY;
+        cell.ids ^= finerCell.ids;
+      }
+    }
+  }
+}
@@ -4,7 +4,6 @@ package com.mapbox.mapboxsdk.maps;
 import android.graphics.RectF;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
-import android.support.v4.util.LongSparseArray;
 
 import com.mapbox.mapboxsdk.annotations.Annotation;
 import com.mapbox.mapboxsdk.annotations.BaseMarkerOptions;
@@ -14,6 +13,7 @@ import com.mapbox.mapboxsdk.annotations.IconFactory;
 import com.mapbox.mapboxsdk.annotations.Marker;
 import com.mapbox.mapboxsdk.annotations.MarkerView;
 import com.mapbox.mapboxsdk.annotations.MarkerViewManager;
+import com.mapbox.mapboxsdk.utils.LongHashSet;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -25,11 +25,13 @@ class MarkerContainer implements Markers {
 
   private final NativeMapView nativeMapView;
   private final MapView mapView;
-  private final LongSparseArray<Annotation> annotations;
+  private final AnnotationRegistry annotations;
   private final IconManager iconManager;
   private final MarkerViewManager markerViewManager;
+  // reused to drop duplicate query results
+  private final LongHashSet resolvedIds = new LongHashSet();
 
-  MarkerContainer(NativeMapView nativeMapView, MapView mapView, LongSparseArray<Annotation> annotations, IconManager
+  MarkerContainer(NativeMapView nativeMapView, MapView mapView, AnnotationRegistry annotations, IconManager
     iconManager, MarkerViewManager markerViewManager) {
     this.nativeMapView = nativeMapView;
     this.mapView = mapView;
@@ -75,22 +77,31 @@ class MarkerContainer implements Markers {
     return markers;
   }
 
+  @Override
+  public Marker prepareBy(@NonNull BaseMarkerOptions markerOptions, @NonNull MapboxMap mapboxMap) {
+    Marker marker = prepareMarker(markerOptions);
+    marker.setMapboxMap(mapboxMap);
+    return marker;
+  }
+
   @Override
   public void update(@NonNull Marker updatedMarker, @NonNull MapboxMap mapboxMap) {
     ensureIconLoaded(updatedMarker, mapboxMap);
     nativeMapView.updateMarker(updatedMarker);
-    annotations.setValueAt(annotations.indexOfKey(updatedMarker.getId()), updatedMarker);
+    annotations.put(updatedMarker.getId(), updatedMarker);
+  }
+
+  @Override
+  public void prepareUpdate(@NonNull Marker updatedMarker, @NonNull MapboxMap mapboxMap) {
+    ensureIconLoaded(updatedMarker, mapboxMap);
   }
 
   @Override
   public List<Marker> obtainAll() {
-    List<Marker> markers = new ArrayList<>();
-    Annotation annotation;
-    for (int i = 0; i < annotations.size(); i++) {
-      annotation = annotations.get(annotations.keyAt(i));
-      if (annotation instanceof Marker) {
-        markers.add((Marker) annotation);
-      }
+    List<Annotation> all = annotations.obtainAll(AnnotationRegistry.MARKER, AnnotationRegistry.MARKER_VIEW);
+    List<Marker> markers = new ArrayList<>(all.size());
+    for (Annotation annotation : all) {
+      markers.add((Marker) annotation);
     }
     return markers;
   }
@@ -98,24 +109,7 @@ class MarkerContainer implements Markers {
   @NonNull
   @Override
   public List<Marker> obtainAllIn(@NonNull RectF rectangle) {
-    RectF rect = nativeMapView.getDensityDependantRectangle(rectangle);
-    long[] ids = nativeMapView.queryPointAnnotations(rect);
-    List<Long> idsList = new ArrayList<>(ids.length);
-    for (long id : ids) {
-      idsList.add(id);
-    }
-
-    List<Marker> annotations = new ArrayList<>(ids.length);
-    List<Annotation> annotationList = obtainAnnotations();
-    int count = annotationList.size();
-    for (int i = 0; i < count; i++) {
-      Annotation annotation = annotationList.get(i);
-      if (annotation instanceof com.mapbox.mapboxsdk.annotations.Marker && idsList.contains(annotation.getId())) {
-        annotations.add((com.mapbox.mapboxsdk.annotations.Marker) annotation);
-      }
-    }
-
-    return new ArrayList<>(annotations);
+    return resolveMarkers(annotations.queryPoints(nativeMapView.latLngsForRectangle(rectangle)));
   }
 
   @Override
@@ -162,44 +156,66 @@ class MarkerContainer implements Markers {
 
   @Override
   public List<MarkerView> obtainViewsIn(@NonNull RectF rectangle) {
-    float pixelRatio = nativeMapView.getPixelRatio();
-    RectF rect = new RectF(rectangle.left / pixelRatio,
-      rectangle.top / pixelRatio,
-      rectangle.right / pixelRatio,
-      rectangle.bottom / pixelRatio);
-
-    long[] ids = nativeMapView.queryPointAnnotations(rect);
+    return resolveMarkerViews(annotations.queryPoints(nativeMapView.latLngsForRectangle(rectangle)));
+  }
 
-    List<Long> idsList = new ArrayList<>(ids.length);
+  /**
+   * Resolve the markers for the ids returned by a point annotation query.
+   * Query results may hold the same id more than once, for annotations found in several copies of the world.
+   *
+   * @param ids the queried ids
+   * @return the markers, in query order
+   */
+  @NonNull
+  List<Marker> resolveMarkers(@NonNull long[] ids) {
+    List<Marker> markers = new ArrayList<>(ids.length);
+    resolvedIds.clear();
     for (long id : ids) {
-      idsList.add(id);
+      Annotation annotation = annotations.get(id);
+      if (annotation instanceof Marker && resolvedIds.add(id)) {
+        markers.add((Marker) annotation);
+      }
     }
+    return markers;
+  }
 
-    List<MarkerView> annotations = new ArrayList<>(ids.length);
-    List<Annotation> annotationList = obtainAnnotations();
-    int count = annotationList.size();
-    for (int i = 0; i < count; i++) {
-      Annotation annotation = annotationList.get(i);
-      if (annotation instanceof MarkerView && idsList.contains(annotation.getId())) {
-        annotations.add((MarkerView) annotation);
+  @NonNull
+  List<MarkerView> resolveMarkerViews(@NonNull long[] ids) {
+    List<MarkerView> markerViews = new ArrayList<>(ids.length);
+    resolvedIds.clear();
+    for (long id : ids) {
+      Annotation annotation = annotations.get(id);
+      if (annotation instanceof MarkerView && resolvedIds.add(id)) {
+        markerViews.add((MarkerView) annotation);
       }
     }
-
-    return new ArrayList<>(annotations);
+    return markerViews;
   }
 
   @Override
   public void reload() {
     iconManager.reloadIcons();
-    int count = annotations.size();
+    reload(AnnotationRegistry.MARKER);
+    reload(AnnotationRegistry.MARKER_VIEW);
+  }
+
+  private void reload(@AnnotationRegistry.Partition int partition) {
+    int count = annotations.size(partition);
+    Marker[] markers = new Marker[count];
     for (int i = 0; i < count; i++) {
-      Annotation annotation = annotations.get(i);
-      if (annotation instanceof Marker) {
-        Marker marker = (Marker) annotation;
-        nativeMapView.removeAnnotation(annotation.getId());
-        long newId = nativeMapView.addMarker(marker);
-        marker.setId(newId);
+      markers[i] = (Marker) annotations.valueAt(partition, i);
+    }
+
+    for (Marker marker : markers) {
+      if (MarkerClusterer.isClustered(marker.getId())) {
+        // not added to the map, see MarkerClusterer#reload()
+        continue;
       }
+      annotations.remove(marker.getId());
+      nativeMapView.removeAnnotation(marker.getId());
+      long newId = nativeMapView.addMarker(marker);
+      marker.setId(newId);
+      annotations.put(newId, marker);
     }
   }
 
@@ -216,14 +232,6 @@ class MarkerContainer implements Markers {
     }
   }
 
-  private List<Annotation> obtainAnnotations() {
-    List<Annotation> annotations = new ArrayList<>();
-    for (int i = 0; i < this.annotations.size(); i++) {
-      annotations.add(this.annotations.get(this.annotations.keyAt(i)));
-    }
-    return annotations;
-  }
-
   private MarkerView prepareViewMarker(BaseMarkerViewOptions markerViewOptions) {
     MarkerView marker = markerViewOptions.getMarker();
     Icon icon = markerViewOptions.getIcon();
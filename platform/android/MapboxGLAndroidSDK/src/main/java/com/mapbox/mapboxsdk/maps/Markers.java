@@ -21,8 +21,12 @@ interface Markers {
 
   List<Marker> addBy(@NonNull List<? extends BaseMarkerOptions> markerOptionsList, @NonNull MapboxMap mapboxMap);
 
+  Marker prepareBy(@NonNull BaseMarkerOptions markerOptions, @NonNull MapboxMap mapboxMap);
+
   void update(@NonNull Marker updatedMarker, @NonNull MapboxMap mapboxMap);
 
+  void prepareUpdate(@NonNull Marker updatedMarker, @NonNull MapboxMap mapboxMap);
+
   List<Marker> obtainAll();
 
   List<Marker> obtainAllIn(@NonNull RectF rectangle);
@@ -0,0 +1,191 @@
+package com.mapbox.mapboxsdk.maps;
+
+import android.support.annotation.NonNull;
+
+import com.mapbox.mapboxsdk.constants.GeometryConstants;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+
+/**
+ * Convex quadrilateral in projected Mercator coordinates, the area of the map covered by a rectangle on screen.
+ * <p>
+ * The ground plane is projected on screen with a perspective transform, which maps straight lines to straight lines.
+ * The four corners of a screen rectangle hence describe the matching area of the map exactly, including when the map
+ * is rotated or tilted. Coordinates are normalized to [0, 1] for one copy of the world, x grows east and y south.
+ * </p>
+ */
+final class MercatorQuad {
+
+  private final double[] xs = new double[4];
+  private final double[] ys = new double[4];
+  private double minX;
+  private double minY;
+  private double maxX;
+  private double maxY;
+
+  /**
+   * Create a quad from the corners of a screen rectangle, in order.
+   * Longitudes are expected to be unwrapped, so the quad can extend over more than one copy of the world.
+   *
+   * @param corners the four corners
+   */
+  MercatorQuad(@NonNull LatLng[] corners) {
+    minX = minY = Double.POSITIVE_INFINITY;
+    maxX = maxY = Double.NEGATIVE_INFINITY;
+    for (int i = 0; i < 4; i++) {
+      xs[i] = projectX(corners[i].getLongitude());
+      ys[i] = projectY(corners[i].getLatitude());
+      minX = Math.min(minX, xs[i]);
+      minY = Math.min(minY, ys[i]);
+      maxX = Math.max(maxX, xs[i]);
+      maxY = Math.max(maxY, ys[i]);
+    }
+  }
+
+  static double projectX(double longitude) {
+    return (longitude + 180) / 360;
+  }
+
+  static double projectY(double latitude) {
+    double clamped = Math.max(GeometryConstants.MIN_MERCATOR_LATITUDE,
+      Math.min(GeometryConstants.MAX_MERCATOR_LATITUDE, latitude));
+    double sin = Math.sin(Math.toRadians(clamped));
+    return 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+  }
+
+  double getMinX() {
+    return minX;
+  }
+
+  double getMinY() {
+    return minY;
+  }
+
+  double getMaxX() {
+    return maxX;
+  }
+
+  double getMaxY() {
+    return maxY;
+  }
+
+  /**
+   * Check if a point is inside the quad.
+   *
+   * @param x the x coordinate
+   * @param y the y coordinate
+   * @return true if the point is inside or on the edge of the quad
+   */
+  boolean contains(double x, double y) {
+    if (x < minX || x > maxX || y < minY || y > maxY) {
+      return false;
+    }
+
+    // inside a convex polygon, the point is on the same side of every edge, whatever the winding
+    boolean positive = false;
+    boolean negative = false;
+    for (int i = 0; i < 4; i++) {
+      int j = (i + 1) & 3;
+      double cross = (xs[j] - xs[i]) * (y - ys[i]) - (ys[j] - ys[i]) * (x - xs[i]);
+      positive |= cross > 0;
+      negative |= cross < 0;
+    }
+    return !(positive && negative);
+  }
+
+  /**
+   * Check if a line segment crosses or lies inside the quad.
+   *
+   * @param x1 the x coordinate of the start
+   * @param y1 the y coordinate of the start
+   * @param x2 the x coordinate of the end
+   * @param y2 the y coordinate of the end
+   * @return true if the segment intersects the quad
+   */
+  boolean intersectsSegment(double x1, double y1, double x2, double y2) {
+    if (Math.max(x1, x2) < minX || Math.min(x1, x2) > maxX || Math.max(y1, y2) < minY || Math.min(y1, y2) > maxY) {
+      return false;
+    }
+    if (contains(x1, y1) || contains(x2, y2)) {
+      return true;
+    }
+    for (int i = 0; i < 4; i++) {
+      int j = (i + 1) & 3;
+      if (segmentsCross(x1, y1, x2, y2, xs[i], ys[i], xs[j], ys[j])) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Check if a line or shape crosses the quad.
+   *
+   * @param rings   the lines or rings of the shape, each packed as latitude and longitude pairs
+   * @param closed  true if the rings are closed, like the outline and holes of a polygon
+   * @param offsetX offset added to the x coordinates of the shape, to test it against another copy of the world
+   * @return true if any segment of the shape intersects the quad
+   */
+  boolean intersectsRings(@NonNull double[][] rings, boolean closed, double offsetX) {
+    for (double[] ring : rings) {
+      int count = ring.length / 2;
+      if (count == 0) {
+        continue;
+      }
+      int previous = closed ? count - 1 : 0;
+      double previousX = projectX(ring[previous * 2 + 1]) + offsetX;
+      double previousY = projectY(ring[previous * 2]);
+      if (count == 1 && contains(previousX, previousY)) {
+        return true;
+      }
+      for (int i = closed ? 0 : 1; i < count; i++) {
+        double x = projectX(ring[i * 2 + 1]) + offsetX;
+        double y = projectY(ring[i * 2]);
+        if (intersectsSegment(previousX, previousY, x, y)) {
+          return true;
+        }
+        previousX = x;
+        previousY = y;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Check if the quad lies inside a polygon, with the even-odd rule so holes are excluded.
+   *
+   * @param rings   the outline and holes of the polygon, each packed as latitude and longitude pairs
+   * @param offsetX offset added to the x coordinates of the polygon
+   * @return true if the center of the quad is inside the polygon
+   */
+  boolean isInside(@NonNull double[][] rings, double offsetX) {
+    double x = (xs[0] + xs[1] + xs[2] + xs[3]) / 4;
+    double y = (ys[0] + ys[1] + ys[2] + ys[3]) / 4;
+    boolean inside = false;
+    for (double[] ring : rings) {
+      int count = ring.length / 2;
+      for (int i = 0, j = count - 1; i < count; j = i++) {
+        double xi = projectX(ring[i * 2 + 1]) + offsetX;
+        double yi = projectY(ring[i * 2]);
+        double xj = projectX(ring[j * 2 + 1]) + offsetX;
+        double yj = projectY(ring[j * 2]);
+        if ((yi > y) != (yj > y) && x < (xj - xi) * (y - yi) / (yj - yi) + xi) {
+          inside = !inside;
+        }
+      }
+    }
+    return inside;
+  }
+
+  private static boolean segmentsCross(double ax, double ay, double bx, double by,
+                                       double cx, double cy, double dx, double dy) {
+    double d1 = orientation(cx, cy, dx, dy, ax, ay);
+    double d2 = orientation(cx, cy, dx, dy, bx, by);
+    double d3 = orientation(ax, ay, bx, by, cx, cy);
+    double d4 = orientation(ax, ay, bx, by, dx, dy);
+    return ((d1 > 0 && d2 < 0) || (d1 < 0 && d2 > 0)) && ((d3 > 0 && d4 < 0) || (d3 < 0 && d4 > 0));
+  }
+
+  private static double orientation(double ax, double ay, double bx, double by, double cx, double cy) {
+    return (bx - ax) * (cy - ay) - (by - ay) * (cx - ax);
+  }
+}
@@ -15,7 +15,6 @@ import android.util.DisplayMetrics;
 import com.mapbox.geojson.Feature;
 import com.mapbox.geojson.Geometry;
 import com.mapbox.mapboxsdk.LibraryLoader;
-import com.mapbox.mapboxsdk.annotations.Icon;
 import com.mapbox.mapboxsdk.annotations.Marker;
 import com.mapbox.mapboxsdk.annotations.Polygon;
 import com.mapbox.mapboxsdk.annotations.Polyline;
@@ -31,6 +30,7 @@ import com.mapbox.mapboxsdk.style.layers.CannotAddLayerException;
 import com.mapbox.mapboxsdk.style.layers.Layer;
 import com.mapbox.mapboxsdk.style.light.Light;
 import com.mapbox.mapboxsdk.style.sources.CannotAddSourceException;
+import com.mapbox.mapboxsdk.style.sources.GeoJsonSource;
 import com.mapbox.mapboxsdk.style.sources.Source;
 import com.mapbox.mapboxsdk.utils.BitmapUtils;
 import timber.log.Timber;
@@ -439,14 +439,20 @@ final class NativeMapView {
       return 0;
     }
     Polyline[] polylines = {polyline};
-    return nativeAddPolylines(polylines)[0];
+    long id = nativeAddPolylines(polylines)[0];
+    polyline.onMapUpdated();
+    return id;
   }
 
   public long[] addPolylines(List<Polyline> polylines) {
     if (checkState("addPolylines")) {
       return new long[] {};
     }
-    return nativeAddPolylines(polylines.toArray(new Polyline[polylines.size()]));
+    long[] ids = nativeAddPolylines(polylines.toArray(new Polyline[polylines.size()]));
+    for (Polyline polyline : polylines) {
+      polyline.onMapUpdated();
+    }
+    return ids;
   }
 
   public long addPolygon(Polygon polygon) {
@@ -469,8 +475,26 @@ final class NativeMapView {
       return;
     }
     LatLng position = marker.getPosition();
-    Icon icon = marker.getIcon();
-    nativeUpdateMarker(marker.getId(), position.getLatitude(), position.getLongitude(), icon.getId());
+    nativeUpdateMarker(marker.getId(), position.getLatitude(), position.getLongitude(), marker.getRenderedIconId());
+  }
+
+  public void updateMarkers(List<Marker> markers) {
+    if (checkState("updateMarkers")) {
+      return;
+    }
+    int count = markers.size();
+    long[] ids = new long[count];
+    double[] positions = new double[count * 2];
+    String[] iconIds = new String[count];
+    for (int i = 0; i < count; i++) {
+      Marker marker = markers.get(i);
+      LatLng position = marker.getPosition();
+      ids[i] = marker.getId();
+      positions[i * 2] = position.getLatitude();
+      positions[i * 2 + 1] = position.getLongitude();
+      iconIds[i] = marker.getRenderedIconId();
+    }
+    nativeUpdateMarkers(ids, positions, iconIds);
   }
 
   public void updatePolygon(Polygon polygon) {
@@ -484,7 +508,14 @@ final class NativeMapView {
     if (checkState("updatePolyline")) {
       return;
     }
-    nativeUpdatePolyline(polyline.getId(), polyline);
+    // ship only the points added and removed at the ends when that's all that changed
+    double[] appended = polyline.getAppendedCoordinates();
+    if (appended == null
+      || !nativeUpdatePolylinePoints(polyline.getId(), appended, polyline.getTrimmedPointCount())) {
+      // a polyline changing at its ends is retained natively, its next changes are applied to that copy
+      nativeUpdatePolyline(polyline.getId(), polyline, appended != null);
+    }
+    polyline.onMapUpdated();
   }
 
   public void removeAnnotation(long id) {
@@ -523,6 +554,21 @@ final class NativeMapView {
     nativeAddAnnotationIcon(symbol, width, height, scale, pixels);
   }
 
+  /**
+   * Add a batch of annotation icons in a single call.
+   *
+   * @param symbols the icon ids
+   * @param sizes   the interleaved width and height of each icon
+   * @param scales  the scale of each icon
+   * @param pixels  direct buffers holding the premultiplied ARGB_8888 pixels of each icon
+   */
+  public void addAnnotationIcons(String[] symbols, int[] sizes, float[] scales, ByteBuffer[] pixels) {
+    if (checkState("addAnnotationIcons")) {
+      return;
+    }
+    nativeAddAnnotationIcons(symbols, sizes, scales, pixels);
+  }
+
   public void removeAnnotationIcon(String symbol) {
     if (checkState("removeAnnotationIcon")) {
       return;
@@ -610,6 +656,13 @@ final class NativeMapView {
     return pointF;
   }
 
+  public void pixelsForLatLngs(double[] latLngs, float[] pixels, int count) {
+    if (checkState("pixelsForLatLngs")) {
+      return;
+    }
+    nativePixelsForLatLngs(latLngs, pixels, count, pixelRatio);
+  }
+
   public LatLng latLngForPixel(PointF pixel) {
     if (checkState("latLngForPixel")) {
       return new LatLng();
@@ -617,6 +670,25 @@ final class NativeMapView {
     return nativeLatLngForPixel(pixel.x / pixelRatio, pixel.y / pixelRatio).wrap();
   }
 
+  /**
+   * Get the coordinates of the corners of a rectangle on screen, clockwise from the top left.
+   * Longitudes aren't wrapped, the corners of a rectangle spanning the antimeridian stay contiguous.
+   *
+   * @param rectangle the rectangle in pixels
+   * @return the four corners, or an empty array if the map was destroyed
+   */
+  LatLng[] latLngsForRectangle(RectF rectangle) {
+    if (checkState("latLngsForRectangle")) {
+      return new LatLng[0];
+    }
+    return new LatLng[] {
+      nativeLatLngForPixel(rectangle.left / pixelRatio, rectangle.top / pixelRatio),
+      nativeLatLngForPixel(rectangle.right / pixelRatio, rectangle.top / pixelRatio),
+      nativeLatLngForPixel(rectangle.right / pixelRatio, rectangle.bottom / pixelRatio),
+      nativeLatLngForPixel(rectangle.left / pixelRatio, rectangle.bottom / pixelRatio)
+    };
+  }
+
   public double getTopOffsetPixelsForAnnotationSymbol(String symbolName) {
     if (checkState("getTopOffsetPixelsForAnnotationSymbol")) {
       return 0;
@@ -792,6 +864,9 @@ final class NativeMapView {
       return null;
     }
     nativeRemoveSource(source, source.getNativePtr());
+    if (source instanceof GeoJsonSource) {
+      ((GeoJsonSource) source).cancelPendingUpdates();
+    }
     return source;
   }
 
@@ -883,15 +958,6 @@ final class NativeMapView {
     return pixelRatio;
   }
 
-  RectF getDensityDependantRectangle(final RectF rectangle) {
-    return new RectF(
-      rectangle.left / pixelRatio,
-      rectangle.top / pixelRatio,
-      rectangle.right / pixelRatio,
-      rectangle.bottom / pixelRatio
-    );
-  }
-
   //
   // Callbacks
   //
@@ -1024,6 +1090,9 @@ final class NativeMapView {
   @Keep
   private native void nativeUpdateMarker(long markerId, double lat, double lon, String iconId);
 
+  @Keep
+  private native void nativeUpdateMarkers(long[] markerIds, double[] positions, String[] iconIds);
+
   @Keep
   private native long[] nativeAddMarkers(Marker[] markers);
 
@@ -1045,6 +1114,9 @@ final class NativeMapView {
   @Keep
   private native void nativeAddAnnotationIcon(String symbol, int width, int height, float scale, byte[] pixels);
 
+  @Keep
+  private native void nativeAddAnnotationIcons(String[] symbols, int[] sizes, float[] scales, ByteBuffer[] pixels);
+
   @Keep
   private native void nativeRemoveAnnotationIcon(String symbol);
 
@@ -1082,6 +1154,9 @@ final class NativeMapView {
   @Keep
   private native PointF nativePixelForLatLng(double lat, double lon);
 
+  @Keep
+  private native void nativePixelsForLatLngs(double[] latLngs, float[] pixels, int count, float pixelRatio);
+
   @Keep
   private native LatLng nativeLatLngForPixel(float x, float y);
 
@@ -1167,7 +1242,10 @@ final class NativeMapView {
   private native void nativeUpdatePolygon(long polygonId, Polygon polygon);
 
   @Keep
-  private native void nativeUpdatePolyline(long polylineId, Polyline polyline);
+  private native void nativeUpdatePolyline(long polylineId, Polyline polyline, boolean retain);
+
+  @Keep
+  private native boolean nativeUpdatePolylinePoints(long polylineId, double[] appended, int trimmed);
 
   @Keep
   private native void nativeTakeSnapshot();
@@ -2,9 +2,7 @@ package com.mapbox.mapboxsdk.maps;
 
 
 import android.support.annotation.NonNull;
-import android.support.v4.util.LongSparseArray;
 
-import com.mapbox.mapboxsdk.annotations.Annotation;
 import com.mapbox.mapboxsdk.annotations.Polygon;
 import com.mapbox.mapboxsdk.annotations.PolygonOptions;
 
@@ -17,9 +15,9 @@ import java.util.List;
 class PolygonContainer implements Polygons {
 
   private final NativeMapView nativeMapView;
-  private final LongSparseArray<Annotation> annotations;
+  private final AnnotationRegistry annotations;
 
-  PolygonContainer(NativeMapView nativeMapView, LongSparseArray<Annotation> annotations) {
+  PolygonContainer(NativeMapView nativeMapView, AnnotationRegistry annotations) {
     this.nativeMapView = nativeMapView;
     this.annotations = annotations;
   }
@@ -27,7 +25,7 @@ class PolygonContainer implements Polygons {
   @Override
   public Polygon addBy(@NonNull PolygonOptions polygonOptions, @NonNull MapboxMap mapboxMap) {
     Polygon polygon = polygonOptions.getPolygon();
-    if (!polygon.getPoints().isEmpty()) {
+    if (polygon.getPointCount() > 0) {
       long id = nativeMapView != null ? nativeMapView.addPolygon(polygon) : 0;
       polygon.setId(id);
       polygon.setMapboxMap(mapboxMap);
@@ -45,7 +43,7 @@ class PolygonContainer implements Polygons {
     if (nativeMapView != null && count > 0) {
       for (PolygonOptions polygonOptions : polygonOptionsList) {
         polygon = polygonOptions.getPolygon();
-        if (!polygon.getPoints().isEmpty()) {
+        if (polygon.getPointCount() > 0) {
           polygons.add(polygon);
         }
       }
@@ -64,18 +62,15 @@ class PolygonContainer implements Polygons {
   @Override
   public void update(Polygon polygon) {
     nativeMapView.updatePolygon(polygon);
-    annotations.setValueAt(annotations.indexOfKey(polygon.getId()), polygon);
+    annotations.put(polygon.getId(), polygon);
   }
 
   @Override
   public List<Polygon> obtainAll() {
-    List<Polygon> polygons = new ArrayList<>();
-    Annotation annotation;
-    for (int i = 0; i < annotations.size(); i++) {
-      annotation = annotations.get(annotations.keyAt(i));
-      if (annotation instanceof Polygon) {
-        polygons.add((Polygon) annotation);
-      }
+    int count = annotations.size(AnnotationRegistry.POLYGON);
+    List<Polygon> polygons = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      polygons.add((Polygon) annotations.valueAt(AnnotationRegistry.POLYGON, i));
     }
     return polygons;
   }
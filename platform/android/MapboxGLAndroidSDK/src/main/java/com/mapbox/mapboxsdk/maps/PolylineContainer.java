@@ -2,9 +2,7 @@ package com.mapbox.mapboxsdk.maps;
 
 
 import android.support.annotation.NonNull;
-import android.support.v4.util.LongSparseArray;
 
-import com.mapbox.mapboxsdk.annotations.Annotation;
 import com.mapbox.mapboxsdk.annotations.Polyline;
 import com.mapbox.mapboxsdk.annotations.PolylineOptions;
 
@@ -17,9 +15,9 @@ import java.util.List;
 class PolylineContainer implements Polylines {
 
   private final NativeMapView nativeMapView;
-  private final LongSparseArray<Annotation> annotations;
+  private final AnnotationRegistry annotations;
 
-  PolylineContainer(NativeMapView nativeMapView, LongSparseArray<Annotation> annotations) {
+  PolylineContainer(NativeMapView nativeMapView, AnnotationRegistry annotations) {
     this.nativeMapView = nativeMapView;
     this.annotations = annotations;
   }
@@ -27,7 +25,7 @@ class PolylineContainer implements Polylines {
   @Override
   public Polyline addBy(@NonNull PolylineOptions polylineOptions, @NonNull MapboxMap mapboxMap) {
     Polyline polyline = polylineOptions.getPolyline();
-    if (!polyline.getPoints().isEmpty()) {
+    if (polyline.getPointCount() > 0) {
       long id = nativeMapView != null ? nativeMapView.addPolyline(polyline) : 0;
       polyline.setMapboxMap(mapboxMap);
       polyline.setId(id);
@@ -44,7 +42,7 @@ class PolylineContainer implements Polylines {
     if (nativeMapView != null && count > 0) {
       for (PolylineOptions options : polylineOptionsList) {
         polyline = options.getPolyline();
-        if (!polyline.getPoints().isEmpty()) {
+        if (polyline.getPointCount() > 0) {
           polylines.add(polyline);
         }
       }
@@ -63,18 +61,15 @@ class PolylineContainer implements Polylines {
   @Override
   public void update(Polyline polyline) {
     nativeMapView.updatePolyline(polyline);
-    annotations.setValueAt(annotations.indexOfKey(polyline.getId()), polyline);
+    annotations.put(polyline.getId(), polyline);
   }
 
   @Override
   public List<Polyline> obtainAll() {
-    List<Polyline> polylines = new ArrayList<>();
-    Annotation annotation;
-    for (int i = 0; i < annotations.size(); i++) {
-      annotation = annotations.get(annotations.keyAt(i));
-      if (annotation instanceof Polyline) {
-        polylines.add((Polyline) annotation);
-      }
+    int count = annotations.size(AnnotationRegistry.POLYLINE);
+    List<Polyline> polylines = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      polylines.add((Polyline) annotations.valueAt(AnnotationRegistry.POLYLINE, i));
     }
     return polylines;
   }
@@ -249,6 +249,22 @@ public class Projection {
     return nativeMapView.pixelForLatLng(location);
   }
 
+  /**
+   * Converts geographical coordinates to screen locations in bulk, with a single call into the map.
+   * The screen locations are in screen pixels relative to the top left of the map, like
+   * {@link #toScreenLocation(LatLng)}.
+   *
+   * @param coordinates     the latitude and longitude of each location, one after the other
+   * @param screenLocations the array receiving the x and y of each location, one after the other
+   * @param count           the number of locations to convert
+   */
+  public void toScreenLocations(@NonNull double[] coordinates, @NonNull float[] screenLocations, int count) {
+    if (count < 0 || coordinates.length < count * 2 || screenLocations.length < count * 2) {
+      throw new IllegalArgumentException("Arrays too small to convert " + count + " locations");
+    }
+    nativeMapView.pixelsForLatLngs(coordinates, screenLocations, count);
+  }
+
   float getHeight() {
     return nativeMapView.getHeight();
   }
@@ -1,9 +1,9 @@
 package com.mapbox.mapboxsdk.maps;
 
 import android.graphics.RectF;
-import android.support.v4.util.LongSparseArray;
 
 import com.mapbox.mapboxsdk.annotations.Annotation;
+import com.mapbox.mapboxsdk.utils.LongHashSet;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -11,25 +11,27 @@ import java.util.List;
 class ShapeAnnotationContainer implements ShapeAnnotations {
 
   private final NativeMapView nativeMapView;
-  private final LongSparseArray<Annotation> annotations;
+  private final AnnotationRegistry annotations;
+  // reused to drop duplicate query results
+  private final LongHashSet resolvedIds = new LongHashSet();
 
-  ShapeAnnotationContainer(NativeMapView nativeMapView, LongSparseArray<Annotation> annotations) {
+  ShapeAnnotationContainer(NativeMapView nativeMapView, AnnotationRegistry annotations) {
     this.nativeMapView = nativeMapView;
     this.annotations = annotations;
   }
 
   @Override
   public List<Annotation> obtainAllIn(RectF rectangle) {
-    RectF rect = nativeMapView.getDensityDependantRectangle(rectangle);
-    long[] annotationIds = nativeMapView.queryShapeAnnotations(rect);
+    long[] annotationIds = annotations.queryShapes(nativeMapView.latLngsForRectangle(rectangle));
     return getAnnotationsFromIds(annotationIds);
   }
 
   private List<Annotation> getAnnotationsFromIds(long[] annotationIds) {
-    List<Annotation> shapeAnnotations = new ArrayList<>();
+    List<Annotation> shapeAnnotations = new ArrayList<>(annotationIds.length);
+    resolvedIds.clear();
     for (long annotationId : annotationIds) {
       Annotation annotation = annotations.get(annotationId);
-      if (annotation != null) {
+      if (annotation != null && resolvedIds.add(annotationId)) {
         shapeAnnotations.add(annotation);
       }
     }
@@ -0,0 +1,529 @@
+package com.mapbox.mapboxsdk.maps;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.UiThread;
+import android.support.annotation.WorkerThread;
+import android.support.v4.util.LongSparseArray;
+
+import com.mapbox.mapboxsdk.annotations.BasePointCollection;
+import com.mapbox.mapboxsdk.annotations.Polygon;
+import com.mapbox.mapboxsdk.annotations.Polyline;
+import com.mapbox.mapboxsdk.constants.MapboxConstants;
+import com.mapbox.mapboxsdk.utils.ExecutorUtils;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+
+/**
+ * Simplifies the geometry of polylines and polygons sent to the map depending on the zoom level.
+ * <p>
+ * Douglas-Peucker simplification is run once per geometry on a background thread, recording for each point the
+ * tolerance up to which it is kept. This gives a simplification of the geometry for any zoom level, which is swapped
+ * in when the camera settles on another integer zoom level. The annotations keep their points, the simplified
+ * coordinates are only rendered, see {@link BasePointCollection#setRenderedCoordinates(double[])}.
+ * </p>
+ * <p>
+ * Points added to the end of a polyline or removed from its start are applied to the existing simplification, only
+ * the new points are simplified, on the UI thread. Other changes simplify the geometry again.
+ * </p>
+ */
+@UiThread
+class ShapeSimplifier implements MapboxMap.OnCameraIdleListener {
+
+  private static final String THREAD_NAME = "ShapeSimplifier";
+
+  // the distance in pixels below which points are dropped
+  private static final double TOLERANCE_PIXELS = 0.5;
+  private static final double TILE_SIZE = 512;
+  private static final int MIN_POLYLINE_POINTS = 2;
+  private static final int MIN_POLYGON_POINTS = 4;
+  // more points added at once are simplified along with the whole geometry on the worker thread
+  private static final int MAX_EXTEND_POINTS = 4096;
+
+  private static final Executor defaultWorker = ExecutorUtils.newWorkerExecutor(THREAD_NAME, 1);
+
+  private final NativeMapView nativeMapView;
+  private final AnnotationRegistry annotations;
+  private final Executor worker;
+  private final Executor mainThread;
+
+  private final LongSparseArray<Entry> entries = new LongSparseArray<>();
+  private int zoomLevel = -1;
+
+  ShapeSimplifier(NativeMapView nativeMapView, @NonNull AnnotationRegistry annotations) {
+    this(nativeMapView, annotations, defaultWorker, ExecutorUtils.getMainThreadExecutor());
+  }
+
+  ShapeSimplifier(NativeMapView nativeMapView, @NonNull AnnotationRegistry annotations,
+                  @NonNull Executor worker, @NonNull Executor mainThread) {
+    this.nativeMapView = nativeMapView;
+    this.annotations = annotations;
+    this.worker = worker;
+    this.mainThread = mainThread;
+  }
+
+  /**
+   * Start simplifying a shape added to the map, if it asks for it.
+   *
+   * @param shape the added shape
+   */
+  void add(@NonNull BasePointCollection shape) {
+    if (shape.isSimplified() && shape.getId() != -1) {
+      Entry entry = new Entry(shape);
+      entries.put(shape.getId(), entry);
+      build(entry);
+    }
+  }
+
+  /**
+   * Check a shape about to be updated on the map. Points added to the end of a polyline or removed from its start are
+   * simplified right away, other changed points are sent in full until simplified again.
+   *
+   * @param shape the updated shape
+   */
+  void update(@NonNull BasePointCollection shape) {
+    Entry entry = entries.get(shape.getId());
+    if (entry == null || entry.shape != shape) {
+      add(shape);
+      return;
+    }
+    if (entry.version == shape.getGeometryVersion()) {
+      return;
+    }
+    entry.version = shape.getGeometryVersion();
+    if (shape instanceof Polyline && entry.baseVersion == shape.getBaseVersion()) {
+      // a simplification in progress catches up once done
+      if (entry.tolerances == null || extend(entry)) {
+        return;
+      }
+    }
+    shape.setRenderedCoordinates(null);
+    build(entry);
+  }
+
+  /**
+   * Stop simplifying a shape removed from the map.
+   *
+   * @param id the id of the removed shape
+   */
+  void remove(long id) {
+    entries.remove(id);
+  }
+
+  /**
+   * Stop simplifying all shapes, as they were removed from the map.
+   */
+  void clear() {
+    entries.clear();
+  }
+
+  @Override
+  public void onCameraIdle() {
+    int level = getZoomLevel();
+    if (level == zoomLevel) {
+      return;
+    }
+
+    zoomLevel = level;
+    for (int i = entries.size() - 1; i >= 0; i--) {
+      Entry entry = entries.valueAt(i);
+      if (annotations.get(entries.keyAt(i)) != entry.shape) {
+        // removed from the map
+        entries.removeAt(i);
+      } else {
+        apply(entry);
+      }
+    }
+  }
+
+  private int getZoomLevel() {
+    double zoom = nativeMapView != null ? nativeMapView.getZoom() : 0;
+    return (int) Math.max(0, Math.min(MapboxConstants.MAXIMUM_ZOOM, Math.floor(zoom)));
+  }
+
+  private static double getTolerance(int level) {
+    return TOLERANCE_PIXELS / (TILE_SIZE * Math.pow(2, level));
+  }
+
+  private void build(final Entry entry) {
+    final int build = ++entry.build;
+    final double[] coordinates = entry.shape.getCoordinates();
+    final int minPoints = entry.shape instanceof Polygon ? MIN_POLYGON_POINTS : MIN_POLYLINE_POINTS;
+    entry.version = entry.shape.getGeometryVersion();
+    entry.baseVersion = entry.shape.getBaseVersion();
+    entry.removedPoints = entry.shape.getRemovedPointCount();
+    entry.tolerances = null;
+    entry.rendered = null;
+    worker.execute(new Runnable() {
+      @Override
+      public void run() {
+        final Simplification simplification = new Simplification(coordinates, computeTolerances(coordinates),
+          minPoints);
+        mainThread.execute(new Runnable() {
+          @Override
+          public void run() {
+            long id = entry.shape.getId();
+            if (entry.build != build || entries.get(id) != entry) {
+              return;
+            }
+            if (annotations.get(id) != entry.shape) {
+              // removed from the map meanwhile
+              entries.remove(id);
+              return;
+            }
+            entry.tolerances = simplification;
+            entry.level = -1;
+            if (zoomLevel == -1) {
+              zoomLevel = getZoomLevel();
+            }
+            // catch up with the points added and removed meanwhile
+            if (entry.version != entry.shape.getGeometryVersion() && !extend(entry)) {
+              build(entry);
+              return;
+            }
+            entry.version = entry.shape.getGeometryVersion();
+            apply(entry);
+          }
+        });
+      }
+    });
+  }
+
+  /**
+   * Apply the points added to the end of a polyline and removed from its start to its simplification. The rendered
+   * coordinates are updated if simplified for the current zoom level, the caller updates the map.
+   *
+   * @param entry the entry of the polyline, with the same base version
+   * @return false if the polyline has to be simplified again
+   */
+  private boolean extend(Entry entry) {
+    Simplification simplification = entry.tolerances;
+    BasePointCollection shape = entry.shape;
+    int trimmed = shape.getRemovedPointCount() - entry.removedPoints;
+    int appended = shape.getPointCount() - (simplification.size() - trimmed);
+    if (trimmed >= simplification.size() || appended < 0 || appended > MAX_EXTEND_POINTS) {
+      return false;
+    }
+
+    entry.removedPoints += trimmed;
+    double[] coordinates = shape.getCoordinates(shape.getPointCount() - appended, appended);
+    if (entry.level != zoomLevel) {
+      simplification.extend(trimmed, coordinates);
+      return true;
+    }
+
+    double[] rendered = simplification.extend(trimmed, coordinates, getTolerance(zoomLevel), entry.rendered);
+    if (rendered != null || entry.rendered != null) {
+      // points kept all along are left to the map's own tracking of appended points
+      entry.rendered = rendered;
+      shape.setRenderedCoordinates(rendered);
+    }
+    return true;
+  }
+
+  private void apply(Entry entry) {
+    if (entry.tolerances == null || entry.level == zoomLevel) {
+      return;
+    }
+
+    double[] rendered = entry.tolerances.simplify(getTolerance(zoomLevel));
+    boolean changed = !Arrays.equals(rendered, entry.rendered);
+    entry.level = zoomLevel;
+    entry.rendered = rendered;
+    if (!changed) {
+      return;
+    }
+
+    entry.shape.setRenderedCoordinates(rendered);
+    if (nativeMapView == null) {
+      return;
+    }
+    if (entry.shape instanceof Polyline) {
+      nativeMapView.updatePolyline((Polyline) entry.shape);
+    } else if (entry.shape instanceof Polygon) {
+      nativeMapView.updatePolygon((Polygon) entry.shape);
+    }
+  }
+
+  /**
+   * Run Douglas-Peucker simplification on projected coordinates, recording the tolerance up to which each point is
+   * kept. A point is kept at a tolerance if its distance to the simplified line is larger, the ends are always kept.
+   *
+   * @param coordinates the latitude and longitude of each point, one after the other
+   * @return the tolerance of each point, in projected units
+   */
+  @WorkerThread
+  static double[] computeTolerances(@NonNull double[] coordinates) {
+    int count = coordinates.length / 2;
+    double[] xs = new double[count];
+    double[] ys = new double[count];
+    for (int i = 0; i < count; i++) {
+      xs[i] = MercatorQuad.projectX(coordinates[i * 2 + 1]);
+      ys[i] = MercatorQuad.projectY(coordinates[i * 2]);
+    }
+
+    double[] tolerances = new double[count];
+    if (count == 0) {
+      return tolerances;
+    }
+    tolerances[0] = Double.POSITIVE_INFINITY;
+    tolerances[count - 1] = Double.POSITIVE_INFINITY;
+
+    // explicit stack of ranges to split, deep recursion overflows on long traces
+    int[] stack = new int[64];
+    double[] parentTolerances = new double[32];
+    int size = 0;
+    stack[size * 2] = 0;
+    stack[size * 2 + 1] = count - 1;
+    parentTolerances[size++] = Double.POSITIVE_INFINITY;
+    while (size > 0) {
+      size--;
+      int first = stack[size * 2];
+      int last = stack[size * 2 + 1];
+      double parentTolerance = parentTolerances[size];
+
+      int farthest = -1;
+      double maxDistance = -1;
+      for (int i = first + 1; i < last; i++) {
+        double distance = segmentDistance(xs[i], ys[i], xs[first], ys[first], xs[last], ys[last]);
+        if (distance > maxDistance) {
+          maxDistance = distance;
+          farthest = i;
+        }
+      }
+      if (farthest == -1) {
+        continue;
+      }
+
+      // a point never outlives the point its range was split at
+      double tolerance = Math.min(maxDistance, parentTolerance);
+      tolerances[farthest] = tolerance;
+      if (size + 2 > parentTolerances.length) {
+        stack = Arrays.copyOf(stack, stack.length * 2);
+        parentTolerances = Arrays.copyOf(parentTolerances, parentTolerances.length * 2);
+      }
+      stack[size * 2] = first;
+      stack[size * 2 + 1] = farthest;
+      parentTolerances[size++] = tolerance;
+      stack[size * 2] = farthest;
+      stack[size * 2 + 1] = last;
+      parentTolerances[size++] = tolerance;
+    }
+    return tolerances;
+  }
+
+  private static double segmentDistance(double x, double y, double x1, double y1, double x2, double y2) {
+    double dx = x2 - x1;
+    double dy = y2 - y1;
+    double lengthSquared = dx * dx + dy * dy;
+    double t = lengthSquared > 0 ? Math.max(0, Math.min(1, ((x - x1) * dx + (y - y1) * dy) / lengthSquared)) : 0;
+    double px = x1 + t * dx - x;
+    double py = y1 + t * dy - y;
+    return Math.sqrt(px * px + py * py);
+  }
+
+  /**
+   * Points of a geometry with the tolerance up to which each is kept.
+   * <p>
+   * Points added at the end are kept until enough are pending to simplify them as a segment of their own, the last
+   * point of each segment is always kept.
+   * </p>
+   */
+  static class Simplification {
+    private static final int SEGMENT_POINTS = 64;
+
+    private double[] coordinates;
+    private double[] tolerances;
+    // tolerance below which the minimum amount of points is kept
+    private final double minTolerance;
+    // the points are at start until start + count, the ones after committed aren't simplified yet
+    private int start;
+    private int count;
+    private int committed;
+
+    Simplification(@NonNull double[] coordinates, @NonNull double[] tolerances, int minPoints) {
+      this.coordinates = coordinates;
+      this.tolerances = tolerances;
+      if (tolerances.length > minPoints) {
+        double[] sorted = tolerances.clone();
+        Arrays.sort(sorted);
+        minTolerance = sorted[sorted.length - minPoints];
+      } else {
+        minTolerance = Double.POSITIVE_INFINITY;
+      }
+      count = tolerances.length;
+      committed = count - 1;
+    }
+
+    int size() {
+      return count;
+    }
+
+    /**
+     * Simplify the geometry.
+     *
+     * @param tolerance the distance in projected units below which points are dropped
+     * @return the coordinates of the kept points, or null if all points are kept
+     */
+    @Nullable
+    double[] simplify(double tolerance) {
+      double threshold = Math.min(tolerance, minTolerance);
+      int end = start + count;
+      int kept = countKept(threshold, start, end);
+      if (kept == count) {
+        return null;
+      }
+
+      double[] simplified = new double[kept * 2];
+      copyKept(threshold, start, end, simplified, 0);
+      return simplified;
+    }
+
+    /**
+     * Remove points from the start and add points at the end of an open geometry.
+     *
+     * @param trimmed  the amount of points to remove, less than {@link #size()}
+     * @param appended the latitude and longitude of each added point, one after the other
+     */
+    void extend(int trimmed, @NonNull double[] appended) {
+      trim(trimmed);
+      append(appended);
+    }
+
+    /**
+     * Remove points from the start and add points at the end of an open geometry, and update its simplification.
+     *
+     * @param trimmed    the amount of points to remove, less than {@link #size()}
+     * @param appended   the latitude and longitude of each added point, one after the other
+     * @param tolerance  the distance in projected units below which points are dropped
+     * @param simplified the result of {@link #simplify(double)} at that tolerance before the change
+     * @return the coordinates of the kept points, or null if all points are kept
+     */
+    @Nullable
+    double[] extend(int trimmed, @NonNull double[] appended, double tolerance, @Nullable double[] simplified) {
+      double threshold = Math.min(tolerance, minTolerance);
+      reserve(appended.length / 2);
+      int oldEnd = start + count;
+      int oldCommitted = committed;
+      int dropped = simplified != null ? countKept(threshold, start, start + trimmed) : 0;
+      boolean firstKept = isKept(start + trimmed, threshold);
+      extend(trimmed, appended);
+
+      int end = start + count;
+      if (simplified == null) {
+        // only the tolerances of the points after the last segment changed
+        int from = Math.max(start, oldCommitted + 1);
+        if (countKept(threshold, from, end) == end - from) {
+          return null;
+        }
+        return simplify(tolerance);
+      }
+      if (start > oldCommitted) {
+        return simplify(tolerance);
+      }
+
+      // the points kept before up to the last segment stay, the new first point is kept now
+      int head = simplified.length / 2 - dropped - (oldEnd - oldCommitted - 1);
+      int first = firstKept ? 0 : 1;
+      int tail = countKept(threshold, oldCommitted + 1, end);
+      if (first + head + tail == count) {
+        return null;
+      }
+      double[] result = new double[(first + head + tail) * 2];
+      if (!firstKept) {
+        result[0] = coordinates[start * 2];
+        result[1] = coordinates[start * 2 + 1];
+      }
+      System.arraycopy(simplified, dropped * 2, result, first * 2, head * 2);
+      copyKept(threshold, oldCommitted + 1, end, result, (first + head) * 2);
+      return result;
+    }
+
+    private void trim(int trimmed) {
+      if (trimmed == 0) {
+        return;
+      }
+      start += trimmed;
+      count -= trimmed;
+      tolerances[start] = Double.POSITIVE_INFINITY;
+      committed = Math.max(committed, start);
+    }
+
+    private void append(@NonNull double[] appended) {
+      int added = appended.length / 2;
+      if (added == 0) {
+        return;
+      }
+      reserve(added);
+      int end = start + count;
+      System.arraycopy(appended, 0, coordinates, end * 2, appended.length);
+      Arrays.fill(tolerances, end, end + added, Double.POSITIVE_INFINITY);
+      count += added;
+
+      int last = start + count - 1;
+      if (last - committed >= SEGMENT_POINTS) {
+        double[] segment = computeTolerances(Arrays.copyOfRange(coordinates, committed * 2, (last + 1) * 2));
+        System.arraycopy(segment, 1, tolerances, committed + 1, segment.length - 1);
+        committed = last;
+      }
+    }
+
+    private void reserve(int added) {
+      if (start + count + added <= tolerances.length) {
+        return;
+      }
+      int capacity = Math.max(tolerances.length, (count + added) * 2);
+      // moved down in place once the removed points outnumber the others, amortizing the copy
+      double[] movedCoordinates = capacity == tolerances.length ? coordinates : new double[capacity * 2];
+      double[] movedTolerances = capacity == tolerances.length ? tolerances : new double[capacity];
+      System.arraycopy(coordinates, start * 2, movedCoordinates, 0, count * 2);
+      System.arraycopy(tolerances, start, movedTolerances, 0, count);
+      coordinates = movedCoordinates;
+      tolerances = movedTolerances;
+      committed -= start;
+      start = 0;
+    }
+
+    private boolean isKept(int index, double threshold) {
+      return index > committed || tolerances[index] >= threshold;
+    }
+
+    private int countKept(double threshold, int from, int to) {
+      int kept = 0;
+      for (int i = from; i < to; i++) {
+        if (isKept(i, threshold)) {
+          kept++;
+        }
+      }
+      return kept;
+    }
+
+    private void copyKept(double threshold, int from, int to, @NonNull double[] target, int offset) {
+      for (int i = from; i < to; i++) {
+        if (isKept(i, threshold)) {
+          target[offset++] = coordinates[i * 2];
+          target[offset++] = coordinates[i * 2 + 1];
+        }
+      }
+    }
+  }
+
+  private static class Entry {
+    final BasePointCollection shape;
+    int version;
+    // the points the tolerances are for, or will be once the simplification in progress is done
+    int baseVersion;
+    int removedPoints;
+    int build;
+    int level = -1;
+    @Nullable
+    Simplification tolerances;
+    @Nullable
+    double[] rendered;
+
+    Entry(BasePointCollection shape) {
+      this.shape = shape;
+    }
+  }
+}
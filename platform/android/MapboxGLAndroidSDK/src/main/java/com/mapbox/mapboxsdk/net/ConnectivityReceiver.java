@@ -8,6 +8,7 @@ import android.content.IntentFilter;
 import android.net.ConnectivityManager;
 import android.net.NetworkInfo;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.support.annotation.UiThread;
 
 import com.mapbox.mapboxsdk.Mapbox;
@@ -25,6 +26,9 @@ public class ConnectivityReceiver extends BroadcastReceiver {
   @SuppressLint("StaticFieldLeak")
   private static ConnectivityReceiver INSTANCE;
 
+  // Connectivity state as last broadcasted by the system, null while the receiver isn't registered
+  private static volatile Boolean cachedConnectivityState;
+
   /**
    * Get a single instance of ConnectivityReceiver.
    *
@@ -75,6 +79,8 @@ public class ConnectivityReceiver extends BroadcastReceiver {
     activationCounter--;
     if (activationCounter == 0) {
       context.unregisterReceiver(INSTANCE);
+      // we won't be notified of changes anymore
+      cachedConnectivityState = null;
     }
   }
 
@@ -83,6 +89,7 @@ public class ConnectivityReceiver extends BroadcastReceiver {
    */
   @Override
   public void onReceive(Context context, Intent intent) {
+    cachedConnectivityState = isSystemConnected(context);
     boolean connected = isConnected(context);
     Timber.v("Connected: %s", connected);
 
@@ -123,6 +130,23 @@ public class ConnectivityReceiver extends BroadcastReceiver {
       return connected;
     }
 
+    return isSystemConnected(context);
+  }
+
+  /**
+   * Get the connectivity state as last broadcasted by the system, without querying the ConnectivityManager.
+   * <p>
+   * The state is only tracked while the receiver is activated.
+   * </p>
+   *
+   * @return true if connected, false if not, null if connectivity changes aren't tracked
+   */
+  @Nullable
+  public static Boolean getCachedConnectivityState() {
+    return cachedConnectivityState;
+  }
+
+  private static boolean isSystemConnected(Context context) {
     ConnectivityManager cm = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
     NetworkInfo activeNetwork = cm.getActiveNetworkInfo();
     return (activeNetwork != null && activeNetwork.isConnected());
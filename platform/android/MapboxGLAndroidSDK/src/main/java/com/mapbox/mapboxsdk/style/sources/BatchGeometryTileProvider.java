@@ -0,0 +1,29 @@
+package com.mapbox.mapboxsdk.style.sources;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.WorkerThread;
+
+/**
+ * {@link GeometryTileProvider} that loads the features of several tiles at once, for example with a single range
+ * query to a spatial database.
+ * <p>
+ * A {@link CustomGeometrySource} with a batch provider hands every tile request pending when a worker thread becomes
+ * available to {@link #getFeaturesForTiles(GeometryTileBatch)}, instead of calling
+ * {@link #getFeaturesForBounds(com.mapbox.mapboxsdk.geometry.LatLngBounds, int)} for each tile. Tiles found in the
+ * tile cache aren't part of the batch.
+ * </p>
+ */
+public interface BatchGeometryTileProvider extends GeometryTileProvider {
+
+  /**
+   * Interface method called by {@link CustomGeometrySource} to request features for a batch of tiles.
+   * <p>
+   * Features are passed with {@link GeometryTileBatch#setTileData(int, com.mapbox.geojson.FeatureCollection)} as each
+   * tile completes, tiles without features when this method returns are left empty.
+   * </p>
+   *
+   * @param batch the tiles to load, by priority
+   */
+  @WorkerThread
+  void getFeaturesForTiles(@NonNull GeometryTileBatch batch);
+}
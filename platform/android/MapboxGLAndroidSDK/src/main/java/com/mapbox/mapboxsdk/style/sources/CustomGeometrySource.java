@@ -16,18 +16,20 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Custom Vector Source, allows using FeatureCollections.
+ * <p>
+ * Tiles are loaded one by one from the {@link GeometryTileProvider}, or in batches from a
+ * {@link BatchGeometryTileProvider}.
+ * </p>
  */
 @UiThread
 public class CustomGeometrySource extends Source {
@@ -35,9 +37,18 @@ public class CustomGeometrySource extends Source {
   public static final int THREAD_POOL_LIMIT = 4;
   private static final AtomicInteger poolCount = new AtomicInteger();
   private final Lock executorLock = new ReentrantLock();
-  private ExecutorService executor;
+  private final int threadPoolSize;
+  @Nullable
+  private final Executor providedExecutor;
+  @Nullable
+  private Executor executor;
   private GeometryTileProvider provider;
-  private final Map<TileID, AtomicBoolean> cancelledTileRequests = new ConcurrentHashMap<>();
+  private final TileRequestQueue requestQueue = new TileRequestQueue();
+  @Nullable
+  private final TileCache tileCache;
+  // each task runs the request with the highest priority when it starts, or all pending requests of a batch provider,
+  // one task is queued per request
+  private final Runnable worker = new TileWorker(this);
 
   /**
    * Create a CustomGeometrySource
@@ -51,7 +62,7 @@ public class CustomGeometrySource extends Source {
 
   /**
    * Create a CustomGeometrySource with non-default CustomGeometrySourceOptions.
-   * <p>Supported options are minZoom, maxZoom, buffer, and tolerance.</p>
+   * <p>Supported options are minZoom, maxZoom, buffer, tolerance, threadCount, executor and tileCacheSize.</p>
    *
    * @param id       The source id.
    * @param provider The tile provider that returns geometry data for this source.
@@ -60,6 +71,9 @@ public class CustomGeometrySource extends Source {
   public CustomGeometrySource(String id, GeometryTileProvider provider, CustomGeometrySourceOptions options) {
     super();
     this.provider = provider;
+    this.threadPoolSize = options.getThreadCount();
+    this.providedExecutor = options.getExecutor();
+    this.tileCache = options.getTileCacheSize() > 0 ? new TileCache(options.getTileCacheSize()) : null;
     initialize(id, options);
   }
 
@@ -72,6 +86,9 @@ public class CustomGeometrySource extends Source {
    */
   public void invalidateRegion(LatLngBounds bounds) {
     checkThread();
+    if (tileCache != null) {
+      tileCache.removeIntersecting(bounds);
+    }
     nativeInvalidateBounds(bounds);
   }
 
@@ -85,6 +102,9 @@ public class CustomGeometrySource extends Source {
    */
   public void invalidateTile(int zoomLevel, int x, int y) {
     checkThread();
+    if (tileCache != null) {
+      tileCache.remove(TileKey.pack(zoomLevel, x, y));
+    }
     nativeInvalidateTile(zoomLevel, x, y);
   }
 
@@ -100,6 +120,10 @@ public class CustomGeometrySource extends Source {
    */
   public void setTileData(int zoomLevel, int x, int y, FeatureCollection data) {
     checkThread();
+    if (tileCache != null) {
+      // the provided features are outdated
+      tileCache.remove(TileKey.pack(zoomLevel, x, y));
+    }
     nativeSetTileData(zoomLevel, x, y, data);
   }
 
@@ -116,6 +140,16 @@ public class CustomGeometrySource extends Source {
     return features != null ? Arrays.asList(features) : new ArrayList<Feature>();
   }
 
+  /**
+   * Returns statistics about the tile cache, enabled with {@link CustomGeometrySourceOptions#withTileCacheSize(long)}.
+   *
+   * @return A snapshot of the tile cache statistics, all zero if the cache isn't enabled.
+   */
+  @NonNull
+  public TileCacheStatistics getTileCacheStatistics() {
+    return tileCache != null ? tileCache.getStatistics() : new TileCacheStatistics(0, 0, 0, 0);
+  }
+
   @Keep
   protected native void initialize(String sourceId, Object options);
 
@@ -135,23 +169,14 @@ public class CustomGeometrySource extends Source {
   @Keep
   protected native void finalize() throws Throwable;
 
-  private void setTileData(TileID tileId, FeatureCollection data) {
-    cancelledTileRequests.remove(tileId);
-    nativeSetTileData(tileId.z, tileId.x, tileId.y, data);
-  }
-
   @WorkerThread
   @Keep
   private void fetchTile(int z, int x, int y) {
-    AtomicBoolean cancelFlag = new AtomicBoolean(false);
-    TileID tileID = new TileID(z, x, y);
-    cancelledTileRequests.put(tileID, cancelFlag);
-    GeometryTileRequest request = new GeometryTileRequest(tileID, provider, this, cancelFlag);
-
     executorLock.lock();
     try {
-      if (executor != null && !executor.isShutdown()) {
-        executor.execute(request);
+      if (executor != null) {
+        requestQueue.add(TileKey.pack(z, x, y));
+        executor.execute(worker);
       }
     } finally {
       executorLock.unlock();
@@ -161,9 +186,90 @@ public class CustomGeometrySource extends Source {
   @WorkerThread
   @Keep
   private void cancelTile(int z, int x, int y) {
-    AtomicBoolean cancelFlag = cancelledTileRequests.get(new TileID(z, x, y));
-    if (cancelFlag != null) {
-      cancelFlag.compareAndSet(false, true);
+    // a pending request doesn't take a thread anymore, a running one drops its result
+    requestQueue.cancel(TileKey.pack(z, x, y));
+  }
+
+  @WorkerThread
+  private void runNextRequest() {
+    if (provider instanceof BatchGeometryTileProvider) {
+      runPendingRequests((BatchGeometryTileProvider) provider);
+      return;
+    }
+
+    long key = requestQueue.poll();
+    if (key == TileRequestQueue.NONE) {
+      return;
+    }
+    int token = requestQueue.getToken(key);
+    if (token <= 0) {
+      requestQueue.finish(key, token);
+      return;
+    }
+
+    int z = TileKey.zoom(key);
+    FeatureCollection data = null;
+    try {
+      data = tileCache != null ? tileCache.get(key) : null;
+      if (data == null) {
+        int generation = tileCache != null ? tileCache.getGeneration() : 0;
+        data = provider.getFeaturesForBounds(LatLngBounds.from(z, TileKey.x(key), TileKey.y(key)), z);
+        if (tileCache != null && data != null) {
+          // kept even if cancelled meanwhile, the tile is likely requested again
+          tileCache.put(key, data, generation);
+        }
+      }
+    } finally {
+      deliverTile(key, token, data);
+    }
+  }
+
+  @WorkerThread
+  private void runPendingRequests(@NonNull BatchGeometryTileProvider batchProvider) {
+    // the requests queued meanwhile are left to the tasks queued with them
+    long[] keys = requestQueue.pollAll();
+    int[] tokens = new int[keys.length];
+    int count = 0;
+    for (long key : keys) {
+      int token = requestQueue.getToken(key);
+      FeatureCollection data = token > 0 && tileCache != null ? tileCache.get(key) : null;
+      if (token <= 0 || data != null) {
+        deliverTile(key, token, data);
+      } else {
+        keys[count] = key;
+        tokens[count++] = token;
+      }
+    }
+    if (count == 0) {
+      return;
+    }
+
+    final int generation = tileCache != null ? tileCache.getGeneration() : 0;
+    GeometryTileBatch batch = new GeometryTileBatch(Arrays.copyOf(keys, count), Arrays.copyOf(tokens, count),
+      new GeometryTileBatch.Callback() {
+        @Override
+        public boolean isCancelled(long key, int token) {
+          return requestQueue.getToken(key) != token;
+        }
+
+        @Override
+        public void onTileData(long key, int token, @Nullable FeatureCollection data) {
+          if (tileCache != null && data != null) {
+            tileCache.put(key, data, generation);
+          }
+          deliverTile(key, token, data);
+        }
+      });
+    try {
+      batchProvider.getFeaturesForTiles(batch);
+    } finally {
+      batch.close();
+    }
+  }
+
+  private void deliverTile(long key, int token, @Nullable FeatureCollection data) {
+    if (requestQueue.finish(key, token) && data != null) {
+      nativeSetTileData(TileKey.zoom(key), TileKey.x(key), TileKey.y(key), data);
     }
   }
 
@@ -171,11 +277,13 @@ public class CustomGeometrySource extends Source {
   private void startThreads() {
     executorLock.lock();
     try {
-      if (executor != null && !executor.isShutdown()) {
-        executor.shutdownNow();
+      shutdownExecutor();
+      if (providedExecutor != null) {
+        executor = providedExecutor;
+        return;
       }
 
-      executor = Executors.newFixedThreadPool(THREAD_POOL_LIMIT, new ThreadFactory() {
+      executor = Executors.newFixedThreadPool(threadPoolSize, new ThreadFactory() {
         final AtomicInteger threadCount = new AtomicInteger();
         final int poolId = poolCount.getAndIncrement();
 
@@ -195,72 +303,36 @@ public class CustomGeometrySource extends Source {
   private void releaseThreads() {
     executorLock.lock();
     try {
-      executor.shutdownNow();
+      shutdownExecutor();
     } finally {
       executorLock.unlock();
     }
   }
 
-  private static class TileID {
-    public int z;
-    public int x;
-    public int y;
-
-    public TileID(int _z, int _x, int _y) {
-      z = _z;
-      x = _x;
-      y = _y;
-    }
-
-    public int hashCode() {
-      return Arrays.hashCode(new int[] {z, x, y});
-    }
-
-    public boolean equals(Object object) {
-      if (object == this) {
-        return true;
-      }
-
-      if (object == null || getClass() != object.getClass()) {
-        return false;
-      }
-
-      if (object instanceof TileID) {
-        TileID other = (TileID) object;
-        return this.z == other.z && this.x == other.x && this.y == other.y;
-      }
-      return false;
+  private void shutdownExecutor() {
+    requestQueue.clear();
+    if (executor instanceof ExecutorService && executor != providedExecutor) {
+      ((ExecutorService) executor).shutdownNow();
     }
+    executor = null;
   }
 
-  private static class GeometryTileRequest implements Runnable {
-    private TileID id;
-    private GeometryTileProvider provider;
-    private WeakReference<CustomGeometrySource> sourceRef;
-    private AtomicBoolean cancelled;
-
-    public GeometryTileRequest(TileID _id, GeometryTileProvider p,
-                               CustomGeometrySource _source, AtomicBoolean _cancelled) {
-      id = _id;
-      provider = p;
-      sourceRef = new WeakReference<>(_source);
-      cancelled = _cancelled;
+  /**
+   * Runs the next tile request, without keeping the source alive while queued.
+   */
+  private static class TileWorker implements Runnable {
+    private final WeakReference<CustomGeometrySource> sourceRef;
+
+    TileWorker(CustomGeometrySource source) {
+      sourceRef = new WeakReference<>(source);
     }
 
+    @Override
     public void run() {
-      if (isCancelled()) {
-        return;
-      }
-
-      FeatureCollection data = provider.getFeaturesForBounds(LatLngBounds.from(id.z, id.x, id.y), id.z);
       CustomGeometrySource source = sourceRef.get();
-      if (!isCancelled() && source != null && data != null) {
-        source.setTileData(id, data);
+      if (source != null) {
+        source.runNextRequest();
       }
     }
-
-    private Boolean isCancelled() {
-      return cancelled.get();
-    }
   }
 }
@@ -1,10 +1,20 @@
 package com.mapbox.mapboxsdk.style.sources;
 
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.concurrent.Executor;
+
 /**
  * Builder class for composing CustomGeometrySource objects.
  */
 public class CustomGeometrySourceOptions extends GeoJsonOptions {
 
+  private int threadCount = CustomGeometrySource.THREAD_POOL_LIMIT;
+  @Nullable
+  private Executor executor;
+  private long tileCacheSize;
+
   /**
    * If the data includes wrapped coordinates, setting this to true unwraps the coordinates.
    *
@@ -28,4 +38,64 @@ public class CustomGeometrySourceOptions extends GeoJsonOptions {
     return this;
   }
 
+  /**
+   * Number of threads the {@link GeometryTileProvider} is called on, when no executor is set.
+   *
+   * @param threadCount the number of threads, at least 1 - Defaults to {@link CustomGeometrySource#THREAD_POOL_LIMIT}.
+   * @return the current instance for chaining
+   */
+  @NonNull
+  public CustomGeometrySourceOptions withThreadCount(int threadCount) {
+    if (threadCount < 1) {
+      throw new IllegalArgumentException("threadCount must be at least 1");
+    }
+    this.threadCount = threadCount;
+    return this;
+  }
+
+  /**
+   * Executor the {@link GeometryTileProvider} is called on, instead of threads owned by the source.
+   * <p>
+   * Tile requests are still ordered by the source, each task run on the executor takes the request with the highest
+   * priority at that time. The executor isn't shut down by the source.
+   * </p>
+   *
+   * @param executor the executor, null to use threads owned by the source - Defaults to null.
+   * @return the current instance for chaining
+   */
+  @NonNull
+  public CustomGeometrySourceOptions withExecutor(@Nullable Executor executor) {
+    this.executor = executor;
+    return this;
+  }
+
+  /**
+   * Memory to cache the features returned by the {@link GeometryTileProvider} in, so tiles requested again aren't
+   * computed again until invalidated. Least recently used tiles are evicted first.
+   *
+   * @param tileCacheSize estimated memory of the cached features in bytes, 0 to disable the cache - Defaults to 0.
+   * @return the current instance for chaining
+   */
+  @NonNull
+  public CustomGeometrySourceOptions withTileCacheSize(long tileCacheSize) {
+    if (tileCacheSize < 0) {
+      throw new IllegalArgumentException("tileCacheSize can't be negative");
+    }
+    this.tileCacheSize = tileCacheSize;
+    return this;
+  }
+
+  int getThreadCount() {
+    return threadCount;
+  }
+
+  @Nullable
+  Executor getExecutor() {
+    return executor;
+  }
+
+  long getTileCacheSize() {
+    return tileCacheSize;
+  }
+
 }
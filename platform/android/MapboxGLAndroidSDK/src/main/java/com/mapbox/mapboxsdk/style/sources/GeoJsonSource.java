@@ -23,6 +23,24 @@ import java.util.List;
 @UiThread
 public class GeoJsonSource extends Source {
 
+  private final GeoJsonUpdater updater = new GeoJsonUpdater(new GeoJsonUpdater.Target() {
+    @Override
+    public boolean isAlive() {
+      // reset once the map owning the source is destroyed
+      return getNativePtr() != 0;
+    }
+
+    @Override
+    public void setConverted(long handle) {
+      nativeSetConvertedGeoJson(handle);
+    }
+
+    @Override
+    public void releaseConverted(long handle) {
+      nativeReleaseConvertedGeoJson(handle);
+    }
+  });
+
   /**
    * Internal use
    *
@@ -194,6 +212,7 @@ public class GeoJsonSource extends Source {
    */
   public void setGeoJson(Feature feature) {
     checkThread();
+    updater.supersede();
     nativeSetFeature(feature);
   }
 
@@ -204,6 +223,7 @@ public class GeoJsonSource extends Source {
    */
   public void setGeoJson(Geometry geometry) {
     checkThread();
+    updater.supersede();
     nativeSetGeometry(geometry);
   }
 
@@ -214,6 +234,7 @@ public class GeoJsonSource extends Source {
    */
   public void setGeoJson(FeatureCollection features) {
     checkThread();
+    updater.supersede();
     nativeSetFeatureCollection(features);
   }
 
@@ -224,9 +245,87 @@ public class GeoJsonSource extends Source {
    */
   public void setGeoJson(String json) {
     checkThread();
+    updater.supersede();
     nativeSetGeoJsonString(json);
   }
 
+  /**
+   * Updates the GeoJson with a single feature, converted on a worker thread.
+   * <p>
+   * The update is dropped if superseded by another update before it is set.
+   * </p>
+   *
+   * @param feature  the GeoJSON {@link Feature} to set
+   * @param callback an optional callback invoked on the UI thread once the feature is set or dropped
+   */
+  public void setGeoJsonAsync(final Feature feature, @Nullable UpdateCallback callback) {
+    checkThread();
+    updater.update(new GeoJsonUpdater.Conversion() {
+      @Override
+      public long convert() {
+        return nativeConvertFeature(feature);
+      }
+    }, callback);
+  }
+
+  /**
+   * Updates the GeoJson with a single geometry, converted on a worker thread.
+   * <p>
+   * The update is dropped if superseded by another update before it is set.
+   * </p>
+   *
+   * @param geometry the GeoJSON {@link Geometry} to set
+   * @param callback an optional callback invoked on the UI thread once the geometry is set or dropped
+   */
+  public void setGeoJsonAsync(final Geometry geometry, @Nullable UpdateCallback callback) {
+    checkThread();
+    updater.update(new GeoJsonUpdater.Conversion() {
+      @Override
+      public long convert() {
+        return nativeConvertGeometry(geometry);
+      }
+    }, callback);
+  }
+
+  /**
+   * Updates the GeoJson, converted on a worker thread. The features shouldn't be modified until the callback is
+   * invoked.
+   * <p>
+   * The update is dropped if superseded by another update before it is set.
+   * </p>
+   *
+   * @param features the GeoJSON {@link FeatureCollection} to set
+   * @param callback an optional callback invoked on the UI thread once the features are set or dropped
+   */
+  public void setGeoJsonAsync(final FeatureCollection features, @Nullable UpdateCallback callback) {
+    checkThread();
+    updater.update(new GeoJsonUpdater.Conversion() {
+      @Override
+      public long convert() {
+        return nativeConvertFeatureCollection(features);
+      }
+    }, callback);
+  }
+
+  /**
+   * Updates the GeoJson, parsed on a worker thread.
+   * <p>
+   * The update is dropped if superseded by another update before it is set, or if the json can't be parsed.
+   * </p>
+   *
+   * @param json     the raw GeoJSON to set
+   * @param callback an optional callback invoked on the UI thread once the GeoJSON is set or dropped
+   */
+  public void setGeoJsonAsync(final String json, @Nullable UpdateCallback callback) {
+    checkThread();
+    updater.update(new GeoJsonUpdater.Conversion() {
+      @Override
+      public long convert() {
+        return nativeConvertGeoJsonString(json);
+      }
+    }, callback);
+  }
+
   /**
    * Updates the url
    *
@@ -244,6 +343,7 @@ public class GeoJsonSource extends Source {
    */
   public void setUrl(String url) {
     checkThread();
+    updater.supersede();
     nativeSetUrl(url);
   }
 
@@ -256,6 +356,17 @@ public class GeoJsonSource extends Source {
     return nativeGetUrl();
   }
 
+  /**
+   * Do not use this method, used internally by the SDK.
+   * <p>
+   * Drops pending asynchronous updates, called once the source is removed from the map.
+   * </p>
+   */
+  public void cancelPendingUpdates() {
+    checkThread();
+    updater.supersede();
+  }
+
   /**
    * Queries the source for features.
    *
@@ -290,6 +401,24 @@ public class GeoJsonSource extends Source {
   @Keep
   private native void nativeSetGeometry(Geometry geometry);
 
+  @Keep
+  private native long nativeConvertGeoJsonString(String geoJson);
+
+  @Keep
+  private native long nativeConvertFeatureCollection(FeatureCollection geoJson);
+
+  @Keep
+  private native long nativeConvertFeature(Feature feature);
+
+  @Keep
+  private native long nativeConvertGeometry(Geometry geometry);
+
+  @Keep
+  private native void nativeSetConvertedGeoJson(long handle);
+
+  @Keep
+  private native void nativeReleaseConvertedGeoJson(long handle);
+
   @Keep
   private native Feature[] querySourceFeatures(Object[] filter);
 
@@ -297,4 +426,18 @@ public class GeoJsonSource extends Source {
   @Keep
   protected native void finalize() throws Throwable;
 
+  /**
+   * Interface definition for a callback to be invoked when an asynchronous update is set or dropped.
+   */
+  public interface UpdateCallback {
+    /**
+     * Invoked when the update was superseded by a newer one, or couldn't be converted.
+     */
+    void onCancel();
+
+    /**
+     * Invoked when the update is set on the source.
+     */
+    void onFinish();
+  }
 }
@@ -0,0 +1,121 @@
+package com.mapbox.mapboxsdk.style.sources;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.UiThread;
+import android.support.annotation.WorkerThread;
+
+import com.mapbox.mapboxsdk.utils.ExecutorUtils;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import timber.log.Timber;
+
+/**
+ * Converts the data of a {@link GeoJsonSource} on a worker thread, and sets it on the UI thread in one go.
+ * <p>
+ * Only the latest update is applied, an update superseded by a newer one, asynchronous or not, is dropped. If it is
+ * still queued it isn't even converted.
+ * </p>
+ */
+@UiThread
+class GeoJsonUpdater {
+
+  private static final String THREAD_NAME = "GeoJsonSource";
+
+  private static final Executor defaultWorker = ExecutorUtils.newWorkerExecutor(THREAD_NAME, 1);
+
+  private final Target target;
+  private final Executor worker;
+  private final Executor mainThread;
+  // the latest update, read from the worker thread to skip superseded conversions
+  private final AtomicInteger latest = new AtomicInteger();
+
+  GeoJsonUpdater(@NonNull Target target) {
+    this(target, defaultWorker, ExecutorUtils.getMainThreadExecutor());
+  }
+
+  GeoJsonUpdater(@NonNull Target target, @NonNull Executor worker, @NonNull Executor mainThread) {
+    this.target = target;
+    this.worker = worker;
+    this.mainThread = mainThread;
+  }
+
+  /**
+   * Convert data on the worker thread and set it, unless superseded meanwhile.
+   *
+   * @param conversion the conversion of the data
+   * @param callback   the callback invoked once the data is set or dropped
+   */
+  void update(@NonNull final Conversion conversion, @Nullable final GeoJsonSource.UpdateCallback callback) {
+    final int update = latest.incrementAndGet();
+    worker.execute(new Runnable() {
+      @Override
+      public void run() {
+        long handle = 0;
+        try {
+          if (latest.get() == update) {
+            handle = conversion.convert();
+          }
+        } catch (RuntimeException exception) {
+          Timber.e(exception, "Failed to convert GeoJson");
+        } finally {
+          publish(update, handle, callback);
+        }
+      }
+    });
+  }
+
+  /**
+   * Drop pending updates, as data was set synchronously or the source was removed.
+   */
+  void supersede() {
+    latest.incrementAndGet();
+  }
+
+  private void publish(final int update, final long handle, @Nullable final GeoJsonSource.UpdateCallback callback) {
+    mainThread.execute(new Runnable() {
+      @Override
+      public void run() {
+        boolean applied = handle != 0 && latest.get() == update && target.isAlive();
+        if (applied) {
+          target.setConverted(handle);
+        } else if (handle != 0) {
+          target.releaseConverted(handle);
+        }
+
+        if (callback == null) {
+          return;
+        }
+        if (applied) {
+          callback.onFinish();
+        } else {
+          callback.onCancel();
+        }
+      }
+    });
+  }
+
+  interface Conversion {
+    /**
+     * @return the handle of the converted data, 0 if it could not be converted
+     */
+    @WorkerThread
+    long convert();
+  }
+
+  interface Target {
+    /**
+     * @return false once the native peer is gone, updates are dropped then
+     */
+    boolean isAlive();
+
+    void setConverted(long handle);
+
+    /**
+     * Release converted data, doesn't require the native peer to be alive.
+     */
+    void releaseConverted(long handle);
+  }
+}
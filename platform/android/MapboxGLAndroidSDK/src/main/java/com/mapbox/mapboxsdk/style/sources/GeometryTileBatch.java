@@ -0,0 +1,128 @@
+package com.mapbox.mapboxsdk.style.sources;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.mapbox.geojson.FeatureCollection;
+import com.mapbox.mapboxsdk.geometry.LatLngBounds;
+
+/**
+ * Tiles requested from a {@link BatchGeometryTileProvider} in a single call, highest priority first.
+ * <p>
+ * Features of a tile can be passed from any thread until
+ * {@link BatchGeometryTileProvider#getFeaturesForTiles(GeometryTileBatch)} returns, later calls are ignored.
+ * </p>
+ */
+public final class GeometryTileBatch {
+
+  private final long[] keys;
+  private final int[] tokens;
+  private final Callback callback;
+  private final boolean[] delivered;
+  private boolean closed;
+
+  GeometryTileBatch(@NonNull long[] keys, @NonNull int[] tokens, @NonNull Callback callback) {
+    this.keys = keys;
+    this.tokens = tokens;
+    this.callback = callback;
+    this.delivered = new boolean[keys.length];
+  }
+
+  /**
+   * Get the amount of tiles in this batch.
+   *
+   * @return the amount of tiles
+   */
+  public int size() {
+    return keys.length;
+  }
+
+  /**
+   * Get the zoom level of a tile.
+   *
+   * @param index the index of the tile in this batch
+   * @return the zoom level
+   */
+  public int getZoomLevel(int index) {
+    return TileKey.zoom(keys[index]);
+  }
+
+  /**
+   * Get the X coordinate of a tile.
+   *
+   * @param index the index of the tile in this batch
+   * @return the X coordinate
+   */
+  public int getX(int index) {
+    return TileKey.x(keys[index]);
+  }
+
+  /**
+   * Get the Y coordinate of a tile.
+   *
+   * @param index the index of the tile in this batch
+   * @return the Y coordinate
+   */
+  public int getY(int index) {
+    return TileKey.y(keys[index]);
+  }
+
+  /**
+   * Get the bounds of a tile.
+   *
+   * @param index the index of the tile in this batch
+   * @return the bounds
+   */
+  @NonNull
+  public LatLngBounds getBounds(int index) {
+    long key = keys[index];
+    return LatLngBounds.from(TileKey.zoom(key), TileKey.x(key), TileKey.y(key));
+  }
+
+  /**
+   * Check if a tile was cancelled since the batch started, for example as it went off screen. Its features are no
+   * longer needed.
+   *
+   * @param index the index of the tile in this batch
+   * @return true if cancelled
+   */
+  public boolean isCancelled(int index) {
+    return callback.isCancelled(keys[index], tokens[index]);
+  }
+
+  /**
+   * Set the features of a tile, displayed as soon as the tile is set.
+   *
+   * @param index the index of the tile in this batch
+   * @param data  the features of the tile
+   */
+  public void setTileData(int index, @Nullable FeatureCollection data) {
+    synchronized (this) {
+      if (closed || delivered[index]) {
+        return;
+      }
+      delivered[index] = true;
+    }
+    callback.onTileData(keys[index], tokens[index], data);
+  }
+
+  /**
+   * Stop accepting features, and finish the tiles that didn't get any.
+   */
+  void close() {
+    synchronized (this) {
+      closed = true;
+    }
+    for (int i = 0; i < keys.length; i++) {
+      if (!delivered[i]) {
+        callback.onTileData(keys[i], tokens[i], null);
+      }
+    }
+  }
+
+  interface Callback {
+    boolean isCancelled(long key, int token);
+
+    void onTileData(long key, int token, @Nullable FeatureCollection data);
+  }
+}
@@ -0,0 +1,300 @@
+package com.mapbox.mapboxsdk.style.sources;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.google.gson.JsonObject;
+import com.mapbox.geojson.Feature;
+import com.mapbox.geojson.FeatureCollection;
+import com.mapbox.geojson.Geometry;
+import com.mapbox.geojson.GeometryCollection;
+import com.mapbox.geojson.LineString;
+import com.mapbox.geojson.MultiLineString;
+import com.mapbox.geojson.MultiPoint;
+import com.mapbox.geojson.MultiPolygon;
+import com.mapbox.geojson.Point;
+import com.mapbox.geojson.Polygon;
+import com.mapbox.mapboxsdk.geometry.LatLngBounds;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Memory bounded cache of the features returned by a {@link GeometryTileProvider}, least recently used tiles are
+ * evicted first.
+ * <p>
+ * The size of a tile is an estimate of the memory taken by its features, based on their amount of points and
+ * properties. Invalidating tiles bumps a generation, features computed for an earlier generation aren't cached if
+ * their tile was invalidated since, as they may be outdated already. The latest invalidations are remembered for this,
+ * features computed before the oldest of those aren't cached at all.
+ * </p>
+ */
+class TileCache {
+
+  // rough memory footprint of the geojson objects
+  private static final long FEATURE_BYTES = 128;
+  private static final long PROPERTY_BYTES = 64;
+  private static final long POINT_BYTES = 96;
+  private static final int MAX_INVALIDATIONS = 64;
+
+  private final long maxSize;
+  private final LinkedHashMap<Long, Entry> tiles = new LinkedHashMap<>(16, 0.75f, true);
+  private long size;
+  private int generation;
+  // the latest invalidations, oldest first
+  private final ArrayDeque<Invalidation> invalidations = new ArrayDeque<>();
+  private int hitCount;
+  private int missCount;
+
+  /**
+   * @param maxSize the estimated size in bytes above which tiles are evicted
+   */
+  TileCache(long maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * Get the features of a tile.
+   *
+   * @param key the tile
+   * @return the features, or null if not cached
+   */
+  @Nullable
+  synchronized FeatureCollection get(long key) {
+    Entry entry = tiles.get(key);
+    if (entry == null) {
+      missCount++;
+      return null;
+    }
+    hitCount++;
+    return entry.data;
+  }
+
+  /**
+   * Get the current generation, to be passed to {@link #put(long, FeatureCollection, int)} with features computed
+   * from this point on.
+   *
+   * @return the generation
+   */
+  synchronized int getGeneration() {
+    return generation;
+  }
+
+  /**
+   * Cache the features of a tile, unless the tile was invalidated since they were computed.
+   *
+   * @param key        the tile
+   * @param data       the features of the tile
+   * @param generation the generation when the computation of the features started
+   */
+  synchronized void put(long key, @NonNull FeatureCollection data, int generation) {
+    if (generation != this.generation && isInvalidatedSince(key, generation)) {
+      return;
+    }
+    long tileSize = estimateSize(data);
+    if (tileSize > maxSize) {
+      return;
+    }
+
+    Entry previous = tiles.put(key, new Entry(data, tileSize));
+    if (previous != null) {
+      size -= previous.size;
+    }
+    size += tileSize;
+
+    Iterator<Entry> iterator = tiles.values().iterator();
+    while (size > maxSize && iterator.hasNext()) {
+      size -= iterator.next().size;
+      iterator.remove();
+    }
+  }
+
+  /**
+   * Drop a tile.
+   *
+   * @param key the tile
+   */
+  synchronized void remove(long key) {
+    invalidate(new Invalidation(++generation, key, null));
+    Entry entry = tiles.remove(key);
+    if (entry != null) {
+      size -= entry.size;
+    }
+  }
+
+  /**
+   * Drop the tiles of every zoom level intersecting bounds.
+   *
+   * @param bounds the bounds
+   */
+  synchronized void removeIntersecting(@NonNull LatLngBounds bounds) {
+    invalidate(new Invalidation(++generation, Invalidation.NO_TILE, bounds));
+    Iterator<Map.Entry<Long, Entry>> iterator = tiles.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<Long, Entry> tile = iterator.next();
+      long key = tile.getKey();
+      if (intersects(LatLngBounds.from(TileKey.zoom(key), TileKey.x(key), TileKey.y(key)), bounds)) {
+        size -= tile.getValue().size;
+        iterator.remove();
+      }
+    }
+  }
+
+  synchronized void clear() {
+    invalidate(new Invalidation(++generation, Invalidation.NO_TILE, null));
+    tiles.clear();
+    size = 0;
+  }
+
+  @NonNull
+  synchronized TileCacheStatistics getStatistics() {
+    return new TileCacheStatistics(hitCount, missCount, tiles.size(), size);
+  }
+
+  private void invalidate(Invalidation invalidation) {
+    if (invalidations.size() == MAX_INVALIDATIONS) {
+      invalidations.pollFirst();
+    }
+    invalidations.offerLast(invalidation);
+  }
+
+  private boolean isInvalidatedSince(long key, int generation) {
+    Invalidation oldest = invalidations.peekFirst();
+    if (oldest == null || oldest.generation > generation + 1) {
+      // invalidations since were forgotten
+      return true;
+    }
+    Iterator<Invalidation> iterator = invalidations.descendingIterator();
+    while (iterator.hasNext()) {
+      Invalidation invalidation = iterator.next();
+      if (invalidation.generation <= generation) {
+        return false;
+      }
+      if (invalidation.matches(key)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean intersects(LatLngBounds tile, LatLngBounds bounds) {
+    if (tile.getLatSouth() > bounds.getLatNorth() || tile.getLatNorth() < bounds.getLatSouth()) {
+      return false;
+    }
+
+    double west = bounds.getLonWest();
+    double east = bounds.getLonEast();
+    if (east - west >= 360) {
+      return true;
+    }
+    if (west > east) {
+      // across the antimeridian
+      return tile.getLonEast() >= west || tile.getLonWest() <= east;
+    }
+    // bounds may extend into the neighbouring copies of the world
+    for (int shift = -360; shift <= 360; shift += 360) {
+      if (tile.getLonWest() + shift <= east && tile.getLonEast() + shift >= west) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Estimate the memory taken by features.
+   *
+   * @param data the features
+   * @return the estimated size in bytes
+   */
+  static long estimateSize(@NonNull FeatureCollection data) {
+    List<Feature> features = data.features();
+    if (features == null) {
+      return 0;
+    }
+
+    long size = 0;
+    for (Feature feature : features) {
+      size += FEATURE_BYTES;
+      JsonObject properties = feature.properties();
+      if (properties != null) {
+        size += properties.size() * PROPERTY_BYTES;
+      }
+      size += countPoints(feature.geometry()) * POINT_BYTES;
+    }
+    return size;
+  }
+
+  private static long countPoints(@Nullable Geometry geometry) {
+    if (geometry instanceof Point) {
+      return 1;
+    } else if (geometry instanceof MultiPoint) {
+      return ((MultiPoint) geometry).coordinates().size();
+    } else if (geometry instanceof LineString) {
+      return ((LineString) geometry).coordinates().size();
+    } else if (geometry instanceof MultiLineString) {
+      return countPoints(((MultiLineString) geometry).coordinates());
+    } else if (geometry instanceof Polygon) {
+      return countPoints(((Polygon) geometry).coordinates());
+    } else if (geometry instanceof MultiPolygon) {
+      long count = 0;
+      for (List<List<Point>> polygon : ((MultiPolygon) geometry).coordinates()) {
+        count += countPoints(polygon);
+      }
+      return count;
+    } else if (geometry instanceof GeometryCollection) {
+      long count = 0;
+      for (Geometry child : ((GeometryCollection) geometry).geometries()) {
+        count += countPoints(child);
+      }
+      return count;
+    }
+    return 0;
+  }
+
+  private static long countPoints(List<List<Point>> lines) {
+    long count = 0;
+    for (List<Point> line : lines) {
+      count += line.size();
+    }
+    return count;
+  }
+
+  /**
+   * A tile, the tiles intersecting bounds, or all tiles if neither is set.
+   */
+  private static class Invalidation {
+    static final long NO_TILE = -1;
+
+    final int generation;
+    final long key;
+    @Nullable
+    final LatLngBounds bounds;
+
+    Invalidation(int generation, long key, @Nullable LatLngBounds bounds) {
+      this.generation = generation;
+      this.key = key;
+      this.bounds = bounds;
+    }
+
+    boolean matches(long tile) {
+      if (key != NO_TILE) {
+        return key == tile;
+      }
+      return bounds == null
+        || intersects(LatLngBounds.from(TileKey.zoom(tile), TileKey.x(tile), TileKey.y(tile)), bounds);
+    }
+  }
+
+  private static class Entry {
+    final FeatureCollection data;
+    final long size;
+
+    Entry(FeatureCollection data, long size) {
+      this.data = data;
+      this.size = size;
+    }
+  }
+}
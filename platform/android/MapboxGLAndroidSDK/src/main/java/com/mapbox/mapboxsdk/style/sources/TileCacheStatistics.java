@@ -0,0 +1,79 @@
+package com.mapbox.mapboxsdk.style.sources;
+
+/**
+ * Snapshot of the tile cache of a {@link CustomGeometrySource}.
+ *
+ * @see CustomGeometrySource#getTileCacheStatistics()
+ * @see CustomGeometrySourceOptions#withTileCacheSize(long)
+ */
+public final class TileCacheStatistics {
+
+  private final int hitCount;
+  private final int missCount;
+  private final int tileCount;
+  private final long size;
+
+  TileCacheStatistics(int hitCount, int missCount, int tileCount, long size) {
+    this.hitCount = hitCount;
+    this.missCount = missCount;
+    this.tileCount = tileCount;
+    this.size = size;
+  }
+
+  /**
+   * Get the amount of tile requests served from the cache, without calling the {@link GeometryTileProvider}.
+   *
+   * @return the hit count
+   */
+  public int getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * Get the amount of tile requests the {@link GeometryTileProvider} was called for.
+   *
+   * @return the miss count
+   */
+  public int getMissCount() {
+    return missCount;
+  }
+
+  /**
+   * Get the share of tile requests served from the cache.
+   *
+   * @return the hit rate, between 0 and 1, 0 if no tile was requested
+   */
+  public double getHitRate() {
+    int requestCount = hitCount + missCount;
+    return requestCount == 0 ? 0 : (double) hitCount / requestCount;
+  }
+
+  /**
+   * Get the amount of cached tiles.
+   *
+   * @return the tile count
+   */
+  public int getTileCount() {
+    return tileCount;
+  }
+
+  /**
+   * Get the estimated memory taken by the cached tiles.
+   *
+   * @return the size in bytes
+   */
+  public long getSize() {
+    return size;
+  }
+
+  @Override
+  public String toString() {
+    return "TileCacheStatistics{"
+      + "hitCount=" + hitCount
+      + ", missCount=" + missCount
+      + ", hitRate=" + getHitRate()
+      + ", tileCount=" + tileCount
+      + ", size=" + size
+      + '}';
+  }
+}
@@ -0,0 +1,43 @@
+package com.mapbox.mapboxsdk.style.sources;
+
+/**
+ * Packs tile coordinates into a single long.
+ * <p>
+ * Tiles are numbered zoom level by zoom level, the 4^z tiles of zoom level z row by row after the tiles of the lower
+ * zoom levels. This fits every tile with int coordinates, up to zoom level 31.
+ * </p>
+ */
+final class TileKey {
+
+  private static final int MAX_ZOOM = 31;
+
+  private TileKey() {
+  }
+
+  static long pack(int z, int x, int y) {
+    return offset(z) + ((long) y << z) + x;
+  }
+
+  static int zoom(long key) {
+    int z = 0;
+    while (z < MAX_ZOOM && key >= offset(z + 1)) {
+      z++;
+    }
+    return z;
+  }
+
+  static int x(long key) {
+    int z = zoom(key);
+    return (int) ((key - offset(z)) & ((1L << z) - 1));
+  }
+
+  static int y(long key) {
+    int z = zoom(key);
+    return (int) ((key - offset(z)) >>> z);
+  }
+
+  // amount of tiles in the zoom levels below z
+  private static long offset(int z) {
+    return ((1L << (2 * z)) - 1) / 3;
+  }
+}
@@ -0,0 +1,219 @@
+package com.mapbox.mapboxsdk.style.sources;
+
+import com.mapbox.mapboxsdk.utils.LongIntHashMap;
+
+import java.util.Arrays;
+
+/**
+ * Tile requests of a {@link CustomGeometrySource}, handed out to its worker threads by priority.
+ * <p>
+ * Requests for the zoom level requested last come first, as those tiles are the ones on screen. Within a zoom level
+ * the newest request comes first, older requests are more likely to be for tiles panned out of view already.
+ * </p>
+ * <p>
+ * Tiles are identified by {@link TileKey}, and each request by a token, which is negated when a running request is
+ * cancelled. Requests are tracked from {@link #add(long)} until removed from the queue or passed to
+ * {@link #finish(long, int)}, without allocating once the arrays have grown.
+ * </p>
+ * <p>
+ * A pending request replaced or cancelled leaves a hole in its stack, skipped once on top and compacted away when
+ * holes make up half of the stack, so bursts of requests and cancellations take constant time each.
+ * </p>
+ */
+class TileRequestQueue {
+
+  static final long NONE = -1;
+
+  // tile coordinates are ints, so zoom levels stay below 32
+  private static final int ZOOM_LEVELS = 32;
+  private static final int MISSING = 0;
+  private static final int NO_SLOT = -1;
+
+  // per zoom level, stacks of pending tiles and the sequence of their requests, with NONE for holes never on top
+  private final long[][] keys = new long[ZOOM_LEVELS][];
+  private final long[][] sequences = new long[ZOOM_LEVELS][];
+  private final int[] counts = new int[ZOOM_LEVELS];
+  private final int[] holes = new int[ZOOM_LEVELS];
+  // token of the latest request of each pending or running tile, and the index of each pending tile in its stack
+  private final LongIntHashMap tokens = new LongIntHashMap();
+  private final LongIntHashMap slots = new LongIntHashMap();
+  private long sequence;
+  private int nextToken = 1;
+  private int currentZoom;
+  private int size;
+
+  /**
+   * Queue a request, replacing a pending request for the same tile.
+   *
+   * @param key the tile
+   */
+  synchronized void add(long key) {
+    int z = TileKey.zoom(key);
+    removePending(z, key);
+    tokens.put(key, nextToken);
+    nextToken = nextToken == Integer.MAX_VALUE ? 1 : nextToken + 1;
+
+    if (keys[z] == null) {
+      keys[z] = new long[16];
+      sequences[z] = new long[16];
+    } else if (counts[z] == keys[z].length) {
+      if (holes[z] * 2 >= counts[z]) {
+        compact(z);
+      } else {
+        keys[z] = Arrays.copyOf(keys[z], counts[z] * 2);
+        sequences[z] = Arrays.copyOf(sequences[z], counts[z] * 2);
+      }
+    }
+    slots.put(key, counts[z]);
+    keys[z][counts[z]] = key;
+    sequences[z][counts[z]++] = sequence++;
+    currentZoom = z;
+    size++;
+  }
+
+  /**
+   * Cancel the request for a tile. A pending request is removed, a running one is flagged.
+   *
+   * @param key the tile
+   * @return true if the request was pending
+   */
+  synchronized boolean cancel(long key) {
+    int token = tokens.get(key, MISSING);
+    if (token == MISSING) {
+      return false;
+    }
+    if (removePending(TileKey.zoom(key), key)) {
+      tokens.remove(key);
+      return true;
+    }
+    if (token > 0) {
+      tokens.put(key, -token);
+    }
+    return false;
+  }
+
+  /**
+   * Take the tile to run a request for next.
+   *
+   * @return the tile, or {@link #NONE} if no request is pending
+   */
+  synchronized long poll() {
+    int z = currentZoom;
+    if (counts[z] == 0) {
+      // the newest request of any other zoom level
+      z = -1;
+      for (int level = 0; level < ZOOM_LEVELS; level++) {
+        if (counts[level] > 0
+          && (z == -1 || sequences[level][counts[level] - 1] > sequences[z][counts[z] - 1])) {
+          z = level;
+        }
+      }
+      if (z == -1) {
+        return NONE;
+      }
+    }
+    size--;
+    long key = keys[z][--counts[z]];
+    slots.remove(key);
+    dropHoles(z);
+    return key;
+  }
+
+  /**
+   * Take every pending tile, in the order of {@link #poll()}.
+   *
+   * @return the tiles, empty if no request is pending
+   */
+  synchronized long[] pollAll() {
+    long[] pending = new long[size];
+    for (int i = 0; i < pending.length; i++) {
+      pending[i] = poll();
+    }
+    return pending;
+  }
+
+  /**
+   * Get the token of the request for a tile.
+   *
+   * @param key the tile
+   * @return the token, negative if cancelled, 0 if none
+   */
+  synchronized int getToken(long key) {
+    return tokens.get(key, MISSING);
+  }
+
+  /**
+   * Stop tracking a request that ran.
+   *
+   * @param key   the tile
+   * @param token the token of the request when it started
+   * @return true if the result of the request should be used, false if it was cancelled or requested again
+   */
+  synchronized boolean finish(long key, int token) {
+    int current = tokens.get(key, MISSING);
+    if (current == token || current == -token) {
+      tokens.remove(key);
+    }
+    return current == token;
+  }
+
+  synchronized void clear() {
+    Arrays.fill(counts, 0);
+    Arrays.fill(holes, 0);
+    tokens.clear();
+    slots.clear();
+    size = 0;
+  }
+
+  /**
+   * Get the amount of requests waiting for a thread.
+   *
+   * @return the amount of pending requests
+   */
+  synchronized int size() {
+    return size;
+  }
+
+  /**
+   * Get the amount of requests pending or running.
+   *
+   * @return the amount of tracked requests
+   */
+  synchronized int getTrackedCount() {
+    return tokens.size();
+  }
+
+  private boolean removePending(int z, long key) {
+    int slot = slots.get(key, NO_SLOT);
+    if (slot == NO_SLOT) {
+      return false;
+    }
+    slots.remove(key);
+    keys[z][slot] = NONE;
+    holes[z]++;
+    size--;
+    dropHoles(z);
+    return true;
+  }
+
+  private void dropHoles(int z) {
+    while (counts[z] > 0 && keys[z][counts[z] - 1] == NONE) {
+      counts[z]--;
+      holes[z]--;
+    }
+  }
+
+  private void compact(int z) {
+    int count = 0;
+    for (int i = 0; i < counts[z]; i++) {
+      long key = keys[z][i];
+      if (key != NONE) {
+        keys[z][count] = key;
+        sequences[z][count] = sequences[z][i];
+        slots.put(key, count++);
+      }
+    }
+    counts[z] = count;
+    holes[z] = 0;
+  }
+}
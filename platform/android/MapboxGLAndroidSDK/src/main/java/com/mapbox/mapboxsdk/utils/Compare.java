@@ -15,6 +15,16 @@ public class Compare {
     return (x < y) ? -1 : ((x == y) ? 0 : 1);
   }
 
+  /**
+   * @see Long#compare(long, long)
+   * @param x left side
+   * @param y right side
+   * @return std compare value
+   */
+  public static int compare(long x, long y) {
+    return (x < y) ? -1 : ((x == y) ? 0 : 1);
+  }
+
   /**
    * @see Boolean#compare(boolean, boolean)
    * @param x left side
@@ -0,0 +1,70 @@
+package com.mapbox.mapboxsdk.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors for SDK components that work off the UI thread and hand results back to it.
+ */
+public final class ExecutorUtils {
+
+  private static final long KEEP_ALIVE_SECONDS = 30;
+
+  private ExecutorUtils() {
+    // utility class
+  }
+
+  /**
+   * Create an executor for background work, its threads are stopped when idle.
+   *
+   * @param name    the name of the threads, numbered if there is more than one
+   * @param threads the maximum number of threads
+   * @return the executor
+   */
+  @NonNull
+  public static Executor newWorkerExecutor(@NonNull final String name, final int threads) {
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+      new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+        final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(@NonNull Runnable runnable) {
+          String threadName = threads == 1
+            ? name : String.format(Locale.US, "%s-%d", name, threadCount.getAndIncrement());
+          return new Thread(runnable, threadName);
+        }
+      });
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  /**
+   * @return an executor posting to the main thread
+   */
+  @NonNull
+  public static Executor getMainThreadExecutor() {
+    return MainThreadExecutor.INSTANCE;
+  }
+
+  private static final class MainThreadExecutor implements Executor {
+
+    // created on first use, keeps the class loadable where there is no main looper
+    static final MainThreadExecutor INSTANCE = new MainThreadExecutor();
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    @Override
+    public void execute(@NonNull Runnable command) {
+      handler.post(command);
+    }
+  }
+}
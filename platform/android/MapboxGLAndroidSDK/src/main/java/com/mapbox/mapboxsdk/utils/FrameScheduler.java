@@ -0,0 +1,89 @@
+package com.mapbox.mapboxsdk.utils;
+
+import android.os.Build;
+import android.os.Handler;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.view.Choreographer;
+
+/**
+ * Runs a task on the next frame, or posted to a handler where there are no frame callbacks.
+ * <p>
+ * {@link Choreographer} is API 16, below that the frame callback class must not be loaded. Use
+ * {@link #getChoreographer()} instead of {@link Choreographer#getInstance()}, and only create a frame scheduler for a
+ * choreographer that was returned.
+ * </p>
+ */
+public final class FrameScheduler {
+
+  @Nullable
+  private final Choreographer choreographer;
+  @Nullable
+  private final Choreographer.FrameCallback frameCallback;
+  @Nullable
+  private final Handler handler;
+  private final Runnable task;
+
+  /**
+   * Runs a task on the next frame.
+   *
+   * @param choreographer the choreographer of the thread to run the task on
+   * @param task          the task to run
+   */
+  public FrameScheduler(@NonNull Choreographer choreographer, @NonNull final Runnable task) {
+    this.choreographer = choreographer;
+    this.frameCallback = new Choreographer.FrameCallback() {
+      @Override
+      public void doFrame(long frameTimeNanos) {
+        task.run();
+      }
+    };
+    this.handler = null;
+    this.task = task;
+  }
+
+  /**
+   * Runs a task posted to a handler.
+   *
+   * @param handler the handler of the thread to run the task on
+   * @param task    the task to run
+   */
+  public FrameScheduler(@NonNull Handler handler, @NonNull Runnable task) {
+    this.choreographer = null;
+    this.frameCallback = null;
+    this.handler = handler;
+    this.task = task;
+  }
+
+  /**
+   * Get the choreographer of the calling thread, if frame callbacks are available.
+   *
+   * @return the choreographer, or null below API 16
+   */
+  @Nullable
+  public static Choreographer getChoreographer() {
+    return Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN ? Choreographer.getInstance() : null;
+  }
+
+  /**
+   * Run the task once, on the next frame. Scheduling again before it ran runs it twice.
+   */
+  public void schedule() {
+    if (choreographer != null) {
+      choreographer.postFrameCallback(frameCallback);
+    } else if (handler != null) {
+      handler.post(task);
+    }
+  }
+
+  /**
+   * Don't run the task scheduled.
+   */
+  public void cancel() {
+    if (choreographer != null) {
+      choreographer.removeFrameCallback(frameCallback);
+    } else if (handler != null) {
+      handler.removeCallbacks(task);
+    }
+  }
+}
@@ -0,0 +1,122 @@
+package com.mapbox.mapboxsdk.utils;
+
+import java.util.Arrays;
+
+/**
+ * Set of primitive long values, without boxing.
+ * <p>
+ * Backed by an open addressing hash table with linear probing. Clearing the set keeps its capacity, so a set reused
+ * across queries doesn't allocate once it has grown to the largest query.
+ * </p>
+ */
+public final class LongHashSet {
+
+  private static final int MIN_CAPACITY = 16;
+
+  private long[] values;
+  private boolean[] used;
+  private int size;
+
+  public LongHashSet() {
+    this(MIN_CAPACITY / 2);
+  }
+
+  /**
+   * Create a set able to hold the given amount of values without growing.
+   *
+   * @param expectedSize the expected amount of values
+   */
+  public LongHashSet(int expectedSize) {
+    int capacity = MIN_CAPACITY;
+    while (capacity < expectedSize * 2) {
+      capacity <<= 1;
+    }
+    values = new long[capacity];
+    used = new boolean[capacity];
+  }
+
+  /**
+   * Add a value to the set.
+   *
+   * @param value the value
+   * @return true if the value wasn't in the set yet
+   */
+  public boolean add(long value) {
+    if ((size + 1) * 2 > values.length) {
+      grow();
+    }
+
+    int mask = values.length - 1;
+    int index = hash(value) & mask;
+    while (used[index]) {
+      if (values[index] == value) {
+        return false;
+      }
+      index = (index + 1) & mask;
+    }
+    used[index] = true;
+    values[index] = value;
+    size++;
+    return true;
+  }
+
+  /**
+   * Check if the set holds a value.
+   *
+   * @param value the value
+   * @return true if the value is in the set
+   */
+  public boolean contains(long value) {
+    int mask = values.length - 1;
+    int index = hash(value) & mask;
+    while (used[index]) {
+      if (values[index] == value) {
+        return true;
+      }
+      index = (index + 1) & mask;
+    }
+    return false;
+  }
+
+  /**
+   * Get the amount of values in the set.
+   *
+   * @return the size
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Remove all values, keeping the capacity of the set.
+   */
+  public void clear() {
+    if (size > 0) {
+      Arrays.fill(used, false);
+      size = 0;
+    }
+  }
+
+  private void grow() {
+    long[] oldValues = values;
+    boolean[] oldUsed = used;
+    values = new long[oldValues.length * 2];
+    used = new boolean[oldValues.length * 2];
+    int mask = values.length - 1;
+    for (int i = 0; i < oldValues.length; i++) {
+      if (oldUsed[i]) {
+        int index = hash(oldValues[i]) & mask;
+        while (used[index]) {
+          index = (index + 1) & mask;
+        }
+        used[index] = true;
+        values[index] = oldValues[i];
+      }
+    }
+  }
+
+  private static int hash(long value) {
+    long hash = value * 0x9E3779B97F4A7C15L;
+    return (int) (hash ^ (hash >>> 32));
+  }
+}
@@ -0,0 +1,174 @@
+package com.mapbox.mapboxsdk.utils;
+
+import java.util.Arrays;
+
+/**
+ * Map of primitive long keys to int values, without boxing.
+ * <p>
+ * Backed by an open addressing hash table with linear probing, removed entries are backfilled so lookups never
+ * need tombstones. Like {@link LongHashSet}, the map keeps its capacity once grown and doesn't allocate afterwards.
+ * </p>
+ */
+public final class LongIntHashMap {
+
+  private static final int MIN_CAPACITY = 16;
+
+  private long[] keys;
+  private int[] values;
+  private boolean[] used;
+  private int size;
+
+  public LongIntHashMap() {
+    this(MIN_CAPACITY / 2);
+  }
+
+  /**
+   * Create a map able to hold the given amount of entries without growing.
+   *
+   * @param expectedSize the expected amount of entries
+   */
+  public LongIntHashMap(int expectedSize) {
+    int capacity = MIN_CAPACITY;
+    while (capacity < expectedSize * 2) {
+      capacity <<= 1;
+    }
+    keys = new long[capacity];
+    values = new int[capacity];
+    used = new boolean[capacity];
+  }
+
+  /**
+   * Associate a value with a key, replacing the previous value.
+   *
+   * @param key   the key
+   * @param value the value
+   */
+  public void put(long key, int value) {
+    if ((size + 1) * 2 > keys.length) {
+      grow();
+    }
+
+    int mask = keys.length - 1;
+    int index = hash(key) & mask;
+    while (used[index]) {
+      if (keys[index] == key) {
+        values[index] = value;
+        return;
+      }
+      index = (index + 1) & mask;
+    }
+    used[index] = true;
+    keys[index] = key;
+    values[index] = value;
+    size++;
+  }
+
+  /**
+   * Get the value associated with a key.
+   *
+   * @param key          the key
+   * @param defaultValue the value returned if the key isn't in the map
+   * @return the value, or the default value
+   */
+  public int get(long key, int defaultValue) {
+    int index = indexOf(key);
+    return index == -1 ? defaultValue : values[index];
+  }
+
+  /**
+   * Check if the map holds a key.
+   *
+   * @param key the key
+   * @return true if the key is in the map
+   */
+  public boolean containsKey(long key) {
+    return indexOf(key) != -1;
+  }
+
+  /**
+   * Remove a key from the map.
+   *
+   * @param key the key
+   * @return true if the key was in the map
+   */
+  public boolean remove(long key) {
+    int index = indexOf(key);
+    if (index == -1) {
+      return false;
+    }
+
+    // move entries of the same probe chain into the gap
+    int mask = keys.length - 1;
+    int gap = index;
+    int next = (gap + 1) & mask;
+    while (used[next]) {
+      int home = hash(keys[next]) & mask;
+      if (((next - home) & mask) >= ((next - gap) & mask)) {
+        keys[gap] = keys[next];
+        values[gap] = values[next];
+        gap = next;
+      }
+      next = (next + 1) & mask;
+    }
+    used[gap] = false;
+    size--;
+    return true;
+  }
+
+  /**
+   * Get the amount of entries in the map.
+   *
+   * @return the size
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Remove all entries, keeping the capacity of the map.
+   */
+  public void clear() {
+    if (size > 0) {
+      Arrays.fill(used, false);
+      size = 0;
+    }
+  }
+
+  private int indexOf(long key) {
+    int mask = keys.length - 1;
+    int index = hash(key) & mask;
+    while (used[index]) {
+      if (keys[index] == key) {
+        return index;
+      }
+      index = (index + 1) & mask;
+    }
+    return -1;
+  }
+
+  private void grow() {
+    long[] oldKeys = keys;
+    int[] oldValues = values;
+    boolean[] oldUsed = used;
+    keys = new long[oldKeys.length * 2];
+    values = new int[oldKeys.length * 2];
+    used = new boolean[oldKeys.length * 2];
+    int mask = keys.length - 1;
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldUsed[i]) {
+        int index = hash(oldKeys[i]) & mask;
+        while (used[index]) {
+          index = (index + 1) & mask;
+        }
+        used[index] = true;
+        keys[index] = oldKeys[i];
+        values[index] = oldValues[i];
+      }
+    }
+  }
+
+  private static int hash(long key) {
+    long hash = key * 0x9E3779B97F4A7C15L;
+    return (int) (hash ^ (hash >>> 32));
+  }
+}
@@ -3,6 +3,9 @@ package com.mapbox.mapboxsdk;
 import android.content.Context;
 import android.net.ConnectivityManager;
 import android.net.NetworkInfo;
+
+import com.mapbox.mapboxsdk.net.ConnectivityReceiver;
+
 import org.junit.Before;
 import org.junit.Test;
 
@@ -94,6 +97,40 @@ public class MapboxTest {
     assertTrue(Mapbox.isConnected());
   }
 
+  @Test
+  public void testCachedConnectivityState() {
+    injectMapboxSingleton("dummy");
+
+    ConnectivityManager connectivityManager = mock(ConnectivityManager.class);
+    NetworkInfo networkInfo = mock(NetworkInfo.class);
+    when(appContext.getSystemService(Context.CONNECTIVITY_SERVICE)).thenReturn(connectivityManager);
+    when(connectivityManager.getActiveNetworkInfo()).thenReturn(networkInfo);
+    when(networkInfo.isConnected()).thenReturn(true);
+
+    // state broadcasted by the system takes precedence over querying the ConnectivityManager
+    injectCachedConnectivityState(false);
+    assertFalse(Mapbox.isConnected());
+
+    // manual connectivity takes precedence over the broadcasted state
+    Mapbox.setConnected(true);
+    assertTrue(Mapbox.isConnected());
+    Mapbox.setConnected(null);
+
+    // not tracking connectivity changes, query the ConnectivityManager
+    injectCachedConnectivityState(null);
+    assertTrue(Mapbox.isConnected());
+  }
+
+  private void injectCachedConnectivityState(Boolean connected) {
+    try {
+      Field field = ConnectivityReceiver.class.getDeclaredField("cachedConnectivityState");
+      field.setAccessible(true);
+      field.set(null, connected);
+    } catch (Exception exception) {
+      throw new AssertionError();
+    }
+  }
+
   private void injectMapboxSingleton(String accessToken) {
     Mapbox mapbox = new Mapbox(appContext, accessToken);
     try {
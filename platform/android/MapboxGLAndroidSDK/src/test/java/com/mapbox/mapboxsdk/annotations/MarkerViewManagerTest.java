@@ -0,0 +1,215 @@
+package com.mapbox.mapboxsdk.annotations;
+
+import android.graphics.RectF;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.view.Choreographer;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
+
+import com.mapbox.mapboxsdk.geometry.LatLng;
+import com.mapbox.mapboxsdk.maps.MapboxMap;
+import com.mapbox.mapboxsdk.maps.Projection;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MarkerViewManagerTest {
+
+  private Choreographer choreographer;
+  private MapboxMap mapboxMap;
+  private Projection projection;
+  private MarkerViewManager markerViewManager;
+  private List<MarkerView> markersInRect;
+
+  @Before
+  public void setUp() {
+    choreographer = mock(Choreographer.class);
+    mapboxMap = mock(MapboxMap.class);
+    projection = mock(Projection.class);
+    when(mapboxMap.getProjection()).thenReturn(projection);
+    markersInRect = new ArrayList<>();
+    when(mapboxMap.getMarkerViewsInRect(ArgumentMatchers.any(RectF.class))).thenReturn(markersInRect);
+
+    // x is ten times the longitude, y ten times the latitude
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) {
+        double[] coordinates = invocation.getArgument(0);
+        float[] screenLocations = invocation.getArgument(1);
+        int count = invocation.getArgument(2);
+        for (int i = 0; i < count; i++) {
+          screenLocations[i * 2] = (float) coordinates[i * 2 + 1] * 10;
+          screenLocations[i * 2 + 1] = (float) coordinates[i * 2] * 10;
+        }
+        return null;
+      }
+    }).when(projection).toScreenLocations(ArgumentMatchers.any(double[].class), ArgumentMatchers.any(float[].class),
+      anyInt());
+
+    ViewGroup container = mock(ViewGroup.class);
+    when(container.getWidth()).thenReturn(100);
+    when(container.getHeight()).thenReturn(100);
+    markerViewManager = new MarkerViewManager(container, choreographer);
+    markerViewManager.bind(mapboxMap);
+    markerViewManager.addMarkerViewAdapter(new TestAdapter());
+    markerViewManager.setEnabled(true);
+  }
+
+  @Test
+  public void laysOutOncePerFrame() {
+    markersInRect.add(new TestMarkerView(new LatLng(1, 2)));
+
+    markerViewManager.update();
+    markerViewManager.update();
+    markerViewManager.update();
+
+    Choreographer.FrameCallback frameCallback = captureFrameCallback();
+    verify(mapboxMap, times(1)).getMarkerViewsInRect(ArgumentMatchers.any(RectF.class));
+    frameCallback.doFrame(0);
+    verify(mapboxMap, times(2)).getMarkerViewsInRect(ArgumentMatchers.any(RectF.class));
+    verify(projection, times(1)).toScreenLocations(ArgumentMatchers.any(double[].class),
+      ArgumentMatchers.any(float[].class), anyInt());
+  }
+
+  @Test
+  public void positionsWithSingleProjection() {
+    TestMarkerView first = new TestMarkerView(new LatLng(1, 2));
+    TestMarkerView second = new TestMarkerView(new LatLng(3, 4));
+    markersInRect.add(first);
+    markersInRect.add(second);
+    markerViewManager.update();
+    captureFrameCallback().doFrame(0);
+
+    // within the invalidate interval only the positions are updated
+    markerViewManager.update();
+    verify(choreographer, times(2)).postFrameCallback(ArgumentMatchers.any(Choreographer.FrameCallback.class));
+    captureFrameCallback().doFrame(0);
+
+    verify(mapboxMap, times(2)).getMarkerViewsInRect(ArgumentMatchers.any(RectF.class));
+    verify(projection, times(2)).toScreenLocations(ArgumentMatchers.any(double[].class),
+      ArgumentMatchers.any(float[].class), ArgumentMatchers.eq(2));
+    verify(projection, never()).toScreenLocation(ArgumentMatchers.any(LatLng.class));
+    verify(markerViewManager.getView(first), times(2)).setX(20);
+    verify(markerViewManager.getView(first), times(2)).setY(10);
+    verify(markerViewManager.getView(second), times(2)).setX(40);
+    verify(markerViewManager.getView(second), times(2)).setY(30);
+  }
+
+  @Test
+  public void countsViewPoolHits() {
+    TestMarkerView marker = new TestMarkerView(new LatLng());
+    markersInRect.add(marker);
+    markerViewManager.invalidateViewMarkersInVisibleRegion();
+    markersInRect.clear();
+    markerViewManager.invalidateViewMarkersInVisibleRegion();
+    markersInRect.add(marker);
+    markerViewManager.invalidateViewMarkersInVisibleRegion();
+
+    MarkerViewPoolStatistics statistics = markerViewManager.getViewPoolStatistics();
+    assertEquals(1, statistics.getHitCount());
+    assertEquals(1, statistics.getMissCount());
+    assertEquals(0.5, statistics.getHitRatio());
+  }
+
+  @Test
+  public void keepsViewsWithinHysteresis() {
+    markerViewManager.setViewportMargin(0, 50);
+    TestMarkerView inside = new TestMarkerView(new LatLng(5, 5));
+    TestMarkerView nearby = new TestMarkerView(new LatLng(5, 12));
+    markersInRect.add(inside);
+    markersInRect.add(nearby);
+    markerViewManager.invalidateViewMarkersInVisibleRegion();
+
+    assertNotNull(markerViewManager.getView(inside));
+    assertNull(markerViewManager.getView(nearby));
+
+    // moved out of the map, within the hysteresis
+    inside.setPosition(new LatLng(5, 12));
+    markerViewManager.invalidateViewMarkersInVisibleRegion();
+    assertNotNull(markerViewManager.getView(inside));
+
+    markersInRect.remove(inside);
+    markerViewManager.invalidateViewMarkersInVisibleRegion();
+    assertNull(markerViewManager.getView(inside));
+  }
+
+  @Test
+  public void defersInflationOverBudget() {
+    markerViewManager.setInflationBudget(2);
+    for (int i = 0; i < 5; i++) {
+      markersInRect.add(new TestMarkerView(new LatLng(1, i)));
+    }
+
+    markerViewManager.invalidateViewMarkersInVisibleRegion();
+    assertEquals(2, countViews());
+    captureFrameCallback().doFrame(0);
+    assertEquals(4, countViews());
+    captureFrameCallback().doFrame(0);
+    assertEquals(5, countViews());
+    verify(choreographer, times(2)).postFrameCallback(ArgumentMatchers.any(Choreographer.FrameCallback.class));
+  }
+
+  private int countViews() {
+    int count = 0;
+    for (MarkerView marker : markersInRect) {
+      if (markerViewManager.getView(marker) != null) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private Choreographer.FrameCallback captureFrameCallback() {
+    ArgumentCaptor<Choreographer.FrameCallback> captor = ArgumentCaptor.forClass(Choreographer.FrameCallback.class);
+    verify(choreographer, atLeastOnce()).postFrameCallback(captor.capture());
+    return captor.getValue();
+  }
+
+  private static class TestMarkerView extends MarkerView {
+    private static long nextId;
+
+    TestMarkerView(LatLng position) {
+      setId(nextId++);
+      setPosition(position);
+      setOffset(0, 0);
+    }
+  }
+
+  private static class TestAdapter extends MapboxMap.MarkerViewAdapter<TestMarkerView> {
+
+    TestAdapter() {
+      super(null, TestMarkerView.class);
+    }
+
+    @Nullable
+    @Override
+    public View getView(@NonNull TestMarkerView marker, @Nullable View convertView, @NonNull ViewGroup parent) {
+      if (convertView == null) {
+        convertView = mock(View.class);
+        when(convertView.getViewTreeObserver()).thenReturn(mock(ViewTreeObserver.class));
+      }
+      return convertView;
+    }
+  }
+}
@@ -7,6 +7,7 @@ import org.junit.Test;
 import java.util.ArrayList;
 import java.util.List;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
@@ -58,6 +59,36 @@ public class PolygonTest {
     assertEquals(new LatLng(0, 0), polygon.getPoints().get(0));
   }
 
+  @Test
+  public void testCoordinates() {
+    Polygon polygon = new PolygonOptions()
+      .add(new LatLng(1, 2))
+      .addCoordinates(new double[] {3, 4, 5, 6})
+      .getPolygon();
+    assertEquals(3, polygon.getPointCount());
+    assertArrayEquals(new double[] {1, 2, 3, 4, 5, 6}, polygon.getCoordinates(), 0);
+    assertEquals(new LatLng(5, 6), polygon.getPoints().get(2));
+  }
+
+  @Test
+  public void testHoleCoordinates() {
+    List<LatLng> hole = new ArrayList<>();
+    hole.add(new LatLng(1, 1));
+    Polygon polygon = new PolygonOptions()
+      .addHole(hole)
+      .addHoleCoordinates(new double[] {2, 2, 3, 3})
+      .getPolygon();
+    assertEquals(2, polygon.getHoles().size());
+    assertEquals(hole, polygon.getHoles().get(0));
+    assertEquals(new LatLng(3, 3), polygon.getHoles().get(1).get(1));
+    assertArrayEquals(new double[] {2, 2, 3, 3}, polygon.getHoleCoordinates()[1], 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidCoordinates() {
+    new PolygonOptions().addCoordinates(new double[] {91, 0});
+  }
+
   @Test
   public void testBuilder() {
     PolylineOptions polylineOptions = new PolylineOptions();
@@ -7,8 +7,10 @@ import org.junit.Test;
 import java.util.ArrayList;
 import java.util.List;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 
 public class PolylineTest {
 
@@ -58,6 +60,88 @@ public class PolylineTest {
     assertEquals(new LatLng(0, 0), polyline.getPoints().get(0));
   }
 
+  @Test
+  public void testCoordinates() {
+    Polyline polyline = new PolylineOptions().addCoordinates(new double[] {1, 2, 3, 4}).getPolyline();
+    for (int i = 0; i < 100; i++) {
+      polyline.addPoint(new LatLng(i % 90, i));
+    }
+    assertEquals(102, polyline.getPointCount());
+    assertEquals(204, polyline.getCoordinates().length);
+    assertEquals(new LatLng(3, 4), polyline.getPoints().get(1));
+
+    polyline.setCoordinates(new double[] {5, 6});
+    assertArrayEquals(new double[] {5, 6}, polyline.getCoordinates(), 0);
+  }
+
+  @Test
+  public void testTrimHeadWrapsAround() {
+    Polyline polyline = new PolylineOptions().getPolyline();
+    for (int i = 0; i < 100; i++) {
+      polyline.appendPoints(new double[] {0, i});
+      if (polyline.getPointCount() > 10) {
+        polyline.trimHead(1);
+      }
+    }
+    assertEquals(10, polyline.getPointCount());
+    assertEquals(new LatLng(0, 90), polyline.getPoints().get(0));
+    assertEquals(99, polyline.getCoordinates()[19], 0);
+  }
+
+  @Test
+  public void testTracksAppendedPoints() {
+    Polyline polyline = new PolylineOptions().addCoordinates(new double[] {0, 0, 1, 1, 2, 2}).getPolyline();
+    assertNull(polyline.getAppendedCoordinates());
+
+    polyline.onMapUpdated();
+    polyline.appendPoints(new double[] {3, 3});
+    polyline.addPoint(new LatLng(4, 4));
+    polyline.trimHead(2);
+    assertArrayEquals(new double[] {3, 3, 4, 4}, polyline.getAppendedCoordinates(), 0);
+    assertEquals(2, polyline.getTrimmedPointCount());
+
+    polyline.onMapUpdated();
+    assertEquals(0, polyline.getAppendedCoordinates().length);
+    assertEquals(0, polyline.getTrimmedPointCount());
+  }
+
+  @Test
+  public void testTrimUnsentPointsNeedsWholeGeometry() {
+    Polyline polyline = new PolylineOptions().addCoordinates(new double[] {0, 0}).getPolyline();
+    polyline.onMapUpdated();
+    polyline.appendPoints(new double[] {1, 1, 2, 2});
+    polyline.trimHead(2);
+    assertNull(polyline.getAppendedCoordinates());
+  }
+
+  @Test
+  public void testBoundsFollowAppendsAndTrims() {
+    Polyline polyline = new PolylineOptions().addCoordinates(new double[] {0, 0, 1, 1}).getPolyline();
+    double[] bounds = new double[4];
+    polyline.getCoordinateBounds(bounds);
+    assertArrayEquals(new double[] {0, 0, 1, 1}, bounds, 0);
+
+    polyline.appendPoints(new double[] {-2, 3});
+    polyline.getCoordinateBounds(bounds);
+    assertArrayEquals(new double[] {-2, 0, 1, 3}, bounds, 0);
+
+    // still covering a removed point until more points are removed than left
+    polyline.trimHead(1);
+    polyline.getCoordinateBounds(bounds);
+    assertArrayEquals(new double[] {-2, 0, 1, 3}, bounds, 0);
+    polyline.trimHead(1);
+    polyline.getCoordinateBounds(bounds);
+    assertArrayEquals(new double[] {-2, 3, -2, 3}, bounds, 0);
+  }
+
+  @Test
+  public void testColorNeedsWholeGeometry() {
+    Polyline polyline = new PolylineOptions().getPolyline();
+    polyline.onMapUpdated();
+    polyline.setColor(1);
+    assertNull(polyline.getAppendedCoordinates());
+  }
+
   @Test
   public void testBuilder() {
     PolylineOptions polylineOptions = new PolylineOptions();
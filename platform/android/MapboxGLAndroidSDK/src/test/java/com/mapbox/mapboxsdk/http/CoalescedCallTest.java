@@ -0,0 +1,141 @@
+package com.mapbox.mapboxsdk.http;
+
+import com.mapbox.mapboxsdk.storage.Resource;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import okhttp3.Call;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CoalescedCallTest {
+
+  private static final String URL = "https://api.mapbox.com/styles/v1/mapbox/streets-v10";
+
+  private OkHttpClient client;
+  private Call call;
+  private Request request;
+  private RequestScheduler scheduler;
+
+  @Before
+  public void beforeTest() {
+    client = mock(OkHttpClient.class);
+    call = mock(Call.class);
+    request = mock(Request.class);
+    scheduler = new RequestScheduler(20);
+    when(client.newCall(any(Request.class))).thenReturn(call);
+  }
+
+  @Test
+  public void testSameKeySharesCall() {
+    HTTPRequest first = mock(HTTPRequest.class);
+    HTTPRequest second = mock(HTTPRequest.class);
+    String key = CoalescedCall.key(URL, "", "");
+
+    CoalescedCall firstCall = CoalescedCall.enqueue(client, scheduler, request, key, Resource.STYLE, first);
+    CoalescedCall secondCall = CoalescedCall.enqueue(client, scheduler, request, key, Resource.STYLE, second);
+
+    assertSame(firstCall, secondCall);
+    verify(client, times(1)).newCall(request);
+    verify(call, times(1)).enqueue(firstCall);
+
+    firstCall.remove(first);
+    firstCall.remove(second);
+  }
+
+  @Test
+  public void testValidatorsArePartOfKey() {
+    HTTPRequest first = mock(HTTPRequest.class);
+    HTTPRequest second = mock(HTTPRequest.class);
+
+    String key = CoalescedCall.key(URL, "", "");
+    String etagKey = CoalescedCall.key(URL, "\"etag\"", "");
+
+    CoalescedCall firstCall = CoalescedCall.enqueue(client, scheduler, request, key, Resource.STYLE, first);
+    CoalescedCall secondCall = CoalescedCall.enqueue(client, scheduler, request, etagKey, Resource.STYLE, second);
+
+    assertNotSame(firstCall, secondCall);
+    verify(client, times(2)).newCall(request);
+
+    firstCall.remove(first);
+    secondCall.remove(second);
+  }
+
+  @Test
+  public void testCancelOnlyWhenLastWaiterLeaves() {
+    HTTPRequest first = mock(HTTPRequest.class);
+    HTTPRequest second = mock(HTTPRequest.class);
+    String key = CoalescedCall.key(URL, "", "");
+
+    CoalescedCall coalescedCall = CoalescedCall.enqueue(client, scheduler, request, key, Resource.STYLE, first);
+    CoalescedCall.enqueue(client, scheduler, request, key, Resource.STYLE, second);
+
+    coalescedCall.remove(first);
+    verify(call, never()).cancel();
+
+    coalescedCall.remove(second);
+    verify(call, times(1)).cancel();
+
+    // a new request for the same key starts a new call
+    CoalescedCall newCall = CoalescedCall.enqueue(client, scheduler, request, key, Resource.STYLE, first);
+    assertNotSame(coalescedCall, newCall);
+    newCall.remove(first);
+  }
+
+  @Test
+  public void testFailureReportedOncePerCall() {
+    HttpMetricsListener listener = mock(HttpMetricsListener.class);
+    HTTPRequest.setMetricsListener(listener);
+    try {
+      HTTPRequest first = mock(HTTPRequest.class);
+      HTTPRequest second = mock(HTTPRequest.class);
+      String key = CoalescedCall.key(URL, "", "");
+
+      CoalescedCall coalescedCall = CoalescedCall.enqueue(client, scheduler, request, key, Resource.TILE, first);
+      CoalescedCall.enqueue(client, scheduler, request, key, Resource.TILE, second);
+      IOException exception = new SocketTimeoutException();
+      coalescedCall.onFailure(call, exception);
+
+      verify(listener, times(1)).onFailure(eq(Resource.TILE), eq(HttpMetricsListener.TEMPORARY_ERROR), anyLong());
+      verify(first, times(1)).onFailure(call, exception);
+      verify(second, times(1)).onFailure(call, exception);
+    } finally {
+      HTTPRequest.setMetricsListener(null);
+    }
+  }
+
+  @Test
+  public void testEmptyBodyReportedAsFailure() {
+    HTTPRequest first = mock(HTTPRequest.class);
+    String key = CoalescedCall.key(URL, "", "");
+    CoalescedCall coalescedCall = CoalescedCall.enqueue(client, scheduler, request, key, Resource.STYLE, first);
+
+    Response response = new Response.Builder()
+      .request(new Request.Builder().url(URL).build())
+      .protocol(Protocol.HTTP_1_1)
+      .code(200)
+      .message("OK")
+      .build();
+    coalescedCall.onResponse(call, response);
+
+    verify(first, times(1)).onFailure(eq(call), any(IOException.class));
+    verify(first, never()).onResponse(any(Response.class), any(byte[].class));
+  }
+}
@@ -0,0 +1,84 @@
+package com.mapbox.mapboxsdk.http;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DeliveryStateTest {
+
+  @Test
+  public void testCancelWhilePending() {
+    DeliveryState state = new DeliveryState();
+
+    assertTrue(state.cancel());
+    assertFalse(state.beginDelivery());
+  }
+
+  @Test
+  public void testCancelDuringDelivery() {
+    DeliveryState state = new DeliveryState();
+
+    assertTrue(state.beginDelivery());
+    assertFalse(state.cancel());
+    assertTrue(state.endDelivery());
+    // released by the delivery, a late delivery must not release it again
+    assertFalse(state.beginDelivery());
+  }
+
+  @Test
+  public void testCancelAfterDone() {
+    DeliveryState state = new DeliveryState();
+
+    assertTrue(state.beginDelivery());
+    assertFalse(state.endDelivery());
+    assertTrue(state.cancel());
+  }
+
+  @Test
+  public void testSecondDeliveryRefused() {
+    DeliveryState state = new DeliveryState();
+
+    assertTrue(state.beginDelivery());
+    assertFalse(state.beginDelivery());
+    assertFalse(state.endDelivery());
+    assertFalse(state.beginDelivery());
+  }
+
+  @Test
+  public void testPeerReleasedOnceWhenRacing() throws InterruptedException {
+    for (int i = 0; i < 1000; i++) {
+      final DeliveryState state = new DeliveryState();
+      final CountDownLatch start = new CountDownLatch(1);
+      final AtomicBoolean releasedByDelivery = new AtomicBoolean();
+      Thread delivery = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          awaitQuietly(start);
+          if (state.beginDelivery()) {
+            releasedByDelivery.set(state.endDelivery());
+          }
+        }
+      });
+      delivery.start();
+      start.countDown();
+      boolean releasedByNative = state.cancel();
+      delivery.join();
+
+      int releases = (releasedByNative ? 1 : 0) + (releasedByDelivery.get() ? 1 : 0);
+      assertEquals(1, releases);
+    }
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package com.mapbox.mapboxsdk.http;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import java.io.File;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class HttpArchiveInterceptorTest {
+
+  private static final String URL = "https://api.mapbox.com/v4/mapbox.mapbox-streets-v7/0/0/0.vector.pbf";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testRecordThenReplay() throws Exception {
+    File directory = new File(folder.getRoot(), "archive");
+    Request request = new Request.Builder().url(URL).build();
+    Response networkResponse = new Response.Builder()
+      .request(request)
+      .protocol(Protocol.HTTP_1_1)
+      .code(200)
+      .message("OK")
+      .header("ETag", "\"abc\"")
+      .header("Content-Type", "application/x-protobuf")
+      .body(ResponseBody.create(MediaType.parse("application/x-protobuf"), new byte[] {1, 2, 3}))
+      .build();
+
+    Interceptor.Chain recordChain = mock(Interceptor.Chain.class);
+    when(recordChain.request()).thenReturn(request);
+    when(recordChain.proceed(request)).thenReturn(networkResponse);
+    Response recorded = HttpArchiveInterceptor.record(directory).intercept(recordChain);
+    assertEquals(3, recorded.body().bytes().length);
+
+    Interceptor.Chain replayChain = mock(Interceptor.Chain.class);
+    when(replayChain.request()).thenReturn(request);
+    Response replayed = HttpArchiveInterceptor.replay(directory).intercept(replayChain);
+
+    verify(replayChain, never()).proceed(request);
+    assertEquals(200, replayed.code());
+    assertEquals("\"abc\"", replayed.header("ETag"));
+    assertEquals(3, replayed.body().bytes().length);
+  }
+
+  @Test
+  public void testReplayMissingEntry() throws Exception {
+    Request request = new Request.Builder().url(URL).build();
+    Interceptor.Chain chain = mock(Interceptor.Chain.class);
+    when(chain.request()).thenReturn(request);
+
+    Response replayed = HttpArchiveInterceptor.replay(folder.getRoot()).intercept(chain);
+    assertEquals(404, replayed.code());
+  }
+
+  @Test
+  public void testValidatorsArePartOfKey() {
+    Request request = new Request.Builder().url(URL).build();
+    Request revalidation = new Request.Builder().url(URL).header("If-None-Match", "\"abc\"").build();
+    Request userAgent = new Request.Builder().url(URL).header("User-Agent", "test").build();
+
+    assertNotEquals(HttpArchiveInterceptor.keyOf(request), HttpArchiveInterceptor.keyOf(revalidation));
+    assertEquals(HttpArchiveInterceptor.keyOf(request), HttpArchiveInterceptor.keyOf(userAgent));
+  }
+}
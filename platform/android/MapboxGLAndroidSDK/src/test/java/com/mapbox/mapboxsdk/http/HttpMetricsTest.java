@@ -0,0 +1,83 @@
+package com.mapbox.mapboxsdk.http;
+
+import com.mapbox.mapboxsdk.storage.Resource;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class HttpMetricsTest {
+
+  private HttpMetrics metrics;
+
+  @Before
+  public void beforeTest() {
+    metrics = new HttpMetrics();
+  }
+
+  @Test
+  public void testBucketOf() {
+    assertEquals(0, Histogram.bucketOf(0));
+    assertEquals(1, Histogram.bucketOf(1));
+    assertEquals(2, Histogram.bucketOf(2));
+    assertEquals(2, Histogram.bucketOf(3));
+    assertEquals(11, Histogram.bucketOf(1024));
+    assertEquals(Histogram.BUCKET_COUNT - 1, Histogram.bucketOf(Long.MAX_VALUE));
+  }
+
+  @Test
+  public void testValueAtFraction() {
+    Histogram histogram = new Histogram();
+    for (int i = 0; i < 90; i++) {
+      histogram.record(100);
+    }
+    for (int i = 0; i < 10; i++) {
+      histogram.record(5000);
+    }
+
+    assertEquals(100, histogram.getCount());
+    assertEquals(128, histogram.getValueAtFraction(0.5));
+    assertEquals(128, histogram.getValueAtFraction(0.9));
+    assertEquals(8192, histogram.getValueAtFraction(0.99));
+    assertEquals(590, histogram.getMean(), 0.001);
+  }
+
+  @Test
+  public void testResponsesPerKind() {
+    metrics.onResponse(Resource.TILE, 200, 10, 1000, 4096);
+    metrics.onResponse(Resource.TILE, 304, 10, 800, 0);
+    metrics.onResponse(Resource.STYLE, 404, 0, 500, 20);
+
+    assertEquals(2, metrics.getTimeToFirstByte(Resource.TILE).getCount());
+    assertEquals(1, metrics.getStatusClassCount(Resource.TILE, 2));
+    assertEquals(1, metrics.getStatusClassCount(Resource.TILE, 3));
+    assertEquals(1, metrics.getNotModifiedCount(Resource.TILE));
+    assertEquals(4096, metrics.getBodyLength(Resource.TILE).getSum());
+    assertEquals(1, metrics.getStatusClassCount(Resource.STYLE, 4));
+    assertEquals(0, metrics.getNotModifiedCount(Resource.STYLE));
+  }
+
+  @Test
+  public void testFailuresPerKind() {
+    metrics.onFailure(Resource.GLYPHS, HttpMetricsListener.CONNECTION_ERROR, 0);
+    metrics.onFailure(Resource.GLYPHS, HttpMetricsListener.CONNECTION_ERROR, 0);
+    metrics.onFailure(Resource.GLYPHS, HttpMetricsListener.PERMANENT_ERROR, 0);
+
+    assertEquals(2, metrics.getFailureCount(Resource.GLYPHS, HttpMetricsListener.CONNECTION_ERROR));
+    assertEquals(1, metrics.getFailureCount(Resource.GLYPHS, HttpMetricsListener.PERMANENT_ERROR));
+    assertEquals(0, metrics.getFailureCount(Resource.TILE, HttpMetricsListener.CONNECTION_ERROR));
+    assertEquals(3, metrics.getQueueTime(Resource.GLYPHS).getCount());
+  }
+
+  @Test
+  public void testReset() {
+    metrics.onResponse(Resource.TILE, 200, 10, 1000, 4096);
+    metrics.onFailure(Resource.TILE, HttpMetricsListener.TEMPORARY_ERROR, 0);
+    metrics.reset();
+
+    assertEquals(0, metrics.getTimeToFirstByte(Resource.TILE).getCount());
+    assertEquals(0, metrics.getStatusClassCount(Resource.TILE, 2));
+    assertEquals(0, metrics.getFailureCount(Resource.TILE, HttpMetricsListener.TEMPORARY_ERROR));
+  }
+}
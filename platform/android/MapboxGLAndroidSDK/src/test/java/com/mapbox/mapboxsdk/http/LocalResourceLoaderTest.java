@@ -0,0 +1,102 @@
+package com.mapbox.mapboxsdk.http;
+
+import android.support.annotation.NonNull;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LocalResourceLoaderTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testAccepts() {
+    assertTrue(LocalResourceLoader.accepts("local://styles/style.json"));
+    assertTrue(LocalResourceLoader.accepts("asset://style.json"));
+    assertTrue(LocalResourceLoader.accepts("file:///sdcard/style.json"));
+    assertFalse(LocalResourceLoader.accepts("https://api.mapbox.com/style.json"));
+  }
+
+  @Test
+  public void testDecodePath() {
+    assertEquals("tiles/0/0/0.pbf", LocalResourceLoader.decodePath("tiles/0/0/0.pbf"));
+    assertEquals("glyphs/Open Sans Regular,Arial Unicode MS Regular/0-255.pbf",
+      LocalResourceLoader.decodePath("glyphs/Open%20Sans%20Regular%2cArial%20Unicode%20MS%20Regular/0-255.pbf"));
+    assertEquals("caf\u00e9.json", LocalResourceLoader.decodePath("caf%C3%A9.json")); // café
+    assertEquals("100%", LocalResourceLoader.decodePath("100%"));
+    assertEquals("%zz", LocalResourceLoader.decodePath("%zz"));
+  }
+
+  @Test
+  public void testLoadSmallFile() throws Exception {
+    byte[] content = createContent(1000);
+    assertArrayEquals(content, load(writeFile(content)).body);
+  }
+
+  @Test
+  public void testLoadMappedFile() throws Exception {
+    byte[] content = createContent(LocalResourceLoader.MAP_THRESHOLD * 2 + 1);
+    assertArrayEquals(content, load(writeFile(content)).body);
+  }
+
+  @Test
+  public void testLoadMissingFile() throws Exception {
+    RecordingCallback callback = load(new File(folder.getRoot(), "missing.json"));
+    assertNull(callback.body);
+    assertTrue(callback.exception instanceof FileNotFoundException);
+  }
+
+  private RecordingCallback load(File file) throws Exception {
+    RecordingCallback callback = new RecordingCallback();
+    LocalResourceLoader.load("file://" + file.getAbsolutePath(), callback).get(5, TimeUnit.SECONDS);
+    return callback;
+  }
+
+  private File writeFile(byte[] content) throws IOException {
+    File file = folder.newFile();
+    try (FileOutputStream output = new FileOutputStream(file)) {
+      output.write(content);
+    }
+    return file;
+  }
+
+  private static byte[] createContent(int length) {
+    byte[] content = new byte[length];
+    for (int i = 0; i < length; i++) {
+      content[i] = (byte) i;
+    }
+    return content;
+  }
+
+  private static class RecordingCallback implements LocalResourceLoader.Callback {
+    byte[] body;
+    IOException exception;
+
+    @Override
+    public void onResponse(@NonNull ByteBuffer body, int length) {
+      this.body = new byte[length];
+      body.flip();
+      body.get(this.body);
+    }
+
+    @Override
+    public void onFailure(@NonNull IOException exception) {
+      this.exception = exception;
+    }
+  }
+}
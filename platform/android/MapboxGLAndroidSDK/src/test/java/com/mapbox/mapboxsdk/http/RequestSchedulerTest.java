@@ -0,0 +1,115 @@
+package com.mapbox.mapboxsdk.http;
+
+import com.mapbox.mapboxsdk.storage.Resource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import okhttp3.Call;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RequestSchedulerTest {
+
+  private OkHttpClient client;
+  private Request request;
+  private RequestScheduler scheduler;
+  private Map<Call, CoalescedCall> calls;
+  private Map<CoalescedCall, HTTPRequest> waiters;
+
+  @Before
+  public void beforeTest() {
+    client = mock(OkHttpClient.class);
+    request = mock(Request.class);
+    scheduler = new RequestScheduler(1);
+    calls = new HashMap<>();
+    waiters = new HashMap<>();
+  }
+
+  @After
+  public void afterTest() {
+    // detach from the in-flight calls shared across tests
+    for (Map.Entry<CoalescedCall, HTTPRequest> entry : waiters.entrySet()) {
+      entry.getKey().remove(entry.getValue());
+    }
+  }
+
+  @Test
+  public void testPriorityOfKind() {
+    assertEquals(RequestScheduler.PRIORITY_HIGH, RequestScheduler.priorityOf(Resource.STYLE));
+    assertEquals(RequestScheduler.PRIORITY_HIGH, RequestScheduler.priorityOf(Resource.SOURCE));
+    assertEquals(RequestScheduler.PRIORITY_HIGH, RequestScheduler.priorityOf(Resource.SPRITE_JSON));
+    assertEquals(RequestScheduler.PRIORITY_HIGH, RequestScheduler.priorityOf(Resource.SPRITE_IMAGE));
+    assertEquals(RequestScheduler.PRIORITY_HIGH, RequestScheduler.priorityOf(Resource.GLYPHS));
+    assertEquals(RequestScheduler.PRIORITY_NORMAL, RequestScheduler.priorityOf(Resource.UNKNOWN));
+    assertEquals(RequestScheduler.PRIORITY_LOW, RequestScheduler.priorityOf(Resource.TILE));
+  }
+
+  @Test
+  public void testStyleOvertakesTilesAndNewestTileGoesFirst() {
+    Call running = enqueue("tile/0", Resource.TILE);
+    Call oldTile = enqueue("tile/1", Resource.TILE);
+    Call newTile = enqueue("tile/2", Resource.TILE);
+    Call style = enqueue("style", Resource.STYLE);
+
+    assertEquals(3, scheduler.getStatistics().getQueuedRequests());
+    verify(oldTile, never()).enqueue(any(CoalescedCall.class));
+
+    InOrder order = inOrder(running, style, newTile, oldTile);
+    order.verify(running).enqueue(any(CoalescedCall.class));
+    finishNext(running);
+    order.verify(style).enqueue(any(CoalescedCall.class));
+    finishNext(style);
+    order.verify(newTile).enqueue(any(CoalescedCall.class));
+    finishNext(newTile);
+    order.verify(oldTile).enqueue(any(CoalescedCall.class));
+
+    RequestSchedulerStatistics statistics = scheduler.getStatistics();
+    assertEquals(0, statistics.getQueuedRequests());
+    assertEquals(1, statistics.getRunningRequests());
+    assertEquals(3, statistics.getMaxQueueDepth());
+    assertEquals(4, statistics.getStartedRequests());
+  }
+
+  @Test
+  public void testCancelledQueuedCallIsNeverStarted() {
+    enqueue("tile/0", Resource.TILE);
+    HTTPRequest waiter = mock(HTTPRequest.class);
+    Call queued = mock(Call.class);
+    when(client.newCall(request)).thenReturn(queued);
+    CoalescedCall coalescedCall = CoalescedCall.enqueue(client, scheduler, request, "tile/1", Resource.TILE, waiter);
+
+    coalescedCall.remove(waiter);
+
+    assertEquals(0, scheduler.getStatistics().getQueuedRequests());
+    verify(queued, never()).enqueue(any(CoalescedCall.class));
+    verify(queued, never()).cancel();
+  }
+
+  private Call enqueue(String key, int kind) {
+    Call call = mock(Call.class);
+    when(client.newCall(request)).thenReturn(call);
+    HTTPRequest waiter = mock(HTTPRequest.class);
+    CoalescedCall coalescedCall = CoalescedCall.enqueue(client, scheduler, request, key, kind, waiter);
+    calls.put(call, coalescedCall);
+    waiters.put(coalescedCall, waiter);
+    return call;
+  }
+
+  private void finishNext(Call call) {
+    scheduler.finish(calls.get(call));
+  }
+}
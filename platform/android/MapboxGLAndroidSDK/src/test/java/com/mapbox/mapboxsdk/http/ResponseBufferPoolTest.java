@@ -0,0 +1,81 @@
+package com.mapbox.mapboxsdk.http;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ResponseBufferPoolTest {
+
+  private ResponseBufferPool pool;
+
+  @Before
+  public void beforeTest() {
+    pool = new ResponseBufferPool();
+  }
+
+  @Test
+  public void testAcquireRoundsUpToBucket() {
+    ByteBuffer buffer = pool.acquire(ResponseBufferPool.MIN_CAPACITY + 1);
+    assertTrue(buffer.isDirect());
+    assertEquals(ResponseBufferPool.MIN_CAPACITY * 2, buffer.capacity());
+    assertEquals(1, pool.getAllocationCount());
+    assertEquals(ResponseBufferPool.MIN_CAPACITY * 2, pool.getAllocatedBytes());
+  }
+
+  @Test
+  public void testReleasedBufferIsReused() {
+    ByteBuffer buffer = pool.acquire(100);
+    buffer.put((byte) 1);
+    pool.release(buffer);
+
+    ByteBuffer reused = pool.acquire(200);
+    assertSame(buffer, reused);
+    assertEquals(0, reused.position());
+    assertEquals(1, pool.getAllocationCount());
+    assertEquals(1, pool.getReuseCount());
+  }
+
+  @Test
+  public void testOversizedBufferIsNotPooled() {
+    int capacity = ResponseBufferPool.MAX_POOLED_CAPACITY + 1;
+    ByteBuffer buffer = pool.acquire(capacity);
+    assertEquals(capacity, buffer.capacity());
+    pool.release(buffer);
+
+    pool.acquire(capacity);
+    assertEquals(2, pool.getAllocationCount());
+    assertEquals(0, pool.getReuseCount());
+  }
+
+  @Test
+  public void testPooledBytesAreCapped() {
+    int capacity = ResponseBufferPool.MAX_POOLED_CAPACITY / 2;
+    ByteBuffer first = pool.acquire(capacity);
+    ByteBuffer second = pool.acquire(capacity);
+    ByteBuffer third = pool.acquire(capacity);
+    pool.release(first);
+    pool.release(second);
+    pool.release(third);
+    assertEquals(ResponseBufferPool.MAX_POOLED_BYTES, pool.getPooledBytes());
+
+    pool.acquire(capacity);
+    assertEquals(ResponseBufferPool.MAX_POOLED_BYTES - capacity, pool.getPooledBytes());
+  }
+
+  @Test
+  public void testGrowKeepsContent() {
+    ByteBuffer buffer = pool.acquire(ResponseBufferPool.MIN_CAPACITY);
+    buffer.put(new byte[] {1, 2, 3});
+
+    ByteBuffer grown = pool.grow(buffer, buffer.capacity() * 2);
+    assertEquals(ResponseBufferPool.MIN_CAPACITY * 2, grown.capacity());
+    assertEquals(3, grown.position());
+    assertEquals(3, grown.get(2));
+    assertSame(buffer, pool.acquire(ResponseBufferPool.MIN_CAPACITY));
+  }
+}
@@ -0,0 +1,225 @@
+package com.mapbox.mapboxsdk.maps;
+
+import android.view.Choreographer;
+
+import com.mapbox.mapboxsdk.annotations.Marker;
+import com.mapbox.mapboxsdk.annotations.MarkerOptions;
+import com.mapbox.mapboxsdk.annotations.Polyline;
+import com.mapbox.mapboxsdk.annotations.PolylineOptions;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AnnotationBatchTest {
+
+  private NativeMapView nativeMapView;
+  private AnnotationRegistry registry;
+  private AnnotationBatch batch;
+
+  @Before
+  public void setUp() {
+    nativeMapView = mock(NativeMapView.class);
+    registry = new AnnotationRegistry();
+    batch = new AnnotationBatch(nativeMapView, registry, null);
+  }
+
+  @Test
+  public void collapsesUpdates() {
+    Marker marker = addMarker(1);
+
+    batch.open();
+    for (int i = 0; i < 10; i++) {
+      marker.setPosition(new LatLng(i, i));
+      batch.update(marker);
+    }
+    verify(nativeMapView, never()).updateMarkers(ArgumentMatchers.<Marker>anyList());
+    batch.close();
+
+    ArgumentCaptor<List<Marker>> captor = listCaptor();
+    verify(nativeMapView, times(1)).updateMarkers(captor.capture());
+    assertEquals(Collections.singletonList(marker), captor.getValue());
+  }
+
+  @Test
+  public void addsInBulk() {
+    when(nativeMapView.addMarkers(ArgumentMatchers.<Marker>anyList())).thenReturn(new long[] {7, 8});
+    Marker first = newMarker();
+    Marker second = newMarker();
+
+    batch.open();
+    batch.add(first);
+    batch.add(second);
+    batch.update(first);
+    assertTrue(batch.isPendingAdd(first));
+    batch.close();
+
+    verify(nativeMapView, times(1)).addMarkers(ArgumentMatchers.<Marker>anyList());
+    verify(nativeMapView, never()).updateMarkers(ArgumentMatchers.<Marker>anyList());
+    assertEquals(7, first.getId());
+    assertEquals(8, second.getId());
+    assertSame(second, registry.get(8));
+    assertFalse(batch.isPendingAdd(first));
+  }
+
+  @Test
+  public void removeCancelsAdd() {
+    Marker marker = newMarker();
+
+    batch.open();
+    batch.add(marker);
+    batch.remove(marker);
+    batch.close();
+
+    verify(nativeMapView, never()).addMarkers(ArgumentMatchers.<Marker>anyList());
+    verify(nativeMapView, never()).removeAnnotations(any(long[].class));
+  }
+
+  @Test
+  public void readdAfterRemoveAddsOnce() {
+    when(nativeMapView.addMarkers(ArgumentMatchers.<Marker>anyList())).thenReturn(new long[] {3});
+    Marker marker = newMarker();
+
+    batch.open();
+    batch.add(marker);
+    batch.remove(marker);
+    assertFalse(batch.isPendingAdd(marker));
+    batch.add(marker);
+    batch.add(marker);
+    batch.close();
+
+    ArgumentCaptor<List<Marker>> captor = listCaptor();
+    verify(nativeMapView, times(1)).addMarkers(captor.capture());
+    assertEquals(Collections.singletonList(marker), captor.getValue());
+  }
+
+  @Test
+  public void removeAllReturnsPendingAdds() {
+    Marker existing = addMarker(1);
+    Marker first = newMarker();
+    Marker second = newMarker();
+    Marker removed = newMarker();
+
+    batch.open();
+    batch.add(first);
+    batch.add(removed);
+    batch.add(second);
+    batch.remove(removed);
+    batch.update(existing);
+    assertEquals(Arrays.asList(first, second), batch.removeAll());
+    assertFalse(batch.isPendingAdd(first));
+    batch.close();
+
+    verify(nativeMapView, never()).addMarkers(ArgumentMatchers.<Marker>anyList());
+    verify(nativeMapView, never()).updateMarkers(ArgumentMatchers.<Marker>anyList());
+    verify(nativeMapView, times(1)).removeAnnotations(new long[] {1});
+  }
+
+  @Test
+  public void removeDropsUpdates() {
+    Marker marker = addMarker(1);
+    Polyline polyline = new PolylineOptions().add(new LatLng()).getPolyline();
+    polyline.setId(2);
+    registry.put(2, polyline);
+
+    batch.open();
+    batch.update(marker);
+    batch.update(polyline);
+    batch.remove(marker);
+    batch.remove(2);
+    assertNull(registry.get(1));
+    batch.close();
+
+    verify(nativeMapView, never()).updateMarkers(ArgumentMatchers.<Marker>anyList());
+    verify(nativeMapView, never()).updatePolyline(any(Polyline.class));
+    ArgumentCaptor<long[]> captor = ArgumentCaptor.forClass(long[].class);
+    verify(nativeMapView, times(1)).removeAnnotations(captor.capture());
+    assertEquals(2, captor.getValue().length);
+  }
+
+  @Test
+  public void nestedBatchesCommitOnce() {
+    Marker marker = addMarker(1);
+
+    batch.open();
+    batch.open();
+    batch.update(marker);
+    batch.close();
+    assertTrue(batch.isRecording());
+    verify(nativeMapView, never()).updateMarkers(ArgumentMatchers.<Marker>anyList());
+    batch.close();
+
+    assertFalse(batch.isRecording());
+    verify(nativeMapView, times(1)).updateMarkers(ArgumentMatchers.<Marker>anyList());
+  }
+
+  @Test
+  public void commitsOnNextFrame() {
+    Choreographer choreographer = mock(Choreographer.class);
+    batch = new AnnotationBatch(nativeMapView, registry, choreographer);
+    Marker marker = addMarker(1);
+
+    batch.open();
+    batch.update(marker);
+    batch.close();
+    batch.open();
+    batch.update(marker);
+    batch.close();
+
+    ArgumentCaptor<Choreographer.FrameCallback> frameCallback =
+      ArgumentCaptor.forClass(Choreographer.FrameCallback.class);
+    verify(choreographer, times(1)).postFrameCallback(frameCallback.capture());
+    verify(nativeMapView, never()).updateMarkers(ArgumentMatchers.<Marker>anyList());
+    frameCallback.getValue().doFrame(0);
+    verify(nativeMapView, times(1)).updateMarkers(ArgumentMatchers.<Marker>anyList());
+  }
+
+  @Test
+  public void commitPendingBeforeFrame() {
+    Choreographer choreographer = mock(Choreographer.class);
+    batch = new AnnotationBatch(nativeMapView, registry, choreographer);
+    Marker marker = addMarker(1);
+
+    batch.open();
+    batch.update(marker);
+    batch.close();
+    batch.commitPending();
+
+    verify(choreographer, times(1)).removeFrameCallback(any(Choreographer.FrameCallback.class));
+    verify(nativeMapView, times(1)).updateMarkers(ArgumentMatchers.<Marker>anyList());
+  }
+
+  private Marker newMarker() {
+    return new MarkerOptions().position(new LatLng()).getMarker();
+  }
+
+  private Marker addMarker(long id) {
+    Marker marker = newMarker();
+    marker.setId(id);
+    registry.put(id, marker);
+    return marker;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static ArgumentCaptor<List<Marker>> listCaptor() {
+    return ArgumentCaptor.forClass((Class) List.class);
+  }
+}
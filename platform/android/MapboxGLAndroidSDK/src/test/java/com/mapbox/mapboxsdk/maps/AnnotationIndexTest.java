@@ -0,0 +1,83 @@
+package com.mapbox.mapboxsdk.maps;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+public class AnnotationIndexTest {
+
+  @Test
+  public void matchesBruteForceSearch() {
+    Random random = new Random(42);
+    AnnotationIndex index = new AnnotationIndex();
+    int count = 2000;
+    double[][] boxes = new double[count][];
+    for (int id = 0; id < count; id++) {
+      double x = random.nextDouble();
+      double y = random.nextDouble();
+      double size = random.nextDouble() * 0.01;
+      boxes[id] = new double[] {x, y, x + size, y + size};
+      index.insert(id, x, y, x + size, y + size);
+    }
+
+    // remove a third of the entries and move another third
+    for (int id = 0; id < count; id += 3) {
+      assertTrue(index.remove(id));
+      boxes[id] = null;
+    }
+    for (int id = 1; id < count; id += 3) {
+      double x = random.nextDouble();
+      double y = random.nextDouble();
+      boxes[id] = new double[] {x, y, x, y};
+      index.insert(id, x, y, x, y);
+    }
+    assertFalse(index.remove(0));
+    assertEquals(count - (count + 2) / 3, index.size());
+
+    for (int query = 0; query < 100; query++) {
+      double minX = random.nextDouble();
+      double minY = random.nextDouble();
+      double maxX = minX + random.nextDouble() * 0.2;
+      double maxY = minY + random.nextDouble() * 0.2;
+
+      final Set<Long> found = new HashSet<>();
+      index.search(minX, minY, maxX, maxY, new AnnotationIndex.Visitor() {
+        @Override
+        public void visit(long id) {
+          assertTrue(found.add(id));
+        }
+      });
+
+      Set<Long> expected = new HashSet<>();
+      for (int id = 0; id < count; id++) {
+        double[] box = boxes[id];
+        if (box != null && box[0] <= maxX && minX <= box[2] && box[1] <= maxY && minY <= box[3]) {
+          expected.add((long) id);
+        }
+      }
+      assertEquals(expected, found);
+    }
+  }
+
+  @Test
+  public void clearRemovesAllEntries() {
+    AnnotationIndex index = new AnnotationIndex();
+    for (int id = 0; id < 100; id++) {
+      index.insert(id, id, id, id, id);
+    }
+    index.clear();
+    assertEquals(0, index.size());
+    index.search(0, 0, 100, 100, new AnnotationIndex.Visitor() {
+      @Override
+      public void visit(long id) {
+        throw new AssertionError("Unexpected entry " + id);
+      }
+    });
+  }
+}
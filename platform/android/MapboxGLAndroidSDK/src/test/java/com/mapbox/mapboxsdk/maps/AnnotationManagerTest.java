@@ -1,8 +1,5 @@
 package com.mapbox.mapboxsdk.maps;
 
-import android.support.v4.util.LongSparseArray;
-
-import com.mapbox.mapboxsdk.annotations.Annotation;
 import com.mapbox.mapboxsdk.annotations.BaseMarkerOptions;
 import com.mapbox.mapboxsdk.annotations.Marker;
 import com.mapbox.mapboxsdk.annotations.MarkerOptions;
@@ -26,7 +23,7 @@ public class AnnotationManagerTest {
   public void checksAddAMarker() throws Exception {
     NativeMapView aNativeMapView = mock(NativeMapView.class);
     MapView aMapView = mock(MapView.class);
-    LongSparseArray<Annotation> annotationsArray = new LongSparseArray<>();
+    AnnotationRegistry annotationsArray = new AnnotationRegistry();
     MarkerViewManager aMarkerViewManager = mock(MarkerViewManager.class);
     IconManager aIconManager = mock(IconManager.class);
     Annotations annotations = new AnnotationContainer(aNativeMapView, annotationsArray);
@@ -53,7 +50,7 @@ public class AnnotationManagerTest {
   public void checksAddMarkers() throws Exception {
     NativeMapView aNativeMapView = mock(NativeMapView.class);
     MapView aMapView = mock(MapView.class);
-    LongSparseArray<Annotation> annotationsArray = new LongSparseArray<>();
+    AnnotationRegistry annotationsArray = new AnnotationRegistry();
     MarkerViewManager aMarkerViewManager = mock(MarkerViewManager.class);
     IconManager aIconManager = mock(IconManager.class);
     Annotations annotations = new AnnotationContainer(aNativeMapView, annotationsArray);
@@ -0,0 +1,154 @@
+package com.mapbox.mapboxsdk.maps;
+
+import com.mapbox.mapboxsdk.annotations.Annotation;
+import com.mapbox.mapboxsdk.annotations.Marker;
+import com.mapbox.mapboxsdk.annotations.MarkerOptions;
+import com.mapbox.mapboxsdk.annotations.MarkerView;
+import com.mapbox.mapboxsdk.annotations.Polygon;
+import com.mapbox.mapboxsdk.annotations.Polyline;
+import com.mapbox.mapboxsdk.annotations.PolylineOptions;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class AnnotationRegistryTest {
+
+  @Test
+  public void partitionsByType() {
+    AnnotationRegistry registry = new AnnotationRegistry();
+    Marker marker = mock(Marker.class);
+    MarkerView markerView = mock(MarkerView.class);
+    Polygon polygon = mock(Polygon.class);
+    Polyline polyline = mock(Polyline.class);
+
+    registry.put(0, marker);
+    registry.put(1, markerView);
+    registry.put(2, polygon);
+    registry.put(3, polyline);
+
+    assertEquals(4, registry.size());
+    assertEquals(1, registry.size(AnnotationRegistry.MARKER));
+    assertSame(marker, registry.valueAt(AnnotationRegistry.MARKER, 0));
+    assertSame(markerView, registry.valueAt(AnnotationRegistry.MARKER_VIEW, 0));
+    assertSame(polygon, registry.valueAt(AnnotationRegistry.POLYGON, 0));
+    assertSame(polyline, registry.valueAt(AnnotationRegistry.POLYLINE, 0));
+    assertSame(polygon, registry.get(2));
+  }
+
+  @Test
+  public void keepsOrderAfterRemoval() {
+    AnnotationRegistry registry = new AnnotationRegistry();
+    Marker[] markers = new Marker[100];
+    for (int i = 0; i < markers.length; i++) {
+      markers[i] = mock(Marker.class);
+      registry.put(i, markers[i]);
+    }
+
+    for (int i = 0; i < markers.length; i += 3) {
+      assertSame(markers[i], registry.remove(i));
+    }
+
+    int count = registry.size(AnnotationRegistry.MARKER);
+    assertEquals(66, count);
+    int expected = 1;
+    for (int i = 0; i < count; i++) {
+      assertSame(markers[expected], registry.valueAt(AnnotationRegistry.MARKER, i));
+      expected += expected % 3 == 2 ? 2 : 1;
+    }
+    for (int i = 0; i < markers.length; i++) {
+      assertEquals(i % 3 != 0, registry.contains(i));
+    }
+    assertNull(registry.remove(0));
+  }
+
+  @Test
+  public void obtainAllOrderedById() {
+    AnnotationRegistry registry = new AnnotationRegistry();
+    Annotation[] annotations = {mock(Polygon.class), mock(Marker.class), mock(Polyline.class), mock(Marker.class)};
+    for (int i = 0; i < annotations.length; i++) {
+      registry.put(i, annotations[i]);
+    }
+    registry.remove(1);
+
+    List<Annotation> all = registry.obtainAll();
+    assertEquals(3, all.size());
+    assertSame(annotations[0], all.get(0));
+    assertSame(annotations[2], all.get(1));
+    assertSame(annotations[3], all.get(2));
+  }
+
+  @Test
+  public void obtainAllOrderedByIdOutOfInsertionOrder() {
+    AnnotationRegistry registry = new AnnotationRegistry();
+    Marker clustered = mock(Marker.class);
+    Marker marker = mock(Marker.class);
+    MarkerView markerView = mock(MarkerView.class);
+    Polygon polygon = mock(Polygon.class);
+    registry.put(1L << 32, clustered);
+    registry.put(5, marker);
+    registry.put(3, markerView);
+    registry.put(4, polygon);
+
+    assertEquals(Arrays.<Annotation>asList(markerView, polygon, marker, clustered), registry.obtainAll());
+    assertEquals(Arrays.<Annotation>asList(markerView, marker, clustered),
+      registry.obtainAll(AnnotationRegistry.MARKER, AnnotationRegistry.MARKER_VIEW));
+  }
+
+  @Test
+  public void replacesAnnotationWithSameId() {
+    AnnotationRegistry registry = new AnnotationRegistry();
+    Marker marker = mock(Marker.class);
+    MarkerView markerView = mock(MarkerView.class);
+
+    registry.put(7, marker);
+    registry.put(7, markerView);
+
+    assertEquals(1, registry.size());
+    assertEquals(0, registry.size(AnnotationRegistry.MARKER));
+    assertSame(markerView, registry.get(7));
+    registry.clear();
+    assertFalse(registry.contains(7));
+    assertTrue(registry.obtainAll().isEmpty());
+  }
+
+  @Test
+  public void queriesMarkersAcrossAntimeridian() {
+    AnnotationRegistry registry = new AnnotationRegistry();
+    registry.put(0, new MarkerOptions().position(new LatLng(0, 179)).getMarker());
+    registry.put(1, new MarkerOptions().position(new LatLng(0, -179)).getMarker());
+    registry.put(2, new MarkerOptions().position(new LatLng(0, 0)).getMarker());
+
+    long[] ids = registry.queryPoints(corners(-5, 175, 5, 185));
+    Arrays.sort(ids);
+    assertTrue(Arrays.equals(new long[] {0, 1}, ids));
+
+    registry.remove(1);
+    assertTrue(Arrays.equals(new long[] {0}, registry.queryPoints(corners(-5, 175, 5, 185))));
+  }
+
+  @Test
+  public void queriesShapesCrossingArea() {
+    AnnotationRegistry registry = new AnnotationRegistry();
+    registry.put(0, new PolylineOptions().add(new LatLng(0, -10), new LatLng(0, 10)).getPolyline());
+    registry.put(1, new PolylineOptions().add(new LatLng(20, -10), new LatLng(20, 10)).getPolyline());
+
+    assertTrue(Arrays.equals(new long[] {0}, registry.queryShapes(corners(-1, -1, 1, 1))));
+    assertEquals(0, registry.queryShapes(corners(30, -1, 31, 1)).length);
+  }
+
+  private static LatLng[] corners(double south, double west, double north, double east) {
+    return new LatLng[] {
+      new LatLng(north, west), new LatLng(north, east), new LatLng(south, east), new LatLng(south, west)
+    };
+  }
+}
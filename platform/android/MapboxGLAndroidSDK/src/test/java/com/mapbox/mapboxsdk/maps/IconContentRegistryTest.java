@@ -0,0 +1,71 @@
+package com.mapbox.mapboxsdk.maps;
+
+import com.mapbox.mapboxsdk.annotations.Icon;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class IconContentRegistryTest {
+
+  @Test
+  public void digestDependsOnContentAndSize() {
+    ByteBuffer pixels = ByteBuffer.allocate(16);
+    String digest = IconContentRegistry.digestOf(pixels, 2, 2, 1.0f);
+
+    assertEquals(digest, IconContentRegistry.digestOf(ByteBuffer.allocate(16), 2, 2, 1.0f));
+    assertFalse(digest.equals(IconContentRegistry.digestOf(pixels, 1, 4, 1.0f)));
+    assertFalse(digest.equals(IconContentRegistry.digestOf(pixels, 2, 2, 2.0f)));
+    pixels.put(3, (byte) 1);
+    assertFalse(digest.equals(IconContentRegistry.digestOf(pixels, 2, 2, 1.0f)));
+    assertEquals(0, pixels.position());
+  }
+
+  @Test
+  public void sharesImageBetweenIdenticalIcons() {
+    IconContentRegistry registry = new IconContentRegistry();
+    Icon first = mockIcon("first");
+    Icon second = mockIcon("second");
+    Icon other = mockIcon("other");
+
+    assertTrue(registry.register(first, "digest", 100));
+    assertFalse(registry.register(second, "digest", 100));
+    assertTrue(registry.register(other, "other digest", 50));
+
+    assertEquals("first", registry.getImageId(second));
+    IconStatistics statistics = registry.getStatistics();
+    assertEquals(3, statistics.getIconCount());
+    assertEquals(2, statistics.getImageCount());
+    assertEquals(1.5, statistics.getDedupeRatio());
+    assertEquals(100, statistics.getBytesSaved());
+  }
+
+  @Test
+  public void removesImageWithLastIcon() {
+    IconContentRegistry registry = new IconContentRegistry();
+    Icon first = mockIcon("first");
+    Icon second = mockIcon("second");
+    registry.register(first, "digest", 100);
+    registry.register(second, "digest", 100);
+
+    assertNull(registry.unregister(first));
+    assertEquals("first", registry.getImageId(second));
+    assertEquals(first, registry.getImages().get("first"));
+    assertEquals("first", registry.unregister(second));
+    assertTrue(registry.getImages().isEmpty());
+    assertEquals(0, registry.getStatistics().getBytesSaved());
+  }
+
+  private static Icon mockIcon(String id) {
+    Icon icon = mock(Icon.class);
+    when(icon.getId()).thenReturn(id);
+    return icon;
+  }
+}
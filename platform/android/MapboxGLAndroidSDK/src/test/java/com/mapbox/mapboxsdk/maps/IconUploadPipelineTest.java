@@ -0,0 +1,132 @@
+package com.mapbox.mapboxsdk.maps;
+
+import android.graphics.Bitmap;
+
+import com.mapbox.mapboxsdk.annotations.Icon;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class IconUploadPipelineTest {
+
+  private NativeMapView nativeMapView;
+  private IconUploadPipeline.Callback callback;
+  private IconContentRegistry registry;
+  private IconUploadPipeline pipeline;
+
+  @Before
+  public void beforeTest() {
+    nativeMapView = mock(NativeMapView.class);
+    callback = mock(IconUploadPipeline.Callback.class);
+    registry = new IconContentRegistry();
+    Executor directExecutor = new Executor() {
+      @Override
+      public void execute(Runnable command) {
+        command.run();
+      }
+    };
+    pipeline = new IconUploadPipeline(nativeMapView, registry, directExecutor, null, callback);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void uploadsConvertedIconsInSingleCall() {
+    Icon first = mockIcon("first", 2, 3, 1.0f);
+    Icon second = mockIcon("second", 4, 5, 2.0f);
+
+    pipeline.upload(first);
+    pipeline.upload(second);
+    assertTrue(pipeline.isPending(first));
+    pipeline.flush();
+
+    ArgumentCaptor<String[]> symbols = ArgumentCaptor.forClass(String[].class);
+    ArgumentCaptor<int[]> sizes = ArgumentCaptor.forClass(int[].class);
+    ArgumentCaptor<float[]> scales = ArgumentCaptor.forClass(float[].class);
+    ArgumentCaptor<ByteBuffer[]> pixels = ArgumentCaptor.forClass(ByteBuffer[].class);
+    verify(nativeMapView, times(1))
+      .addAnnotationIcons(symbols.capture(), sizes.capture(), scales.capture(), pixels.capture());
+    assertTrue(Arrays.equals(new String[] {"first", "second"}, symbols.getValue()));
+    assertTrue(Arrays.equals(new int[] {2, 3, 4, 5}, sizes.getValue()));
+    assertTrue(Arrays.equals(new float[] {1.0f, 2.0f}, scales.getValue()));
+    assertEquals(2 * 3 * 4, pixels.getValue()[0].remaining());
+    assertTrue(pixels.getValue()[1].isDirect());
+
+    ArgumentCaptor<List> uploaded = ArgumentCaptor.forClass(List.class);
+    verify(callback).onIconsUploaded(uploaded.capture());
+    assertEquals(Arrays.asList(first, second), uploaded.getValue());
+    assertFalse(pipeline.isPending(first));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void uploadsIdenticalIconsOnce() {
+    Icon first = mockIcon("first", 2, 2, 1.0f);
+    Icon second = mockIcon("second", 2, 2, 1.0f);
+
+    pipeline.upload(first);
+    pipeline.upload(second);
+    pipeline.flush();
+
+    ArgumentCaptor<String[]> symbols = ArgumentCaptor.forClass(String[].class);
+    verify(nativeMapView).addAnnotationIcons(symbols.capture(), any(int[].class), any(float[].class),
+      any(ByteBuffer[].class));
+    assertTrue(Arrays.equals(new String[] {"first"}, symbols.getValue()));
+    ArgumentCaptor<List> uploaded = ArgumentCaptor.forClass(List.class);
+    verify(callback).onIconsUploaded(uploaded.capture());
+    assertEquals(Arrays.asList(first, second), uploaded.getValue());
+    assertEquals("first", registry.getImageId(second));
+    assertEquals(2 * 2 * 4, registry.getStatistics().getBytesSaved());
+  }
+
+  @Test
+  public void dropsCancelledIcons() {
+    Icon icon = mockIcon("cancelled", 1, 1, 1.0f);
+
+    pipeline.upload(icon);
+    pipeline.cancel(icon);
+    pipeline.flush();
+
+    verify(nativeMapView, never()).addAnnotationIcons(any(String[].class), any(int[].class),
+      any(float[].class), any(ByteBuffer[].class));
+    verify(callback, never()).onIconsUploaded(any(List.class));
+  }
+
+  @Test
+  public void uploadsIconOnce() {
+    Icon icon = mockIcon("icon", 1, 1, 1.0f);
+    Bitmap bitmap = icon.getBitmap();
+
+    pipeline.upload(icon);
+    pipeline.upload(icon);
+
+    verify(bitmap, times(1)).copyPixelsToBuffer(any(ByteBuffer.class));
+  }
+
+  private static Icon mockIcon(String id, int width, int height, float scale) {
+    Bitmap bitmap = mock(Bitmap.class);
+    when(bitmap.getWidth()).thenReturn(width);
+    when(bitmap.getHeight()).thenReturn(height);
+    when(bitmap.getRowBytes()).thenReturn(width * 4);
+    Icon icon = mock(Icon.class);
+    when(icon.getId()).thenReturn(id);
+    when(icon.getBitmap()).thenReturn(bitmap);
+    when(icon.getScale()).thenReturn(scale);
+    return icon;
+  }
+}
@@ -0,0 +1,202 @@
+package com.mapbox.mapboxsdk.maps;
+
+import android.view.Choreographer;
+
+import com.mapbox.mapboxsdk.annotations.Annotation;
+import com.mapbox.mapboxsdk.annotations.ClusterMarker;
+import com.mapbox.mapboxsdk.annotations.Marker;
+import com.mapbox.mapboxsdk.annotations.MarkerClusterOptions;
+import com.mapbox.mapboxsdk.annotations.MarkerOptions;
+import com.mapbox.mapboxsdk.geometry.LatLng;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MarkerClustererTest {
+
+  private NativeMapView nativeMapView;
+  private AnnotationRegistry registry;
+  private Choreographer choreographer;
+  private MarkerClusterer clusterer;
+  private List<List<Marker>> addedMarkers;
+  private long nextNativeId;
+
+  @Before
+  public void setUp() {
+    nativeMapView = mock(NativeMapView.class);
+    registry = new AnnotationRegistry();
+    choreographer = mock(Choreographer.class);
+    clusterer = new MarkerClusterer(nativeMapView, registry, mock(IconManager.class), choreographer);
+    clusterer.setOptions(new MarkerClusterOptions().withClusterRadius(50).withClusterMaxZoom(10));
+
+    addedMarkers = new ArrayList<>();
+    when(nativeMapView.addMarkers(ArgumentMatchers.<Marker>anyList())).thenAnswer(new Answer<long[]>() {
+      @Override
+      public long[] answer(InvocationOnMock invocation) {
+        List<Marker> markers = new ArrayList<>(invocation.<List<Marker>>getArgument(0));
+        addedMarkers.add(markers);
+        long[] ids = new long[markers.size()];
+        for (int i = 0; i < ids.length; i++) {
+          ids[i] = nextNativeId++;
+        }
+        return ids;
+      }
+    });
+  }
+
+  @Test
+  public void registersWithOwnIds() {
+    Marker marker = add(0, 0);
+
+    assertTrue(MarkerClusterer.isClustered(marker.getId()));
+    assertSame(marker, registry.get(marker.getId()));
+    assertTrue(clusterer.isClustering());
+  }
+
+  @Test
+  public void clustersInBulkOnNextFrame() {
+    Marker first = add(0, 0);
+    add(0.01, 0.01);
+    add(0.02, 0);
+    Marker far = add(40, 40);
+
+    verify(choreographer, times(1)).postFrameCallback(any(Choreographer.FrameCallback.class));
+    verify(nativeMapView, never()).addMarkers(ArgumentMatchers.<Marker>anyList());
+    clusterer.onFrame();
+
+    assertEquals(1, addedMarkers.size());
+    List<Marker> rendered = addedMarkers.get(0);
+    assertEquals(2, rendered.size());
+    assertTrue(rendered.contains(far));
+    assertFalse(rendered.contains(first));
+    ClusterMarker cluster = findCluster(rendered);
+    assertEquals(3, cluster.getCount());
+    assertTrue(clusterer.isDisplayed(far));
+    assertFalse(clusterer.isDisplayed(first));
+    assertSame(cluster, clusterer.getCluster(cluster.getId()));
+    // the marker keeps its own id while rendered under another one
+    assertTrue(MarkerClusterer.isClustered(far.getId()));
+  }
+
+  @Test
+  public void expandsOnZoom() {
+    add(0, 0);
+    add(0.01, 0.01);
+    clusterer.onFrame();
+    ClusterMarker cluster = findCluster(addedMarkers.get(0));
+
+    when(nativeMapView.getZoom()).thenReturn(12.0);
+    clusterer.onCameraIdle();
+
+    ArgumentCaptor<long[]> removed = ArgumentCaptor.forClass(long[].class);
+    verify(nativeMapView, times(1)).removeAnnotations(removed.capture());
+    assertTrue(Arrays.equals(new long[] {cluster.getId()}, removed.getValue()));
+    assertEquals(2, addedMarkers.get(1).size());
+    assertNull(clusterer.getCluster(cluster.getId()));
+  }
+
+  @Test
+  public void expansionZoom() {
+    // about 2.2 pixels apart at zoom 0, ~70 pixels at zoom 5
+    add(0, 0);
+    add(0, 1.5);
+    clusterer.onFrame();
+    ClusterMarker cluster = findCluster(addedMarkers.get(0));
+
+    int zoom = clusterer.getExpansionZoom(cluster);
+    when(nativeMapView.getZoom()).thenReturn((double) zoom - 1);
+    clusterer.onCameraIdle();
+    assertEquals(1, addedMarkers.get(addedMarkers.size() - 1).size());
+    when(nativeMapView.getZoom()).thenReturn((double) zoom);
+    clusterer.onCameraIdle();
+    assertEquals(2, addedMarkers.get(addedMarkers.size() - 1).size());
+  }
+
+  @Test
+  public void updatesCluster() {
+    add(0, 0);
+    Marker second = add(0.01, 0.01);
+    clusterer.onFrame();
+    ClusterMarker cluster = findCluster(addedMarkers.get(0));
+
+    clusterer.remove(second.getId());
+    clusterer.onFrame();
+
+    assertNull(registry.get(second.getId()));
+    ArgumentCaptor<long[]> removed = ArgumentCaptor.forClass(long[].class);
+    verify(nativeMapView, times(1)).removeAnnotations(removed.capture());
+    assertTrue(Arrays.equals(new long[] {cluster.getId()}, removed.getValue()));
+    // the remaining marker is displayed on its own
+    assertEquals(1, addedMarkers.get(1).size());
+    assertFalse(addedMarkers.get(1).get(0) instanceof ClusterMarker);
+  }
+
+  @Test
+  public void movesDisplayedMarker() {
+    Marker marker = add(0, 0);
+    clusterer.onFrame();
+
+    marker.setPosition(new LatLng(10, 10));
+    clusterer.update(marker);
+    clusterer.onFrame();
+
+    verify(nativeMapView, times(1)).removeAnnotations(ArgumentMatchers.any(long[].class));
+    assertEquals(Arrays.asList(marker), addedMarkers.get(1));
+  }
+
+  @Test
+  public void removesClusteredFromList() {
+    Marker marker = add(0, 0);
+    Marker other = new MarkerOptions().position(new LatLng()).getMarker();
+    other.setId(1);
+
+    List<? extends Annotation> others = clusterer.removeClustered(Arrays.asList(marker, other));
+    assertEquals(Arrays.asList(other), others);
+    assertFalse(clusterer.isClustering());
+  }
+
+  @Test
+  public void clearUpdatesMapRightAway() {
+    Marker marker = add(0, 0);
+    clusterer.onFrame();
+
+    clusterer.clear();
+    verify(nativeMapView, times(1)).removeAnnotations(ArgumentMatchers.any(long[].class));
+    assertNull(registry.get(marker.getId()));
+  }
+
+  private Marker add(double latitude, double longitude) {
+    Marker marker = new MarkerOptions().position(new LatLng(latitude, longitude)).getMarker();
+    clusterer.add(marker);
+    return marker;
+  }
+
+  private static ClusterMarker findCluster(List<Marker> markers) {
+    for (Marker marker : markers) {
+      if (marker instanceof ClusterMarker) {
+        return (ClusterMarker) marker;
+      }
+    }
+    throw new AssertionError("no cluster in " + markers);
+  }
+}
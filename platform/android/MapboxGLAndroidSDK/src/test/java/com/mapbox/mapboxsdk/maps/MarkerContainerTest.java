@@ -0,0 +1,45 @@
+package com.mapbox.mapboxsdk.maps;
+
+import com.mapbox.mapboxsdk.annotations.Marker;
+import com.mapbox.mapboxsdk.annotations.MarkerView;
+import com.mapbox.mapboxsdk.annotations.Polygon;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static junit.framework.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+
+public class MarkerContainerTest {
+
+  private AnnotationRegistry registry;
+  private MarkerContainer container;
+  private Marker first;
+  private Marker second;
+  private MarkerView markerView;
+
+  @Before
+  public void beforeTest() {
+    registry = new AnnotationRegistry();
+    container = new MarkerContainer(null, null, registry, null, null);
+    first = mock(Marker.class);
+    second = mock(Marker.class);
+    markerView = mock(MarkerView.class);
+    registry.put(1, first);
+    registry.put(2, mock(Polygon.class));
+    registry.put(3, markerView);
+    registry.put(4, second);
+  }
+
+  @Test
+  public void resolvesMarkersInQueryOrder() {
+    // unknown ids and shapes are skipped, markers found in several copies of the world are resolved once
+    long[] ids = {4, 2, 9, 1, 4, 3, 1};
+
+    assertEquals(Arrays.asList(second, first, markerView), container.resolveMarkers(ids));
+    assertEquals(Collections.singletonList(markerView), container.resolveMarkerViews(ids));
+  }
+}
@@ -0,0 +1,55 @@
+package com.mapbox.mapboxsdk.maps;
+
+import com.mapbox.mapboxsdk.geometry.LatLng;
+
+import org.junit.Test;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+public class MercatorQuadTest {
+
+  private static final double DELTA = 1e-9;
+
+  @Test
+  public void projectsCoordinates() {
+    assertEquals(0.5, MercatorQuad.projectX(0), DELTA);
+    assertEquals(1, MercatorQuad.projectX(180), DELTA);
+    assertEquals(0.5, MercatorQuad.projectY(0), DELTA);
+    assertEquals(0, MercatorQuad.projectY(90), DELTA);
+    assertEquals(1, MercatorQuad.projectY(-90), DELTA);
+  }
+
+  @Test
+  public void containsPointsOfRotatedQuad() {
+    // diamond around null island
+    MercatorQuad quad = new MercatorQuad(new LatLng[] {
+      new LatLng(10, 0), new LatLng(0, 10), new LatLng(-10, 0), new LatLng(0, -10)
+    });
+
+    assertTrue(quad.contains(MercatorQuad.projectX(0), MercatorQuad.projectY(0)));
+    assertTrue(quad.contains(MercatorQuad.projectX(4), MercatorQuad.projectY(4)));
+    assertFalse(quad.contains(MercatorQuad.projectX(8), MercatorQuad.projectY(8)));
+  }
+
+  @Test
+  public void intersectsShapes() {
+    MercatorQuad quad = new MercatorQuad(new LatLng[] {
+      new LatLng(1, -1), new LatLng(1, 1), new LatLng(-1, 1), new LatLng(-1, -1)
+    });
+
+    double[] crossing = {0, -5, 0, 5};
+    double[] outside = {5, -5, 5, 5};
+    assertTrue(quad.intersectsRings(new double[][] {crossing}, false, 0));
+    assertFalse(quad.intersectsRings(new double[][] {outside}, false, 0));
+
+    double[] around = {10, -10, 10, 10, -10, 10, -10, -10};
+    double[] hole = {5, -5, 5, 5, -5, 5, -5, -5};
+    double[][] polygon = {around};
+    assertFalse(quad.intersectsRings(polygon, true, 0));
+    assertTrue(quad.isInside(polygon, 0));
+    assertFalse(quad.isInside(new double[][] {around, hole}, 0));
+    assertFalse(quad.isInside(polygon, 1));
+  }
+}
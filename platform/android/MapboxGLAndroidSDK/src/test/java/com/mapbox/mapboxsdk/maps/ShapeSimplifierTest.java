@@ -0,0 +1,235 @@
+package com.mapbox.mapboxsdk.maps;
+
+import com.mapbox.mapboxsdk.annotations.Polygon;
+import com.mapbox.mapboxsdk.annotations.PolygonOptions;
+import com.mapbox.mapboxsdk.annotations.Polyline;
+import com.mapbox.mapboxsdk.annotations.PolylineOptions;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ShapeSimplifierTest {
+
+  private final Executor directExecutor = new Executor() {
+    @Override
+    public void execute(Runnable command) {
+      command.run();
+    }
+  };
+
+  private NativeMapView nativeMapView;
+  private AnnotationRegistry registry;
+  private ShapeSimplifier simplifier;
+  private List<Runnable> workerTasks;
+
+  @Before
+  public void setUp() {
+    nativeMapView = mock(NativeMapView.class);
+    registry = new AnnotationRegistry();
+    workerTasks = new ArrayList<>();
+    Executor worker = new Executor() {
+      @Override
+      public void execute(Runnable command) {
+        workerTasks.add(command);
+      }
+    };
+    simplifier = new ShapeSimplifier(nativeMapView, registry, worker, directExecutor);
+  }
+
+  @Test
+  public void tolerancesKeepEnds() {
+    double[] tolerances = ShapeSimplifier.computeTolerances(new double[] {0, 0, 0.001, 1, 0, 2, 1, 3});
+    assertEquals(Double.POSITIVE_INFINITY, tolerances[0]);
+    assertEquals(Double.POSITIVE_INFINITY, tolerances[3]);
+    assertTrue(tolerances[1] < tolerances[2]);
+  }
+
+  @Test
+  public void tolerancesNotAboveParent() {
+    // points around the spike are only tested once the spike is kept
+    double[] tolerances = ShapeSimplifier.computeTolerances(new double[] {0, 0, 0, 1, 0.5, 1.1, 10, 1.2, 0, 4});
+    assertTrue(tolerances[3] >= tolerances[2]);
+    assertTrue(tolerances[3] >= tolerances[1]);
+  }
+
+  @Test
+  public void simplifyKeepsMinimumPoints() {
+    double[] coordinates = new double[] {0, 0, 0.001, 1, 0, 2, 0.001, 3, 0, 4};
+    ShapeSimplifier.Simplification simplification =
+      new ShapeSimplifier.Simplification(coordinates, ShapeSimplifier.computeTolerances(coordinates), 2);
+    assertEquals(4, simplification.simplify(Double.MAX_VALUE).length);
+    assertNull(simplification.simplify(0));
+  }
+
+  @Test
+  public void simplifiesOnlyOptedIn() {
+    addPolyline(1, new PolylineOptions().addCoordinates(straightLine(100)));
+    assertTrue(workerTasks.isEmpty());
+  }
+
+  @Test
+  public void swapsLevelOnZoomChange() {
+    Polyline polyline = addPolyline(1, new PolylineOptions().addCoordinates(straightLine(100)).simplified(true));
+    runWorker();
+    verify(nativeMapView, times(1)).updatePolyline(polyline);
+
+    simplifier.onCameraIdle();
+    verify(nativeMapView, times(1)).updatePolyline(polyline);
+
+    // a straight line is simplified to its ends at any zoom level
+    when(nativeMapView.getZoom()).thenReturn(10.0);
+    simplifier.onCameraIdle();
+    verify(nativeMapView, times(1)).updatePolyline(polyline);
+  }
+
+  @Test
+  public void keepsPolygonRing() {
+    // a square with points along its sides
+    double[] square = new double[] {0, 0, 0, 0.5, 0, 1, 0.5, 1, 1, 1, 1, 0.5, 1, 0, 0.5, 0, 0, 0};
+    Polygon polygon = new PolygonOptions().addCoordinates(square).simplified(true).getPolygon();
+    polygon.setId(1);
+    registry.put(1, polygon);
+    simplifier.add(polygon);
+    runWorker();
+
+    ArgumentCaptor<Polygon> captor = ArgumentCaptor.forClass(Polygon.class);
+    verify(nativeMapView, times(1)).updatePolygon(captor.capture());
+    assertEquals(polygon, captor.getValue());
+    ShapeSimplifier.Simplification simplification =
+      new ShapeSimplifier.Simplification(square, ShapeSimplifier.computeTolerances(square), 4);
+    assertEquals(10, simplification.simplify(1).length);
+  }
+
+  @Test
+  public void extendMatchesSimplify() {
+    double tolerance = 0.02;
+    double[] coordinates = zigzag(0, 50);
+    ShapeSimplifier.Simplification simplification =
+      new ShapeSimplifier.Simplification(coordinates, ShapeSimplifier.computeTolerances(coordinates), 2);
+    double[] simplified = simplification.simplify(tolerance);
+    int next = 50;
+    for (int i = 0; i < 100; i++) {
+      int trimmed = i % 7 == 0 ? 3 : 0;
+      int appended = i % 50 == 0 ? 30 : i % 3;
+      simplified = simplification.extend(trimmed, zigzag(next, appended), tolerance, simplified);
+      next += appended;
+      assertTrue(Arrays.equals(simplification.simplify(tolerance), simplified));
+    }
+  }
+
+  @Test
+  public void extendsOnAppend() {
+    Polyline polyline = addPolyline(1, new PolylineOptions().addCoordinates(straightLine(100)).simplified(true));
+    runWorker();
+
+    polyline.appendPoints(new double[] {0, 1});
+    simplifier.update(polyline);
+    assertTrue(workerTasks.isEmpty());
+  }
+
+  @Test
+  public void sendsAppendedPointsWhenAllKept() {
+    Polyline polyline = addPolyline(1, new PolylineOptions().addCoordinates(zigzag(0, 10)).simplified(true));
+    runWorker();
+    polyline.onMapUpdated();
+
+    polyline.appendPoints(zigzag(10, 1));
+    simplifier.update(polyline);
+    assertTrue(workerTasks.isEmpty());
+    assertEquals(2, polyline.getAppendedCoordinates().length);
+  }
+
+  @Test
+  public void catchesUpAfterSimplifying() {
+    Polyline polyline = addPolyline(1, new PolylineOptions().addCoordinates(straightLine(100)).simplified(true));
+    polyline.appendPoints(new double[] {0, 1});
+    simplifier.update(polyline);
+    assertEquals(1, workerTasks.size());
+
+    runWorker();
+    assertTrue(workerTasks.isEmpty());
+    verify(nativeMapView, times(1)).updatePolyline(polyline);
+  }
+
+  @Test
+  public void rebuildsOnReplace() {
+    Polyline polyline = addPolyline(1, new PolylineOptions().addCoordinates(straightLine(100)).simplified(true));
+    runWorker();
+
+    polyline.setCoordinates(straightLine(50));
+    simplifier.update(polyline);
+    assertEquals(1, workerTasks.size());
+    // the map gets all points until simplified again
+    assertNull(polyline.getAppendedCoordinates());
+  }
+
+  @Test
+  public void forgetsRemovedShapes() {
+    addPolyline(1, new PolylineOptions().addCoordinates(straightLine(100)).simplified(true));
+    simplifier.remove(1);
+    runWorker();
+
+    verify(nativeMapView, never()).updatePolyline(any(Polyline.class));
+  }
+
+  @Test
+  public void dropsRemovedShapes() {
+    Polyline polyline = addPolyline(1, new PolylineOptions().addCoordinates(straightLine(100)).simplified(true));
+    registry.remove(1);
+    runWorker();
+
+    when(nativeMapView.getZoom()).thenReturn(10.0);
+    simplifier.onCameraIdle();
+    verify(nativeMapView, never()).updatePolyline(any(Polyline.class));
+  }
+
+  private Polyline addPolyline(long id, PolylineOptions options) {
+    Polyline polyline = options.getPolyline();
+    polyline.setId(id);
+    registry.put(id, polyline);
+    simplifier.add(polyline);
+    return polyline;
+  }
+
+  private void runWorker() {
+    List<Runnable> tasks = new ArrayList<>(workerTasks);
+    workerTasks.clear();
+    for (Runnable task : tasks) {
+      task.run();
+    }
+  }
+
+  private static double[] straightLine(int points) {
+    double[] coordinates = new double[points * 2];
+    for (int i = 0; i < points; i++) {
+      coordinates[i * 2] = 0;
+      coordinates[i * 2 + 1] = i * 0.01;
+    }
+    return coordinates;
+  }
+
+  private static double[] zigzag(int first, int points) {
+    double[] coordinates = new double[points * 2];
+    for (int i = 0; i < points; i++) {
+      coordinates[i * 2] = ((first + i) % 2 * 2 - 1) * (5 + 4 * Math.sin(first + i));
+      coordinates[i * 2 + 1] = first + i - 180;
+    }
+    return coordinates;
+  }
+}
@@ -0,0 +1,140 @@
+package com.mapbox.mapboxsdk.style.sources;
+
+import android.support.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static junit.framework.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class GeoJsonUpdaterTest {
+
+  private final QueueExecutor worker = new QueueExecutor();
+  private final QueueExecutor mainThread = new QueueExecutor();
+  private GeoJsonUpdater.Target target;
+  private GeoJsonUpdater updater;
+  private int conversions;
+
+  @Before
+  public void beforeTest() {
+    target = mock(GeoJsonUpdater.Target.class);
+    when(target.isAlive()).thenReturn(true);
+    updater = new GeoJsonUpdater(target, worker, mainThread);
+  }
+
+  @Test
+  public void setsConvertedData() {
+    GeoJsonSource.UpdateCallback callback = mock(GeoJsonSource.UpdateCallback.class);
+    updater.update(conversion(7), callback);
+    worker.run();
+    verify(target, never()).setConverted(7);
+
+    mainThread.run();
+    verify(target).setConverted(7);
+    verify(callback).onFinish();
+  }
+
+  @Test
+  public void skipsConversionOfSupersededUpdate() {
+    GeoJsonSource.UpdateCallback first = mock(GeoJsonSource.UpdateCallback.class);
+    GeoJsonSource.UpdateCallback second = mock(GeoJsonSource.UpdateCallback.class);
+    updater.update(conversion(1), first);
+    updater.update(conversion(2), second);
+    worker.run();
+    mainThread.run();
+
+    assertEquals(1, conversions);
+    verify(target, never()).setConverted(1);
+    verify(target).setConverted(2);
+    verify(first).onCancel();
+    verify(second).onFinish();
+  }
+
+  @Test
+  public void releasesDataSupersededWhileConverting() {
+    GeoJsonSource.UpdateCallback callback = mock(GeoJsonSource.UpdateCallback.class);
+    updater.update(conversion(3), callback);
+    worker.run();
+    updater.supersede();
+    mainThread.run();
+
+    verify(target, never()).setConverted(3);
+    verify(target).releaseConverted(3);
+    verify(callback).onCancel();
+  }
+
+  @Test
+  public void cancelsFailedConversion() {
+    GeoJsonSource.UpdateCallback callback = mock(GeoJsonSource.UpdateCallback.class);
+    updater.update(conversion(0), callback);
+    worker.run();
+    mainThread.run();
+
+    verify(target, never()).setConverted(0);
+    verify(target, never()).releaseConverted(0);
+    verify(callback).onCancel();
+  }
+
+  @Test
+  public void cancelsThrowingConversion() {
+    GeoJsonSource.UpdateCallback callback = mock(GeoJsonSource.UpdateCallback.class);
+    updater.update(new GeoJsonUpdater.Conversion() {
+      @Override
+      public long convert() {
+        throw new IllegalStateException();
+      }
+    }, callback);
+    worker.run();
+    mainThread.run();
+
+    verify(target, never()).setConverted(anyLong());
+    verify(callback).onCancel();
+  }
+
+  @Test
+  public void releasesDataOfDeadTarget() {
+    GeoJsonSource.UpdateCallback callback = mock(GeoJsonSource.UpdateCallback.class);
+    updater.update(conversion(4), callback);
+    worker.run();
+    when(target.isAlive()).thenReturn(false);
+    mainThread.run();
+
+    verify(target, never()).setConverted(4);
+    verify(target).releaseConverted(4);
+    verify(callback).onCancel();
+  }
+
+  private GeoJsonUpdater.Conversion conversion(final long handle) {
+    return new GeoJsonUpdater.Conversion() {
+      @Override
+      public long convert() {
+        conversions++;
+        return handle;
+      }
+    };
+  }
+
+  private static class QueueExecutor implements Executor {
+    private final List<Runnable> queue = new ArrayList<>();
+
+    @Override
+    public void execute(@NonNull Runnable command) {
+      queue.add(command);
+    }
+
+    void run() {
+      while (!queue.isEmpty()) {
+        queue.remove(0).run();
+      }
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package com.mapbox.mapboxsdk.style.sources;
+
+import android.support.annotation.Nullable;
+
+import com.mapbox.geojson.Feature;
+import com.mapbox.geojson.FeatureCollection;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertTrue;
+
+public class GeometryTileBatchTest {
+
+  private final RecordingCallback callback = new RecordingCallback();
+  private final GeometryTileBatch batch = new GeometryTileBatch(
+    new long[] {TileKey.pack(12, 4095, 17), TileKey.pack(3, 1, 2)}, new int[] {1, 2}, callback);
+
+  @Test
+  public void tiles() {
+    assertEquals(2, batch.size());
+    assertEquals(12, batch.getZoomLevel(0));
+    assertEquals(4095, batch.getX(0));
+    assertEquals(17, batch.getY(0));
+    assertEquals(3, batch.getZoomLevel(1));
+    assertEquals(1, batch.getX(1));
+    assertEquals(2, batch.getY(1));
+  }
+
+  @Test
+  public void deliversEachTileOnce() {
+    FeatureCollection data = FeatureCollection.fromFeatures(new ArrayList<Feature>());
+    batch.setTileData(1, data);
+    batch.setTileData(1, data);
+
+    assertEquals(1, callback.tokens.size());
+    assertEquals(2, (int) callback.tokens.get(0));
+    assertEquals(data, callback.data.get(0));
+  }
+
+  @Test
+  public void closeFinishesUndeliveredTiles() {
+    FeatureCollection data = FeatureCollection.fromFeatures(new ArrayList<Feature>());
+    batch.setTileData(0, data);
+    batch.close();
+    batch.setTileData(1, data);
+
+    assertEquals(2, callback.tokens.size());
+    assertEquals(2, (int) callback.tokens.get(1));
+    assertNull(callback.data.get(1));
+  }
+
+  @Test
+  public void cancelled() {
+    callback.cancelledToken = 2;
+    assertFalse(batch.isCancelled(0));
+    assertTrue(batch.isCancelled(1));
+  }
+
+  private static class RecordingCallback implements GeometryTileBatch.Callback {
+    final List<Integer> tokens = new ArrayList<>();
+    final List<FeatureCollection> data = new ArrayList<>();
+    int cancelledToken;
+
+    @Override
+    public boolean isCancelled(long key, int token) {
+      return token == cancelledToken;
+    }
+
+    @Override
+    public void onTileData(long key, int token, @Nullable FeatureCollection data) {
+      tokens.add(token);
+      this.data.add(data);
+    }
+  }
+}
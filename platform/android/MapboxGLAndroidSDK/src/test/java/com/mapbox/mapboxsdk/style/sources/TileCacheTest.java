@@ -0,0 +1,126 @@
+package com.mapbox.mapboxsdk.style.sources;
+
+import com.mapbox.geojson.Feature;
+import com.mapbox.geojson.FeatureCollection;
+import com.mapbox.geojson.LineString;
+import com.mapbox.geojson.Point;
+import com.mapbox.mapboxsdk.geometry.LatLngBounds;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
+
+public class TileCacheTest {
+
+  @Test
+  public void estimatesSizeFromPoints() {
+    long pointSize = TileCache.estimateSize(line(2)) - TileCache.estimateSize(line(1));
+
+    assertEquals(10 * pointSize, TileCache.estimateSize(line(11)) - TileCache.estimateSize(line(1)));
+    assertEquals(0, TileCache.estimateSize(FeatureCollection.fromFeatures(new ArrayList<Feature>())));
+  }
+
+  @Test
+  public void servesHits() {
+    TileCache cache = new TileCache(Long.MAX_VALUE);
+    FeatureCollection data = line(2);
+    cache.put(tile(1, 0, 0), data, cache.getGeneration());
+
+    assertSame(data, cache.get(tile(1, 0, 0)));
+    assertNull(cache.get(tile(1, 1, 0)));
+    TileCacheStatistics statistics = cache.getStatistics();
+    assertEquals(1, statistics.getHitCount());
+    assertEquals(1, statistics.getMissCount());
+    assertEquals(0.5, statistics.getHitRate());
+    assertEquals(1, statistics.getTileCount());
+    assertEquals(TileCache.estimateSize(data), statistics.getSize());
+  }
+
+  @Test
+  public void evictsLeastRecentlyUsed() {
+    FeatureCollection data = line(2);
+    TileCache cache = new TileCache(TileCache.estimateSize(data) * 2);
+    cache.put(tile(1, 0, 0), data, cache.getGeneration());
+    cache.put(tile(1, 1, 0), data, cache.getGeneration());
+    cache.get(tile(1, 0, 0));
+    cache.put(tile(1, 0, 1), data, cache.getGeneration());
+
+    assertNotNull(cache.get(tile(1, 0, 0)));
+    assertNull(cache.get(tile(1, 1, 0)));
+    assertNotNull(cache.get(tile(1, 0, 1)));
+    assertEquals(2, cache.getStatistics().getTileCount());
+  }
+
+  @Test
+  public void skipsFeaturesComputedBeforeInvalidation() {
+    TileCache cache = new TileCache(Long.MAX_VALUE);
+    int generation = cache.getGeneration();
+    cache.remove(tile(1, 0, 0));
+    cache.put(tile(1, 0, 0), line(2), generation);
+
+    assertNull(cache.get(tile(1, 0, 0)));
+  }
+
+  @Test
+  public void keepsFeaturesOfOtherTilesOnInvalidation() {
+    TileCache cache = new TileCache(Long.MAX_VALUE);
+    int generation = cache.getGeneration();
+    cache.remove(tile(1, 0, 0));
+    cache.removeIntersecting(LatLngBounds.from(20, -10, 10, -20));
+    cache.put(tile(1, 1, 1), line(2), generation);
+    cache.put(tile(2, 1, 1), line(2), generation);
+
+    assertNotNull(cache.get(tile(1, 1, 1)));
+    assertNull(cache.get(tile(2, 1, 1)));
+  }
+
+  @Test
+  public void skipsFeaturesComputedBeforeForgottenInvalidations() {
+    TileCache cache = new TileCache(Long.MAX_VALUE);
+    int generation = cache.getGeneration();
+    for (int i = 0; i < 100; i++) {
+      cache.remove(tile(10, i, 0));
+    }
+    cache.put(tile(1, 1, 1), line(2), generation);
+
+    assertNull(cache.get(tile(1, 1, 1)));
+  }
+
+  @Test
+  public void invalidatesRegionAtAllZoomLevels() {
+    TileCache cache = new TileCache(Long.MAX_VALUE);
+    FeatureCollection data = line(2);
+    // north west quarter of the world and the tiles within it
+    cache.put(tile(1, 0, 0), data, cache.getGeneration());
+    cache.put(tile(2, 1, 1), data, cache.getGeneration());
+    // south east quarter
+    cache.put(tile(1, 1, 1), data, cache.getGeneration());
+    cache.put(tile(2, 3, 3), data, cache.getGeneration());
+
+    cache.removeIntersecting(LatLngBounds.from(20, -10, 10, -20));
+
+    assertNull(cache.get(tile(1, 0, 0)));
+    assertNull(cache.get(tile(2, 1, 1)));
+    assertNotNull(cache.get(tile(1, 1, 1)));
+    assertNotNull(cache.get(tile(2, 3, 3)));
+  }
+
+  private static long tile(int z, int x, int y) {
+    return TileKey.pack(z, x, y);
+  }
+
+  private static FeatureCollection line(int points) {
+    List<Point> coordinates = new ArrayList<>();
+    for (int i = 0; i < points; i++) {
+      coordinates.add(Point.fromLngLat(i, 0));
+    }
+    return FeatureCollection.fromFeatures(Arrays.asList(Feature.fromGeometry(LineString.fromLngLats(coordinates))));
+  }
+}
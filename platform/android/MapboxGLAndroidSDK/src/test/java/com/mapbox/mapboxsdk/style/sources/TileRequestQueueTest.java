@@ -0,0 +1,188 @@
+package com.mapbox.mapboxsdk.style.sources;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+public class TileRequestQueueTest {
+
+  private final TileRequestQueue queue = new TileRequestQueue();
+
+  @Test
+  public void packsTileKeys() {
+    int[][] tiles = {{0, 0, 0}, {1, 1, 0}, {1, 0, 1}, {12, 4095, 17}, {31, Integer.MAX_VALUE, Integer.MAX_VALUE}};
+    List<Long> keys = new ArrayList<>();
+    for (int[] tile : tiles) {
+      long key = TileKey.pack(tile[0], tile[1], tile[2]);
+      assertEquals(tile[0], TileKey.zoom(key));
+      assertEquals(tile[1], TileKey.x(key));
+      assertEquals(tile[2], TileKey.y(key));
+      assertFalse(keys.contains(key));
+      keys.add(key);
+    }
+  }
+
+  @Test
+  public void newestFirstWithinZoom() {
+    add(5, 0, 0);
+    add(5, 1, 0);
+    add(5, 2, 0);
+
+    assertEquals(Arrays.asList("5/2/0", "5/1/0", "5/0/0"), drain());
+  }
+
+  @Test
+  public void currentZoomFirst() {
+    add(4, 0, 0);
+    add(5, 0, 0);
+    add(6, 0, 0);
+    add(6, 1, 0);
+    add(5, 1, 0);
+
+    // zoom 5 was requested last, the other zoom levels follow newest first
+    assertEquals(Arrays.asList("5/1/0", "5/0/0", "6/1/0", "6/0/0", "4/0/0"), drain());
+  }
+
+  @Test
+  public void pollsAllByPriority() {
+    add(4, 0, 0);
+    add(5, 0, 0);
+    add(5, 1, 0);
+
+    long[] keys = queue.pollAll();
+    assertEquals(3, keys.length);
+    assertEquals(TileKey.pack(5, 1, 0), keys[0]);
+    assertEquals(TileKey.pack(5, 0, 0), keys[1]);
+    assertEquals(TileKey.pack(4, 0, 0), keys[2]);
+    assertEquals(0, queue.size());
+    assertEquals(0, queue.pollAll().length);
+  }
+
+  @Test
+  public void removesCancelled() {
+    add(5, 0, 0);
+    add(5, 1, 0);
+
+    assertTrue(queue.cancel(TileKey.pack(5, 0, 0)));
+    assertFalse(queue.cancel(TileKey.pack(5, 0, 0)));
+    assertEquals(1, queue.size());
+    assertEquals(1, queue.getTrackedCount());
+    assertEquals(Arrays.asList("5/1/0"), drain());
+  }
+
+  @Test
+  public void keepsOrderAcrossCancelledBursts() {
+    List<String> expected = new ArrayList<>();
+    for (int x = 0; x < 16; x++) {
+      add(10, x, 0);
+    }
+    // leaves holes below the newest request, compacted once the stack is full
+    for (int x = 0; x < 15; x++) {
+      if (x % 8 != 0) {
+        assertTrue(queue.cancel(TileKey.pack(10, x, 0)));
+      }
+    }
+    for (int x = 16; x < 40; x++) {
+      add(10, x, 0);
+    }
+    for (int x = 39; x >= 0; x--) {
+      if (x >= 15 || x % 8 == 0) {
+        expected.add("10/" + x + "/0");
+      }
+    }
+
+    assertEquals(expected.size(), queue.size());
+    assertEquals(expected, drain());
+  }
+
+  @Test
+  public void replacesPendingRequestForTile() {
+    add(5, 0, 0);
+    add(5, 1, 0);
+    add(5, 0, 0);
+
+    assertEquals(2, queue.size());
+    assertEquals(Arrays.asList("5/0/0", "5/1/0"), drain());
+  }
+
+  @Test
+  public void dropsResultOfCancelledRunningRequest() {
+    long key = TileKey.pack(5, 0, 0);
+    queue.add(key);
+    assertEquals(key, queue.poll());
+    int token = queue.getToken(key);
+
+    assertFalse(queue.cancel(key));
+    assertFalse(queue.finish(key, token));
+    assertEquals(0, queue.getTrackedCount());
+  }
+
+  @Test
+  public void dropsResultOfRequestedAgain() {
+    long key = TileKey.pack(5, 0, 0);
+    queue.add(key);
+    queue.poll();
+    int token = queue.getToken(key);
+
+    // requested again while running, only the newer request delivers
+    queue.add(key);
+    assertFalse(queue.finish(key, token));
+    assertEquals(key, queue.poll());
+    assertTrue(queue.finish(key, queue.getToken(key)));
+    assertEquals(0, queue.getTrackedCount());
+  }
+
+  @Test
+  public void retainsNothingAfterCancelledBursts() {
+    Random random = new Random(0);
+    for (int burst = 0; burst < 100; burst++) {
+      long[] keys = new long[64];
+      for (int i = 0; i < keys.length; i++) {
+        int z = 10 + random.nextInt(8);
+        keys[i] = TileKey.pack(z, random.nextInt(1 << z), random.nextInt(1 << z));
+        queue.add(keys[i]);
+      }
+      // the camera moved on, every other tile of the burst is cancelled before a thread picks it up
+      for (int i = 0; i < keys.length; i += 2) {
+        queue.cancel(keys[i]);
+      }
+      drain();
+
+      assertEquals(0, queue.size());
+      assertEquals(0, queue.getTrackedCount());
+    }
+  }
+
+  @Test
+  public void clear() {
+    add(5, 0, 0);
+    add(6, 0, 0);
+    queue.clear();
+
+    assertEquals(0, queue.size());
+    assertEquals(0, queue.getTrackedCount());
+    assertEquals(TileRequestQueue.NONE, queue.poll());
+  }
+
+  private void add(int z, int x, int y) {
+    queue.add(TileKey.pack(z, x, y));
+  }
+
+  private List<String> drain() {
+    List<String> ran = new ArrayList<>();
+    long key;
+    while ((key = queue.poll()) != TileRequestQueue.NONE) {
+      assertTrue(queue.finish(key, queue.getToken(key)));
+      ran.add(TileKey.zoom(key) + "/" + TileKey.x(key) + "/" + TileKey.y(key));
+    }
+    assertEquals(0, queue.getTrackedCount());
+    return ran;
+  }
+}
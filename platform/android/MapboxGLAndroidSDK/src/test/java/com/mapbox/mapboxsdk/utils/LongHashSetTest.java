@@ -0,0 +1,39 @@
+package com.mapbox.mapboxsdk.utils;
+
+import org.junit.Test;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+public class LongHashSetTest {
+
+  @Test
+  public void addsValuesOnce() {
+    LongHashSet set = new LongHashSet();
+    assertTrue(set.add(3));
+    assertFalse(set.add(3));
+    assertTrue(set.add(Long.MIN_VALUE));
+    assertTrue(set.add(0));
+    assertEquals(3, set.size());
+    assertTrue(set.contains(Long.MIN_VALUE));
+    assertFalse(set.contains(4));
+  }
+
+  @Test
+  public void growsAndClears() {
+    LongHashSet set = new LongHashSet();
+    for (long value = 0; value < 1000; value++) {
+      set.add(value * 31);
+    }
+    assertEquals(1000, set.size());
+    for (long value = 0; value < 1000; value++) {
+      assertTrue(set.contains(value * 31));
+      assertFalse(set.contains(value * 31 + 1));
+    }
+
+    set.clear();
+    assertEquals(0, set.size());
+    assertFalse(set.contains(0));
+  }
+}
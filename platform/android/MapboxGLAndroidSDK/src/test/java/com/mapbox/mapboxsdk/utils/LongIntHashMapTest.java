@@ -0,0 +1,49 @@
+package com.mapbox.mapboxsdk.utils;
+
+import org.junit.Test;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+public class LongIntHashMapTest {
+
+  @Test
+  public void putsAndReplaces() {
+    LongIntHashMap map = new LongIntHashMap();
+    map.put(3, 1);
+    map.put(3, 2);
+    map.put(Long.MIN_VALUE, 3);
+    assertEquals(2, map.size());
+    assertEquals(2, map.get(3, -1));
+    assertEquals(3, map.get(Long.MIN_VALUE, -1));
+    assertEquals(-1, map.get(4, -1));
+    assertFalse(map.containsKey(4));
+  }
+
+  @Test
+  public void removesWithinProbeChains() {
+    LongIntHashMap map = new LongIntHashMap();
+    for (long key = 0; key < 1000; key++) {
+      map.put(key * 31, (int) key);
+    }
+    for (long key = 0; key < 1000; key += 2) {
+      assertTrue(map.remove(key * 31));
+    }
+    assertFalse(map.remove(0));
+
+    assertEquals(500, map.size());
+    for (long key = 0; key < 1000; key++) {
+      assertEquals(key % 2 == 0 ? -1 : (int) key, map.get(key * 31, -1));
+    }
+  }
+
+  @Test
+  public void clears() {
+    LongIntHashMap map = new LongIntHashMap();
+    map.put(1, 1);
+    map.clear();
+    assertEquals(0, map.size());
+    assertFalse(map.containsKey(1));
+  }
+}
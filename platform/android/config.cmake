@@ -223,6 +223,7 @@ add_library(mbgl-android STATIC
     # Java core classes
     platform/android/src/java/lang.cpp
     platform/android/src/java/lang.hpp
+    platform/android/src/java/nio.hpp
     platform/android/src/java/util.cpp
     platform/android/src/java/util.hpp
 
@@ -1,10 +1,11 @@
 #pragma once
 
+#include <mbgl/util/geometry.hpp>
 #include <mbgl/util/noncopyable.hpp>
 #include <jni/jni.hpp>
 
-#include "../geometry/lat_lng.hpp"
-#include "../java/util.hpp"
+#include <algorithm>
+#include <vector>
 
 namespace mbgl {
 namespace android {
@@ -13,27 +14,32 @@ class MultiPoint : protected mbgl::util::noncopyable {
 
 protected:
 
+  /**
+   * Convert coordinates packed as latitude and longitude pairs, starting at the given point.
+   * The array is read as a ring buffer, points past its end wrap around to its start.
+   */
   template <class Geometry>
-  static Geometry toGeometry(JNIEnv& env, jni::Object<java::util::List> pointsList) {
-      NullCheck(env, &pointsList);
-      auto jarray = java::util::List::toArray<LatLng>(env, pointsList);
-      NullCheck(env, &jarray);
-
-      std::size_t size = jarray.Length(env);
+  static Geometry toGeometry(JNIEnv& env, jni::Array<jni::jdouble> jcoordinates,
+                             std::size_t start, std::size_t count) {
+      NullCheck(env, &jcoordinates);
+      std::size_t capacity = jcoordinates.Length(env) / 2;
+
+      std::vector<jni::jdouble> coordinates(count * 2);
+      if (count > 0) {
+          std::size_t head = std::min(count, capacity - start);
+          jni::GetArrayRegion(env, *jcoordinates, start * 2, head * 2, coordinates.data());
+          if (head < count) {
+              jni::GetArrayRegion(env, *jcoordinates, 0, (count - head) * 2, coordinates.data() + head * 2);
+          }
+      }
 
       Geometry geometry;
-      geometry.reserve(size);
-
-      for (std::size_t i = 0; i < size; i++) {
-          auto latLng = jarray.Get(env, i);
-          NullCheck(env, &latLng);
-
-          geometry.push_back(LatLng::getGeometry(env, latLng));
+      geometry.reserve(count);
 
-          jni::DeleteLocalRef(env, latLng);
+      for (std::size_t i = 0; i < count; i++) {
+          geometry.push_back(mbgl::Point<double>(coordinates[i * 2 + 1], coordinates[i * 2]));
       }
 
-      jni::DeleteLocalRef(env, jarray);
       return geometry;
   }
 };
@@ -8,38 +8,75 @@ namespace android {
 jni::Class<Polygon> Polygon::javaClass;
 
 mbgl::FillAnnotation Polygon::toAnnotation(jni::JNIEnv& env, jni::Object<Polygon> polygon) {
-    auto points = Polygon::getPoints(env, polygon);
-    auto holes = Polygon::getHoles(env, polygon);
-
-    mbgl::Polygon<double> geometry { MultiPoint::toGeometry<mbgl::LinearRing<double>>(env, points) };
-
-    auto jHoleListsArray = java::util::List::toArray<java::util::List>(env, holes);
-    std::size_t jHoleListsSize = jHoleListsArray.Length(env);
-    for (std::size_t i = 0; i < jHoleListsSize; i++) {
-        auto jHoleList = jHoleListsArray.Get(env, i);
-        geometry.push_back(MultiPoint::toGeometry<mbgl::LinearRing<double>>(env, jHoleList));
-        jni::DeleteLocalRef(env, jHoleList);
+    auto holeCoordinates = Polygon::getHoleCoordinates(env, polygon);
+    auto holePointCounts = Polygon::getHolePointCounts(env, polygon);
+
+    mbgl::Polygon<double> geometry { Polygon::getGeometry(env, polygon) };
+
+    // Holes are packed one after the other
+    NullCheck(env, &holePointCounts);
+    std::vector<jni::jint> counts(holePointCounts.Length(env));
+    holePointCounts.GetRegion<std::vector<jni::jint>>(env, 0, counts);
+    std::size_t offset = 0;
+    for (jni::jint count : counts) {
+        geometry.push_back(MultiPoint::toGeometry<mbgl::LinearRing<double>>(env, holeCoordinates, offset, count));
+        offset += count;
     }
-    jni::DeleteLocalRef(env, jHoleListsArray);
 
     mbgl::FillAnnotation annotation { geometry };
     annotation.opacity = { Polygon::getOpacity(env, polygon) };
     annotation.color = { Polygon::getFillColor(env, polygon) };
     annotation.outlineColor = { Polygon::getOutlineColor(env, polygon) };
 
-    jni::DeleteLocalRef(env, points);
-    jni::DeleteLocalRef(env, holes);
+    jni::DeleteLocalRef(env, holeCoordinates);
+    jni::DeleteLocalRef(env, holePointCounts);
 
     return annotation;
 }
 
-jni::Object<java::util::List> Polygon::getPoints(jni::JNIEnv& env, jni::Object<Polygon> polygon) {
-    static auto field = Polygon::javaClass.GetField<jni::Object<java::util::List>>(env, "points");
+mbgl::LinearRing<double> Polygon::getGeometry(jni::JNIEnv& env, jni::Object<Polygon> polygon) {
+    // Simplified points replace the whole ring buffer when set
+    auto rendered = Polygon::getRenderedCoordinates(env, polygon);
+    if (rendered.Get() != nullptr) {
+        auto geometry = MultiPoint::toGeometry<mbgl::LinearRing<double>>(env, rendered, 0, rendered.Length(env) / 2);
+        jni::DeleteLocalRef(env, rendered);
+        return geometry;
+    }
+
+    auto coordinates = Polygon::getCoordinates(env, polygon);
+    auto geometry = MultiPoint::toGeometry<mbgl::LinearRing<double>>(
+        env, coordinates, Polygon::getFirstPoint(env, polygon), Polygon::getPointCount(env, polygon));
+    jni::DeleteLocalRef(env, coordinates);
+    return geometry;
+}
+
+jni::Array<jni::jdouble> Polygon::getRenderedCoordinates(jni::JNIEnv& env, jni::Object<Polygon> polygon) {
+    static auto field = Polygon::javaClass.GetField<jni::Array<jni::jdouble>>(env, "renderedCoordinates");
+    return polygon.Get(env, field);
+}
+
+jni::Array<jni::jdouble> Polygon::getCoordinates(jni::JNIEnv& env, jni::Object<Polygon> polygon) {
+    static auto field = Polygon::javaClass.GetField<jni::Array<jni::jdouble>>(env, "coordinates");
+    return polygon.Get(env, field);
+}
+
+jni::jint Polygon::getPointCount(jni::JNIEnv& env, jni::Object<Polygon> polygon) {
+    static auto field = Polygon::javaClass.GetField<jni::jint>(env, "pointCount");
+    return polygon.Get(env, field);
+}
+
+jni::jint Polygon::getFirstPoint(jni::JNIEnv& env, jni::Object<Polygon> polygon) {
+    static auto field = Polygon::javaClass.GetField<jni::jint>(env, "firstPoint");
+    return polygon.Get(env, field);
+}
+
+jni::Array<jni::jdouble> Polygon::getHoleCoordinates(jni::JNIEnv& env, jni::Object<Polygon> polygon) {
+    static auto field = Polygon::javaClass.GetField<jni::Array<jni::jdouble>>(env, "holeCoordinates");
     return polygon.Get(env, field);
 }
 
-jni::Object<java::util::List> Polygon::getHoles(jni::JNIEnv& env, jni::Object<Polygon> polygon) {
-    static auto field = Polygon::javaClass.GetField<jni::Object<java::util::List>>(env, "holes");
+jni::Array<jni::jint> Polygon::getHolePointCounts(jni::JNIEnv& env, jni::Object<Polygon> polygon) {
+    static auto field = Polygon::javaClass.GetField<jni::Array<jni::jint>>(env, "holePointCounts");
     return polygon.Get(env, field);
 }
 
@@ -26,9 +26,19 @@ public:
 
 private:
 
-    static jni::Object<java::util::List> getPoints(jni::JNIEnv&, jni::Object<Polygon>);
+    static mbgl::LinearRing<double> getGeometry(jni::JNIEnv&, jni::Object<Polygon>);
 
-    static jni::Object<java::util::List> getHoles(jni::JNIEnv&, jni::Object<Polygon>);
+    static jni::Array<jni::jdouble> getRenderedCoordinates(jni::JNIEnv&, jni::Object<Polygon>);
+
+    static jni::Array<jni::jdouble> getCoordinates(jni::JNIEnv&, jni::Object<Polygon>);
+
+    static jni::jint getPointCount(jni::JNIEnv&, jni::Object<Polygon>);
+
+    static jni::jint getFirstPoint(jni::JNIEnv&, jni::Object<Polygon>);
+
+    static jni::Array<jni::jdouble> getHoleCoordinates(jni::JNIEnv&, jni::Object<Polygon>);
+
+    static jni::Array<jni::jint> getHolePointCounts(jni::JNIEnv&, jni::Object<Polygon>);
 
     static float getOpacity(jni::JNIEnv&, jni::Object<Polygon>);
 
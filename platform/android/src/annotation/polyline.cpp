@@ -8,20 +8,47 @@ namespace android {
 jni::Class<Polyline> Polyline::javaClass;
 
 mbgl::LineAnnotation Polyline::toAnnotation(jni::JNIEnv& env, jni::Object<Polyline> polyline) {
-    auto points = Polyline::getPoints(env, polyline);
-
-    mbgl::LineAnnotation annotation { MultiPoint::toGeometry<mbgl::LineString<double>>(env, points) };
+    mbgl::LineAnnotation annotation { Polyline::getGeometry(env, polyline) };
     annotation.opacity = { Polyline::getOpacity(env, polyline) };
     annotation.color = { Polyline::getColor(env, polyline) };
     annotation.width = { Polyline::getWidth(env, polyline) };
 
-    jni::DeleteLocalRef(env, points);
-
     return annotation;
 }
 
-jni::Object<java::util::List> Polyline::getPoints(jni::JNIEnv& env, jni::Object<Polyline> polyline) {
-    static auto field = Polyline::javaClass.GetField<jni::Object<java::util::List>>(env, "points");
+mbgl::LineString<double> Polyline::getGeometry(jni::JNIEnv& env, jni::Object<Polyline> polyline) {
+    // Simplified points replace the whole ring buffer when set
+    auto rendered = Polyline::getRenderedCoordinates(env, polyline);
+    if (rendered.Get() != nullptr) {
+        auto geometry = MultiPoint::toGeometry<mbgl::LineString<double>>(env, rendered, 0, rendered.Length(env) / 2);
+        jni::DeleteLocalRef(env, rendered);
+        return geometry;
+    }
+
+    auto coordinates = Polyline::getCoordinates(env, polyline);
+    auto geometry = MultiPoint::toGeometry<mbgl::LineString<double>>(
+        env, coordinates, Polyline::getFirstPoint(env, polyline), Polyline::getPointCount(env, polyline));
+    jni::DeleteLocalRef(env, coordinates);
+    return geometry;
+}
+
+jni::Array<jni::jdouble> Polyline::getRenderedCoordinates(jni::JNIEnv& env, jni::Object<Polyline> polyline) {
+    static auto field = Polyline::javaClass.GetField<jni::Array<jni::jdouble>>(env, "renderedCoordinates");
+    return polyline.Get(env, field);
+}
+
+jni::Array<jni::jdouble> Polyline::getCoordinates(jni::JNIEnv& env, jni::Object<Polyline> polyline) {
+    static auto field = Polyline::javaClass.GetField<jni::Array<jni::jdouble>>(env, "coordinates");
+    return polyline.Get(env, field);
+}
+
+jni::jint Polyline::getPointCount(jni::JNIEnv& env, jni::Object<Polyline> polyline) {
+    static auto field = Polyline::javaClass.GetField<jni::jint>(env, "pointCount");
+    return polyline.Get(env, field);
+}
+
+jni::jint Polyline::getFirstPoint(jni::JNIEnv& env, jni::Object<Polyline> polyline) {
+    static auto field = Polyline::javaClass.GetField<jni::jint>(env, "firstPoint");
     return polyline.Get(env, field);
 }
 
@@ -26,7 +26,15 @@ public:
 
 private:
 
-    static jni::Object<java::util::List> getPoints(jni::JNIEnv&, jni::Object<Polyline>);
+    static mbgl::LineString<double> getGeometry(jni::JNIEnv&, jni::Object<Polyline>);
+
+    static jni::Array<jni::jdouble> getRenderedCoordinates(jni::JNIEnv&, jni::Object<Polyline>);
+
+    static jni::Array<jni::jdouble> getCoordinates(jni::JNIEnv&, jni::Object<Polyline>);
+
+    static jni::jint getPointCount(jni::JNIEnv&, jni::Object<Polyline>);
+
+    static jni::jint getFirstPoint(jni::JNIEnv&, jni::Object<Polyline>);
 
     static float getOpacity(jni::JNIEnv&, jni::Object<Polyline>);
 
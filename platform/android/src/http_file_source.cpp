@@ -3,13 +3,16 @@
 #include <mbgl/storage/response.hpp>
 #include <mbgl/util/logging.hpp>
 
-#include <mbgl/util/async_task.hpp>
+#include <mbgl/actor/actor_ref.hpp>
+#include <mbgl/actor/mailbox.hpp>
+#include <mbgl/actor/scheduler.hpp>
 #include <mbgl/util/util.hpp>
 #include <mbgl/util/string.hpp>
 #include <mbgl/util/http_header.hpp>
 
 #include <jni/jni.hpp>
 #include "attach_env.hpp"
+#include "java/nio.hpp"
 
 namespace mbgl {
 
@@ -18,12 +21,18 @@ public:
     android::UniqueEnv env { android::AttachEnv() };
 };
 
-class HTTPRequest : public AsyncRequest {
+using android::java::nio::ByteBuffer;
+
+class HTTPRequest;
+
+// Native peer of the Java HTTPRequest, translating its callbacks into a Response for the owning request.
+// The peer lives apart from HTTPRequest so that cancelling never waits for a delivery in progress: when
+// the request is destroyed mid-delivery, the Java side releases the peer once the delivery returns.
+class HTTPRequestPeer {
 public:
     static constexpr auto Name() { return "com/mapbox/mapboxsdk/http/HTTPRequest"; };
 
-    HTTPRequest(jni::JNIEnv&, const Resource&, FileSource::Callback);
-    ~HTTPRequest();
+    HTTPRequestPeer(Resource::Kind, ActorRef<HTTPRequest>);
 
     void onFailure(jni::JNIEnv&, int type, jni::String message);
     void onResponse(jni::JNIEnv&, int code,
@@ -31,46 +40,66 @@ public:
                     jni::String cacheControl, jni::String expires,
                     jni::String retryAfter, jni::String xRateLimitReset,
                     jni::Array<jni::jbyte> body);
+    void onBufferResponse(jni::JNIEnv&, int code,
+                          jni::String etag, jni::String modified,
+                          jni::String cacheControl, jni::String expires,
+                          jni::String retryAfter, jni::String xRateLimitReset,
+                          jni::Object<ByteBuffer> body, jni::jint length);
+    void release(jni::JNIEnv&);
 
-    static jni::Class<HTTPRequest> javaClass;
-    jni::UniqueObject<HTTPRequest> javaRequest;
+    static jni::Class<HTTPRequestPeer> javaClass;
 
 private:
-    Resource resource;
-    FileSource::Callback callback;
-    Response response;
+    void handleResponse(jni::JNIEnv&, int code,
+                        jni::String etag, jni::String modified,
+                        jni::String cacheControl, jni::String expires,
+                        jni::String retryAfter, jni::String xRateLimitReset,
+                        std::shared_ptr<const std::string> data);
 
-    util::AsyncTask async { [this] {
-        // Calling `callback` may result in deleting `this`. Copy data to temporaries first.
-        auto callback_ = callback;
-        auto response_ = response;
-        callback_(response_);
-    } };
+    const Resource::Kind kind;
+    ActorRef<HTTPRequest> request;
 
     static const int connectionError = 0;
     static const int temporaryError = 1;
     static const int permanentError = 2;
 };
 
-jni::Class<HTTPRequest> HTTPRequest::javaClass;
+class HTTPRequest : public AsyncRequest {
+public:
+    HTTPRequest(jni::JNIEnv&, const Resource&, FileSource::Callback);
+    ~HTTPRequest();
+
+    void onResponse(const Response&);
+
+private:
+    FileSource::Callback callback;
+    std::shared_ptr<Mailbox> mailbox;
+    HTTPRequestPeer* peer;
+    jni::UniqueObject<HTTPRequestPeer> javaRequest;
+};
+
+jni::Class<HTTPRequestPeer> HTTPRequestPeer::javaClass;
 
 namespace android {
 
 void RegisterNativeHTTPRequest(jni::JNIEnv& env) {
-    HTTPRequest::javaClass = *jni::Class<HTTPRequest>::Find(env).NewGlobalRef(env).release();
+    HTTPRequestPeer::javaClass = *jni::Class<HTTPRequestPeer>::Find(env).NewGlobalRef(env).release();
 
     #define METHOD(MethodPtr, name) jni::MakeNativePeerMethod<decltype(MethodPtr), (MethodPtr)>(name)
 
-    jni::RegisterNativePeer<HTTPRequest>(env, HTTPRequest::javaClass, "nativePtr",
-        METHOD(&HTTPRequest::onFailure, "nativeOnFailure"),
-        METHOD(&HTTPRequest::onResponse, "nativeOnResponse"));
+    jni::RegisterNativePeer<HTTPRequestPeer>(env, HTTPRequestPeer::javaClass, "nativePtr",
+        METHOD(&HTTPRequestPeer::onFailure, "nativeOnFailure"),
+        METHOD(&HTTPRequestPeer::onResponse, "nativeOnResponse"),
+        METHOD(&HTTPRequestPeer::onBufferResponse, "nativeOnResponse"),
+        METHOD(&HTTPRequestPeer::release, "nativeRelease"));
 }
 
 } // namespace android
 
-HTTPRequest::HTTPRequest(jni::JNIEnv& env, const Resource& resource_, FileSource::Callback callback_)
-    : resource(resource_),
-      callback(callback_) {
+HTTPRequest::HTTPRequest(jni::JNIEnv& env, const Resource& resource, FileSource::Callback callback_)
+    : callback(callback_),
+      mailbox(std::make_shared<Mailbox>(*Scheduler::GetCurrent())),
+      peer(new HTTPRequestPeer(resource.kind, ActorRef<HTTPRequest>(*this, mailbox))) {
     std::string etagStr;
     std::string modifiedStr;
 
@@ -83,31 +112,85 @@ HTTPRequest::HTTPRequest(jni::JNIEnv& env, const Resource& resource_, FileSource
     jni::UniqueLocalFrame frame = jni::PushLocalFrame(env, 10);
 
     static auto constructor =
-        javaClass.GetConstructor<jni::jlong, jni::String, jni::String, jni::String>(env);
+        HTTPRequestPeer::javaClass.GetConstructor<jni::jlong, jni::String, jni::String, jni::String, jni::jint>(env);
 
-    javaRequest = javaClass.New(env, constructor,
-        reinterpret_cast<jlong>(this),
+    javaRequest = HTTPRequestPeer::javaClass.New(env, constructor,
+        reinterpret_cast<jlong>(peer),
         jni::Make<jni::String>(env, resource.url),
         jni::Make<jni::String>(env, etagStr),
-        jni::Make<jni::String>(env, modifiedStr)).NewGlobalRef(env);
+        jni::Make<jni::String>(env, modifiedStr),
+        jni::jint(resource.kind)).NewGlobalRef(env);
 }
 
 HTTPRequest::~HTTPRequest() {
+    // Drop responses that are still on their way, deliveries in progress won't reach us anymore.
+    mailbox->close();
+
     android::UniqueEnv env = android::AttachEnv();
 
-    static auto cancel = javaClass.GetMethod<void ()>(*env, "cancel");
+    static auto cancel = HTTPRequestPeer::javaClass.GetMethod<jni::jboolean ()>(*env, "cancel");
 
-    javaRequest->Call(*env, cancel);
+    if (javaRequest->Call(*env, cancel)) {
+        delete peer;
+    }
+    // Otherwise a delivery is in progress and the Java request releases the peer once it returns.
 }
 
-void HTTPRequest::onResponse(jni::JNIEnv& env, int code,
-                             jni::String etag, jni::String modified,
-                             jni::String cacheControl, jni::String expires,
-                             jni::String jRetryAfter, jni::String jXRateLimitReset,
-                             jni::Array<jni::jbyte> body) {
+void HTTPRequest::onResponse(const Response& response) {
+    // Calling `callback` may result in deleting `this`. Copy data to temporaries first.
+    auto callback_ = callback;
+    auto response_ = response;
+    callback_(response_);
+}
+
+HTTPRequestPeer::HTTPRequestPeer(Resource::Kind kind_, ActorRef<HTTPRequest> request_)
+    : kind(kind_),
+      request(std::move(request_)) {
+}
+
+void HTTPRequestPeer::release(jni::JNIEnv&) {
+    delete this;
+}
+
+void HTTPRequestPeer::onResponse(jni::JNIEnv& env, int code,
+                                 jni::String etag, jni::String modified,
+                                 jni::String cacheControl, jni::String expires,
+                                 jni::String jRetryAfter, jni::String jXRateLimitReset,
+                                 jni::Array<jni::jbyte> body) {
+    std::shared_ptr<std::string> data;
+    if (code == 200 && body) {
+        data = std::make_shared<std::string>(body.Length(env), char());
+        jni::GetArrayRegion(env, *body, 0, data->size(), reinterpret_cast<jbyte*>(&(*data)[0]));
+    }
+
+    handleResponse(env, code, etag, modified, cacheControl, expires, jRetryAfter, jXRateLimitReset, std::move(data));
+}
+
+void HTTPRequestPeer::onBufferResponse(jni::JNIEnv& env, int code,
+                                       jni::String etag, jni::String modified,
+                                       jni::String cacheControl, jni::String expires,
+                                       jni::String jRetryAfter, jni::String jXRateLimitReset,
+                                       jni::Object<ByteBuffer> body, jni::jint length) {
+    std::shared_ptr<std::string> data;
+    if (code == 200 && body) {
+        // Read straight out of the direct buffer, the Java side recycles it once we return.
+        auto address = reinterpret_cast<const char*>(ByteBuffer::getDirectAddress(env, body));
+        data = std::make_shared<std::string>(address, static_cast<std::size_t>(length));
+    }
+
+    handleResponse(env, code, etag, modified, cacheControl, expires, jRetryAfter, jXRateLimitReset, std::move(data));
+}
+
+void HTTPRequestPeer::handleResponse(jni::JNIEnv& env, int code,
+                                     jni::String etag, jni::String modified,
+                                     jni::String cacheControl, jni::String expires,
+                                     jni::String jRetryAfter, jni::String jXRateLimitReset,
+                                     std::shared_ptr<const std::string> data) {
 
     using Error = Response::Error;
 
+    Response response;
+
     if (etag) {
         response.etag = jni::Make<std::string>(env, etag);
     }
@@ -127,14 +210,12 @@ void HTTPRequest::onResponse(jni::JNIEnv& env, int code,
     }
 
     if (code == 200) {
-        if (body) {
-            auto data = std::make_shared<std::string>(body.Length(env), char());
-            jni::GetArrayRegion(env, *body, 0, data->size(), reinterpret_cast<jbyte*>(&(*data)[0]));
-            response.data = data;
+        if (data) {
+            response.data = std::move(data);
         } else {
             response.data = std::make_shared<std::string>();
         }
-    } else if (code == 204 || (code == 404 && resource.kind == Resource::Kind::Tile)) {
+    } else if (code == 204 || (code == 404 && kind == Resource::Kind::Tile)) {
         response.noContent = true;
     } else if (code == 304) {
         response.notModified = true;
@@ -156,14 +237,16 @@ void HTTPRequest::onResponse(jni::JNIEnv& env, int code,
         response.error = std::make_unique<Error>(Error::Reason::Other, std::string{ "HTTP status code " } + std::to_string(code));
     }
 
-    async.send();
+    request.invoke(&HTTPRequest::onResponse, response);
 }
 
-void HTTPRequest::onFailure(jni::JNIEnv& env, int type, jni::String message) {
+void HTTPRequestPeer::onFailure(jni::JNIEnv& env, int type, jni::String message) {
     std::string messageStr = jni::Make<std::string>(env, message);
 
     using Error = Response::Error;
 
+    Response response;
+
     switch (type) {
         case connectionError:
             response.error = std::make_unique<Error>(Error::Reason::Connection, messageStr);
@@ -175,7 +258,7 @@ void HTTPRequest::onFailure(jni::JNIEnv& env, int type, jni::String message) {
             response.error = std::make_unique<Error>(Error::Reason::Other, messageStr);
     }
 
-    async.send();
+    request.invoke(&HTTPRequest::onResponse, response);
 }
 
 HTTPFileSource::HTTPFileSource()
@@ -189,7 +272,9 @@ std::unique_ptr<AsyncRequest> HTTPFileSource::request(const Resource& resource,
 }
 
 uint32_t HTTPFileSource::maximumConcurrentRequests() {
-    return 20;
+    // The Java side starts 20 requests at a time, ordered by resource kind. Hand over more
+    // than that so it can pick style, sprite and glyph requests ahead of tiles.
+    return 64;
 }
 
 } // namespace mbgl
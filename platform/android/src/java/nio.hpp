@@ -0,0 +1,24 @@
+#pragma once
+
+#include <jni/jni.hpp>
+#include <mbgl/util/noncopyable.hpp>
+
+namespace mbgl {
+namespace android {
+namespace java {
+namespace nio {
+
+class ByteBuffer : private mbgl::util::noncopyable {
+public:
+    static constexpr auto Name() { return "java/nio/ByteBuffer"; };
+
+    // Address of the first byte of a direct buffer, the buffer must outlive its use.
+    static const uint8_t* getDirectAddress(jni::JNIEnv& env, jni::Object<ByteBuffer> buffer) {
+        return reinterpret_cast<const uint8_t*>(jni::GetDirectBufferAddress(env, *buffer.Get()));
+    }
+};
+
+} // namespace nio
+} // namespace java
+} // namespace android
+} // namespace mbgl
@@ -1,5 +1,6 @@
 #include "native_map_view.hpp"
 
+#include <algorithm>
 #include <cstdlib>
 #include <ctime>
 #include <cassert>
@@ -428,6 +429,33 @@ void NativeMapView::updateMarker(jni::JNIEnv& env, jni::jlong markerId, jni::jdo
     map->updateAnnotation(markerId, mbgl::SymbolAnnotation { mbgl::Point<double>(lon, lat), iconId });
 }
 
+void NativeMapView::updateMarkers(jni::JNIEnv& env, jni::Array<jni::jlong> jids, jni::Array<jni::jdouble> jpositions,
+                                  jni::Array<jni::String> jiconIds) {
+    jni::NullCheck(env, &jids);
+    jni::NullCheck(env, &jpositions);
+    jni::NullCheck(env, &jiconIds);
+    std::size_t len = jids.Length(env);
+
+    std::vector<jni::jlong> ids(len);
+    jids.GetRegion<std::vector<jni::jlong>>(env, 0, ids);
+    // Latitudes and longitudes are interleaved
+    std::vector<jni::jdouble> positions(len * 2);
+    jpositions.GetRegion<std::vector<jni::jdouble>>(env, 0, positions);
+
+    for (std::size_t i = 0; i < len; i++) {
+        if (ids[i] == -1) {
+            continue;
+        }
+
+        jni::String jiconId = jiconIds.Get(env, i);
+        map->updateAnnotation(ids[i], mbgl::SymbolAnnotation {
+            mbgl::Point<double>(positions[i * 2 + 1], positions[i * 2]),
+            jni::Make<std::string>(env, jiconId)
+        });
+        jni::DeleteLocalRef(env, jiconId);
+    }
+}
+
 jni::Array<jni::jlong> NativeMapView::addMarkers(jni::JNIEnv& env, jni::Array<jni::Object<Marker>> jmarkers) {
     jni::NullCheck(env, &jmarkers);
     std::size_t len = jmarkers.Length(env);
@@ -493,6 +521,25 @@ jni::Object<PointF> NativeMapView::pixelForLatLng(JNIEnv& env, jdouble latitude,
     return PointF::New(env, static_cast<float>(pixel.x), static_cast<float>(pixel.y));
 }
 
+void NativeMapView::pixelsForLatLngs(JNIEnv& env, jni::Array<jni::jdouble> jlatLngs, jni::Array<jni::jfloat> jpixels,
+                                     jni::jint count, jni::jfloat pixelRatio) {
+    jni::NullCheck(env, &jlatLngs);
+    jni::NullCheck(env, &jpixels);
+    std::size_t len = count;
+
+    // Latitudes and longitudes are interleaved, as are the resulting x and y
+    std::vector<jni::jdouble> latLngs(len * 2);
+    jlatLngs.GetRegion<std::vector<jni::jdouble>>(env, 0, latLngs);
+
+    std::vector<jni::jfloat> pixels(len * 2);
+    for (std::size_t i = 0; i < len; i++) {
+        mbgl::ScreenCoordinate pixel = map->pixelForLatLng(mbgl::LatLng(latLngs[i * 2], latLngs[i * 2 + 1]));
+        pixels[i * 2] = static_cast<float>(pixel.x) * pixelRatio;
+        pixels[i * 2 + 1] = static_cast<float>(pixel.y) * pixelRatio;
+    }
+    jpixels.SetRegion<std::vector<jni::jfloat>>(env, 0, pixels);
+}
+
 jni::Object<LatLng> NativeMapView::latLngForPixel(JNIEnv& env, jfloat x, jfloat y) {
     return LatLng::New(env, map->latLngForPixel(mbgl::ScreenCoordinate(x, y)));
 }
@@ -543,9 +590,39 @@ jni::Array<jlong> NativeMapView::addPolygons(JNIEnv& env, jni::Array<jni::Object
 }
 
 //TODO: Move to Polyline class and make native peer
-void NativeMapView::updatePolyline(JNIEnv& env, jlong polylineId, jni::Object<Polyline> polyline) {
+void NativeMapView::updatePolyline(JNIEnv& env, jlong polylineId, jni::Object<Polyline> polyline,
+                                   jni::jboolean retain) {
     mbgl::LineAnnotation annotation = Polyline::toAnnotation(env, polyline);
     map->updateAnnotation(polylineId, annotation);
+    if (retain) {
+        lineAnnotations[polylineId] = std::move(annotation);
+    } else {
+        lineAnnotations.erase(polylineId);
+    }
+}
+
+jni::jboolean NativeMapView::updatePolylinePoints(JNIEnv& env, jlong polylineId,
+                                                  jni::Array<jni::jdouble> jcoordinates, jni::jint trimmed) {
+    auto it = lineAnnotations.find(polylineId);
+    if (it == lineAnnotations.end()) {
+        return false;
+    }
+
+    NullCheck(env, &jcoordinates);
+    std::size_t len = jcoordinates.Length(env) / 2;
+    std::vector<jni::jdouble> coordinates(len * 2);
+    jcoordinates.GetRegion<std::vector<jni::jdouble>>(env, 0, coordinates);
+
+    // Latitudes and longitudes are interleaved
+    auto& line = it->second.geometry.get<mbgl::LineString<double>>();
+    line.erase(line.begin(), line.begin() + std::min<std::size_t>(trimmed, line.size()));
+    line.reserve(line.size() + len);
+    for (std::size_t i = 0; i < len; i++) {
+        line.emplace_back(coordinates[i * 2 + 1], coordinates[i * 2]);
+    }
+
+    map->updateAnnotation(polylineId, it->second);
+    return true;
 }
 
 //TODO: Move to Polygon class and make native peer
@@ -565,6 +642,7 @@ void NativeMapView::removeAnnotations(JNIEnv& env, jni::Array<jlong> ids) {
           continue;
         }
         map->removeAnnotation(jids[i]);
+        lineAnnotations.erase(jids[i]);
     }
 }
 
@@ -584,6 +662,41 @@ void NativeMapView::addAnnotationIcon(JNIEnv& env, jni::String symbol, jint w, j
         symbolName, std::move(premultipliedImage), float(scale)));
 }
 
+void NativeMapView::addAnnotationIcons(JNIEnv& env, jni::Array<jni::String> jsymbols, jni::Array<jni::jint> jsizes,
+                                       jni::Array<jni::jfloat> jscales,
+                                       jni::Array<jni::Object<java::nio::ByteBuffer>> jpixels) {
+    NullCheck(env, &jsymbols);
+    NullCheck(env, &jsizes);
+    NullCheck(env, &jscales);
+    NullCheck(env, &jpixels);
+    std::size_t len = jsymbols.Length(env);
+
+    // Widths and heights are interleaved
+    std::vector<jni::jint> sizes(len * 2);
+    jsizes.GetRegion<std::vector<jni::jint>>(env, 0, sizes);
+    std::vector<jni::jfloat> scales(len);
+    jscales.GetRegion<std::vector<jni::jfloat>>(env, 0, scales);
+
+    for (std::size_t i = 0; i < len; i++) {
+        jni::String jsymbol = jsymbols.Get(env, i);
+        jni::Object<java::nio::ByteBuffer> jbuffer = jpixels.Get(env, i);
+
+        mbgl::PremultipliedImage premultipliedImage({ static_cast<uint32_t>(sizes[i * 2]),
+                                                      static_cast<uint32_t>(sizes[i * 2 + 1]) });
+        if (static_cast<std::size_t>(jni::GetDirectBufferCapacity(env, *jbuffer.Get())) < premultipliedImage.bytes()) {
+            throw mbgl::util::SpriteImageException("Sprite image pixel count mismatch");
+        }
+        std::copy_n(java::nio::ByteBuffer::getDirectAddress(env, jbuffer), premultipliedImage.bytes(),
+                    premultipliedImage.data.get());
+
+        map->addAnnotationImage(std::make_unique<mbgl::style::Image>(
+            jni::Make<std::string>(env, jsymbol), std::move(premultipliedImage), float(scales[i])));
+
+        jni::DeleteLocalRef(env, jsymbol);
+        jni::DeleteLocalRef(env, jbuffer);
+    }
+}
+
 void NativeMapView::removeAnnotationIcon(JNIEnv& env, jni::String symbol) {
     const std::string symbolName = jni::Make<std::string>(env, symbol);
     map->removeAnnotationImage(symbolName);
@@ -997,6 +1110,7 @@ void NativeMapView::registerNative(jni::JNIEnv& env) {
             METHOD(&NativeMapView::scheduleSnapshot, "nativeTakeSnapshot"),
             METHOD(&NativeMapView::getCameraPosition, "nativeGetCameraPosition"),
             METHOD(&NativeMapView::updateMarker, "nativeUpdateMarker"),
+            METHOD(&NativeMapView::updateMarkers, "nativeUpdateMarkers"),
             METHOD(&NativeMapView::addMarkers, "nativeAddMarkers"),
             METHOD(&NativeMapView::setDebug, "nativeSetDebug"),
             METHOD(&NativeMapView::cycleDebugOptions, "nativeCycleDebugOptions"),
@@ -1006,14 +1120,17 @@ void NativeMapView::registerNative(jni::JNIEnv& env) {
             METHOD(&NativeMapView::getMetersPerPixelAtLatitude, "nativeGetMetersPerPixelAtLatitude"),
             METHOD(&NativeMapView::projectedMetersForLatLng, "nativeProjectedMetersForLatLng"),
             METHOD(&NativeMapView::pixelForLatLng, "nativePixelForLatLng"),
+            METHOD(&NativeMapView::pixelsForLatLngs, "nativePixelsForLatLngs"),
             METHOD(&NativeMapView::latLngForProjectedMeters, "nativeLatLngForProjectedMeters"),
             METHOD(&NativeMapView::latLngForPixel, "nativeLatLngForPixel"),
             METHOD(&NativeMapView::addPolylines, "nativeAddPolylines"),
             METHOD(&NativeMapView::addPolygons, "nativeAddPolygons"),
             METHOD(&NativeMapView::updatePolyline, "nativeUpdatePolyline"),
+            METHOD(&NativeMapView::updatePolylinePoints, "nativeUpdatePolylinePoints"),
             METHOD(&NativeMapView::updatePolygon, "nativeUpdatePolygon"),
             METHOD(&NativeMapView::removeAnnotations, "nativeRemoveAnnotations"),
             METHOD(&NativeMapView::addAnnotationIcon, "nativeAddAnnotationIcon"),
+            METHOD(&NativeMapView::addAnnotationIcons, "nativeAddAnnotationIcons"),
             METHOD(&NativeMapView::removeAnnotationIcon, "nativeRemoveAnnotationIcon"),
             METHOD(&NativeMapView::getTopOffsetPixelsForAnnotationSymbol, "nativeGetTopOffsetPixelsForAnnotationSymbol"),
             METHOD(&NativeMapView::getTransitionDuration, "nativeGetTransitionDuration"),
@@ -25,9 +25,11 @@
 #include "map/image.hpp"
 #include "style/light.hpp"
 #include "bitmap.hpp"
+#include "java/nio.hpp"
 
 #include <exception>
 #include <string>
+#include <unordered_map>
 #include <jni.h>
 #include <android/native_window.h>
 #include <EGL/egl.h>
@@ -150,6 +152,8 @@ public:
 
     void updateMarker(jni::JNIEnv&, jni::jlong, jni::jdouble, jni::jdouble, jni::String);
 
+    void updateMarkers(jni::JNIEnv&, jni::Array<jni::jlong>, jni::Array<jni::jdouble>, jni::Array<jni::String>);
+
     jni::Array<jni::jlong> addMarkers(jni::JNIEnv&, jni::Array<jni::Object<Marker>>);
 
     void onLowMemory(JNIEnv& env);
@@ -168,6 +172,8 @@ public:
 
     jni::Object<PointF> pixelForLatLng(JNIEnv&, jdouble, jdouble);
 
+    void pixelsForLatLngs(JNIEnv&, jni::Array<jni::jdouble>, jni::Array<jni::jfloat>, jni::jint, jni::jfloat);
+
     jni::Object<LatLng> latLngForProjectedMeters(JNIEnv&, jdouble, jdouble);
 
     jni::Object<LatLng> latLngForPixel(JNIEnv&, jfloat, jfloat);
@@ -176,7 +182,9 @@ public:
 
     jni::Array<jlong> addPolygons(JNIEnv&, jni::Array<jni::Object<Polygon>>);
 
-    void updatePolyline(JNIEnv&, jlong, jni::Object<Polyline>);
+    void updatePolyline(JNIEnv&, jlong, jni::Object<Polyline>, jni::jboolean);
+
+    jni::jboolean updatePolylinePoints(JNIEnv&, jlong, jni::Array<jni::jdouble>, jni::jint);
 
     void updatePolygon(JNIEnv&, jlong, jni::Object<Polygon>);
 
@@ -184,6 +192,9 @@ public:
 
     void addAnnotationIcon(JNIEnv&, jni::String, jint, jint, jfloat, jni::Array<jbyte>);
 
+    void addAnnotationIcons(JNIEnv&, jni::Array<jni::String>, jni::Array<jni::jint>, jni::Array<jni::jfloat>,
+                            jni::Array<jni::Object<java::nio::ByteBuffer>>);
+
     void removeAnnotationIcon(JNIEnv&, jni::String);
 
     jni::jdouble getTopOffsetPixelsForAnnotationSymbol(JNIEnv&, jni::String);
@@ -266,6 +277,11 @@ private:
     int width = 64;
     int height = 64;
 
+    // Polylines updated at their ends, as last sent to the map. mbgl::Map::updateAnnotation takes the whole
+    // geometry and doesn't expose the one it holds, so appended points and trimmed heads are applied to this
+    // copy instead of converting the whole geometry from Java again. Only polylines updated that way are kept.
+    std::unordered_map<jlong, mbgl::LineAnnotation> lineAnnotations;
+
     // Ensure these are initialised last
     std::shared_ptr<mbgl::ThreadPool> threadPool;
     std::unique_ptr<mbgl::Map> map;
@@ -101,6 +101,48 @@ namespace android {
         source.as<mbgl::style::GeoJSONSource>()->GeoJSONSource::setURL(jni::Make<std::string>(env, url));
     }
 
+    // The convert methods run on a worker thread and aren't bound to the peer. The converted
+    // GeoJSON is owned by the Java peer until it is set or released on the UI thread.
+
+    jni::jlong GeoJSONSource::convertGeoJSONString(jni::JNIEnv& env, jni::Object<GeoJSONSource>, jni::String json) {
+        using namespace mbgl::style::conversion;
+
+        Error error;
+        optional<GeoJSON> converted = convert<GeoJSON>(mbgl::android::Value(env, json), error);
+        if(!converted) {
+            mbgl::Log::Error(mbgl::Event::JNI, "Error setting geo json: " + error.message);
+            return 0;
+        }
+        return reinterpret_cast<jni::jlong>(new GeoJSON(std::move(*converted)));
+    }
+
+    jni::jlong GeoJSONSource::convertFeatureCollection(jni::JNIEnv& env, jni::Object<GeoJSONSource>,
+                                                       jni::Object<geojson::FeatureCollection> jFeatures) {
+        auto features = geojson::FeatureCollection::convert(env, jFeatures);
+        return reinterpret_cast<jni::jlong>(new GeoJSON(std::move(features)));
+    }
+
+    jni::jlong GeoJSONSource::convertFeature(jni::JNIEnv& env, jni::Object<GeoJSONSource>, jni::Object<geojson::Feature> jFeature) {
+        auto feature = geojson::Feature::convert(env, jFeature);
+        return reinterpret_cast<jni::jlong>(new GeoJSON(std::move(feature)));
+    }
+
+    jni::jlong GeoJSONSource::convertGeometry(jni::JNIEnv& env, jni::Object<GeoJSONSource>, jni::Object<geojson::Geometry> jGeometry) {
+        auto geometry = geojson::Geometry::convert(env, jGeometry);
+        return reinterpret_cast<jni::jlong>(new GeoJSON(std::move(geometry)));
+    }
+
+    void GeoJSONSource::setConvertedGeoJSON(jni::JNIEnv&, jni::jlong handle) {
+        std::unique_ptr<GeoJSON> geoJSON(reinterpret_cast<GeoJSON*>(handle));
+
+        // Update the core source
+        source.as<mbgl::style::GeoJSONSource>()->GeoJSONSource::setGeoJSON(*geoJSON);
+    }
+
+    void GeoJSONSource::releaseConvertedGeoJSON(jni::JNIEnv&, jni::Object<GeoJSONSource>, jni::jlong handle) {
+        delete reinterpret_cast<GeoJSON*>(handle);
+    }
+
     jni::String GeoJSONSource::getURL(jni::JNIEnv& env) {
         optional<std::string> url = source.as<mbgl::style::GeoJSONSource>()->GeoJSONSource::getURL();
         return url ? jni::Make<jni::String>(env, *url) : jni::String();
@@ -142,9 +184,22 @@ namespace android {
             METHOD(&GeoJSONSource::setFeature, "nativeSetFeature"),
             METHOD(&GeoJSONSource::setGeometry, "nativeSetGeometry"),
             METHOD(&GeoJSONSource::setURL, "nativeSetUrl"),
+            METHOD(&GeoJSONSource::setConvertedGeoJSON, "nativeSetConvertedGeoJson"),
             METHOD(&GeoJSONSource::getURL, "nativeGetUrl"),
             METHOD(&GeoJSONSource::querySourceFeatures, "querySourceFeatures")
         );
+
+        #define STATIC_METHOD(Method, name) jni::MakeNativeMethod<decltype(Method), &Method>(name)
+
+        // Register the methods that don't need the peer
+        jni::RegisterNatives(
+            env, GeoJSONSource::javaClass,
+            STATIC_METHOD(GeoJSONSource::convertGeoJSONString, "nativeConvertGeoJsonString"),
+            STATIC_METHOD(GeoJSONSource::convertFeatureCollection, "nativeConvertFeatureCollection"),
+            STATIC_METHOD(GeoJSONSource::convertFeature, "nativeConvertFeature"),
+            STATIC_METHOD(GeoJSONSource::convertGeometry, "nativeConvertGeometry"),
+            STATIC_METHOD(GeoJSONSource::releaseConvertedGeoJSON, "nativeReleaseConvertedGeoJson")
+        );
     }
 
 } // namespace android
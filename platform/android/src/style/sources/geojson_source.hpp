@@ -35,6 +35,21 @@ public:
 
     void setURL(jni::JNIEnv&, jni::String);
 
+    void setConvertedGeoJSON(jni::JNIEnv&, jni::jlong);
+
+    // Not bound to the peer, which may be destroyed with the map meanwhile
+
+    static jni::jlong convertGeoJSONString(jni::JNIEnv&, jni::Object<GeoJSONSource>, jni::String);
+
+    static jni::jlong convertFeatureCollection(jni::JNIEnv&, jni::Object<GeoJSONSource>,
+                                               jni::Object<geojson::FeatureCollection>);
+
+    static jni::jlong convertFeature(jni::JNIEnv&, jni::Object<GeoJSONSource>, jni::Object<geojson::Feature>);
+
+    static jni::jlong convertGeometry(jni::JNIEnv&, jni::Object<GeoJSONSource>, jni::Object<geojson::Geometry>);
+
+    static void releaseConvertedGeoJSON(jni::JNIEnv&, jni::Object<GeoJSONSource>, jni::jlong);
+
     jni::Array<jni::Object<geojson::Feature>> querySourceFeatures(jni::JNIEnv&,
                                                                   jni::Array<jni::Object<>> jfilter);
 